@@ -3,6 +3,8 @@ package com.example.demo;
 import com.example.demo.data.dto.security.LoginRequest;
 import com.example.demo.data.dto.security.LoginResponse;
 import com.example.demo.data.dto.security.RefreshResponse;
+import com.example.demo.util.StatementCounter;
+import com.example.demo.util.StatementCountingConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ssl.SslBundles;
@@ -10,6 +12,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -24,11 +27,13 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import static com.example.demo.util.TestConstants.*;
 import static com.example.demo.utils.security.SecurityConstants.BEARER_AUTHORIZATION;
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
 @ActiveProfiles("test")
 @Testcontainers
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@Import(StatementCountingConfig.class)
 public abstract class BaseTest {
 
     protected String accessToken;
@@ -37,6 +42,9 @@ public abstract class BaseTest {
     @Autowired
     protected TestRestTemplate rest;
 
+    @Autowired
+    protected StatementCounter statementCounter;
+
     protected void loginAsRoot() {
         login(ROOT_USERNAME, ROOT_PASSWORD);
     }
@@ -72,6 +80,7 @@ public abstract class BaseTest {
         }
 
         accessToken = response.getBody().accessToken();
+        refreshToken = response.getBody().refreshToken();
     }
 
     protected HttpEntity<Object> createRefreshRequest() {
@@ -80,6 +89,11 @@ public abstract class BaseTest {
         return new HttpEntity<>(headers);
     }
 
+    // Pins the number of SQL statements the server sent for the last request, an added round trip fails the build
+    protected void assertStatements(int expected) {
+        assertThat(statementCounter.lastRequest()).as("SQL statements of the last request").hasSize(expected);
+    }
+
     @BeforeEach
     protected void logout() {
         accessToken = null;
@@ -91,6 +105,14 @@ public abstract class BaseTest {
         return rest.exchange(url, HttpMethod.GET, request, responseType);
     }
 
+    protected <T> ResponseEntity<T> getRequest(String url, HttpHeaders headers, Class<T> responseType) {
+        HttpEntity<?> request = createHttpRequest(null);
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.addAll(request.getHeaders());
+        requestHeaders.addAll(headers);
+        return rest.exchange(url, HttpMethod.GET, new HttpEntity<>(requestHeaders), responseType);
+    }
+
     protected <T> ResponseEntity<T> getRequest(String url, ParameterizedTypeReference<T> responseType) {
         HttpEntity<?> request = createHttpRequest(null);
         return rest.exchange(url, HttpMethod.GET, request, responseType);
@@ -126,6 +148,11 @@ public abstract class BaseTest {
         return rest.exchange(url, HttpMethod.DELETE, request, responseType);
     }
 
+    protected <T> ResponseEntity<T> deleteRequest(String url, Object body, Class<T> responseType) {
+        HttpEntity<?> request = createHttpRequest(body);
+        return rest.exchange(url, HttpMethod.DELETE, request, responseType);
+    }
+
     private HttpEntity<?> createHttpRequest(Object body) {
         HttpHeaders headers = new HttpHeaders();
         if (accessToken != null) {
@@ -0,0 +1,145 @@
+package com.example.demo.account;
+
+import com.example.demo.BaseTest;
+import com.example.demo.data.dto.account.*;
+import com.example.demo.data.dto.error.ValidationError;
+import com.example.demo.data.model.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.example.demo.util.TestConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccountBulkTest extends BaseTest {
+
+    private static final String TEST_USERNAME_1 = "bulk-user-1";
+    private static final String TEST_USERNAME_2 = "bulk-user-2";
+    private static final String TEST_ROOT_USERNAME = "bulk-root";
+    private static final String TEST_PASSWORD = "bulk-user";
+    private static final Set<String> TEST_USERNAMES = Set.of(TEST_USERNAME_1, TEST_USERNAME_2, TEST_ROOT_USERNAME);
+
+    @BeforeEach
+    void setup() {
+        loginAsRoot();
+        postRequest(ACCOUNTS_ENDPOINT,
+                new AccountCreateRequest(TEST_USERNAME_1, TEST_PASSWORD, Set.of(Role.USER)), AccountInfo.class);
+        postRequest(ACCOUNTS_ENDPOINT,
+                new AccountCreateRequest(TEST_USERNAME_2, TEST_PASSWORD, Set.of(Role.USER)), AccountInfo.class);
+        postRequest(ACCOUNTS_ENDPOINT,
+                new AccountCreateRequest(TEST_ROOT_USERNAME, TEST_PASSWORD, Set.of(Role.ROOT)), AccountInfo.class);
+        logout();
+    }
+
+    @AfterEach
+    void clean() {
+        loginAsRoot();
+        deleteRequest(ACCOUNTS_ENDPOINT, new AccountSelector(TEST_USERNAMES, null, null), AccountBulkResult.class);
+        logout();
+    }
+
+    @Test
+    void testUpdateAccounts() {
+        loginAsAdmin();
+        AccountBulkUpdate update = new AccountBulkUpdate(new AccountSelector(TEST_USERNAMES, null, false), true);
+        ResponseEntity<AccountBulkResult> response = patchRequest(ACCOUNTS_ENDPOINT, update, AccountBulkResult.class);
+
+        // the ROOT account is protected from non-ROOT requesters
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(new AccountBulkResult(2));
+
+        assertEnabled(TEST_USERNAME_1, true);
+        assertEnabled(TEST_USERNAME_2, true);
+        assertEnabled(TEST_ROOT_USERNAME, false);
+
+        login(TEST_USERNAME_1, TEST_PASSWORD);
+    }
+
+    @Test
+    void testUpdateAccountsRoot() {
+        loginAsRoot();
+        AccountBulkUpdate update = new AccountBulkUpdate(new AccountSelector(TEST_USERNAMES, null, null), true);
+        ResponseEntity<AccountBulkResult> response = patchRequest(ACCOUNTS_ENDPOINT, update, AccountBulkResult.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(new AccountBulkResult(3));
+
+        assertEnabled(TEST_ROOT_USERNAME, true);
+    }
+
+    @Test
+    void testUpdateAccountsByRole() {
+        loginAsRoot();
+        AccountBulkUpdate update = new AccountBulkUpdate(new AccountSelector(null, Role.ROOT, false), true);
+        ResponseEntity<AccountBulkResult> response = patchRequest(ACCOUNTS_ENDPOINT, update, AccountBulkResult.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(new AccountBulkResult(1));
+
+        assertEnabled(TEST_ROOT_USERNAME, true);
+        assertEnabled(TEST_USERNAME_1, false);
+    }
+
+    @Test
+    void testUpdateAccountsNoSelection() {
+        loginAsAdmin();
+        AccountBulkUpdate update = new AccountBulkUpdate(new AccountSelector(Set.of(), null, null), true);
+        ResponseEntity<List<ValidationError>> response =
+                patchRequest(ACCOUNTS_ENDPOINT, update, new ParameterizedTypeReference<>() {
+                });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().size()).isEqualTo(1);
+    }
+
+    @Test
+    void testDeleteAccounts() {
+        loginAsRoot();
+        ResponseEntity<AccountBulkResult> response = deleteRequest(ACCOUNTS_ENDPOINT,
+                new AccountSelector(Set.of(TEST_USERNAME_1, TEST_USERNAME_2), null, null), AccountBulkResult.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(new AccountBulkResult(2));
+
+        assertThat(getRequest(ACCOUNT_ENDPOINT + TEST_USERNAME_1, AccountInfo.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(getRequest(ACCOUNT_ENDPOINT + TEST_USERNAME_2, AccountInfo.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(getRequest(ACCOUNT_ENDPOINT + TEST_ROOT_USERNAME, AccountInfo.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void testBulkAccess() {
+        AccountSelector selector = new AccountSelector(TEST_USERNAMES, null, null);
+        AccountBulkUpdate update = new AccountBulkUpdate(selector, true);
+        // not logged in - no access
+        assertThat(patchRequest(ACCOUNTS_ENDPOINT, update, AccountBulkResult.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(deleteRequest(ACCOUNTS_ENDPOINT, selector, AccountBulkResult.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        // logged in with insufficient authority - no access
+        loginAsUser();
+        assertThat(patchRequest(ACCOUNTS_ENDPOINT, update, AccountBulkResult.class).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        loginAsAdmin();
+        assertThat(deleteRequest(ACCOUNTS_ENDPOINT, selector, AccountBulkResult.class).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    private void assertEnabled(String username, boolean enabled) {
+        loginAsRoot();
+        ResponseEntity<AccountInfo> response = getRequest(ACCOUNT_ENDPOINT + username, AccountInfo.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().enabled()).isEqualTo(enabled);
+    }
+}
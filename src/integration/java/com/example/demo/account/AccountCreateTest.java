@@ -47,7 +47,7 @@ public class AccountCreateTest extends BaseTest {
         // verify that the account is not enabled
         assertThrows(BadCredentialsException.class, () -> login(testUsername, NEW_ACCOUNT_PASSWORD));
         // then enable the account
-        AccountUpdate enableUpdate = new AccountUpdate(null, true, null);
+        AccountUpdate enableUpdate = new AccountUpdate(null, true, null, null);
         ResponseEntity<AccountInfo> enableResponse =
                 patchRequest(ACCOUNT_ENDPOINT + testUsername, enableUpdate, AccountInfo.class);
 
@@ -305,4 +305,19 @@ public class AccountCreateTest extends BaseTest {
         response = postRequest(ACCOUNTS_ENDPOINT, request, AccountInfo.class);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
+
+    @Test
+    void testCreateAccountStatements() {
+        loginAsAdmin();
+        // the first request reads the token epoch of the account
+        assertThat(getRequest(PROFILE_ENDPOINT, Profile.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        AccountCreateRequest request = new AccountCreateRequest(NEW_ACCOUNT_USERNAME + UUID.randomUUID(),
+                NEW_ACCOUNT_PASSWORD, NEW_ACCOUNT_ROLES);
+        ResponseEntity<AccountInfo> response = postRequest(ACCOUNTS_ENDPOINT, request, AccountInfo.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        // the account and its roles are inserted by one statement
+        assertStatements(1);
+    }
 }
@@ -1,11 +1,15 @@
 package com.example.demo.account;
 
 import com.example.demo.BaseTest;
+import com.example.demo.data.dto.account.AccountCreateRequest;
 import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.account.Profile;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.UUID;
+
 import static com.example.demo.util.TestConstants.*;
 import static com.example.demo.util.TestConstants.USER_USERNAME;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -14,6 +18,8 @@ public class AccountDeleteTest extends BaseTest {
 
     @Test
     void testDeleteAccount() {
+        loginAsUser();
+        String userAccessToken = accessToken;
         loginAsRoot();
 
         ResponseEntity<AccountInfo> getResponse = getRequest(ACCOUNT_ENDPOINT + USER_USERNAME, AccountInfo.class);
@@ -30,6 +36,10 @@ public class AccountDeleteTest extends BaseTest {
 
         assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         assertThat(getResponse.getBody()).isNull();
+
+        // The tokens of a deleted account are revoked with it
+        accessToken = userAccessToken;
+        assertThat(getRequest(PROFILE_ENDPOINT, Profile.class).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
     }
 
     @Test
@@ -53,4 +63,20 @@ public class AccountDeleteTest extends BaseTest {
         response = deleteRequest(ACCOUNT_ENDPOINT + USER_USERNAME, Void.class);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
+
+    @Test
+    void testDeleteAccountStatements() {
+        String testUsername = "delete-" + UUID.randomUUID();
+        loginAsRoot();
+        // the first request reads the token epoch of the account
+        ResponseEntity<AccountInfo> createResponse = postRequest(ACCOUNTS_ENDPOINT,
+                new AccountCreateRequest(testUsername, testUsername, USER_ROLES), AccountInfo.class);
+        assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        ResponseEntity<Void> response = deleteRequest(ACCOUNT_ENDPOINT + testUsername, Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        // the account with its roles, the deletion of both, then the notification of the other instances
+        assertStatements(5);
+    }
 }
@@ -2,8 +2,11 @@ package com.example.demo.account;
 
 import com.example.demo.BaseTest;
 import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.account.AccountUpdate;
+import com.example.demo.data.dto.account.Profile;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -58,6 +61,32 @@ public class AccountGetTest extends BaseTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
 
+    @Test
+    void testGetAccountNotModified() {
+        loginAsAdmin();
+
+        ResponseEntity<AccountInfo> response = getRequest(ACCOUNT_ENDPOINT + USER_USERNAME, AccountInfo.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String eTag = response.getHeaders().getETag();
+        assertThat(eTag).isNotNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        response = getRequest(ACCOUNT_ENDPOINT + USER_USERNAME, headers, AccountInfo.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+        assertThat(response.getBody()).isNull();
+
+        // any update changes the version and with it the tag
+        patchRequest(ACCOUNT_ENDPOINT + USER_USERNAME, new AccountUpdate(null, null, null, null), AccountInfo.class);
+        response = getRequest(ACCOUNT_ENDPOINT + USER_USERNAME, headers, AccountInfo.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(eTag);
+        assertThat(response.getBody()).isNotNull();
+    }
+
     @Test
     void testGetAccount() {
         loginAsAdmin();
@@ -94,4 +123,32 @@ public class AccountGetTest extends BaseTest {
         response = getRequest(ACCOUNT_ENDPOINT + USER_USERNAME, AccountInfo.class);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
+
+    @Test
+    void testGetAccountsStatements() {
+        loginAsAdmin();
+        assertThat(getRequest(PROFILE_ENDPOINT, Profile.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<List<AccountInfo>> response =
+                getRequest(ACCOUNTS_ENDPOINT, new ParameterizedTypeReference<>() {
+                });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        // the accounts, then the roles of every account on their own
+        assertStatements(1 + response.getBody().size());
+    }
+
+    @Test
+    void testGetAccountStatements() {
+        loginAsAdmin();
+        assertThat(getRequest(ACCOUNT_ENDPOINT + USER_USERNAME, AccountInfo.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<AccountInfo> response = getRequest(ACCOUNT_ENDPOINT + USER_USERNAME, AccountInfo.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // the token epoch, the version and the response are cached by the first request
+        assertStatements(0);
+    }
 }
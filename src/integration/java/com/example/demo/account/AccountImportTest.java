@@ -0,0 +1,129 @@
+package com.example.demo.account;
+
+import com.example.demo.BaseTest;
+import com.example.demo.data.dto.account.AccountImportResult;
+import com.example.demo.data.dto.account.AccountImportResult.Status;
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.model.Role;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.demo.util.TestConstants.*;
+import static com.example.demo.utils.security.SecurityConstants.BEARER_AUTHORIZATION;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccountImportTest extends BaseTest {
+
+    private static final String IMPORT_ENDPOINT = "/accounts/import";
+    private static final String IMPORT_PASSWORD = "imported";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testImportNdjson() throws JsonProcessingException {
+        String newUsername = "imported-" + UUID.randomUUID();
+        String body = String.join("\n",
+                "{\"username\":\"" + newUsername + "\",\"password\":\"" + IMPORT_PASSWORD + "\",\"roles\":[\"USER\"]}",
+                "{\"username\":\"" + USER_USERNAME + "\",\"password\":\"" + IMPORT_PASSWORD + "\",\"roles\":[\"USER\"]}",
+                "{\"username\":\"\",\"password\":\"" + IMPORT_PASSWORD + "\",\"roles\":[\"USER\"]}",
+                "{\"username\":\"invalid-role\",\"password\":\"" + IMPORT_PASSWORD + "\",\"roles\":[\"SOME_ROLE\"]}");
+        loginAsAdmin();
+
+        List<AccountImportResult> results = importAccounts(body, MediaType.APPLICATION_NDJSON);
+
+        assertThat(results).containsExactly(
+                new AccountImportResult(1, newUsername, Status.CREATED),
+                new AccountImportResult(2, USER_USERNAME, Status.DUPLICATE),
+                new AccountImportResult(3, "", Status.INVALID),
+                new AccountImportResult(4, "invalid-role", Status.INVALID));
+
+        ResponseEntity<AccountInfo> response = getRequest(ACCOUNT_ENDPOINT + newUsername, AccountInfo.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().enabled()).isFalse();
+        assertThat(response.getBody().roles()).isEqualTo(Set.of(Role.USER));
+    }
+
+    @Test
+    void testImportCsv() throws JsonProcessingException {
+        String newUsername = "imported-" + UUID.randomUUID();
+        String body = String.join("\n",
+                "username,password,roles",
+                newUsername + "," + IMPORT_PASSWORD + ",ADMIN;USER",
+                newUsername + "," + IMPORT_PASSWORD + ",USER",
+                "missing-roles," + IMPORT_PASSWORD);
+        loginAsAdmin();
+
+        List<AccountImportResult> results = importAccounts(body, TEXT_CSV);
+
+        assertThat(results).containsExactly(
+                new AccountImportResult(1, newUsername, Status.CREATED),
+                new AccountImportResult(2, newUsername, Status.DUPLICATE),
+                new AccountImportResult(3, "missing-roles", Status.INVALID));
+
+        ResponseEntity<AccountInfo> response = getRequest(ACCOUNT_ENDPOINT + newUsername, AccountInfo.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().roles()).isEqualTo(Set.of(Role.ADMIN, Role.USER));
+    }
+
+    @Test
+    void testImportRoot() throws JsonProcessingException {
+        String adminImport = "imported-" + UUID.randomUUID();
+        String rootImport = "imported-" + UUID.randomUUID();
+        String body = "{\"username\":\"%s\",\"password\":\"%s\",\"roles\":[\"ROOT\"]}";
+
+        loginAsAdmin();
+        List<AccountImportResult> results =
+                importAccounts(body.formatted(adminImport, IMPORT_PASSWORD), MediaType.APPLICATION_NDJSON);
+        assertThat(results).containsExactly(new AccountImportResult(1, adminImport, Status.FORBIDDEN));
+
+        loginAsRoot();
+        results = importAccounts(body.formatted(rootImport, IMPORT_PASSWORD), MediaType.APPLICATION_NDJSON);
+        assertThat(results).containsExactly(new AccountImportResult(1, rootImport, Status.CREATED));
+    }
+
+    @Test
+    void testImportAccess() {
+        // not logged in - no access
+        ResponseEntity<String> response = importRequest("", MediaType.APPLICATION_NDJSON);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        // logged in with insufficient authority - no access
+        loginAsUser();
+        response = importRequest("", MediaType.APPLICATION_NDJSON);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    private List<AccountImportResult> importAccounts(String body, MediaType contentType) throws JsonProcessingException {
+        ResponseEntity<String> response = importRequest(body, contentType);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+
+        List<AccountImportResult> results = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            results.add(objectMapper.readValue(line, AccountImportResult.class));
+        }
+        return results;
+    }
+
+    private ResponseEntity<String> importRequest(String body, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        if (accessToken != null) {
+            headers.set(HttpHeaders.AUTHORIZATION, BEARER_AUTHORIZATION + accessToken);
+        }
+        headers.setContentType(contentType);
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+        return rest.exchange(IMPORT_ENDPOINT, HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
+    }
+}
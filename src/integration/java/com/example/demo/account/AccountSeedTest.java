@@ -0,0 +1,76 @@
+package com.example.demo.account;
+
+import com.example.demo.BaseTest;
+import com.example.demo.data.dto.account.AccountCreateRequest;
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.account.AccountSeedResult;
+import com.example.demo.data.dto.account.Profile;
+import com.example.demo.data.model.Role;
+import com.example.demo.service.AccountSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.demo.util.TestConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Small batches, so the seed spans several transactions and id blocks
+@TestPropertySource(properties = "demo.accounts.seed.batch-size=40")
+public class AccountSeedTest extends BaseTest {
+
+    private static final int SEED_COUNT = 130;
+    private static final String SEED_PASSWORD = "seeded";
+
+    @Autowired
+    private AccountSeeder accountSeeder;
+
+    @Test
+    void testSeed() {
+        String prefix = "seeded-" + UUID.randomUUID() + "-";
+
+        AccountSeedResult result = accountSeeder.seed(prefix, SEED_COUNT, SEED_PASSWORD);
+
+        assertThat(result.accounts()).isEqualTo(SEED_COUNT);
+        assertThat(result.roles()).isBetween((long) SEED_COUNT, 3L * SEED_COUNT);
+
+        // the seeded accounts are enabled and share the password
+        login(prefix + (SEED_COUNT - 1), SEED_PASSWORD);
+        ResponseEntity<Profile> profileResponse = getRequest(PROFILE_ENDPOINT, Profile.class);
+        assertThat(profileResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(profileResponse.getBody()).isNotNull();
+        assertThat(profileResponse.getBody().roles()).isNotEmpty();
+
+        loginAsAdmin();
+        ResponseEntity<List<AccountInfo>> response =
+                getRequest(ACCOUNTS_ENDPOINT, new ParameterizedTypeReference<>() {
+                });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody()).filteredOn(account -> account.username().startsWith(prefix))
+                .hasSize(SEED_COUNT);
+
+        // ids handed out after the seed do not collide with the reserved ones
+        AccountCreateRequest request = new AccountCreateRequest(prefix + "created", SEED_PASSWORD, USER_ROLES);
+        assertThat(postRequest(ACCOUNTS_ENDPOINT, request, AccountInfo.class).getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void testSeedHighestRole() {
+        String prefix = "seeded-" + UUID.randomUUID() + "-";
+
+        AccountSeedResult result = accountSeeder.seed(prefix, 1, SEED_PASSWORD, Role.ADMIN);
+
+        assertThat(result.roles()).isEqualTo(ADMIN_ROLES.size());
+        login(prefix + 0, SEED_PASSWORD);
+        ResponseEntity<Profile> response = getRequest(PROFILE_ENDPOINT, Profile.class);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().roles()).isEqualTo(ADMIN_ROLES);
+    }
+}
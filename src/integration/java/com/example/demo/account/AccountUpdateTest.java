@@ -43,7 +43,7 @@ public class AccountUpdateTest extends BaseTest {
     @Test
     void testUpdateAccountEmpty() {
         loginAsAdmin();
-        AccountUpdate enableUpdate = new AccountUpdate(null, null, null);
+        AccountUpdate enableUpdate = new AccountUpdate(null, null, null, null);
         ResponseEntity<AccountInfo> response =
                 patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, enableUpdate, AccountInfo.class);
 
@@ -59,7 +59,7 @@ public class AccountUpdateTest extends BaseTest {
     @Test
     void testUpdateAccountPassword() {
         loginAsAdmin();
-        AccountUpdate update = new AccountUpdate(USER_PASSWORD, true, null);
+        AccountUpdate update = new AccountUpdate(USER_PASSWORD, true, null, null);
         ResponseEntity<AccountInfo> response =
                 patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, update, AccountInfo.class);
 
@@ -85,7 +85,7 @@ public class AccountUpdateTest extends BaseTest {
     @Test
     void testUpdateAccountEnabled() {
         loginAsAdmin();
-        AccountUpdate update = new AccountUpdate(null, true, null);
+        AccountUpdate update = new AccountUpdate(null, true, null, null);
         ResponseEntity<AccountInfo> response =
                 patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, update, AccountInfo.class);
 
@@ -102,7 +102,7 @@ public class AccountUpdateTest extends BaseTest {
     void testUpdateAccountRoles() {
         loginAsAdmin();
         Set<Role> updatedRoles = Set.of(Role.ADMIN, Role.USER);
-        AccountUpdate update = new AccountUpdate(null, null, updatedRoles);
+        AccountUpdate update = new AccountUpdate(null, null, updatedRoles, null);
         ResponseEntity<AccountInfo> response =
                 patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, update, AccountInfo.class);
 
@@ -115,6 +115,28 @@ public class AccountUpdateTest extends BaseTest {
         assertThat(account.roles()).isEqualTo(updatedRoles);
     }
 
+    @Test
+    void testUpdateAccountVersion() {
+        loginAsAdmin();
+        ResponseEntity<AccountInfo> response = getRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, AccountInfo.class);
+        assertThat(response.getBody()).isNotNull();
+        long version = response.getBody().version();
+
+        AccountUpdate update = new AccountUpdate(null, true, null, version);
+        response = patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, update, AccountInfo.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().enabled()).isTrue();
+        assertThat(response.getBody().version()).isEqualTo(version + 1);
+
+        // the same update again is based on a stale version
+        response = patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, update, AccountInfo.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).isNull();
+    }
+
     @Test
     void testUpdateAccountInvalidRole() {
         loginAsAdmin();
@@ -141,7 +163,7 @@ public class AccountUpdateTest extends BaseTest {
         // test add ROOT role
         Set<Role> rolesWithRoot = Set.of(Role.ROOT, Role.ADMIN, Role.USER);
         AccountUpdate addRootRequest =
-                new AccountUpdate(null, null, rolesWithRoot);
+                new AccountUpdate(null, null, rolesWithRoot, null);
 
         ResponseEntity<AccountInfo> response =
                 patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, addRootRequest, AccountInfo.class);
@@ -156,7 +178,7 @@ public class AccountUpdateTest extends BaseTest {
 
         // test remove ROOT role
         AccountUpdate restoreRequest =
-                new AccountUpdate(null, null, TEST_ROLES);
+                new AccountUpdate(null, null, TEST_ROLES, null);
         response = patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, restoreRequest, AccountInfo.class);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -174,7 +196,7 @@ public class AccountUpdateTest extends BaseTest {
         loginAsAdmin();
 
         AccountUpdate addRootRequest =
-                new AccountUpdate(null, null, Set.of(Role.ROOT, Role.ADMIN, Role.USER));
+                new AccountUpdate(null, null, Set.of(Role.ROOT, Role.ADMIN, Role.USER), null);
 
         ResponseEntity<AccountInfo> response =
                 patchRequest(ACCOUNT_ENDPOINT + testUser, addRootRequest, AccountInfo.class);
@@ -188,7 +210,7 @@ public class AccountUpdateTest extends BaseTest {
         loginAsAdmin();
 
         AccountUpdate removeRootRequest =
-                new AccountUpdate(null, null, Set.of(Role.ADMIN, Role.USER));
+                new AccountUpdate(null, null, Set.of(Role.ADMIN, Role.USER), null);
 
         ResponseEntity<AccountInfo> response =
                 patchRequest(ACCOUNT_ENDPOINT + ROOT_USERNAME, removeRootRequest, AccountInfo.class);
@@ -222,4 +244,34 @@ public class AccountUpdateTest extends BaseTest {
         response = patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, emptyUpdate, AccountInfo.class);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
+
+    @Test
+    void testUpdateAccountStatements() {
+        loginAsAdmin();
+        AccountUpdate enableUpdate = new AccountUpdate(null, true, null, null);
+        // the first request reads the token epoch of the account
+        patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, enableUpdate, AccountInfo.class);
+
+        ResponseEntity<AccountInfo> response =
+                patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, enableUpdate, AccountInfo.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // the update returning the account, then the notification of the other instances
+        assertStatements(2);
+    }
+
+    @Test
+    void testUpdateAccountRevokingStatements() {
+        loginAsAdmin();
+        AccountUpdate disableUpdate = new AccountUpdate(null, false, null, null);
+        // the first request reads the token epoch of the account
+        patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, disableUpdate, AccountInfo.class);
+
+        ResponseEntity<AccountInfo> response =
+                patchRequest(ACCOUNT_ENDPOINT + TEST_USERNAME, disableUpdate, AccountInfo.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // the update advances the token epoch as well, the notification carries both changes
+        assertStatements(2);
+    }
 }
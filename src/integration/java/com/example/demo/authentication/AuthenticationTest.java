@@ -4,7 +4,9 @@ import com.example.demo.BaseTest;
 import com.example.demo.data.dto.account.Profile;
 import com.example.demo.data.dto.security.LoginRequest;
 import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.dto.security.LogoutRequest;
 import com.example.demo.data.dto.security.RefreshResponse;
+import com.example.demo.data.dto.security.TokenRevocationRequest;
 import com.example.demo.service.security.JwtService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +15,7 @@ import org.springframework.http.*;
 
 import static com.example.demo.util.TestConstants.*;
 import static com.example.demo.utils.security.SecurityConstants.BEARER_AUTHORIZATION;
+import static com.example.demo.utils.security.SecurityConstants.RENEWED_TOKEN_HEADER;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class AuthenticationTest extends BaseTest {
@@ -25,6 +28,9 @@ public class AuthenticationTest extends BaseTest {
     @Value("${security.jwt.refresh-expiration}")
     private int refreshTokenExpiration;
 
+    @Value("${security.jwt.renewal-window}")
+    private int renewalWindow;
+
     @Autowired
     private JwtService jwtService;
 
@@ -91,12 +97,66 @@ public class AuthenticationTest extends BaseTest {
         // validate the token from the response
         RefreshResponse refreshResponse = response.getBody();
         jwtService.validateAndGetToken(refreshResponse.accessToken());
+        jwtService.validateAndGetToken(refreshResponse.refreshToken());
         accessToken = response.getBody().accessToken();
 
         profileResponse = getRequest(PROFILE_ENDPOINT, Profile.class);
         assertThat(profileResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    void testRefreshRotation() {
+        loginAsAdmin();
+        String initialRefreshToken = refreshToken;
+
+        refreshToken();
+        assertThat(refreshToken).isNotEqualTo(initialRefreshToken);
+        refreshToken();
+
+        ResponseEntity<Profile> profileResponse = getRequest(PROFILE_ENDPOINT, Profile.class);
+        assertThat(profileResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void testRefreshTokenReuse() {
+        loginAsAdmin();
+        String initialRefreshToken = refreshToken;
+        refreshToken();
+        String rotatedRefreshToken = refreshToken;
+
+        // replaying the rotated token revokes the whole family
+        refreshToken = initialRefreshToken;
+        ResponseEntity<RefreshResponse> response =
+                rest.postForEntity(LOGIN_REFRESH_ENDPOINT, createRefreshRequest(), RefreshResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        refreshToken = rotatedRefreshToken;
+        response = rest.postForEntity(LOGIN_REFRESH_ENDPOINT, createRefreshRequest(), RefreshResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void testRenewal() throws InterruptedException {
+        loginAsAdmin();
+        ResponseEntity<Profile> profileResponse = getRequest(PROFILE_ENDPOINT, Profile.class);
+        assertThat(profileResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(profileResponse.getHeaders().containsKey(RENEWED_TOKEN_HEADER)).isFalse();
+
+        // wait until the access token is inside the renewal window
+        Thread.sleep(accessTokenExpiration - renewalWindow + EXPIRATION_MARGIN / 4);
+        profileResponse = getRequest(PROFILE_ENDPOINT, Profile.class);
+        assertThat(profileResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String renewedToken = profileResponse.getHeaders().getFirst(RENEWED_TOKEN_HEADER);
+        assertThat(renewedToken).isNotNull();
+        jwtService.validateAndGetToken(renewedToken);
+
+        // the renewed token stays valid after the original one expired
+        Thread.sleep(renewalWindow + EXPIRATION_MARGIN / 4);
+        accessToken = renewedToken;
+        profileResponse = getRequest(PROFILE_ENDPOINT, Profile.class);
+        assertThat(profileResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
     @Test
     void testRefreshExpired() throws InterruptedException {
         loginAsAdmin();
@@ -149,4 +209,72 @@ public class AuthenticationTest extends BaseTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
         assertThat(response.getBody()).isNull();
     }
+
+    @Test
+    void testLogout() {
+        loginAsAdmin();
+        String loggedOutRefreshToken = refreshToken;
+
+        ResponseEntity<Void> response = postRequest(LOGOUT_ENDPOINT, new LogoutRequest(refreshToken), Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        assertThat(getRequest(PROFILE_ENDPOINT, Profile.class).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        refreshToken = loggedOutRefreshToken;
+        ResponseEntity<RefreshResponse> refreshResponse =
+                rest.postForEntity(LOGIN_REFRESH_ENDPOINT, createRefreshRequest(), RefreshResponse.class);
+        assertThat(refreshResponse.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        // other sessions of the same account are not affected
+        loginAsAdmin();
+        assertThat(getRequest(PROFILE_ENDPOINT, Profile.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void testRevoke() {
+        loginAsUser();
+        String userAccessToken = accessToken;
+
+        loginAsRoot();
+        ResponseEntity<Void> response =
+                postRequest(REVOKE_ENDPOINT, new TokenRevocationRequest(userAccessToken), Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        accessToken = userAccessToken;
+        assertThat(getRequest(PROFILE_ENDPOINT, Profile.class).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void testRevokeAccess() {
+        loginAsUser();
+        String userAccessToken = accessToken;
+
+        loginAsAdmin();
+        ResponseEntity<Void> response =
+                postRequest(REVOKE_ENDPOINT, new TokenRevocationRequest(userAccessToken), Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+
+        loginAsRoot();
+        response = postRequest(REVOKE_ENDPOINT, new TokenRevocationRequest("invalid"), Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void testLoginStatements() {
+        loginAsUser();
+
+        // the account with its roles for the password check, then again for the token claims
+        assertStatements(3);
+    }
+
+    @Test
+    void testRefreshStatements() {
+        loginAsUser();
+        // the first request reads the token epoch of the account
+        assertThat(getRequest(PROFILE_ENDPOINT, Profile.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        refreshToken();
+
+        // the account with its roles for the principal, the claims are built from it, then the rotation of the family
+        assertStatements(3);
+    }
 }
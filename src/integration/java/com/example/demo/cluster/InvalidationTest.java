@@ -0,0 +1,167 @@
+package com.example.demo.cluster;
+
+import com.example.demo.BaseTest;
+import com.example.demo.data.dto.account.AccountEpoch;
+import com.example.demo.data.dto.cluster.InvalidationMessage;
+import com.example.demo.data.dto.security.RefreshResponse;
+import com.example.demo.data.security.JwtToken;
+import com.example.demo.event.TokenRevocationEvent;
+import com.example.demo.service.cluster.InvalidationListener;
+import com.example.demo.service.cluster.InvalidationPublisher;
+import com.example.demo.service.security.JwtService;
+import com.example.demo.service.security.RevokedTokenStore;
+import com.example.demo.service.security.TokenEpochIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static com.example.demo.util.TestConstants.LOGIN_REFRESH_ENDPOINT;
+import static com.example.demo.util.TestConstants.USER_USERNAME;
+import static com.example.demo.utils.security.SecurityConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// The other instance is simulated by changing the database and sending its notifications directly
+public class InvalidationTest extends BaseTest {
+
+    private static final long AWAIT_TIMEOUT = 5000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private InvalidationPublisher invalidationPublisher;
+
+    @Autowired
+    private InvalidationListener invalidationListener;
+
+    @Autowired
+    private TokenEpochIndex tokenEpochIndex;
+
+    @Autowired
+    private RevokedTokenStore revokedTokenStore;
+
+    private final String otherNode = UUID.randomUUID().toString();
+    private long sequence;
+
+    @Test
+    void testRemoteTokenEpoch() throws Exception {
+        loginAsUser();
+        JwtToken token = jwtService.validateAndGetToken(accessToken);
+        long accountId = token.accountId();
+        assertThat(tokenEpochIndex.current(accountId)).isEqualTo(token.tokenEpoch());
+
+        Map<String, Object> advanced = jdbcTemplate.queryForMap(
+                "update account set token_epoch = token_epoch + 1 where id = ? returning token_epoch", accountId);
+        int epoch = ((Number) advanced.get("token_epoch")).intValue();
+        notify(new InvalidationMessage(otherNode, ++sequence, false, List.of(USER_USERNAME),
+                List.of(new AccountEpoch(accountId, USER_USERNAME, epoch)), List.of()));
+
+        await(() -> tokenEpochIndex.current(accountId) == epoch);
+    }
+
+    @Test
+    void testRemoteRevocation() throws Exception {
+        loginAsUser();
+        JwtToken token = jwtService.validateAndGetToken(accessToken);
+        assertThat(revokedTokenStore.isRevoked(token)).isFalse();
+
+        jdbcTemplate.update("insert into revoked_token (id, expires_at) values (?, ?)",
+                token.id(), new Timestamp(token.expiresAt()));
+        notify(new InvalidationMessage(otherNode, ++sequence, false, List.of(), List.of(),
+                List.of(new TokenRevocationEvent(token.id(), token.expiresAt(), null))));
+
+        await(() -> revokedTokenStore.isRevoked(token));
+    }
+
+    @Test
+    void testRemoteRefreshRotation() {
+        loginAsUser();
+        JwtToken presented = jwtService.validateAndGetToken(refreshToken);
+        String familyId = presented.claims().get(FAMILY_CLAIM, String.class);
+
+        // the other instance rotated the family and issued the next generation, no notification is needed for
+        // this instance to see it
+        jdbcTemplate.update("insert into refresh_token_family (id, username, generation, revoked, expires_at)"
+                + " values (?, ?, 1, false, ?)", familyId, USER_USERNAME, new Timestamp(presented.expiresAt()));
+        Map<String, Object> claims = new HashMap<>();
+        for (String claim : List.of(ROLES_CLAIM, ACCOUNT_ID_CLAIM, EPOCH_CLAIM, FAMILY_CLAIM)) {
+            claims.put(claim, presented.claims().get(claim));
+        }
+        claims.put(GENERATION_CLAIM, 1);
+        String rotatedRefreshToken = jwtService.generateRefreshToken(claims, USER_USERNAME);
+
+        // replaying the rotated token here is reuse and revokes the family for both instances
+        ResponseEntity<RefreshResponse> response =
+                rest.postForEntity(LOGIN_REFRESH_ENDPOINT, createRefreshRequest(), RefreshResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(jdbcTemplate.queryForObject("select revoked from refresh_token_family where id = ?",
+                Boolean.class, familyId)).isTrue();
+
+        refreshToken = rotatedRefreshToken;
+        response = rest.postForEntity(LOGIN_REFRESH_ENDPOINT, createRefreshRequest(), RefreshResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void testResyncOnStart() throws Exception {
+        // revocations stored while the listener was not yet listening are loaded again
+        await(() -> invalidationListener.resyncs() > 0);
+    }
+
+    @Test
+    void testResyncOnGap() throws Exception {
+        long resyncs = invalidationListener.resyncs();
+
+        notify(new InvalidationMessage(otherNode, 1, false, List.of(USER_USERNAME), List.of(), List.of()));
+        notify(new InvalidationMessage(otherNode, 3, false, List.of(USER_USERNAME), List.of(), List.of()));
+
+        await(() -> invalidationListener.resyncs() > resyncs);
+    }
+
+    @Test
+    void testReconnect() throws Exception {
+        long resyncs = invalidationListener.resyncs();
+
+        List<Boolean> terminated = jdbcTemplate.queryForList(
+                "select pg_terminate_backend(pid) from pg_stat_activity where query = ?", Boolean.class,
+                "LISTEN " + invalidationPublisher.channel());
+        assertThat(terminated).contains(true);
+
+        // whatever was sent while the listener was away is read from the database again
+        await(() -> invalidationListener.resyncs() > resyncs);
+        testRemoteRevocation();
+    }
+
+    private void notify(InvalidationMessage message) throws JsonProcessingException {
+        jdbcTemplate.query("select pg_notify(?, ?)", rs -> {
+        }, invalidationPublisher.channel(), objectMapper.writeValueAsString(message));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + AWAIT_TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within " + AWAIT_TIMEOUT + " ms");
+            }
+            Thread.sleep(50);
+        }
+    }
+}
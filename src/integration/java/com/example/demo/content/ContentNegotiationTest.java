@@ -0,0 +1,104 @@
+package com.example.demo.content;
+
+import com.example.demo.BaseTest;
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.account.Profile;
+import com.example.demo.data.dto.security.LoginRequest;
+import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.service.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.*;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.example.demo.util.TestConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContentNegotiationTest extends BaseTest {
+
+    private static final MediaType APPLICATION_CBOR = MediaType.valueOf("application/cbor");
+    private static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final ObjectMapper CBOR_MAPPER = new CBORMapper();
+    private static final ObjectMapper SMILE_MAPPER = new SmileMapper();
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void testLoginCbor() throws IOException {
+        LoginRequest request = new LoginRequest(ADMIN_USERNAME, ADMIN_PASSWORD);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(APPLICATION_CBOR);
+        headers.setAccept(List.of(APPLICATION_CBOR));
+        ResponseEntity<byte[]> response = rest.exchange(LOGIN_ENDPOINT, HttpMethod.POST,
+                new HttpEntity<>(CBOR_MAPPER.writeValueAsBytes(request), headers), byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(APPLICATION_CBOR);
+        assertThat(response.getBody()).isNotNull();
+
+        LoginResponse tokens = CBOR_MAPPER.readValue(response.getBody(), LoginResponse.class);
+        jwtService.validateAndGetToken(tokens.accessToken());
+        jwtService.validateAndGetToken(tokens.refreshToken());
+    }
+
+    @Test
+    void testGetProfileSmile() throws IOException {
+        loginAsUser();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(APPLICATION_SMILE));
+        ResponseEntity<byte[]> response = getRequest(PROFILE_ENDPOINT, headers, byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(APPLICATION_SMILE);
+        assertThat(response.getHeaders().getETag()).isNotNull();
+        assertThat(response.getBody()).isNotNull();
+
+        Profile profile = SMILE_MAPPER.readValue(response.getBody(), Profile.class);
+        assertThat(profile.username()).isEqualTo(USER_USERNAME);
+        assertThat(profile.roles()).isEqualTo(USER_ROLES);
+    }
+
+    @Test
+    void testGetAccountCbor() throws IOException {
+        loginAsAdmin();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(APPLICATION_CBOR, MediaType.APPLICATION_JSON));
+        ResponseEntity<byte[]> response = getRequest(ACCOUNT_ENDPOINT + USER_USERNAME, headers, byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(APPLICATION_CBOR);
+        assertThat(response.getBody()).isNotNull();
+
+        AccountInfo account = CBOR_MAPPER.readValue(response.getBody(), AccountInfo.class);
+        assertThat(account.username()).isEqualTo(USER_USERNAME);
+        assertThat(account.roles()).isEqualTo(USER_ROLES);
+    }
+
+    @Test
+    void testGetAccountJsonDefault() {
+        loginAsAdmin();
+        ResponseEntity<AccountInfo> response = getRequest(ACCOUNT_ENDPOINT + USER_USERNAME, AccountInfo.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void testGetAccountMalformedAccept() {
+        loginAsAdmin();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT, "application/");
+        ResponseEntity<AccountInfo> response =
+                getRequest(ACCOUNT_ENDPOINT + USER_USERNAME, headers, AccountInfo.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.diagnostics;
+
+import com.example.demo.BaseTest;
+import com.example.demo.data.dto.diagnostics.RecordingDump;
+import com.example.demo.data.dto.diagnostics.RecordingStatus;
+import jdk.jfr.EventType;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.example.demo.util.TestConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DiagnosticsTest extends BaseTest {
+
+    @Test
+    void testRecording() throws IOException {
+        loginAsRoot();
+        ResponseEntity<RecordingStatus> started = postRequest(RECORDING_ENDPOINT, null, RecordingStatus.class);
+        assertThat(started.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(started.getBody().running()).isTrue();
+        assertThat(postRequest(RECORDING_ENDPOINT, null, Void.class).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+        // recorded while the recording runs
+        loginAsUser();
+        loginAsRoot();
+
+        ResponseEntity<RecordingDump> dump = postRequest(RECORDING_DUMP_ENDPOINT, null, RecordingDump.class);
+        assertThat(dump.getStatusCode()).isEqualTo(HttpStatus.OK);
+        ResponseEntity<RecordingDump> stopped = deleteRequest(RECORDING_ENDPOINT, RecordingDump.class);
+        assertThat(stopped.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(getRequest(RECORDING_ENDPOINT, RecordingStatus.class).getBody().running()).isFalse();
+
+        List<String> types = RecordingFile.readAllEvents(Path.of(stopped.getBody().file())).stream()
+                .map(RecordedEvent::getEventType)
+                .map(EventType::getName)
+                .distinct()
+                .toList();
+        assertThat(types).contains("com.example.demo.TokenIssuance", "com.example.demo.PasswordHash");
+    }
+
+    @Test
+    void testNoRecording() {
+        loginAsRoot();
+        assertThat(deleteRequest(RECORDING_ENDPOINT, Void.class).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void testRecordingForbidden() {
+        loginAsAdmin();
+        assertThat(postRequest(RECORDING_ENDPOINT, null, Void.class).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(getRequest(RECORDING_ENDPOINT, Void.class).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+}
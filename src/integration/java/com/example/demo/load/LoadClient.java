@@ -0,0 +1,166 @@
+package com.example.demo.load;
+
+import com.example.demo.data.dto.account.AccountUpdate;
+import com.example.demo.data.dto.security.LoginRequest;
+import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.dto.security.RefreshResponse;
+import org.springframework.http.*;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.demo.util.TestConstants.*;
+import static com.example.demo.utils.security.SecurityConstants.BEARER_AUTHORIZATION;
+
+// Executes the operations against the running application. Refresh tokens rotate and a reused one revokes its family,
+// so every logged in session is used by one request at a time and waited for when all of them are busy.
+public class LoadClient {
+
+    private static final long SESSION_TIMEOUT = 10;
+
+    private final RestTemplate restTemplate;
+    private final List<String> users;
+    private final List<String> admins;
+    private final List<String> deletable;
+    private final String password;
+    private final BlockingQueue<Session> userSessions = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Session> adminSessions = new LinkedBlockingQueue<>();
+    private final AtomicInteger deleted = new AtomicInteger();
+
+    public LoadClient(RestTemplate restTemplate, List<String> users, List<String> admins, List<String> deletable,
+                      String password) {
+        this.restTemplate = restTemplate;
+        this.users = users;
+        this.admins = admins;
+        this.deletable = deletable;
+        this.password = password;
+    }
+
+    // Logs in the sessions used by the operations other than logins, outside of the measurement
+    public void openSessions(int sessions) {
+        for (int i = 0; i < sessions; i++) {
+            userSessions.add(login(users.get(i % users.size())));
+        }
+        for (String admin : admins) {
+            adminSessions.add(login(admin));
+        }
+    }
+
+    public boolean execute(Operation operation) {
+        return switch (operation) {
+            case LOGIN -> login();
+            case REFRESH -> withSession(userSessions, this::refresh);
+            case PROFILE -> withSession(userSessions, session -> exchange(session, HttpMethod.GET, PROFILE_ENDPOINT,
+                    null));
+            case LIST_ACCOUNTS -> withSession(adminSessions, session -> exchange(session, HttpMethod.GET,
+                    ACCOUNTS_ENDPOINT, null));
+            case UPDATE_ACCOUNT -> withSession(adminSessions, session -> exchange(session, HttpMethod.PATCH,
+                    ACCOUNT_ENDPOINT + randomUser(), new AccountUpdate(null, true, null, null)));
+            case DELETE_ACCOUNT -> withSession(adminSessions, this::delete);
+        };
+    }
+
+    private boolean login() {
+        ResponseEntity<LoginResponse> response = restTemplate.postForEntity(LOGIN_ENDPOINT,
+                new LoginRequest(randomUser(), password), LoginResponse.class);
+        return response.getStatusCode().is2xxSuccessful();
+    }
+
+    private Session login(String username) {
+        ResponseEntity<LoginResponse> response = restTemplate.postForEntity(LOGIN_ENDPOINT,
+                new LoginRequest(username, password), LoginResponse.class);
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new IllegalStateException("Login of " + username + " failed with " + response.getStatusCode());
+        }
+        return new Session(username, response.getBody().accessToken(), response.getBody().refreshToken());
+    }
+
+    private HttpStatusCode refresh(Session session) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, BEARER_AUTHORIZATION + session.refreshToken);
+        ResponseEntity<RefreshResponse> response = restTemplate.exchange(LOGIN_REFRESH_ENDPOINT, HttpMethod.POST,
+                new HttpEntity<>(headers), RefreshResponse.class);
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            session.accessToken = response.getBody().accessToken();
+            session.refreshToken = response.getBody().refreshToken();
+        }
+        return response.getStatusCode();
+    }
+
+    // Fails without a request once the accounts seeded for deletion are used up
+    private HttpStatusCode delete(Session session) {
+        int next = deleted.getAndIncrement();
+        if (next >= deletable.size()) {
+            return HttpStatus.GONE;
+        }
+        return exchange(session, HttpMethod.DELETE, ACCOUNT_ENDPOINT + deletable.get(next), null);
+    }
+
+    // The body is read as bytes so its transfer is part of the measurement without the cost of decoding it
+    private HttpStatusCode exchange(Session session, HttpMethod method, String url, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, BEARER_AUTHORIZATION + session.accessToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<byte[]> response = restTemplate.exchange(url, method, new HttpEntity<>(body, headers),
+                byte[].class);
+        return response.getStatusCode();
+    }
+
+    // A session whose tokens were rejected, or which failed without a response, is logged in again for the next request.
+    // The failure itself is counted.
+    private boolean withSession(BlockingQueue<Session> sessions, SessionOperation operation) {
+        Session session;
+        try {
+            session = sessions.poll(SESSION_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (session == null) {
+            return false;
+        }
+        HttpStatusCode status = null;
+        try {
+            status = operation.execute(session);
+            return status.is2xxSuccessful();
+        } finally {
+            boolean rejected = status == null || status.value() == HttpStatus.UNAUTHORIZED.value();
+            sessions.add(rejected ? relogin(session) : session);
+        }
+    }
+
+    private Session relogin(Session session) {
+        try {
+            return login(session.username);
+        } catch (RuntimeException ex) {
+            return session;
+        }
+    }
+
+    private String randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    private interface SessionOperation {
+
+        HttpStatusCode execute(Session session);
+    }
+
+    private static class Session {
+
+        private final String username;
+        private volatile String accessToken;
+        private volatile String refreshToken;
+
+        private Session(String username, String accessToken, String refreshToken) {
+            this.username = username;
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.load;
+
+import com.example.demo.load.LoadReport.OperationReport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Open model: requests start on a fixed schedule whether or not the earlier ones have completed, each on its own
+// virtual thread. A stalled server shows up as latency measured from the scheduled start instead of lowering the rate
+// the way a closed loop of clients waiting for their responses would.
+public class LoadGenerator {
+
+    private final double rate;
+    private final TrafficMix mix;
+    private final LoadClient client;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private Instant startTime;
+    private Instant endTime;
+    private Duration warmup;
+    private Duration duration;
+
+    public LoadGenerator(double rate, TrafficMix mix, LoadClient client) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Invalid rate " + rate);
+        }
+        this.rate = rate;
+        this.mix = mix;
+        this.client = client;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    // Only the requests scheduled after the warm-up are recorded, the run ends when all of them have completed
+    public void run(Duration warmup, Duration duration) {
+        this.warmup = warmup;
+        this.duration = duration;
+        double interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureStart = start + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+        startTime = Instant.now().plus(warmup);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * interval);
+                if (intended >= end) {
+                    break;
+                }
+                long delay = intended - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                Operation operation = mix.next();
+                boolean measured = intended >= measureStart;
+                executor.execute(() -> execute(operation, intended, measured));
+            }
+        }
+        endTime = Instant.now();
+    }
+
+    private void execute(Operation operation, long intended, boolean measured) {
+        long sent = System.nanoTime();
+        boolean success;
+        try {
+            success = client.execute(operation);
+        } catch (RuntimeException ex) {
+            success = false;
+        }
+        long completed = System.nanoTime();
+        if (measured) {
+            stats.get(operation).record(intended, sent, completed, success);
+        }
+    }
+
+    public LoadReport report(String label, String mixDefinition) {
+        double seconds = duration.toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        Histogram totalLatency = OperationStats.newHistogram();
+        Histogram totalServiceTime = OperationStats.newHistogram();
+        long totalErrors = 0;
+        Map<Operation, OperationReport> operations = new EnumMap<>(Operation.class);
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            if (operationStats.getLatency().getTotalCount() == 0) {
+                continue;
+            }
+            long errors = operationStats.getErrors();
+            operations.put(entry.getKey(), OperationReport.of(operationStats.getLatency(),
+                    operationStats.getServiceTime(), errors, seconds));
+            totalLatency.add(operationStats.getLatency());
+            totalServiceTime.add(operationStats.getServiceTime());
+            totalErrors += errors;
+        }
+        return new LoadReport(label, startTime, rate, warmup.toSeconds(), duration.toSeconds(), mixDefinition,
+                OperationReport.of(totalLatency, totalServiceTime, totalErrors, seconds), operations);
+    }
+
+    // One interval per operation tagged with its key, readable by HistogramLogProcessor and the HdrHistogram plotters
+    public void writeHistogramLog(Path file) throws IOException {
+        try (PrintStream output = new PrintStream(Files.newOutputStream(file))) {
+            HistogramLogWriter writer = new HistogramLogWriter(output);
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(startTime.toEpochMilli());
+            writer.setBaseTime(startTime.toEpochMilli());
+            writer.outputLegend();
+            for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+                Histogram latency = entry.getValue().getLatency();
+                if (latency.getTotalCount() == 0) {
+                    continue;
+                }
+                latency.setTag(entry.getKey().getKey());
+                latency.setStartTimeStamp(startTime.toEpochMilli());
+                latency.setEndTimeStamp(endTime.toEpochMilli());
+                writer.outputIntervalHistogram(latency);
+            }
+        }
+    }
+}
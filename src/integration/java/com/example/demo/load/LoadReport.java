@@ -0,0 +1,36 @@
+package com.example.demo.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Written as JSON next to the HdrHistogram log of the run, the latencies are in milliseconds
+public record LoadReport(String label, Instant startTime, double rate, long warmupSeconds, long durationSeconds,
+                         String mix, OperationReport total, Map<Operation, OperationReport> operations) {
+
+    public record OperationReport(long requests, long errors, double errorRate, double throughput,
+                                  Latency latency, Latency serviceTime) {
+
+        public static OperationReport of(Histogram latency, Histogram serviceTime, long errors, double seconds) {
+            long requests = latency.getTotalCount();
+            return new OperationReport(requests, errors, requests > 0 ? (double) errors / requests : 0,
+                    requests / seconds, Latency.of(latency), Latency.of(serviceTime));
+        }
+    }
+
+    public record Latency(double mean, double p50, double p90, double p99, double p999, double max) {
+
+        private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+        public static Latency of(Histogram histogram) {
+            return new Latency(histogram.getMean() / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                    histogram.getMaxValue() / NANOS_PER_MILLI);
+        }
+    }
+}
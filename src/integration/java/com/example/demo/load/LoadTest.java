@@ -0,0 +1,170 @@
+package com.example.demo.load;
+
+import com.example.demo.BaseTest;
+import com.example.demo.data.model.Role;
+import com.example.demo.service.AccountSeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactoryBuilder;
+import org.apache.hc.core5.ssl.SSLContextBuilder;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Excluded from the integration task, run with ./gradlew loadTest and configured through -Pdemo.load.* properties.
+// The tokens live as long as in production, the short test lifetimes would turn the run into a login benchmark.
+@Tag("load")
+@TestPropertySource(properties = {"security.jwt.expiration=420000", "security.jwt.refresh-expiration=604800000",
+        "security.jwt.renewal-window=0"})
+public class LoadTest extends BaseTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String PASSWORD = "load";
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(60);
+    private static final DateTimeFormatter REPORT_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    @Autowired
+    private AccountSeeder accountSeeder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RestTemplateBuilder restTemplateBuilder;
+
+    @Autowired
+    private SslBundles sslBundles;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${demo.load.accounts:1000}")
+    private int accounts;
+
+    @Value("${demo.load.admins:5}")
+    private int admins;
+
+    @Value("${demo.load.sessions:100}")
+    private int sessions;
+
+    @Value("${demo.load.rate:100}")
+    private double rate;
+
+    @Value("${demo.load.warmup:10s}")
+    private Duration warmup;
+
+    @Value("${demo.load.duration:30s}")
+    private Duration duration;
+
+    @Value("${demo.load.mix:login=5,refresh=10,profile=60,list=5,update=15,delete=5}")
+    private String mix;
+
+    @Value("${demo.load.max-connections:500}")
+    private int maxConnections;
+
+    @Value("${demo.load.label:default}")
+    private String label;
+
+    @Value("${demo.load.report-directory:build/reports/load}")
+    private Path reportDirectory;
+
+    @Value("${demo.load.max-error-rate:0.01}")
+    private double maxErrorRate;
+
+    @Test
+    void testLoad() throws Exception {
+        TrafficMix trafficMix = TrafficMix.parse(mix);
+        // every scheduled deletion needs an account of its own
+        long deletions = (long) Math.ceil(rate * (warmup.toSeconds() + duration.toSeconds())
+                * trafficMix.share(Operation.DELETE_ACCOUNT) * 1.2) + 10;
+        List<String> users = seed("load-user-", accounts, Role.USER);
+        List<String> adminUsernames = seed("load-admin-", admins, Role.ROOT);
+        List<String> deletable = seed("load-deletable-", deletions, Role.USER);
+
+        try (CloseableHttpClient httpClient = httpClient()) {
+            LoadClient client = new LoadClient(restTemplate(httpClient), users, adminUsernames, deletable, PASSWORD);
+            client.openSessions(sessions);
+
+            LoadGenerator generator = new LoadGenerator(rate, trafficMix, client);
+            log.info("Running {} requests/s for {} after a warm-up of {}", rate, duration, warmup);
+            generator.run(warmup, duration);
+
+            LoadReport report = generator.report(label, mix);
+            Files.createDirectories(reportDirectory);
+            String name = label.replaceAll("[^A-Za-z0-9_.-]", "_") + "-" + REPORT_TIMESTAMP.format(Instant.now());
+            objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(reportDirectory.resolve(name + ".json").toFile(), report);
+            generator.writeHistogramLog(reportDirectory.resolve(name + ".hlog"));
+            log.info("Load test report {}: {} requests, {} errors, p99 {} ms", name, report.total().requests(),
+                    report.total().errors(), report.total().latency().p99());
+
+            assertThat(report.total().errorRate()).isLessThanOrEqualTo(maxErrorRate);
+        }
+    }
+
+    private List<String> seed(String prefix, long count, Role highestRole) {
+        accountSeeder.seed(prefix, count, PASSWORD, highestRole);
+        return LongStream.range(0, count).mapToObj(i -> prefix + i).toList();
+    }
+
+    private CloseableHttpClient httpClient() throws GeneralSecurityException {
+        // the test keystore is self-signed, its certificate is the only one trusted
+        KeyStore keyStore = sslBundles.getBundle("integration").getStores().getKeyStore();
+        SSLConnectionSocketFactoryBuilder socketFactory = SSLConnectionSocketFactoryBuilder.create()
+                .setSslContext(SSLContextBuilder.create().loadTrustMaterial(keyStore, null).build());
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setSSLSocketFactory(socketFactory.build())
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnections)
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(RESPONSE_TIMEOUT))
+                        .build())
+                .build();
+    }
+
+    // Error responses are counted, not thrown
+    private RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return restTemplateBuilder
+                .rootUri("https://localhost:" + port)
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .errorHandler(new DefaultResponseErrorHandler() {
+                    @Override
+                    public boolean hasError(ClientHttpResponse response) {
+                        return false;
+                    }
+                })
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.load;
+
+public enum Operation {
+    LOGIN("login"),
+    REFRESH("refresh"),
+    PROFILE("profile"),
+    LIST_ACCOUNTS("list"),
+    UPDATE_ACCOUNT("update"),
+    DELETE_ACCOUNT("delete");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.metrics;
+
+import com.example.demo.BaseTest;
+import com.example.demo.data.dto.account.Profile;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static com.example.demo.util.TestConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsTest extends BaseTest {
+
+    @Test
+    void testHealth() {
+        ResponseEntity<String> response = getRequest(HEALTH_ENDPOINT, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void testPrometheus() {
+        loginAsUser();
+        assertThat(getRequest(PROFILE_ENDPOINT, Profile.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        loginAsRoot();
+        ResponseEntity<String> response = getRequest(PROMETHEUS_ENDPOINT, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("security_jwt_generate_seconds_bucket")
+                .contains("security_jwt_validate_seconds_bucket")
+                .contains("security_jwt_filter_seconds_count")
+                .contains("phase=\"principal\"")
+                .contains("security_password_seconds_count{operation=\"matches\"")
+                .contains("spring_data_repository_invocations_seconds_bucket")
+                .contains("http_server_requests_seconds_bucket")
+                .contains("http_server_requests_cpu_seconds_count{method=\"GET\",role=\"USER\",uri=\"/profile\"}")
+                .contains("http_server_requests_allocated_bytes_count");
+    }
+
+    @Test
+    void testPrometheusUnauthorized() {
+        ResponseEntity<String> response = getRequest(PROMETHEUS_ENDPOINT, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void testPrometheusForbidden() {
+        loginAsUser();
+        ResponseEntity<String> response = getRequest(PROMETHEUS_ENDPOINT, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+}
@@ -10,8 +10,10 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
@@ -20,6 +22,7 @@ import java.util.stream.Stream;
 
 import static com.example.demo.util.TestConstants.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class ProfileTest extends BaseTest {
@@ -41,6 +44,23 @@ public class ProfileTest extends BaseTest {
         assertThat(profile.roles()).isEqualTo(roles);
     }
 
+    @Test
+    void testGetProfileNotModified() {
+        loginAsUser();
+        ResponseEntity<Profile> response = getRequest(PROFILE_ENDPOINT, Profile.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String eTag = response.getHeaders().getETag();
+        assertThat(eTag).isNotNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        response = getRequest(PROFILE_ENDPOINT, headers, Profile.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+        assertThat(response.getBody()).isNull();
+    }
+
     @Test
     void testGetProfileUnauthorized() {
         ResponseEntity<Profile> response = getRequest(PROFILE_ENDPOINT, Profile.class);
@@ -69,6 +89,31 @@ public class ProfileTest extends BaseTest {
         assertThat(response.getBody()).isNull();
     }
 
+    @Test
+    void testUpdateProfileRevokesTokens() {
+        loginAsAdmin();
+        String oldAccessToken = accessToken;
+        String oldRefreshToken = refreshToken;
+        PasswordUpdate passwordUpdate = new PasswordUpdate(ADMIN_PASSWORD, ADMIN_UPDATED_PASSWORD);
+        ResponseEntity<Profile> response = patchRequest(PROFILE_ENDPOINT, passwordUpdate, Profile.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        // Tokens issued before the password change stop working right away
+        response = getRequest(PROFILE_ENDPOINT, Profile.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThatThrownBy(this::refreshToken).isInstanceOf(BadCredentialsException.class);
+
+        login(ADMIN_USERNAME, ADMIN_UPDATED_PASSWORD);
+        assertThat(accessToken).isNotEqualTo(oldAccessToken);
+        assertThat(refreshToken).isNotEqualTo(oldRefreshToken);
+        response = getRequest(PROFILE_ENDPOINT, Profile.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        passwordUpdate = new PasswordUpdate(ADMIN_UPDATED_PASSWORD, ADMIN_PASSWORD);
+        response = patchRequest(PROFILE_ENDPOINT, passwordUpdate, Profile.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    }
+
     @Test
     void testUpdateProfileInvalidUpdate() {
         loginAsAdmin();
@@ -162,4 +207,16 @@ public class ProfileTest extends BaseTest {
                 Arguments.of(USER_USERNAME, USER_PASSWORD, USER_ROLES)
         );
     }
+
+    @Test
+    void testGetProfileStatements() {
+        loginAsUser();
+        assertThat(getRequest(PROFILE_ENDPOINT, Profile.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<Profile> response = getRequest(PROFILE_ENDPOINT, Profile.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // the token epoch, the version and the response are cached by the first request
+        assertStatements(0);
+    }
 }
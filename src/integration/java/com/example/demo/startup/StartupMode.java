@@ -0,0 +1,42 @@
+package com.example.demo.startup;
+
+import java.util.List;
+
+// How the boot jar is launched, the CDS modes run the extracted jar with an archive of its own training run
+public enum StartupMode {
+    JAR("jar", false, false),
+    AOT("aot", true, false),
+    CDS("cds", false, true),
+    AOT_CDS("aot-cds", true, true);
+
+    private final String key;
+    private final boolean aot;
+    private final boolean cds;
+
+    StartupMode(String key, boolean aot, boolean cds) {
+        this.key = key;
+        this.aot = aot;
+        this.cds = cds;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isCds() {
+        return cds;
+    }
+
+    public List<String> jvmOptions() {
+        return aot ? List.of("-Dspring.aot.enabled=true") : List.of();
+    }
+
+    public static StartupMode fromKey(String key) {
+        for (StartupMode mode : values()) {
+            if (mode.key.equals(key)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown startup mode " + key);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.startup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+// Written as JSON, the times are in milliseconds from launching the JVM to the first successful response
+public record StartupReport(String label, Instant startTime, int runs, Map<StartupMode, ModeReport> modes) {
+
+    public record ModeReport(long min, long median, long max, List<Long> runs) {
+
+        public static ModeReport of(List<Long> runs) {
+            List<Long> sorted = runs.stream().sorted().toList();
+            return new ModeReport(sorted.getFirst(), sorted.get(sorted.size() / 2), sorted.getLast(), runs);
+        }
+    }
+}
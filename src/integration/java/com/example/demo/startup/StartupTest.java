@@ -0,0 +1,217 @@
+package com.example.demo.startup;
+
+import com.example.demo.startup.StartupReport.ModeReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactoryBuilder;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.ssl.SSLContextBuilder;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Excluded from the integration task, run with ./gradlew startupBenchmark and configured through -Pdemo.startup.*
+// properties. Every run launches the boot jar in a new JVM against the same database and measures the time until the
+// first request is answered. The CDS modes use an archive of a training run of the extracted jar, like the dockerfile.
+@Tag("startup")
+@Testcontainers
+public class StartupTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTest.class);
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(120);
+    private static final long POLL_INTERVAL = 10;
+    private static final String HEALTH_ENDPOINT = "/actuator/health";
+    private static final String KEYSTORE = "/keystore/jwt-demo.p12";
+    private static final String KEYSTORE_PASSWORD = "jwt-demo";
+    private static final DateTimeFormatter REPORT_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    // The training run only refreshes the context, it does not need the database
+    private static final List<String> TRAINING_OPTIONS = List.of("-Dspring.context.exit=onRefresh",
+            "-Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false");
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES_CONTAINER =
+            new PostgreSQLContainer<>("postgres:17-alpine3.20")
+                    .withDatabaseName("demo")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    private final Path jar = Path.of(System.getProperty("demo.startup.jar", "build/libs/demo-0.0.1.jar"));
+    private final int runs = Integer.getInteger("demo.startup.runs", 5);
+    private final String modes = System.getProperty("demo.startup.modes", "jar,aot,cds,aot-cds");
+    private final String label = System.getProperty("demo.startup.label", "default");
+    private final Path reportDirectory =
+            Path.of(System.getProperty("demo.startup.report-directory", "build/reports/startup"));
+    private final String java = ProcessHandle.current().info().command().orElse("java");
+
+    @TempDir
+    Path workDirectory;
+
+    @Test
+    void testStartup() throws Exception {
+        assertThat(jar).exists();
+        Path logDirectory = Files.createDirectories(reportDirectory.resolve("logs"));
+        Instant startTime = Instant.now();
+
+        // the schema is created once, the measured runs start against it like a deployment
+        runToExit(List.of("-Dspring.context.exit=onRefresh"), jar,
+                applicationArguments("--spring.jpa.hibernate.ddl-auto=create"), logDirectory.resolve("schema.log"));
+        Path extracted = workDirectory.resolve("extracted");
+        runToExit(List.of("-Djarmode=tools"), jar, List.of("extract", "--destination", extracted.toString()),
+                logDirectory.resolve("extract.log"));
+        Path extractedJar = extracted.resolve(jar.getFileName());
+
+        Map<StartupMode, ModeReport> reports = new EnumMap<>(StartupMode.class);
+        try (CloseableHttpClient httpClient = httpClient()) {
+            for (String key : modes.split(",")) {
+                StartupMode mode = StartupMode.fromKey(key.trim());
+                List<String> options = new ArrayList<>(mode.jvmOptions());
+                Path modeJar = jar;
+                if (mode.isCds()) {
+                    Path archive = workDirectory.resolve(mode.getKey() + ".jsa");
+                    runToExit(Stream.of(options, TRAINING_OPTIONS, List.of("-XX:ArchiveClassesAtExit=" + archive))
+                                    .flatMap(List::stream).toList(), extractedJar, applicationArguments(),
+                            logDirectory.resolve(mode.getKey() + "-training.log"));
+                    options.add("-XX:SharedArchiveFile=" + archive);
+                    modeJar = extractedJar;
+                }
+
+                List<Long> times = new ArrayList<>();
+                for (int run = 0; run < runs; run++) {
+                    times.add(timeToFirstResponse(httpClient, options, modeJar,
+                            logDirectory.resolve(mode.getKey() + "-" + run + ".log")));
+                }
+                ModeReport report = ModeReport.of(times);
+                reports.put(mode, report);
+                log.info("Startup {}: median {} ms, min {} ms, max {} ms", mode.getKey(), report.median(),
+                        report.min(), report.max());
+            }
+        }
+
+        String name = label.replaceAll("[^A-Za-z0-9_.-]", "_") + "-" + REPORT_TIMESTAMP.format(startTime);
+        new ObjectMapper().findAndRegisterModules().writerWithDefaultPrettyPrinter()
+                .writeValue(reportDirectory.resolve(name + ".json").toFile(),
+                        new StartupReport(label, startTime, runs, reports));
+    }
+
+    // Milliseconds from launching the JVM to the first successful response, the process is stopped afterwards
+    private long timeToFirstResponse(CloseableHttpClient httpClient, List<String> options, Path jar, Path logFile)
+            throws Exception {
+        int port = freePort();
+        long start = System.nanoTime();
+        Process process = launch(options, jar, applicationArguments("--server.port=" + port), logFile);
+        try {
+            long deadline = start + START_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    fail("The application exited with " + process.exitValue() + ", see " + logFile);
+                }
+                if (isUp(httpClient, port)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+            return fail("The application did not answer within " + START_TIMEOUT + ", see " + logFile);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private void runToExit(List<String> options, Path jar, List<String> arguments, Path logFile)
+            throws IOException, InterruptedException {
+        Process process = launch(options, jar, arguments, logFile);
+        if (!process.waitFor(START_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+            fail("The application did not exit within " + START_TIMEOUT + ", see " + logFile);
+        }
+        assertThat(process.exitValue()).as("exit code, see " + logFile).isZero();
+    }
+
+    private Process launch(List<String> options, Path jar, List<String> arguments, Path logFile) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(options);
+        command.addAll(List.of("-jar", jar.toString()));
+        command.addAll(arguments);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+    }
+
+    private List<String> applicationArguments(String... arguments) {
+        List<String> all = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + POSTGRES_CONTAINER.getJdbcUrl(),
+                "--spring.datasource.username=" + POSTGRES_CONTAINER.getUsername(),
+                "--spring.datasource.password=" + POSTGRES_CONTAINER.getPassword(),
+                "--demo.create.default.accounts=true",
+                // measures the packaging, the warm-up would hold back the readiness the health status includes
+                "--demo.warmup.enabled=false",
+                "--demo.diagnostics.recording.directory=" + workDirectory.resolve("recordings"),
+                "--demo.tracing.directory=" + workDirectory.resolve("traces")));
+        all.addAll(List.of(arguments));
+        return all;
+    }
+
+    private static boolean isUp(CloseableHttpClient httpClient, int port) {
+        try {
+            return httpClient.execute(new HttpGet("https://localhost:" + port + HEALTH_ENDPOINT),
+                    response -> response.getCode() == HttpStatus.SC_OK);
+        } catch (IOException ex) {
+            // not listening yet
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static CloseableHttpClient httpClient() throws GeneralSecurityException, IOException {
+        // the application keystore is self-signed, its certificate is the only one trusted
+        SSLConnectionSocketFactoryBuilder socketFactory = SSLConnectionSocketFactoryBuilder.create()
+                .setSslContext(SSLContextBuilder.create()
+                        .loadTrustMaterial(StartupTest.class.getResource(KEYSTORE), KEYSTORE_PASSWORD.toCharArray())
+                        .build());
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setSSLSocketFactory(socketFactory.build())
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofSeconds(1))
+                                .build())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.tracing;
+
+import com.example.demo.BaseTest;
+import com.example.demo.data.dto.account.Profile;
+import com.example.demo.service.tracing.SpanExporter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.demo.filter.tracing.TracingFilter.TRACE_PARENT_HEADER;
+import static com.example.demo.filter.tracing.TracingFilter.TRACE_RESPONSE_HEADER;
+import static com.example.demo.util.TestConstants.PROFILE_ENDPOINT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TracingTest extends BaseTest {
+
+    private static final String TEST_TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String TEST_PARENT_ID = "00f067aa0ba902b7";
+
+    @Autowired
+    private SpanExporter spanExporter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${demo.tracing.directory}")
+    private Path directory;
+
+    @Test
+    void testTrace() throws IOException {
+        loginAsUser();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(TRACE_PARENT_HEADER, "00-" + TEST_TRACE_ID + "-" + TEST_PARENT_ID + "-01");
+
+        ResponseEntity<Profile> response = getRequest(PROFILE_ENDPOINT, headers, Profile.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(TRACE_RESPONSE_HEADER)).contains(TEST_TRACE_ID);
+
+        spanExporter.export();
+
+        List<JsonNode> spans = spans(TEST_TRACE_ID);
+        JsonNode server = spans.stream().filter(span -> span.get("name").asText().equals("GET /profile"))
+                .findFirst().orElseThrow();
+        assertThat(server.get("parentSpanId").asText()).isEqualTo(TEST_PARENT_ID);
+        assertThat(spans).extracting(span -> span.get("name").asText())
+                .contains("JwtTokenFilter", "AccountService.getAccountVersion");
+    }
+
+    @Test
+    void testLoginTrace() throws IOException {
+        // without a traceparent header the request starts a trace of its own
+        loginAsUser();
+
+        spanExporter.export();
+
+        JsonNode server = allSpans().stream().filter(span -> span.get("name").asText().equals("POST /auth/token"))
+                .findFirst().orElseThrow();
+        assertThat(server.has("parentSpanId")).isFalse();
+        assertThat(spans(server.get("traceId").asText())).extracting(span -> span.get("name").asText())
+                .contains("AuthenticationService.authenticate", "SQL SELECT");
+    }
+
+    private List<JsonNode> spans(String traceId) throws IOException {
+        return allSpans().stream().filter(span -> span.get("traceId").asText().equals(traceId)).toList();
+    }
+
+    private List<JsonNode> allSpans() throws IOException {
+        List<JsonNode> spans = new ArrayList<>();
+        for (String line : Files.readAllLines(directory.resolve("spans.jsonl"))) {
+            JsonNode resourceSpans = objectMapper.readTree(line).get("resourceSpans");
+            resourceSpans.forEach(resource -> resource.get("scopeSpans")
+                    .forEach(scope -> scope.get("spans").forEach(spans::add)));
+        }
+        return spans;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.util;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Collects the statements the server sends to the database per test request. Every round trip counts once, a JDBC
+// batch included. The test client tags its requests with an id, so the scheduled jobs running next to them are not
+// counted and a request is matched even when its response arrives before the server has finished it.
+public class StatementCounter implements QueryExecutionListener {
+
+    public static final String REQUEST_ID_HEADER = "X-Test-Request-Id";
+
+    private static final int MAX_REQUESTS = 1000;
+    private static final long AWAIT_TIMEOUT = 5000;
+
+    private final ThreadLocal<List<String>> current = new ThreadLocal<>();
+    private final ThreadLocal<String> lastRequestId = new ThreadLocal<>();
+    private final Map<String, List<String>> requests = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+            return size() > MAX_REQUESTS;
+        }
+    };
+
+    // Client side, called for every request the calling thread sends
+    public String nextRequestId() {
+        String id = UUID.randomUUID().toString();
+        lastRequestId.set(id);
+        return id;
+    }
+
+    // Server side, around the handling of a tagged request
+    public void begin() {
+        current.set(new ArrayList<>());
+    }
+
+    public void end(String requestId) {
+        List<String> statements = current.get();
+        current.remove();
+        synchronized (requests) {
+            requests.put(requestId, statements);
+            requests.notifyAll();
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<String> statements = current.get();
+        if (statements != null && !queryInfoList.isEmpty()) {
+            String query = queryInfoList.get(0).getQuery();
+            statements.add(execInfo.isBatch() ? query + " [batch of " + execInfo.getBatchSize() + "]" : query);
+        }
+    }
+
+    // The statements of the last request sent by the calling thread
+    public List<String> lastRequest() {
+        String requestId = lastRequestId.get();
+        if (requestId == null) {
+            fail("No request has been sent");
+        }
+        long deadline = System.currentTimeMillis() + AWAIT_TIMEOUT;
+        synchronized (requests) {
+            while (!requests.containsKey(requestId)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    fail("The server did not finish the request within " + AWAIT_TIMEOUT + " ms");
+                }
+                try {
+                    requests.wait(remaining);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    fail("Interrupted while waiting for the request");
+                }
+            }
+            return requests.get(requestId);
+        }
+    }
+}
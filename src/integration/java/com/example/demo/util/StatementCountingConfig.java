@@ -0,0 +1,77 @@
+package com.example.demo.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+import static com.example.demo.util.StatementCounter.REQUEST_ID_HEADER;
+
+@TestConfiguration
+public class StatementCountingConfig {
+
+    @Bean
+    public static StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    // A plain JDK proxy, the tracing post processor leaves data sources that already are a ProxyDataSource alone
+    @Bean
+    public static BeanPostProcessor statementCountingPostProcessor(StatementCounter statementCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(statementCounter)
+                        .buildProxy();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> statementCountingFilter(StatementCounter statementCounter) {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(
+                new OncePerRequestFilter() {
+                    @Override
+                    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                    FilterChain filterChain) throws ServletException, IOException {
+                        String requestId = request.getHeader(REQUEST_ID_HEADER);
+                        if (requestId == null) {
+                            filterChain.doFilter(request, response);
+                            return;
+                        }
+                        statementCounter.begin();
+                        try {
+                            filterChain.doFilter(request, response);
+                        } finally {
+                            statementCounter.end(requestId);
+                        }
+                    }
+                });
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public RestTemplateCustomizer statementCountingCustomizer(StatementCounter statementCounter) {
+        return restTemplate -> restTemplate.getInterceptors().add((request, body, execution) -> {
+            request.getHeaders().set(REQUEST_ID_HEADER, statementCounter.nextRequestId());
+            return execution.execute(request, body);
+        });
+    }
+}
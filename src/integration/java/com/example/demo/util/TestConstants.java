@@ -8,9 +8,16 @@ public class TestConstants {
 
     public static final String LOGIN_ENDPOINT = "/auth/token";
     public static final String LOGIN_REFRESH_ENDPOINT = "/auth/refresh";
+    public static final String LOGOUT_ENDPOINT = "/auth/logout";
+    public static final String REVOKE_ENDPOINT = "/auth/revoke";
     public static final String PROFILE_ENDPOINT = "/profile";
     public static final String ACCOUNTS_ENDPOINT = "/accounts";
     public static final String ACCOUNT_ENDPOINT = "/accounts/";
+    public static final String HEALTH_ENDPOINT = "/actuator/health";
+    public static final String READINESS_ENDPOINT = "/actuator/health/readiness";
+    public static final String PROMETHEUS_ENDPOINT = "/actuator/prometheus";
+    public static final String RECORDING_ENDPOINT = "/diagnostics/recording";
+    public static final String RECORDING_DUMP_ENDPOINT = "/diagnostics/recording/dump";
 
     public static final String ROOT_USERNAME = "root";
     public static final String ROOT_PASSWORD = "root";
@@ -0,0 +1,46 @@
+package com.example.demo.warmup;
+
+import com.example.demo.BaseTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.util.TestConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The warm-up has finished before the context is handed to the test, readiness is only reported after it
+@TestPropertySource(properties = {"demo.warmup.enabled=true", "demo.warmup.username=" + USER_USERNAME,
+        "demo.warmup.min-iterations=20", "demo.warmup.max-iterations=50", "demo.warmup.batch-size=10"})
+public class WarmupTest extends BaseTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testWarmup() {
+        assertThat(meterRegistry.get("warmup.iterations").gauge().value()).isBetween(20.0, 50.0);
+        assertThat(meterRegistry.get("warmup.duration").timeGauge().value(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(meterRegistry.get("warmup.iteration").tag("batch", "first").timeGauge()
+                .value(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(meterRegistry.get("warmup.iteration").tag("batch", "last").timeGauge()
+                .value(TimeUnit.NANOSECONDS)).isPositive();
+
+        // the profile requests of the warm-up were answered but left out of the request metrics
+        assertThat(meterRegistry.get("warmup.requests").gauge().value()).isBetween(20.0, 50.0);
+        assertThat(meterRegistry.get("security.jwt.filter").tag("phase", "principal").timer().count()).isZero();
+        assertThat(meterRegistry.find("http.server.requests").tag("uri", PROFILE_ENDPOINT).timer()).isNull();
+        assertThat(meterRegistry.find("http.server.requests.cpu").tag("uri", PROFILE_ENDPOINT).timer()).isNull();
+    }
+
+    @Test
+    void testReadiness() {
+        ResponseEntity<String> response = getRequest(READINESS_ENDPOINT, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("\"UP\"");
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.data.dto.account.AccountCreateRequest;
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.account.Profile;
+import com.example.demo.data.mapper.AccountMapper;
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// The per-request work on an account that does not touch the database: ./gradlew jmh -PjmhIncludes=AccountBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccountBenchmark {
+
+    @Param({"USER", "ADMIN", "ROOT"})
+    public Role role;
+
+    private AccountMapper accountMapper;
+    private Account account;
+    private AccountCreateRequest createRequest;
+
+    @Setup
+    public void setup() {
+        accountMapper = Mappers.getMapper(AccountMapper.class);
+        // every role comes with the lower ones, as for the default accounts
+        Set<Role> roles = switch (role) {
+            case ROOT -> Set.of(Role.ROOT, Role.ADMIN, Role.USER);
+            case ADMIN -> Set.of(Role.ADMIN, Role.USER);
+            case USER -> Set.of(Role.USER);
+        };
+        account = Account.builder().id(1L).username("benchmark-user").password("{noop}password").enabled(true)
+                .roles(roles).version(3).build();
+        createRequest = new AccountCreateRequest("benchmark-user", "password", roles);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return account.getAuthorities();
+    }
+
+    @Benchmark
+    public AccountInfo toInfo() {
+        return accountMapper.toInfo(account);
+    }
+
+    @Benchmark
+    public Profile toProfile() {
+        return accountMapper.toProfile(account);
+    }
+
+    @Benchmark
+    public Account fromCreateRequest() {
+        return accountMapper.fromCreateRequest(createRequest);
+    }
+}
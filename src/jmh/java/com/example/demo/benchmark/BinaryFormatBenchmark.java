@@ -0,0 +1,77 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.json.DtoJsonModule;
+import com.example.demo.data.model.Role;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Compares the encode/decode cost of JSON, CBOR and Smile, the payload sizes are asserted in BinaryFormatTest:
+// ./gradlew jmh -PjmhIncludes=BinaryFormatBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BinaryFormatBenchmark {
+
+    private static final TypeReference<List<AccountInfo>> ACCOUNTS_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private LoginResponse loginResponse;
+    private List<AccountInfo> accounts;
+    private byte[] encodedLoginResponse;
+    private byte[] encodedAccounts;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = switch (format) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+        objectMapper.registerModule(new DtoJsonModule());
+
+        // realistic token lengths, the content does not matter for the encoding
+        String token = "x".repeat(280);
+        loginResponse = new LoginResponse(token, token);
+        accounts = IntStream.range(0, 100)
+                .mapToObj(i -> new AccountInfo("benchmark-user-" + i, true, Set.of(Role.ADMIN, Role.USER), i))
+                .toList();
+
+        encodedLoginResponse = objectMapper.writeValueAsBytes(loginResponse);
+        encodedAccounts = objectMapper.writeValueAsBytes(accounts);
+    }
+
+    @Benchmark
+    public byte[] encodeLoginResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(loginResponse);
+    }
+
+    @Benchmark
+    public LoginResponse decodeLoginResponse() throws IOException {
+        return objectMapper.readValue(encodedLoginResponse, LoginResponse.class);
+    }
+
+    @Benchmark
+    public byte[] encodeAccounts() throws IOException {
+        return objectMapper.writeValueAsBytes(accounts);
+    }
+
+    @Benchmark
+    public List<AccountInfo> decodeAccounts() throws IOException {
+        return objectMapper.readValue(encodedAccounts, ACCOUNTS_TYPE);
+    }
+}
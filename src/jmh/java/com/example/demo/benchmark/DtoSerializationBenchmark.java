@@ -0,0 +1,66 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.account.Profile;
+import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.dto.security.RefreshResponse;
+import com.example.demo.data.json.DtoJsonModule;
+import com.example.demo.data.model.Role;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Compares the bean serializers with the DtoJsonModule serializers: ./gradlew jmh -PjmhIncludes=DtoSerializationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoSerializationBenchmark {
+
+    @Param({"bean", "module"})
+    public String serializers;
+
+    private ObjectMapper objectMapper;
+    private AccountInfo accountInfo;
+    private Profile profile;
+    private LoginResponse loginResponse;
+    private RefreshResponse refreshResponse;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        if (serializers.equals("module")) {
+            objectMapper.registerModule(new DtoJsonModule());
+        }
+
+        Set<Role> roles = Set.of(Role.ADMIN, Role.USER);
+        accountInfo = new AccountInfo("benchmark-user", true, roles, 42);
+        profile = new Profile("benchmark-user", roles);
+        // realistic token lengths, the content does not matter for the encoding
+        String token = "x".repeat(280);
+        loginResponse = new LoginResponse(token, token);
+        refreshResponse = new RefreshResponse(token, token);
+    }
+
+    @Benchmark
+    public byte[] accountInfo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accountInfo);
+    }
+
+    @Benchmark
+    public byte[] profile() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(profile);
+    }
+
+    @Benchmark
+    public byte[] loginResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(loginResponse);
+    }
+
+    @Benchmark
+    public byte[] refreshResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(refreshResponse);
+    }
+}
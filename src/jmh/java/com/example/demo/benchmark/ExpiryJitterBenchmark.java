@@ -0,0 +1,51 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.utils.security.JitterUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Measures the cost of the jitter and of simulating a population that logs in at the same moment and refreshes
+// whenever its access token expires, JitterUtilsTest asserts the peak refresh rate:
+// ./gradlew jmh -PjmhIncludes=ExpiryJitterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpiryJitterBenchmark {
+
+    private static final long EXPIRATION = 420000;
+    private static final long SIMULATED_TIME = 3600000;
+    private static final long BUCKET = 1000;
+    private static final int USERS = 10000;
+
+    @Param({"0", "0.05", "0.1", "0.2"})
+    public double jitter;
+
+    private String[] usernames;
+
+    @Setup
+    public void setup() {
+        usernames = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            usernames[i] = "user-" + i;
+        }
+    }
+
+    @Benchmark
+    public int[] simulate() {
+        int[] refreshes = new int[(int) (SIMULATED_TIME / BUCKET)];
+        for (String username : usernames) {
+            // a user keeps the same lifetime, so the users drift apart with every refresh cycle
+            long lifetime = JitterUtils.jitteredExpiration(EXPIRATION, jitter, username);
+            for (long time = lifetime; time < SIMULATED_TIME; time += lifetime) {
+                refreshes[(int) (time / BUCKET)]++;
+            }
+        }
+        return refreshes;
+    }
+
+    @Benchmark
+    public long jitteredExpiration() {
+        return JitterUtils.jitteredExpiration(EXPIRATION, jitter, usernames[0]);
+    }
+}
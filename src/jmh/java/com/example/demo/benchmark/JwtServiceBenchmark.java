@@ -0,0 +1,52 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.data.model.Role;
+import com.example.demo.data.security.JwtToken;
+import com.example.demo.service.security.JwtService;
+import com.example.demo.service.security.SecurityMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.utils.security.SecurityConstants.*;
+
+// Token signing and verification as configured in production: ./gradlew jmh -PjmhIncludes=JwtServiceBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+
+    static final String SECRET_KEY = "da2e8af32b20a7dc1b19197d2c2ae6e4a5c059b37b64bbcb03eb038d1f1c04fe";
+    static final String USERNAME = "benchmark-user";
+    static final Map<String, ?> CLAIMS = Map.of(ROLES_CLAIM, Set.of(Role.ADMIN, Role.USER),
+            ACCOUNT_ID_CLAIM, 1L, EPOCH_CLAIM, 0);
+
+    private JwtService jwtService;
+    private String accessToken;
+
+    @Setup
+    public void setup() {
+        jwtService = jwtService();
+        accessToken = jwtService.generateAccessToken(CLAIMS, USERNAME);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(CLAIMS, USERNAME);
+    }
+
+    @Benchmark
+    public JwtToken validateAndGetToken() {
+        return jwtService.validateAndGetToken(accessToken);
+    }
+
+    static JwtService jwtService() {
+        SecurityMetrics securityMetrics = new SecurityMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        // an hour, the tokens must not expire during a run
+        return new JwtService(SECRET_KEY, 3600000, 3600000, 0, 0.1, securityMetrics);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import com.example.demo.filter.security.JwtTokenFilter;
+import com.example.demo.service.security.JwtService;
+import com.example.demo.service.security.RevokedTokenStore;
+import com.example.demo.service.security.SecurityMetrics;
+import com.example.demo.service.security.TokenEpochIndex;
+import com.example.demo.service.tracing.Tracer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.utils.security.SecurityConstants.*;
+
+// One authenticated request through the filter, without the database: ./gradlew jmh -PjmhIncludes=JwtTokenFilterBenchmark
+// "claims" builds the principal from an access token, "loaded" goes through the UserDetailsService like refresh tokens
+// and tokens issued before the account claims, here answered from memory.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenFilterBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) -> {
+    };
+
+    @Param({"claims", "loaded"})
+    public String principal;
+
+    private JwtTokenFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setup() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        JwtService jwtService = JwtServiceBenchmark.jwtService();
+        Account account = Account.builder().id(1L).username(JwtServiceBenchmark.USERNAME).enabled(true)
+                .roles(Set.of(Role.ADMIN, Role.USER)).build();
+
+        // the repositories are not reached, the epoch is known and nothing is revoked
+        TokenEpochIndex tokenEpochIndex = new TokenEpochIndex(null, 1024);
+        tokenEpochIndex.advance(1L, 0);
+        RevokedTokenStore revokedTokenStore = new RevokedTokenStore(null, 60000, 10000, 0.01);
+        filter = new JwtTokenFilter(jwtService, username -> account, tokenEpochIndex, revokedTokenStore,
+                new SecurityMetrics(registry), new Tracer(registry, true, 1.0, 1024));
+
+        String token = principal.equals("claims")
+                ? jwtService.generateAccessToken(JwtServiceBenchmark.CLAIMS, JwtServiceBenchmark.USERNAME)
+                : jwtService.generateAccessToken(Map.of(ROLES_CLAIM, account.getRoles()), JwtServiceBenchmark.USERNAME);
+        request = new MockHttpServletRequest("GET", "/profile");
+        request.addHeader(AUTHORIZATION_HEADER, BEARER_AUTHORIZATION + token);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse doFilter() throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, CHAIN);
+        return response;
+    }
+}
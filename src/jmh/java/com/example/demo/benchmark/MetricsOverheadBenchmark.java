@@ -0,0 +1,84 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.security.SecurityMetrics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.service.security.SecurityMetrics.FilterPhase.*;
+
+// Measures what the security timers add to token validation, validateTimed against validate shows the relative cost
+// and recordFilterPhases the absolute cost of one request's timers: ./gradlew jmh -PjmhIncludes=MetricsOverheadBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+
+    private static final String SECRET_KEY = "da2e8af32b20a7dc1b19197d2c2ae6e4a5c059b37b64bbcb03eb038d1f1c04fe";
+
+    // an empty composite registry hands out no-op meters
+    @Param({"noop", "prometheus"})
+    public String registry;
+
+    private SecretKey secretKey;
+    private String token;
+    private SecurityMetrics securityMetrics;
+
+    @Setup
+    public void setup() {
+        MeterRegistry meterRegistry = registry.equals("prometheus")
+                ? new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)
+                : new CompositeMeterRegistry();
+        securityMetrics = new SecurityMetrics(meterRegistry);
+
+        secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        long now = System.currentTimeMillis();
+        token = Jwts.builder()
+                .claim("roles", List.of("ADMIN", "USER"))
+                .subject("benchmark-user")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + TimeUnit.HOURS.toMillis(1)))
+                .signWith(secretKey)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims validate() {
+        return parse();
+    }
+
+    @Benchmark
+    public Claims validateTimed() {
+        long start = System.nanoTime();
+        Claims claims = parse();
+        securityMetrics.recordTokenValidation(start);
+        return claims;
+    }
+
+    @Benchmark
+    public long recordFilterPhases() {
+        long phaseStart = System.nanoTime();
+        phaseStart = securityMetrics.recordFilterPhase(PARSE, phaseStart);
+        phaseStart = securityMetrics.recordFilterPhase(VERIFY, phaseStart);
+        return securityMetrics.recordFilterPhase(PRINCIPAL, phaseStart);
+    }
+
+    private Claims parse() {
+        return Jwts.parser()
+                .verifyWith(secretKey)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.config.json;
+
+import com.example.demo.data.json.DtoJsonModule;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class JsonConfig {
+
+    // Module beans are registered on the ObjectMapper that Spring Boot configures
+    @Bean
+    public Module dtoJsonModule() {
+        return new DtoJsonModule();
+    }
+
+    // The binary converters replace the MVC defaults in their place after the JSON converter, so JSON stays the
+    // default format. Spring Boot's builder is a prototype and gives them the same modules and settings as JSON.
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
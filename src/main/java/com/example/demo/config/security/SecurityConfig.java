@@ -1,5 +1,6 @@
 package com.example.demo.config.security;
 
+import com.example.demo.filter.diagnostics.RequestCostFilter;
 import com.example.demo.filter.security.JwtTokenFilter;
 import com.example.demo.service.security.PasswordService;
 import jakarta.servlet.http.HttpServletResponse;
@@ -32,12 +33,15 @@ public class SecurityConfig {
     private final DataSource dataSource;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenFilter jwtTokenFilter;
+    private final RequestCostFilter requestCostFilter;
     private final PasswordService passwordService;
 
-    public SecurityConfig(DataSource dataSource, PasswordEncoder passwordEncoder, JwtTokenFilter jwtTokenFilter, PasswordService passwordService) {
+    public SecurityConfig(DataSource dataSource, PasswordEncoder passwordEncoder, JwtTokenFilter jwtTokenFilter,
+                          RequestCostFilter requestCostFilter, PasswordService passwordService) {
         this.dataSource = dataSource;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenFilter = jwtTokenFilter;
+        this.requestCostFilter = requestCostFilter;
         this.passwordService = passwordService;
     }
 
@@ -65,17 +69,26 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests((auth) -> auth
                         .requestMatchers(HttpMethod.POST, "/auth/token").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/prometheus").hasAuthority(METRICS.name())
                         .requestMatchers(HttpMethod.GET, "/auth/refresh").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/auth/revoke").hasAuthority(TOKENS_REVOKE.name())
                         .requestMatchers(HttpMethod.GET, "/profile").hasAuthority(PROFILE_READ.name())
                         .requestMatchers(HttpMethod.PATCH, "/profile").hasAuthority(PROFILE_UPDATE.name())
                         .requestMatchers(HttpMethod.GET, "/accounts").hasAuthority(ACCOUNTS_READ.name())
                         .requestMatchers(HttpMethod.POST, "/accounts").hasAuthority(ACCOUNTS_CREATE.name())
+                        .requestMatchers(HttpMethod.POST, "/accounts/import").hasAuthority(ACCOUNTS_CREATE.name())
+                        .requestMatchers(HttpMethod.PATCH, "/accounts").hasAuthority(ACCOUNTS_UPDATE.name())
+                        .requestMatchers(HttpMethod.DELETE, "/accounts").hasAuthority(ACCOUNTS_DELETE.name())
                         .requestMatchers(HttpMethod.GET, "/accounts/**").hasAuthority(ACCOUNTS_READ.name())
                         .requestMatchers(HttpMethod.PATCH, "/accounts/**").hasAuthority(ACCOUNTS_UPDATE.name())
                         .requestMatchers(HttpMethod.DELETE, "/accounts/**").hasAnyAuthority(ACCOUNTS_DELETE.name())
+                        .requestMatchers("/diagnostics/**").hasAuthority(DIAGNOSTICS.name())
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class)
+                // measures the token validation too, the security context is still set when the chain returns
+                .addFilterBefore(requestCostFilter, JwtTokenFilter.class);
         return http.build();
     }
 }
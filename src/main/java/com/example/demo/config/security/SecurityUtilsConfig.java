@@ -1,6 +1,8 @@
 package com.example.demo.config.security;
 
 import com.example.demo.data.repo.AccountRepository;
+import com.example.demo.service.security.SecurityMetrics;
+import com.example.demo.utils.security.TimedPasswordEncoder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,6 +18,8 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.List;
 
+import static com.example.demo.utils.security.SecurityConstants.RENEWED_TOKEN_HEADER;
+
 @Configuration
 public class SecurityUtilsConfig {
 
@@ -44,8 +48,9 @@ public class SecurityUtilsConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    public PasswordEncoder passwordEncoder(SecurityMetrics securityMetrics) {
+        return new TimedPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder(),
+                securityMetrics.passwordEncoding(), securityMetrics.passwordMatching());
     }
 
     @Bean
@@ -60,6 +65,7 @@ public class SecurityUtilsConfig {
         config.setAllowedOriginPatterns(List.of(allowedOriginPattern));
         config.addAllowedHeader(allowedHeader);
         config.addAllowedMethod(allowedMethod);
+        config.addExposedHeader(RENEWED_TOKEN_HEADER);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration(corsPattern, config);
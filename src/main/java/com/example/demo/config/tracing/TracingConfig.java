@@ -0,0 +1,36 @@
+package com.example.demo.config.tracing;
+
+import com.example.demo.service.tracing.SqlTracingListener;
+import com.example.demo.service.tracing.Tracer;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class TracingConfig {
+
+    // Static, a post processor is created before the other beans of the configuration
+    @Bean
+    public static BeanPostProcessor dataSourceTracingPostProcessor(ObjectProvider<Tracer> tracerProvider,
+                                                                   Environment environment) {
+        boolean enabled = environment.getProperty("demo.tracing.enabled", Boolean.class, true);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new SqlTracingListener(tracerProvider))
+                        .build();
+            }
+        };
+    }
+}
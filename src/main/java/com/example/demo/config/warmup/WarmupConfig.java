@@ -0,0 +1,41 @@
+package com.example.demo.config.warmup;
+
+import com.example.demo.filter.warmup.WarmupRequestFilter;
+import com.example.demo.service.warmup.WarmupContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsProperties;
+import org.springframework.boot.actuate.autoconfigure.metrics.PropertiesAutoTimer;
+import org.springframework.boot.actuate.metrics.data.MetricsRepositoryMethodInvocationListener;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+@Configuration
+public class WarmupConfig {
+
+    // Keeps the warm-up requests out of http.server.requests, the observation is not even started for them
+    @Bean
+    public ObservationPredicate warmupRequestObservationPredicate() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext serverContext)
+                || !WarmupRequestFilter.isWarmup(serverContext.getCarrier());
+    }
+
+    // Replaces the auto-configured listener to keep the warm-up queries out of spring.data.repository.invocations
+    @Bean
+    public MetricsRepositoryMethodInvocationListener metricsRepositoryMethodInvocationListener(
+            ObjectProvider<MeterRegistry> registry, RepositoryTagsProvider tagsProvider, MetricsProperties properties) {
+        MetricsProperties.Data.Repository repository = properties.getData().getRepository();
+        return new MetricsRepositoryMethodInvocationListener(registry::getObject, tagsProvider,
+                repository.getMetricName(), new PropertiesAutoTimer(repository.getAutotime())) {
+            @Override
+            public void afterInvocation(RepositoryMethodInvocation invocation) {
+                if (!WarmupContext.isActive()) {
+                    super.afterInvocation(invocation);
+                }
+            }
+        };
+    }
+}
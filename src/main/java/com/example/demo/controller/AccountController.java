@@ -1,16 +1,26 @@
 package com.example.demo.controller;
 
-import com.example.demo.data.dto.account.AccountCreateRequest;
-import com.example.demo.data.dto.account.AccountInfo;
-import com.example.demo.data.dto.account.AccountUpdate;
+import com.example.demo.data.dto.account.*;
+import com.example.demo.error.AccountAlreadyExistsException;
 import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.error.AccountVersionConflictException;
 import com.example.demo.error.IllegalRoleAssignmentException;
+import com.example.demo.service.AccountImportService;
+import com.example.demo.service.AccountResponseCache;
+import com.example.demo.service.AccountResponseCache.CachedResponse;
+import com.example.demo.service.AccountResponseCache.Representation;
 import com.example.demo.service.AccountService;
+import com.example.demo.utils.http.ETagUtils;
+import com.example.demo.utils.http.ResponseUtils;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,9 +28,14 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final AccountImportService accountImportService;
+    private final AccountResponseCache accountResponseCache;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, AccountImportService accountImportService,
+                             AccountResponseCache accountResponseCache) {
         this.accountService = accountService;
+        this.accountImportService = accountImportService;
+        this.accountResponseCache = accountResponseCache;
     }
 
     @GetMapping()
@@ -29,24 +44,65 @@ public class AccountController {
     }
 
     @GetMapping("{username}")
-    public ResponseEntity<AccountInfo> getAccount(@PathVariable String username) throws AccountNotFoundException {
-        return ResponseEntity.ok(accountService.getAccount(username));
+    public ResponseEntity<?> getAccount(@PathVariable String username,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws AccountNotFoundException {
+        AccountVersion version = accountService.getAccountVersion(username);
+        MediaType format = ResponseUtils.preferredFormat(accept);
+        boolean json = MediaType.APPLICATION_JSON.equals(format);
+        boolean gzip = json && accountResponseCache.isGzip() && ResponseUtils.acceptsGzip(acceptEncoding);
+        String eTag = ETagUtils.eTag(version, ResponseUtils.eTagVariant(format, gzip));
+        if (ETagUtils.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        if (!json) {
+            // binary formats are encoded by the message converters, only the JSON encoding is cached
+            return ResponseEntity.ok().eTag(eTag).contentType(format).varyBy(HttpHeaders.ACCEPT)
+                    .body(accountService.getAccount(username));
+        }
+
+        CachedResponse response = accountResponseCache.get(Representation.ACCOUNT, username, version);
+        if (response == null) {
+            response = accountResponseCache.put(Representation.ACCOUNT, username, version,
+                    accountService.getAccount(username));
+        }
+        return ResponseUtils.json(eTag, response.json(), response.gzip(), gzip);
     }
 
     @PostMapping
-    public ResponseEntity<AccountInfo> createAccount(@RequestBody @Valid AccountCreateRequest request) throws IllegalRoleAssignmentException {
+    public ResponseEntity<AccountInfo> createAccount(@RequestBody @Valid AccountCreateRequest request) throws IllegalRoleAssignmentException, AccountAlreadyExistsException {
         return ResponseEntity.status(HttpStatus.CREATED).body(accountService.createAccount(request));
     }
 
+    @PostMapping(value = "import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, AccountImportService.TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importAccounts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                InputStream body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(output -> accountImportService.importAccounts(body, contentType, output));
+    }
+
     @PatchMapping("{username}")
     public ResponseEntity<AccountInfo> updateAccount(@PathVariable String username,
-                                                     @RequestBody AccountUpdate request) throws AccountNotFoundException, IllegalRoleAssignmentException {
+                                                     @RequestBody AccountUpdate request) throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
         return ResponseEntity.ok(accountService.updateAccount(username, request));
     }
 
+    @PatchMapping
+    public ResponseEntity<AccountBulkResult> updateAccounts(@RequestBody @Valid AccountBulkUpdate request) {
+        return ResponseEntity.ok(accountService.updateAccounts(request));
+    }
+
     @DeleteMapping("{username}")
     public ResponseEntity<Void> deleteAccount(@PathVariable String username) throws AccountNotFoundException {
         accountService.deleteAccount(username);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
+
+    @DeleteMapping
+    public ResponseEntity<AccountBulkResult> deleteAccounts(@RequestBody @Valid AccountSelector selector) {
+        return ResponseEntity.ok(accountService.deleteAccounts(selector));
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.demo.controller;
+
+import com.example.demo.data.dto.diagnostics.RecordingDump;
+import com.example.demo.data.dto.diagnostics.RecordingStatus;
+import com.example.demo.error.RecordingStateException;
+import com.example.demo.service.diagnostics.RecordingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("diagnostics")
+public class DiagnosticsController {
+
+    private final RecordingService recordingService;
+
+    public DiagnosticsController(RecordingService recordingService) {
+        this.recordingService = recordingService;
+    }
+
+    @GetMapping("recording")
+    public ResponseEntity<RecordingStatus> getRecording() {
+        return ResponseEntity.ok(recordingService.status());
+    }
+
+    @PostMapping("recording")
+    public ResponseEntity<RecordingStatus> startRecording() throws RecordingStateException, IOException {
+        return ResponseEntity.ok(recordingService.start());
+    }
+
+    @PostMapping("recording/dump")
+    public ResponseEntity<RecordingDump> dumpRecording() throws RecordingStateException, IOException {
+        return ResponseEntity.ok(recordingService.dump());
+    }
+
+    @DeleteMapping("recording")
+    public ResponseEntity<RecordingDump> stopRecording() throws RecordingStateException, IOException {
+        return ResponseEntity.ok(recordingService.stop());
+    }
+}
@@ -1,13 +1,21 @@
 package com.example.demo.controller;
 
+import com.example.demo.data.dto.account.AccountVersion;
 import com.example.demo.data.dto.account.PasswordUpdate;
-import com.example.demo.data.dto.account.Profile;
 import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.error.AccountVersionConflictException;
 import com.example.demo.error.IllegalRoleAssignmentException;
 import com.example.demo.error.InvalidPasswordUpdateException;
+import com.example.demo.service.AccountResponseCache;
+import com.example.demo.service.AccountResponseCache.CachedResponse;
+import com.example.demo.service.AccountResponseCache.Representation;
 import com.example.demo.service.AccountService;
+import com.example.demo.utils.http.ETagUtils;
+import com.example.demo.utils.http.ResponseUtils;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,19 +26,44 @@ import org.springframework.web.bind.annotation.*;
 public class ProfileController {
 
     private final AccountService accountService;
+    private final AccountResponseCache accountResponseCache;
 
-    public ProfileController(AccountService accountService) {
+    public ProfileController(AccountService accountService, AccountResponseCache accountResponseCache) {
         this.accountService = accountService;
+        this.accountResponseCache = accountResponseCache;
     }
 
     @GetMapping
-    public ResponseEntity<Profile> getProfile(@AuthenticationPrincipal UserDetails userDetails) throws AccountNotFoundException {
-        return ResponseEntity.ok(accountService.getProfile(userDetails.getUsername()));
+    public ResponseEntity<?> getProfile(@AuthenticationPrincipal UserDetails userDetails,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws AccountNotFoundException {
+        String username = userDetails.getUsername();
+        AccountVersion version = accountService.getAccountVersion(username);
+        MediaType format = ResponseUtils.preferredFormat(accept);
+        boolean json = MediaType.APPLICATION_JSON.equals(format);
+        boolean gzip = json && accountResponseCache.isGzip() && ResponseUtils.acceptsGzip(acceptEncoding);
+        String eTag = ETagUtils.eTag(version, ResponseUtils.eTagVariant(format, gzip));
+        if (ETagUtils.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        if (!json) {
+            // binary formats are encoded by the message converters, only the JSON encoding is cached
+            return ResponseEntity.ok().eTag(eTag).contentType(format).varyBy(HttpHeaders.ACCEPT)
+                    .body(accountService.getProfile(username));
+        }
+
+        CachedResponse response = accountResponseCache.get(Representation.PROFILE, username, version);
+        if (response == null) {
+            response = accountResponseCache.put(Representation.PROFILE, username, version,
+                    accountService.getProfile(username));
+        }
+        return ResponseUtils.json(eTag, response.json(), response.gzip(), gzip);
     }
 
     @PatchMapping
     public ResponseEntity<Void> updateAccount(@AuthenticationPrincipal UserDetails userDetails,
-                                              @RequestBody @Valid PasswordUpdate request) throws AccountNotFoundException, IllegalRoleAssignmentException, InvalidPasswordUpdateException {
+                                              @RequestBody @Valid PasswordUpdate request) throws AccountNotFoundException, IllegalRoleAssignmentException, InvalidPasswordUpdateException, AccountVersionConflictException {
         accountService.updateAccountPassword(userDetails.getUsername(), request);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
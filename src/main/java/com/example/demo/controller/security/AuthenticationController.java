@@ -2,15 +2,24 @@ package com.example.demo.controller.security;
 
 import com.example.demo.data.dto.security.LoginRequest;
 import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.dto.security.LogoutRequest;
 import com.example.demo.data.dto.security.RefreshResponse;
+import com.example.demo.data.dto.security.TokenRevocationRequest;
+import com.example.demo.data.security.JwtToken;
 import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.error.InvalidRefreshTokenException;
+import com.example.demo.error.InvalidTokenException;
 import com.example.demo.service.security.AuthenticationService;
+import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import static com.example.demo.utils.security.SecurityConstants.JWT_TOKEN_ATTRIBUTE;
+
 @RestController
 @RequestMapping("auth")
 public class AuthenticationController {
@@ -27,7 +36,23 @@ public class AuthenticationController {
     }
 
     @PostMapping("refresh")
-    public ResponseEntity<RefreshResponse> refreshAuthentication() throws AccountNotFoundException {
-        return ResponseEntity.ok(authenticationService.refreshAuthentication());
+    public ResponseEntity<RefreshResponse> refreshAuthentication(@RequestAttribute(JWT_TOKEN_ATTRIBUTE) JwtToken refreshToken)
+            throws InvalidRefreshTokenException {
+        return ResponseEntity.ok(authenticationService.refreshAuthentication(refreshToken));
+    }
+
+    @PostMapping("logout")
+    public ResponseEntity<Void> logout(@RequestAttribute(JWT_TOKEN_ATTRIBUTE) JwtToken accessToken,
+                                       @RequestBody(required = false) LogoutRequest logoutRequest)
+            throws InvalidTokenException {
+        authenticationService.logout(accessToken, logoutRequest);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("revoke")
+    public ResponseEntity<Void> revoke(@Valid @RequestBody TokenRevocationRequest revocationRequest)
+            throws InvalidTokenException {
+        authenticationService.revoke(revocationRequest);
+        return ResponseEntity.noContent().build();
     }
 }
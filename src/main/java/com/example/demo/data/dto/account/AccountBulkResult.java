@@ -0,0 +1,4 @@
+package com.example.demo.data.dto.account;
+
+public record AccountBulkResult(int affected) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.data.dto.account;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+public record AccountBulkUpdate(@NotNull @Valid AccountSelector selector, @NotNull Boolean enabled) {
+}
@@ -0,0 +1,8 @@
+package com.example.demo.data.dto.account;
+
+public record AccountImportResult(long record, String username, Status status) {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID, FORBIDDEN
+    }
+}
@@ -4,5 +4,5 @@ import com.example.demo.data.model.Role;
 
 import java.util.Set;
 
-public record AccountInfo(String username, boolean enabled, Set<Role> roles) {
+public record AccountInfo(String username, boolean enabled, Set<Role> roles, long version) {
 }
@@ -0,0 +1,4 @@
+package com.example.demo.data.dto.account;
+
+public record AccountSeedResult(long accounts, long roles, long millis) {
+}
@@ -0,0 +1,16 @@
+package com.example.demo.data.dto.account;
+
+import com.example.demo.data.model.Role;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+
+import java.util.Set;
+
+public record AccountSelector(Set<String> usernames, Role role, Boolean enabled) {
+
+    @JsonIgnore
+    @AssertTrue(message = "at least one of usernames, role or enabled must be set")
+    public boolean isSelective() {
+        return (usernames != null && !usernames.isEmpty()) || role != null || enabled != null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.data.dto.account;
+
+import com.example.demo.data.model.Role;
+
+import java.util.Set;
+
+public record AccountTokenInfo(long id, Set<Role> roles, int tokenEpoch) {
+}
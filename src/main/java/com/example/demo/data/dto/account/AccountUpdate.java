@@ -4,5 +4,5 @@ import com.example.demo.data.model.Role;
 
 import java.util.Set;
 
-public record AccountUpdate(String password, Boolean enabled, Set<Role> roles) {
+public record AccountUpdate(String password, Boolean enabled, Set<Role> roles, Long version) {
 }
@@ -0,0 +1,4 @@
+package com.example.demo.data.dto.account;
+
+public record AccountUpdateResult(AccountInfo account, AccountEpoch epoch) {
+}
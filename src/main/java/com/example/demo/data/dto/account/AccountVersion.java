@@ -0,0 +1,4 @@
+package com.example.demo.data.dto.account;
+
+public record AccountVersion(long id, long version) {
+}
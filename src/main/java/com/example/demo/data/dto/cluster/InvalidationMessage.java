@@ -0,0 +1,14 @@
+package com.example.demo.data.dto.cluster;
+
+import com.example.demo.data.dto.account.AccountEpoch;
+import com.example.demo.event.TokenRevocationEvent;
+
+import java.util.List;
+
+public record InvalidationMessage(String node, long sequence, boolean resync, List<String> usernames,
+                                  List<AccountEpoch> epochs, List<TokenRevocationEvent> revocations) {
+
+    public static InvalidationMessage resync(String node, long sequence) {
+        return new InvalidationMessage(node, sequence, true, List.of(), List.of(), List.of());
+    }
+}
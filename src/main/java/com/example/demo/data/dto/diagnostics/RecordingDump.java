@@ -0,0 +1,4 @@
+package com.example.demo.data.dto.diagnostics;
+
+public record RecordingDump(String file, long size) {
+}
@@ -0,0 +1,6 @@
+package com.example.demo.data.dto.diagnostics;
+
+import java.time.Instant;
+
+public record RecordingStatus(boolean running, Instant startTime, long size) {
+}
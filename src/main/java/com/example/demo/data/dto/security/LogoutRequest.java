@@ -0,0 +1,4 @@
+package com.example.demo.data.dto.security;
+
+public record LogoutRequest(String refreshToken) {
+}
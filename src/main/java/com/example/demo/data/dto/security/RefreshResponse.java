@@ -1,4 +1,4 @@
 package com.example.demo.data.dto.security;
 
-public record RefreshResponse(String accessToken) {
+public record RefreshResponse(String accessToken, String refreshToken) {
 }
@@ -0,0 +1,6 @@
+package com.example.demo.data.dto.security;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record TokenRevocationRequest(@NotBlank String token) {
+}
@@ -0,0 +1,37 @@
+package com.example.demo.data.json;
+
+import com.example.demo.data.dto.account.AccountInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import static com.example.demo.data.json.DtoJsonModule.writeRoles;
+import static com.example.demo.data.json.DtoJsonModule.writeString;
+
+public class AccountInfoSerializer extends StdSerializer<AccountInfo> {
+
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString ENABLED = new SerializedString("enabled");
+    private static final SerializableString ROLES = new SerializedString("roles");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    public AccountInfoSerializer() {
+        super(AccountInfo.class);
+    }
+
+    @Override
+    public void serialize(AccountInfo value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        writeString(gen, USERNAME, value.username());
+        gen.writeFieldName(ENABLED);
+        gen.writeBoolean(value.enabled());
+        writeRoles(gen, ROLES, value.roles());
+        gen.writeFieldName(VERSION);
+        gen.writeNumber(value.version());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.data.json;
+
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.account.Profile;
+import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.dto.security.RefreshResponse;
+import com.example.demo.data.model.Role;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.util.Set;
+
+// Serializers for the DTOs written on every hot request, they produce the same output as the bean serializers
+public class DtoJsonModule extends SimpleModule {
+
+    public DtoJsonModule() {
+        super(DtoJsonModule.class.getSimpleName());
+        addSerializer(AccountInfo.class, new AccountInfoSerializer());
+        addSerializer(Profile.class, new ProfileSerializer());
+        addSerializer(LoginResponse.class, new LoginResponseSerializer());
+        addSerializer(RefreshResponse.class, new RefreshResponseSerializer());
+    }
+
+    static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeString(value);
+    }
+
+    static void writeRoles(JsonGenerator gen, SerializableString name, Set<Role> roles) throws IOException {
+        gen.writeFieldName(name);
+        if (roles == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray(roles, roles.size());
+        for (Role role : roles) {
+            gen.writeString(role.name());
+        }
+        gen.writeEndArray();
+    }
+}
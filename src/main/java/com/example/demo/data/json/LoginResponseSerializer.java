@@ -0,0 +1,30 @@
+package com.example.demo.data.json;
+
+import com.example.demo.data.dto.security.LoginResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import static com.example.demo.data.json.DtoJsonModule.writeString;
+
+public class LoginResponseSerializer extends StdSerializer<LoginResponse> {
+
+    private static final SerializableString ACCESS_TOKEN = new SerializedString("accessToken");
+    private static final SerializableString REFRESH_TOKEN = new SerializedString("refreshToken");
+
+    public LoginResponseSerializer() {
+        super(LoginResponse.class);
+    }
+
+    @Override
+    public void serialize(LoginResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        writeString(gen, ACCESS_TOKEN, value.accessToken());
+        writeString(gen, REFRESH_TOKEN, value.refreshToken());
+        gen.writeEndObject();
+    }
+}
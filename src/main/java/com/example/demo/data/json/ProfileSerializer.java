@@ -0,0 +1,31 @@
+package com.example.demo.data.json;
+
+import com.example.demo.data.dto.account.Profile;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import static com.example.demo.data.json.DtoJsonModule.writeRoles;
+import static com.example.demo.data.json.DtoJsonModule.writeString;
+
+public class ProfileSerializer extends StdSerializer<Profile> {
+
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString ROLES = new SerializedString("roles");
+
+    public ProfileSerializer() {
+        super(Profile.class);
+    }
+
+    @Override
+    public void serialize(Profile value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        writeString(gen, USERNAME, value.username());
+        writeRoles(gen, ROLES, value.roles());
+        gen.writeEndObject();
+    }
+}
@@ -5,6 +5,7 @@ import com.example.demo.data.dto.account.AccountInfo;
 import com.example.demo.data.dto.account.Profile;
 import com.example.demo.data.model.Account;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface AccountMapper {
@@ -13,5 +14,9 @@ public interface AccountMapper {
 
     Profile toProfile(Account account);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "enabled", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "tokenEpoch", ignore = true)
     Account fromCreateRequest(AccountCreateRequest request);
 }
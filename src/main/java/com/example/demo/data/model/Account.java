@@ -19,7 +19,8 @@ import java.util.stream.Collectors;
 public class Account implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -36,6 +37,14 @@ public class Account implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Set<Role> roles;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // Tokens issued with a lower epoch are revoked, it advances on every change that must log the account out
+    @Column(nullable = false)
+    private int tokenEpoch;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return roles.stream().flatMap(role -> role.getAuthorities().stream()).collect(Collectors.toSet());
@@ -4,7 +4,9 @@ import org.springframework.security.core.GrantedAuthority;
 
 public enum Authority implements GrantedAuthority {
     PROFILE_READ, PROFILE_UPDATE,
-    ACCOUNTS_CREATE, ACCOUNTS_READ, ACCOUNTS_UPDATE, ACCOUNTS_DELETE;
+    ACCOUNTS_CREATE, ACCOUNTS_READ, ACCOUNTS_UPDATE, ACCOUNTS_DELETE,
+    TOKENS_REVOKE,
+    DIAGNOSTICS, METRICS;
 
     @Override
     public String getAuthority() {
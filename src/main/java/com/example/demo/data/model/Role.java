@@ -10,7 +10,7 @@ import static com.example.demo.data.model.Authority.*;
 @Getter
 @RequiredArgsConstructor
 public enum Role {
-    ROOT(Set.of(ACCOUNTS_DELETE)),
+    ROOT(Set.of(ACCOUNTS_DELETE, TOKENS_REVOKE, DIAGNOSTICS, METRICS)),
     ADMIN(Set.of(ACCOUNTS_CREATE, ACCOUNTS_READ, ACCOUNTS_UPDATE)),
     USER(Set.of(PROFILE_READ, PROFILE_UPDATE));
 
@@ -0,0 +1,33 @@
+package com.example.demo.data.repo;
+
+import com.example.demo.data.dto.account.AccountEpoch;
+import com.example.demo.data.dto.account.AccountSelector;
+import com.example.demo.data.dto.account.AccountUpdateResult;
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface AccountJdbcRepository {
+
+    Optional<Long> createAccount(Account account);
+
+    Set<String> importAccounts(List<Account> accounts);
+
+    long[] reserveAccountIds(int count);
+
+    void copyAccounts(List<Account> accounts);
+
+    void analyzeAccounts();
+
+    Optional<AccountUpdateResult> updateAccount(String username, Long version, String password, Boolean enabled,
+                                                Set<Role> roles, boolean includeRoot, boolean advanceTokenEpoch);
+
+    Optional<AccountEpoch> updatePassword(String username, long version, String password);
+
+    List<AccountEpoch> updateEnabled(AccountSelector selector, boolean enabled, boolean includeRoot);
+
+    List<AccountEpoch> deleteAccounts(AccountSelector selector, boolean includeRoot);
+}
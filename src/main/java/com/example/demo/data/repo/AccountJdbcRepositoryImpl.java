@@ -0,0 +1,307 @@
+package com.example.demo.data.repo;
+
+import com.example.demo.data.dto.account.AccountEpoch;
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.account.AccountSelector;
+import com.example.demo.data.dto.account.AccountUpdateResult;
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class AccountJdbcRepositoryImpl implements AccountJdbcRepository {
+
+    // A taken username is reported by an empty result instead of a unique violation that aborts the transaction
+    private static final String INSERT_ACCOUNT = """
+            with inserted as (
+                insert into account (id, username, password, enabled, version, token_epoch)
+                values (nextval('account_seq'), ?, ?, ?, 0, 0)
+                on conflict (username) do nothing
+                returning id
+            ), inserted_roles as (
+                insert into account_roles (account_id, roles)
+                select inserted.id, unnest(?::varchar[]) from inserted
+            )
+            select id from inserted""";
+    private static final String CREATE_IMPORT_TABLE = "create temporary table if not exists account_import"
+            + " (username varchar(100), password varchar(100), enabled boolean, roles varchar(255))"
+            + " on commit delete rows";
+    private static final String COPY_IMPORT =
+            "copy account_import (username, password, enabled, roles) from stdin with (format csv)";
+    // The account and account_roles rows are inserted in a single statement, duplicates are skipped by the
+    // unique username constraint instead of failing the whole COPY
+    private static final String INSERT_IMPORTED = """
+            with inserted as (
+                insert into account (id, username, password, enabled, version, token_epoch)
+                select nextval('account_seq'), username, password, enabled, 0, 0 from account_import
+                on conflict (username) do nothing
+                returning id, username
+            ), inserted_roles as (
+                insert into account_roles (account_id, roles)
+                select inserted.id, unnest(string_to_array(account_import.roles, ','))
+                from inserted join account_import on account_import.username = inserted.username
+            )
+            select username from inserted""";
+    // account_seq advances by the allocation size of the entity's generator, Hibernate takes every value as the last id
+    // of a block of this size. Reserved blocks follow the same rule, so they never overlap the ids of the generator or
+    // the single values taken by nextval() above.
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final String RESERVE_ID_BLOCKS = "select nextval('account_seq') from generate_series(1, ?)";
+    private static final String COPY_ACCOUNTS =
+            "copy account (id, username, password, enabled, version, token_epoch) from stdin with (format csv)";
+    private static final String COPY_ROLES = "copy account_roles (account_id, roles) from stdin with (format csv)";
+    private static final String ANALYZE_ACCOUNTS = "analyze account, account_roles";
+    // Only the changed columns are written, the roles are replaced in the same statement and the returned roles
+    // come from the statement snapshot, so they are only used when the roles were not replaced
+    private static final String UPDATE_ACCOUNT = """
+            with updated as (
+                update account a set %s where a.username = ?%s
+                returning a.id, a.username, a.enabled, a.version, a.token_epoch
+            )%s
+            select updated.id, updated.username, updated.enabled, updated.version, updated.token_epoch,
+                (select string_agg(r.roles, ',') from account_roles r where r.account_id = updated.id) as roles
+            from updated""";
+    private static final String REPLACE_ROLES = """
+            , deleted_roles as (
+                delete from account_roles where account_id in (select id from updated) and roles <> all (?)
+            ), inserted_roles as (
+                insert into account_roles (account_id, roles)
+                select updated.id, new_role from updated, unnest(?::varchar[]) new_role
+                where not exists (select 1 from account_roles r where r.account_id = updated.id and r.roles = new_role)
+            )
+            """;
+    // The token epoch is advanced by the same statement that revokes the tokens of the account
+    private static final String UPDATE_PASSWORD = "update account set password = ?, version = version + 1,"
+            + " token_epoch = token_epoch + 1 where username = ? and version = ? returning id, username, token_epoch";
+    private static final String UPDATE_ENABLED =
+            "update account a set %s where %s returning a.id, a.username, a.token_epoch";
+    // account_roles rows are removed in the same statement, the foreign key is only checked at its end
+    private static final String DELETE_SELECTED = """
+            with target as (
+                select a.id from account a where %s
+            ), deleted_roles as (
+                delete from account_roles where account_id in (select id from target)
+            )
+            delete from account where id in (select id from target) returning id, username, token_epoch""";
+    private static final String ROLE_CONDITION =
+            "exists (select 1 from account_roles r where r.account_id = a.id and r.roles = ?)";
+    private static final String ROOT_CONDITION =
+            "exists (select 1 from account_roles r where r.account_id = a.id and r.roles = 'ROOT')";
+    private static final String NOT_ROOT_CONDITION = "not " + ROOT_CONDITION;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountJdbcRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<Long> createAccount(Account account) {
+        String[] roleNames = account.getRoles().stream().map(Role::name).toArray(String[]::new);
+        return jdbcTemplate.queryForList(INSERT_ACCOUNT, Long.class, account.getUsername(), account.getPassword(),
+                account.isEnabled(), roleNames).stream().findFirst();
+    }
+
+    @Override
+    public Set<String> importAccounts(List<Account> accounts) {
+        if (accounts.isEmpty()) {
+            return Set.of();
+        }
+
+        byte[] rows = toCsv(accounts).getBytes(StandardCharsets.UTF_8);
+        jdbcTemplate.execute(CREATE_IMPORT_TABLE);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_IMPORT);
+            copyIn.writeToCopy(rows, 0, rows.length);
+            return copyIn.endCopy();
+        });
+        return new HashSet<>(jdbcTemplate.queryForList(INSERT_IMPORTED, String.class));
+    }
+
+    @Override
+    public long[] reserveAccountIds(int count) {
+        long[] ids = new long[count];
+        int reserved = 0;
+        while (reserved < count) {
+            int blocks = (count - reserved + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+            for (long last : jdbcTemplate.queryForList(RESERVE_ID_BLOCKS, Long.class, blocks)) {
+                // the block of the first value of a new sequence starts below 1
+                for (long id = Math.max(1, last - ID_BLOCK_SIZE + 1); id <= last && reserved < count; id++) {
+                    ids[reserved++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+
+    // The rows are written as they are, a taken id or username fails the whole COPY
+    @Override
+    public void copyAccounts(List<Account> accounts) {
+        if (accounts.isEmpty()) {
+            return;
+        }
+
+        StringBuilder accountRows = new StringBuilder(accounts.size() * 128);
+        StringBuilder roleRows = new StringBuilder(accounts.size() * 32);
+        for (Account account : accounts) {
+            accountRows.append(account.getId()).append(',')
+                    .append(csvField(account.getUsername())).append(',')
+                    .append(csvField(account.getPassword())).append(',')
+                    .append(account.isEnabled()).append(',')
+                    .append(account.getVersion()).append(',')
+                    .append(account.getTokenEpoch())
+                    .append('\n');
+            for (Role role : account.getRoles()) {
+                roleRows.append(account.getId()).append(',').append(role.name()).append('\n');
+            }
+        }
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copy(copyManager, COPY_ACCOUNTS, accountRows);
+            return copy(copyManager, COPY_ROLES, roleRows);
+        });
+    }
+
+    // Fresh statistics, the planner would otherwise keep planning for the table before the bulk load
+    @Override
+    public void analyzeAccounts() {
+        jdbcTemplate.execute(ANALYZE_ACCOUNTS);
+    }
+
+    @Override
+    public Optional<AccountUpdateResult> updateAccount(String username, Long version, String password,
+                                                       Boolean enabled, Set<Role> roles, boolean includeRoot,
+                                                       boolean advanceTokenEpoch) {
+        List<String> assignments = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        assignments.add("version = a.version + 1");
+        if (advanceTokenEpoch) {
+            assignments.add("token_epoch = a.token_epoch + 1");
+        }
+        if (password != null) {
+            assignments.add("password = ?");
+            args.add(password);
+        }
+        if (enabled != null) {
+            assignments.add("enabled = ?");
+            args.add(enabled);
+        }
+        args.add(username);
+
+        StringBuilder conditions = new StringBuilder();
+        if (version != null) {
+            conditions.append(" and a.version = ?");
+            args.add(version);
+        }
+        if (roles != null && !includeRoot) {
+            // Detect if there is an update that involves the ROOT role by comparing the current and the new state
+            conditions.append(" and ").append(ROOT_CONDITION).append(" = ?");
+            args.add(roles.contains(Role.ROOT));
+        }
+
+        String replaceRoles = "";
+        if (roles != null) {
+            replaceRoles = REPLACE_ROLES;
+            String[] roleNames = roles.stream().map(Role::name).toArray(String[]::new);
+            args.add(roleNames);
+            args.add(roleNames);
+        }
+
+        String sql = UPDATE_ACCOUNT.formatted(String.join(", ", assignments), conditions, replaceRoles);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new AccountUpdateResult(
+                        new AccountInfo(rs.getString("username"), rs.getBoolean("enabled"),
+                                roles != null ? roles : toRoles(rs.getString("roles")), rs.getLong("version")),
+                        toAccountEpoch(rs, rowNum)), args.toArray())
+                .stream().findFirst();
+    }
+
+    @Override
+    public Optional<AccountEpoch> updatePassword(String username, long version, String password) {
+        return jdbcTemplate.query(UPDATE_PASSWORD, AccountJdbcRepositoryImpl::toAccountEpoch, password, username,
+                version).stream().findFirst();
+    }
+
+    @Override
+    public List<AccountEpoch> updateEnabled(AccountSelector selector, boolean enabled, boolean includeRoot) {
+        List<Object> args = new ArrayList<>();
+        args.add(enabled);
+        // Enabling an account leaves its tokens valid
+        String assignments = enabled ? "enabled = ?, version = a.version + 1"
+                : "enabled = ?, version = a.version + 1, token_epoch = a.token_epoch + 1";
+        String condition = selectorCondition(selector, includeRoot, args);
+        return jdbcTemplate.query(UPDATE_ENABLED.formatted(assignments, condition),
+                AccountJdbcRepositoryImpl::toAccountEpoch, args.toArray());
+    }
+
+    @Override
+    public List<AccountEpoch> deleteAccounts(AccountSelector selector, boolean includeRoot) {
+        List<Object> args = new ArrayList<>();
+        String condition = selectorCondition(selector, includeRoot, args);
+        return jdbcTemplate.query(DELETE_SELECTED.formatted(condition), AccountJdbcRepositoryImpl::toAccountEpoch,
+                args.toArray());
+    }
+
+    private static AccountEpoch toAccountEpoch(ResultSet rs, int rowNum) throws SQLException {
+        return new AccountEpoch(rs.getLong("id"), rs.getString("username"), rs.getInt("token_epoch"));
+    }
+
+    private static String selectorCondition(AccountSelector selector, boolean includeRoot, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (selector.usernames() != null && !selector.usernames().isEmpty()) {
+            conditions.add("a.username = any (?)");
+            args.add(selector.usernames().toArray(String[]::new));
+        }
+        if (selector.role() != null) {
+            conditions.add(ROLE_CONDITION);
+            args.add(selector.role().name());
+        }
+        if (selector.enabled() != null) {
+            conditions.add("a.enabled = ?");
+            args.add(selector.enabled());
+        }
+        if (!includeRoot) {
+            // accounts with the ROOT role can only be changed in bulk by users with ROOT role
+            conditions.add(NOT_ROOT_CONDITION);
+        }
+        return conditions.isEmpty() ? "true" : String.join(" and ", conditions);
+    }
+
+    private static Set<Role> toRoles(String roles) {
+        if (roles == null) {
+            return Set.of();
+        }
+        return Arrays.stream(roles.split(",")).map(Role::valueOf).collect(Collectors.toSet());
+    }
+
+    private static long copy(CopyManager copyManager, String sql, CharSequence rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        CopyIn copyIn = copyManager.copyIn(sql);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        return copyIn.endCopy();
+    }
+
+    private static String toCsv(List<Account> accounts) {
+        StringBuilder csv = new StringBuilder();
+        for (Account account : accounts) {
+            csv.append(csvField(account.getUsername())).append(',')
+                    .append(csvField(account.getPassword())).append(',')
+                    .append(account.isEnabled()).append(',')
+                    .append(csvField(account.getRoles().stream().map(Role::name).collect(Collectors.joining(","))))
+                    .append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String csvField(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,15 +1,29 @@
 package com.example.demo.data.repo;
 
+import com.example.demo.data.dto.account.AccountCredentials;
+import com.example.demo.data.dto.account.AccountVersion;
 import com.example.demo.data.model.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountJdbcRepository {
 
     Optional<Account> findByUsername(String username);
 
     Optional<Account> findByUsernameAndEnabledTrue(String username);
+
+    @Query("select new com.example.demo.data.dto.account.AccountCredentials(a.password, a.version)"
+            + " from Account a where a.username = :username")
+    Optional<AccountCredentials> findCredentialsByUsername(String username);
+
+    @Query("select new com.example.demo.data.dto.account.AccountVersion(a.id, a.version)"
+            + " from Account a where a.username = :username")
+    Optional<AccountVersion> findVersionByUsername(String username);
+
+    @Query("select a.tokenEpoch from Account a where a.id = :id")
+    Optional<Integer> findTokenEpochById(long id);
 }
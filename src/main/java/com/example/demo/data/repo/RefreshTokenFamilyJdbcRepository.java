@@ -0,0 +1,15 @@
+package com.example.demo.data.repo;
+
+import com.example.demo.data.security.TokenFamily;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenFamilyJdbcRepository {
+
+    Optional<TokenFamily> rotateFamily(String id, String username, int generation, long expiresAt);
+
+    void revokeFamily(String id, String username, long expiresAt);
+
+    int deleteExpiredFamilies(Instant now);
+}
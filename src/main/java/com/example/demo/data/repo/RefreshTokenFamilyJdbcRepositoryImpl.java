@@ -0,0 +1,55 @@
+package com.example.demo.data.repo;
+
+import com.example.demo.data.security.TokenFamily;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+public class RefreshTokenFamilyJdbcRepositoryImpl implements RefreshTokenFamilyJdbcRepository {
+
+    // Compare and set on the generation, of concurrent rotations on any instance only one moves the family on. A
+    // family is only written by its first rotation, logins do not touch the table.
+    private static final String ROTATE_FAMILY = """
+            insert into refresh_token_family (id, username, generation, revoked, expires_at)
+            values (?, ?, ?, false, ?)
+            on conflict (id) do update set generation = excluded.generation, expires_at = excluded.expires_at
+            where refresh_token_family.generation = excluded.generation - 1 and not refresh_token_family.revoked
+                and refresh_token_family.username = excluded.username
+            returning id, username, generation, revoked, expires_at""";
+    private static final String REVOKE_FAMILY = """
+            insert into refresh_token_family (id, username, generation, revoked, expires_at)
+            values (?, ?, 0, true, ?)
+            on conflict (id) do update set revoked = true""";
+    private static final String DELETE_EXPIRED = "delete from refresh_token_family where expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RefreshTokenFamilyJdbcRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<TokenFamily> rotateFamily(String id, String username, int generation, long expiresAt) {
+        return jdbcTemplate.query(ROTATE_FAMILY, RefreshTokenFamilyJdbcRepositoryImpl::toTokenFamily, id, username,
+                generation, new Timestamp(expiresAt)).stream().findFirst();
+    }
+
+    @Override
+    public void revokeFamily(String id, String username, long expiresAt) {
+        jdbcTemplate.update(REVOKE_FAMILY, id, username, new Timestamp(expiresAt));
+    }
+
+    @Override
+    public int deleteExpiredFamilies(Instant now) {
+        return jdbcTemplate.update(DELETE_EXPIRED, Timestamp.from(now));
+    }
+
+    private static TokenFamily toTokenFamily(ResultSet rs, int rowNum) throws SQLException {
+        return new TokenFamily(rs.getString("id"), rs.getString("username"), rs.getInt("generation"),
+                rs.getBoolean("revoked"), rs.getTimestamp("expires_at").getTime());
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.data.repo;
+
+import com.example.demo.data.model.RefreshTokenFamily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String>,
+        RefreshTokenFamilyJdbcRepository {
+}
@@ -0,0 +1,10 @@
+package com.example.demo.data.repo;
+
+import java.time.Instant;
+
+public interface RevokedTokenJdbcRepository {
+
+    void insertRevokedToken(String id, Instant expiresAt);
+
+    int deleteExpiredTokens(Instant now);
+}
@@ -0,0 +1,31 @@
+package com.example.demo.data.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+public class RevokedTokenJdbcRepositoryImpl implements RevokedTokenJdbcRepository {
+
+    // Revoking a token twice is not an error
+    private static final String INSERT_REVOKED = """
+            insert into revoked_token (id, expires_at) values (?, ?)
+            on conflict (id) do nothing""";
+    private static final String DELETE_EXPIRED = "delete from revoked_token where expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RevokedTokenJdbcRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertRevokedToken(String id, Instant expiresAt) {
+        jdbcTemplate.update(INSERT_REVOKED, id, Timestamp.from(expiresAt));
+    }
+
+    @Override
+    public int deleteExpiredTokens(Instant now) {
+        return jdbcTemplate.update(DELETE_EXPIRED, Timestamp.from(now));
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.data.repo;
+
+import com.example.demo.data.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String>, RevokedTokenJdbcRepository {
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+}
@@ -1,9 +1,13 @@
 package com.example.demo.data.security;
 
+import com.example.demo.data.model.Role;
 import io.jsonwebtoken.Claims;
 
-import static com.example.demo.utils.security.SecurityConstants.ACCESS_TYPE_CLAIM;
-import static com.example.demo.utils.security.SecurityConstants.REFRESH_TYPE_CLAIM;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static com.example.demo.utils.security.SecurityConstants.*;
 
 public record JwtToken(String token, Claims claims) {
 
@@ -11,6 +15,14 @@ public record JwtToken(String token, Claims claims) {
         return claims().getSubject();
     }
 
+    public String id() {
+        return claims().getId();
+    }
+
+    public long expiresAt() {
+        return claims().getExpiration().getTime();
+    }
+
     public boolean isAccessToken() {
         return claims().containsKey(ACCESS_TYPE_CLAIM);
     }
@@ -18,4 +30,26 @@ public record JwtToken(String token, Claims claims) {
     public boolean isRefreshToken() {
         return claims().containsKey(REFRESH_TYPE_CLAIM);
     }
+
+    // Tokens issued before the account claims were introduced carry none of them
+    public boolean hasAccountClaims() {
+        return claims().containsKey(ACCOUNT_ID_CLAIM) && claims().containsKey(EPOCH_CLAIM)
+                && claims().containsKey(ROLES_CLAIM);
+    }
+
+    public Long accountId() {
+        return claims().get(ACCOUNT_ID_CLAIM, Long.class);
+    }
+
+    public Integer tokenEpoch() {
+        return claims().get(EPOCH_CLAIM, Integer.class);
+    }
+
+    public Set<Role> roles() {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        if (claims().get(ROLES_CLAIM) instanceof Collection<?> names) {
+            names.forEach(name -> roles.add(Role.valueOf(name.toString())));
+        }
+        return roles;
+    }
 }
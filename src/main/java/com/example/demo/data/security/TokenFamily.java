@@ -0,0 +1,12 @@
+package com.example.demo.data.security;
+
+public record TokenFamily(String id, String username, int generation, boolean revoked, long expiresAt) {
+
+    public TokenFamily rotate(int generation, long expiresAt) {
+        return new TokenFamily(id, username, generation, revoked, expiresAt);
+    }
+
+    public TokenFamily revoke() {
+        return new TokenFamily(id, username, generation, true, expiresAt);
+    }
+}
@@ -1,9 +1,9 @@
 package com.example.demo.error;
 
 import com.example.demo.data.dto.error.ValidationError;
-import org.hibernate.exception.ConstraintViolationException;
-import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -11,6 +11,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.sql.SQLException;
 import java.util.List;
 
 @ControllerAdvice
@@ -31,10 +32,35 @@ public class ExceptionHandlerAdvice {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
     }
 
+    @ExceptionHandler(AccountAlreadyExistsException.class)
+    public ResponseEntity<Void> handleAccountAlreadyExists() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @ExceptionHandler({AccountVersionConflictException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Void> handleVersionConflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<Void> handleInvalidRefreshToken() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<Void> handleInvalidToken() {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
+    @ExceptionHandler(RecordingStateException.class)
+    public ResponseEntity<Void> handleRecordingState() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<Void> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
-        if (ex.getCause() instanceof ConstraintViolationException cve
-                && cve.getCause() instanceof PSQLException pe && pe.getMessage().contains("duplicate")) {
+        if (ex.getMostSpecificCause() instanceof SQLException sqlException
+                && PSQLState.UNIQUE_VIOLATION.getState().equals(sqlException.getSQLState())) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
 
@@ -1,4 +1,4 @@
 package com.example.demo.error;
 
-public class IllegalRoleAssignmentException extends Exception {
+public class IllegalRoleAssignmentException extends StacklessException {
 }
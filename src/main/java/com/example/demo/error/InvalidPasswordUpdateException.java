@@ -1,4 +1,4 @@
 package com.example.demo.error;
 
-public class InvalidPasswordUpdateException extends Exception {
+public class InvalidPasswordUpdateException extends StacklessException {
 }
@@ -0,0 +1,4 @@
+package com.example.demo.error;
+
+public class InvalidTokenException extends StacklessException {
+}
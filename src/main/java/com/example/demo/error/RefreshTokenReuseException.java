@@ -0,0 +1,5 @@
+package com.example.demo.error;
+
+// A refresh token of a generation its family has already moved past, answered like any other invalid refresh token
+public class RefreshTokenReuseException extends InvalidRefreshTokenException {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.error;
+
+// Domain exceptions are expected outcomes that end up as HTTP statuses, filling in a stack trace is pure overhead
+public abstract class StacklessException extends Exception {
+
+    protected StacklessException() {
+        super(null, null, false, false);
+    }
+}
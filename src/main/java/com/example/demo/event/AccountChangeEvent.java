@@ -0,0 +1,6 @@
+package com.example.demo.event;
+
+import java.util.Collection;
+
+public record AccountChangeEvent(Collection<String> usernames) {
+}
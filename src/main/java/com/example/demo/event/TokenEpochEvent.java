@@ -0,0 +1,8 @@
+package com.example.demo.event;
+
+import com.example.demo.data.dto.account.AccountEpoch;
+
+import java.util.Collection;
+
+public record TokenEpochEvent(Collection<AccountEpoch> epochs) {
+}
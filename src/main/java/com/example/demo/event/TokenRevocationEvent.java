@@ -0,0 +1,4 @@
+package com.example.demo.event;
+
+public record TokenRevocationEvent(String tokenId, long expiresAt, String familyId) {
+}
@@ -0,0 +1,47 @@
+package com.example.demo.event.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Committed in the service method, so the duration excludes the transaction commit
+@Name("com.example.demo.AccountMutation")
+@Label("Account Mutation")
+@Category({"Demo", "Accounts"})
+@StackTrace(false)
+public class AccountMutationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Username Hash")
+    long usernameHash;
+
+    @Label("Accounts")
+    int accounts;
+
+    @Label("Outcome")
+    String outcome = "failure";
+
+    public static AccountMutationEvent start(String operation) {
+        AccountMutationEvent event = new AccountMutationEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    public void succeeded(int accounts) {
+        this.accounts = accounts;
+        this.outcome = "success";
+    }
+
+    // For the mutations of a single account, bulk mutations leave the hash empty
+    public void end(String username) {
+        if (shouldCommit()) {
+            usernameHash = UsernameHash.of(username);
+            commit();
+        }
+    }
+}
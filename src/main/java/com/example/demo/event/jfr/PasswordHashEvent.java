@@ -0,0 +1,32 @@
+package com.example.demo.event.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// The encoder is not told whose password it hashes, so there is no username hash
+@Name("com.example.demo.PasswordHash")
+@Label("Password Hash")
+@Category({"Demo", "Security"})
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    public static final String ENCODE = "encode";
+    public static final String MATCHES = "matches";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Outcome")
+    String outcome;
+
+    public void end(String operation, String outcome) {
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
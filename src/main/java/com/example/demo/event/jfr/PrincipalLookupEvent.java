@@ -0,0 +1,34 @@
+package com.example.demo.event.jfr;
+
+import com.example.demo.service.warmup.WarmupContext;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.demo.PrincipalLookup")
+@Label("Principal Lookup")
+@Category({"Demo", "Security"})
+@StackTrace(false)
+public class PrincipalLookupEvent extends Event {
+
+    @Label("Username Hash")
+    long usernameHash;
+
+    @Label("Source")
+    String source;
+
+    @Label("Outcome")
+    String outcome;
+
+    // The source is either the claims of the token or the database
+    public void end(String username, boolean fromClaims, boolean found) {
+        if (shouldCommit() && !WarmupContext.isActive()) {
+            usernameHash = UsernameHash.of(username);
+            source = fromClaims ? "claims" : "database";
+            outcome = found ? "found" : "not_found";
+            commit();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.event.jfr;
+
+import com.example.demo.service.warmup.WarmupContext;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.demo.TokenIssuance")
+@Label("Token Issuance")
+@Category({"Demo", "Security"})
+@StackTrace(false)
+public class TokenIssuanceEvent extends Event {
+
+    @Label("Username Hash")
+    long usernameHash;
+
+    @Label("Token Type")
+    String tokenType;
+
+    public void end(String username, String type) {
+        if (shouldCommit() && !WarmupContext.isActive()) {
+            usernameHash = UsernameHash.of(username);
+            tokenType = type;
+            commit();
+        }
+    }
+}
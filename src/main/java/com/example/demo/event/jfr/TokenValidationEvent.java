@@ -0,0 +1,38 @@
+package com.example.demo.event.jfr;
+
+import com.example.demo.service.warmup.WarmupContext;
+import com.example.demo.data.security.JwtToken;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.demo.TokenValidation")
+@Label("Token Validation")
+@Category({"Demo", "Security"})
+@StackTrace(false)
+public class TokenValidationEvent extends Event {
+
+    @Label("Username Hash")
+    long usernameHash;
+
+    @Label("Token Type")
+    String tokenType;
+
+    @Label("Outcome")
+    String outcome;
+
+    // A null token means the validation failed
+    public void end(JwtToken token) {
+        if (!shouldCommit() || WarmupContext.isActive()) {
+            return;
+        }
+        if (token != null) {
+            usernameHash = UsernameHash.of(token.subject());
+            tokenType = token.isRefreshToken() ? "refresh" : "access";
+        }
+        outcome = token != null ? "valid" : "invalid";
+        commit();
+    }
+}
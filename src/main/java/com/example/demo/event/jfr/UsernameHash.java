@@ -0,0 +1,27 @@
+package com.example.demo.event.jfr;
+
+import java.security.SecureRandom;
+
+// Recordings leave the process, so they carry a keyed hash instead of the username. The key is random per process,
+// the events of one account can be correlated within a recording but not matched against a list of usernames.
+final class UsernameHash {
+
+    private static final long KEY = new SecureRandom().nextLong();
+
+    private UsernameHash() {
+    }
+
+    static long of(String username) {
+        if (username == null) {
+            return 0;
+        }
+        long hash = KEY;
+        for (int i = 0; i < username.length(); i++) {
+            hash = (hash ^ username.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.demo.filter.diagnostics;
+
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import com.example.demo.filter.warmup.WarmupRequestFilter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Accounts the CPU time and the allocations of the request thread next to the wall time, per endpoint and role. A
+// request that spends most of its wall time on the CPU is bound by hashing or signing, the rest of it is waiting.
+// Only the initial dispatch is measured, the work of streamed responses on other threads is not included.
+@Slf4j
+@Component
+public class RequestCostFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+    private static final String ANONYMOUS_ROLE = "anonymous";
+
+    private final Meter.MeterProvider<Timer> cpuTimers;
+    private final Meter.MeterProvider<DistributionSummary> allocationSummaries;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final boolean enabled;
+    private final boolean cpuTimeSupported;
+    private final boolean allocationSupported;
+    private final long slowThreshold;
+    private final double sampleRate;
+
+    public RequestCostFilter(MeterRegistry registry,
+                             @Value("${demo.diagnostics.request-cost.enabled:true}") boolean enabled,
+                             @Value("${demo.diagnostics.request-cost.slow-threshold:500ms}") Duration slowThreshold,
+                             @Value("${demo.diagnostics.request-cost.sample-rate:0}") double sampleRate) {
+        // the builders are configured once, a request only supplies its tags
+        this.cpuTimers = Timer.builder("http.server.requests.cpu")
+                .description("CPU time of the request thread")
+                .withRegistry(registry);
+        this.allocationSummaries = DistributionSummary.builder("http.server.requests.allocated")
+                .description("Bytes allocated by the request thread")
+                .baseUnit("bytes")
+                .withRegistry(registry);
+        this.threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.enabled = enabled;
+        this.cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+        this.allocationSupported = threadMXBean.isThreadAllocatedMemorySupported()
+                && threadMXBean.isThreadAllocatedMemoryEnabled();
+        this.slowThreshold = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || WarmupRequestFilter.isWarmup(request);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long wallStart = System.nanoTime();
+        long cpuStart = cpuTime();
+        long userStart = userTime();
+        long allocatedStart = allocatedBytes();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long wall = System.nanoTime() - wallStart;
+            long cpu = cpuTime() - cpuStart;
+            long user = userTime() - userStart;
+            long allocated = allocatedBytes() - allocatedStart;
+            record(request, response, wall, cpu, user, allocated);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long wall, long cpu, long user,
+                        long allocated) {
+        String uri = uri(request);
+        String role = role();
+        if (cpuTimeSupported) {
+            cpuTimers.withTags("method", request.getMethod(), "uri", uri, "role", role)
+                    .record(cpu, TimeUnit.NANOSECONDS);
+        }
+        if (allocationSupported) {
+            allocationSummaries.withTags("method", request.getMethod(), "uri", uri, "role", role)
+                    .record(allocated);
+        }
+
+        if (wall >= slowThreshold || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            log.info("{} {} role={} status={} wall={}ms cpu={}ms user={}ms cpu/wall={}% allocated={}KB",
+                    request.getMethod(), uri, role, response.getStatus(), millis(wall),
+                    cpuTimeSupported ? millis(cpu) : "n/a", cpuTimeSupported ? millis(user) : "n/a",
+                    cpuTimeSupported && wall > 0 ? cpu * 100 / wall : "n/a",
+                    allocationSupported ? allocated / 1024 : "n/a");
+        }
+    }
+
+    private long cpuTime() {
+        return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0;
+    }
+
+    private long userTime() {
+        return cpuTimeSupported ? threadMXBean.getCurrentThreadUserTime() : 0;
+    }
+
+    private long allocatedBytes() {
+        return allocationSupported ? threadMXBean.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    // The mapped pattern keeps the number of tag values bounded, requests rejected before reaching a handler have none
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+
+    // The highest role of the account, its authorities follow from it
+    private static String role() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ANONYMOUS_ROLE;
+        }
+        if (authentication.getPrincipal() instanceof Account account && account.getRoles() != null) {
+            return account.getRoles().stream()
+                    .min(Comparator.naturalOrder())
+                    .map(Role::name)
+                    .orElse(ANONYMOUS_ROLE);
+        }
+        return ANONYMOUS_ROLE;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -1,7 +1,18 @@
 package com.example.demo.filter.security;
 
+import com.example.demo.data.model.Account;
 import com.example.demo.data.security.JwtToken;
+import com.example.demo.event.jfr.PrincipalLookupEvent;
+import com.example.demo.filter.warmup.WarmupRequestFilter;
 import com.example.demo.service.security.JwtService;
+import com.example.demo.service.security.RevokedTokenStore;
+import com.example.demo.service.security.SecurityMetrics;
+import com.example.demo.service.security.SecurityMetrics.FilterPhase;
+import com.example.demo.service.security.SecurityMetrics.RejectionReason;
+import com.example.demo.service.tracing.Span;
+import com.example.demo.service.tracing.SpanKind;
+import com.example.demo.service.tracing.Tracer;
+import com.example.demo.service.security.TokenEpochIndex;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,7 +31,9 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Map;
 
+import static com.example.demo.service.security.SecurityMetrics.FilterPhase.*;
 import static com.example.demo.utils.security.SecurityConstants.*;
 
 @Component
@@ -28,10 +41,20 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenEpochIndex tokenEpochIndex;
+    private final RevokedTokenStore revokedTokenStore;
+    private final SecurityMetrics securityMetrics;
+    private final Tracer tracer;
 
-    public JwtTokenFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtTokenFilter(JwtService jwtService, UserDetailsService userDetailsService,
+                          TokenEpochIndex tokenEpochIndex, RevokedTokenStore revokedTokenStore,
+                          SecurityMetrics securityMetrics, Tracer tracer) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenEpochIndex = tokenEpochIndex;
+        this.revokedTokenStore = revokedTokenStore;
+        this.securityMetrics = securityMetrics;
+        this.tracer = tracer;
     }
 
     @Override
@@ -46,18 +69,40 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         final String jwt = authHeader.substring(BEARER_AUTHORIZATION.length());
 
         UserDetails userDetails;
+        // the warm-up requests run the same checks but stay out of the metrics
+        boolean recorded = !WarmupRequestFilter.isWarmup(request);
+        // covers the authentication only, the rest of the chain belongs to the server span
+        Span span = tracer.startSpan("JwtTokenFilter", SpanKind.INTERNAL);
         try {
+            long phaseStart = System.nanoTime();
             final JwtToken token = jwtService.validateAndGetToken(jwt);
+            phaseStart = recordFilterPhase(recorded, PARSE, phaseStart);
 
             if ((token.isRefreshToken() && !request.getRequestURI().endsWith(TOKEN_REFRESH_ENDPOINT))
                     || (token.isAccessToken() && request.getRequestURI().endsWith(TOKEN_REFRESH_ENDPOINT))) {
                 throw new JwtException(INVALID_TOKEN_TYPE);
             }
 
-            userDetails = userDetailsService.loadUserByUsername(token.subject());
+            if ((token.hasAccountClaims() && token.tokenEpoch() < tokenEpochIndex.current(token.accountId()))
+                    || revokedTokenStore.isRevoked(token)) {
+                throw new JwtException(REVOKED_TOKEN);
+            }
+            phaseStart = recordFilterPhase(recorded, VERIFY, phaseStart);
+
+            userDetails = loadPrincipal(token);
+            recordFilterPhase(recorded, PRINCIPAL, phaseStart);
+            request.setAttribute(JWT_TOKEN_ATTRIBUTE, token);
+            renewAccessToken(token, userDetails, response);
         } catch (JwtException | UsernameNotFoundException ex) {
+            RejectionReason reason = rejectionReason(ex);
+            if (recorded) {
+                securityMetrics.recordRejection(reason);
+            }
+            span.error(reason.tag());
             response.setStatus(HttpStatus.UNAUTHORIZED.value());
             return;
+        } finally {
+            span.end();
         }
 
         if (SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -74,8 +119,64 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private long recordFilterPhase(boolean recorded, FilterPhase phase, long start) {
+        return recorded ? securityMetrics.recordFilterPhase(phase, start) : System.nanoTime();
+    }
+
+    // A current epoch proves that the roles of an access token are still those of the account, refresh tokens always
+    // load the account
+    private UserDetails loadPrincipal(JwtToken token) {
+        PrincipalLookupEvent event = new PrincipalLookupEvent();
+        event.begin();
+        boolean fromClaims = token.hasAccountClaims() && token.isAccessToken();
+        UserDetails principal = null;
+        try {
+            principal = fromClaims ? accountFromClaims(token) : userDetailsService.loadUserByUsername(token.subject());
+            return principal;
+        } finally {
+            event.end(token.subject(), fromClaims, principal != null);
+        }
+    }
+
+    private static RejectionReason rejectionReason(RuntimeException ex) {
+        if (ex instanceof UsernameNotFoundException) {
+            return RejectionReason.ACCOUNT;
+        }
+        if (REVOKED_TOKEN.equals(ex.getMessage())) {
+            return RejectionReason.REVOKED;
+        }
+        return INVALID_TOKEN_TYPE.equals(ex.getMessage()) ? RejectionReason.TYPE : RejectionReason.INVALID;
+    }
+
+    private static Account accountFromClaims(JwtToken token) {
+        return Account.builder()
+                .id(token.accountId())
+                .username(token.subject())
+                .enabled(true)
+                .roles(token.roles())
+                .tokenEpoch(token.tokenEpoch())
+                .build();
+    }
+
+    // The roles are either freshly loaded or verified by the epoch, so a renewed token never extends stale roles
+    private void renewAccessToken(JwtToken token, UserDetails userDetails, HttpServletResponse response) {
+        if (!(userDetails instanceof Account account)) {
+            return;
+        }
+        String renewedToken = jwtService.renewAccessToken(token, Map.of(ROLES_CLAIM, account.getRoles(),
+                ACCOUNT_ID_CLAIM, account.getId(), EPOCH_CLAIM, account.getTokenEpoch()));
+        if (renewedToken != null) {
+            response.setHeader(RENEWED_TOKEN_HEADER, renewedToken);
+        }
+    }
+
     @Override
     protected boolean shouldNotFilterErrorDispatch() {
         return false;
     }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
 }
@@ -0,0 +1,61 @@
+package com.example.demo.filter.tracing;
+
+import com.example.demo.service.tracing.Span;
+import com.example.demo.service.tracing.Tracer;
+import com.example.demo.utils.tracing.TraceParent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Starts the server span ahead of the security filter chain, so rejected requests are traced as well
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_PARENT_HEADER = "traceparent";
+    // Tells the client which trace its request was recorded in
+    public static final String TRACE_RESPONSE_HEADER = "traceresponse";
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Span span = tracer.startServerSpan(request.getMethod(), request.getHeader(TRACE_PARENT_HEADER));
+        if (span.isRecording()) {
+            response.setHeader(TRACE_RESPONSE_HEADER,
+                    new TraceParent(span.traceIdHigh(), span.traceIdLow(), span.spanId(), true).format());
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            span.error(ex);
+            throw ex;
+        } finally {
+            if (span.isRecording()) {
+                Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                span.name(route != null ? request.getMethod() + " " + route : request.getMethod())
+                        .attribute("http.request.method", request.getMethod())
+                        .attribute("http.route", route != null ? route.toString() : null)
+                        .attribute("http.response.status_code", response.getStatus());
+                if (response.getStatus() >= 500) {
+                    span.error(Integer.toString(response.getStatus()));
+                }
+            }
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.filter.warmup;
+
+import com.example.demo.service.warmup.WarmupContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+// Marks the requests the warm-up sends to its own server, so the request metrics leave them out, and the thread that
+// serves them for the timers and events recorded deeper down. The key is drawn per process and only known to the
+// warm-up, a client cannot hide its requests by sending the header. Runs ahead of the observation filter behind
+// http.server.requests.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WarmupRequestFilter extends OncePerRequestFilter {
+
+    public static final String WARMUP_HEADER = "X-Warmup";
+    private static final String WARMUP_ATTRIBUTE = WarmupRequestFilter.class.getName() + ".WARMUP";
+
+    private final String key = UUID.randomUUID().toString();
+
+    public String key() {
+        return key;
+    }
+
+    public static boolean isWarmup(HttpServletRequest request) {
+        return request.getAttribute(WARMUP_ATTRIBUTE) != null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getHeader(WARMUP_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!MessageDigest.isEqual(key.getBytes(StandardCharsets.UTF_8),
+                request.getHeader(WARMUP_HEADER).getBytes(StandardCharsets.UTF_8))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        request.setAttribute(WARMUP_ATTRIBUTE, Boolean.TRUE);
+        WarmupContext.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            WarmupContext.end();
+        }
+    }
+}
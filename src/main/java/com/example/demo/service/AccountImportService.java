@@ -0,0 +1,205 @@
+package com.example.demo.service;
+
+import com.example.demo.data.dto.account.AccountCreateRequest;
+import com.example.demo.data.dto.account.AccountImportResult;
+import com.example.demo.data.dto.account.AccountImportResult.Status;
+import com.example.demo.data.mapper.AccountMapper;
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import com.example.demo.data.repo.AccountRepository;
+import com.example.demo.error.IllegalRoleAssignmentException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.demo.data.model.Role.ROOT;
+
+@Service
+public class AccountImportService {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema().withSkipFirstDataRow(true);
+    private static final int CSV_COLUMNS = 3;
+    private static final String CSV_ROLES_SEPARATOR = ";";
+
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final AccountMapper accountMapper;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService hashingExecutor;
+    private final int batchSize;
+
+    public AccountImportService(AccountService accountService, AccountRepository accountRepository,
+                                AccountMapper accountMapper, PasswordEncoder passwordEncoder, Validator validator,
+                                ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                @Value("${demo.accounts.import.batch-size:1000}") int batchSize,
+                                @Value("${demo.accounts.import.hashing-threads:0}") int hashingThreads) {
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+        this.accountMapper = accountMapper;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.csvMapper = new CsvMapper();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        // Bounded queue with caller-runs so that a single import cannot queue up unbounded hashing work
+        this.hashingExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize), new CustomizableThreadFactory("account-import-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public void importAccounts(InputStream input, MediaType contentType, OutputStream output) throws IOException {
+        boolean rootRequester = isRootRequester();
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            try (MappingIterator<String[]> rows = csvMapper.readerFor(String[].class)
+                    .with(CsvParser.Feature.WRAP_AS_ARRAY)
+                    .with(CSV_SCHEMA)
+                    .readValues(input)) {
+                importRecords(rows, this::fromCsv, rootRequester, output);
+            }
+        } else {
+            try (MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(input)) {
+                importRecords(nodes, this::fromJson, rootRequester, output);
+            }
+        }
+    }
+
+    private <T> void importRecords(MappingIterator<T> values, BiFunction<Long, T, ImportRecord> parser,
+                                   boolean rootRequester, OutputStream output) throws IOException {
+        List<ImportRecord> batch = new ArrayList<>(batchSize);
+        long index = 0;
+        while (values.hasNextValue()) {
+            batch.add(parser.apply(++index, values.nextValue()));
+            if (batch.size() == batchSize) {
+                writeResults(importBatch(batch, rootRequester), output);
+                batch.clear();
+            }
+        }
+        writeResults(importBatch(batch, rootRequester), output);
+    }
+
+    private List<AccountImportResult> importBatch(List<ImportRecord> batch, boolean rootRequester) {
+        Status[] statuses = new Status[batch.size()];
+        Map<String, Integer> pending = new HashMap<>();
+        List<CompletableFuture<Account>> hashed = new ArrayList<>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            AccountCreateRequest request = batch.get(i).request();
+            if (request == null || !validator.validate(request).isEmpty()) {
+                statuses[i] = Status.INVALID;
+            } else if (request.roles().contains(ROOT) && !rootRequester) {
+                statuses[i] = Status.FORBIDDEN;
+            } else if (pending.putIfAbsent(request.username(), i) != null) {
+                statuses[i] = Status.DUPLICATE;
+            } else {
+                hashed.add(CompletableFuture.supplyAsync(() -> toAccount(request), hashingExecutor));
+            }
+        }
+
+        // Hashing is finished before the transaction starts, so no connection is held while bcrypt runs
+        List<Account> accounts = hashed.stream().map(CompletableFuture::join).toList();
+        Set<String> created = accounts.isEmpty() ? Set.of()
+                : transactionTemplate.execute(status -> accountRepository.importAccounts(accounts));
+
+        pending.forEach((username, i) ->
+                statuses[i] = created.contains(username) ? Status.CREATED : Status.DUPLICATE);
+
+        return IntStream.range(0, batch.size())
+                .mapToObj(i -> new AccountImportResult(batch.get(i).index(), batch.get(i).username(), statuses[i]))
+                .toList();
+    }
+
+    private Account toAccount(AccountCreateRequest request) {
+        Account account = accountMapper.fromCreateRequest(request);
+        account.setPassword(passwordEncoder.encode(account.getPassword()));
+        return account;
+    }
+
+    private ImportRecord fromJson(long index, JsonNode node) {
+        String username = node.path("username").asText(null);
+        try {
+            return new ImportRecord(index, username, objectMapper.treeToValue(node, AccountCreateRequest.class));
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            return new ImportRecord(index, username, null);
+        }
+    }
+
+    private ImportRecord fromCsv(long index, String[] row) {
+        String username = row.length > 0 ? row[0] : null;
+        if (row.length != CSV_COLUMNS) {
+            return new ImportRecord(index, username, null);
+        }
+
+        try {
+            Set<Role> roles = Arrays.stream(row[2].split(CSV_ROLES_SEPARATOR))
+                    .map(String::trim)
+                    .filter(StringUtils::hasText)
+                    .map(Role::valueOf)
+                    .collect(Collectors.toSet());
+            return new ImportRecord(index, username, new AccountCreateRequest(row[0], row[1], roles));
+        } catch (IllegalArgumentException ex) {
+            return new ImportRecord(index, username, null);
+        }
+    }
+
+    private void writeResults(List<AccountImportResult> results, OutputStream output) throws IOException {
+        for (AccountImportResult result : results) {
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    private boolean isRootRequester() {
+        try {
+            accountService.verifyRootRequester(true);
+            return true;
+        } catch (IllegalRoleAssignmentException ex) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    private record ImportRecord(long index, String username, AccountCreateRequest request) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.data.dto.account.AccountVersion;
+import com.example.demo.event.AccountChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+public class AccountResponseCache {
+
+    public enum Representation {
+        ACCOUNT, PROFILE
+    }
+
+    public record CachedResponse(AccountVersion version, byte[] json, byte[] gzip) {
+    }
+
+    private record Key(Representation representation, String username) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, CachedResponse> responses;
+    private final boolean gzip;
+
+    public AccountResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${demo.accounts.response-cache.maximum-weight:8MB}") DataSize maximumWeight,
+                                @Value("${demo.accounts.response-cache.gzip:false}") boolean gzip) {
+        this.objectMapper = objectMapper;
+        this.gzip = gzip;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .weigher((Key key, CachedResponse response) -> key.username().length() + response.json().length
+                        + (response.gzip() != null ? response.gzip().length : 0))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "account-response");
+    }
+
+    // Entries of an older version are never returned, even if their eviction has not happened yet
+    public CachedResponse get(Representation representation, String username, AccountVersion version) {
+        CachedResponse response = responses.getIfPresent(new Key(representation, username));
+        return response != null && response.version().equals(version) ? response : null;
+    }
+
+    public CachedResponse put(Representation representation, String username, AccountVersion version, Object body) {
+        byte[] json = encode(body);
+        CachedResponse response = new CachedResponse(version, json, gzip ? compress(json) : null);
+        responses.put(new Key(representation, username), response);
+        return response;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChange(AccountChangeEvent event) {
+        for (String username : event.usernames()) {
+            for (Representation representation : Representation.values()) {
+                responses.invalidate(new Key(representation, username));
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        responses.invalidateAll();
+    }
+
+    private byte[] encode(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode " + body.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(json.length);
+        try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+            gzipOutput.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.service;
+
+import com.example.demo.data.dto.account.AccountSeedResult;
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import com.example.demo.data.repo.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+// Generates synthetic accounts for benchmarks and load tests and writes them with COPY. An account gets its highest
+// role drawn from the configured distribution and every role below it, like the default accounts. The password is
+// hashed once and shared, or stored with the noop encoder id when the hashing cost is not what is measured.
+@Slf4j
+@Service
+public class AccountSeeder {
+
+    private final AccountRepository accountRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Role[] roles;
+    private final double[] cumulativeShares;
+    private final boolean noopPasswords;
+    private final long randomSeed;
+
+    public AccountSeeder(AccountRepository accountRepository, PasswordEncoder passwordEncoder,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${demo.accounts.seed.batch-size:50000}") int batchSize,
+                         @Value("${demo.accounts.seed.roles:USER=90,ADMIN=9,ROOT=1}") String roleShares,
+                         @Value("${demo.accounts.seed.noop-passwords:false}") boolean noopPasswords,
+                         @Value("${demo.accounts.seed.random-seed:0}") long randomSeed) {
+        this.accountRepository = accountRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.noopPasswords = noopPasswords;
+        this.randomSeed = randomSeed;
+
+        Map<Role, Double> shares = parseShares(roleShares);
+        this.roles = shares.keySet().toArray(Role[]::new);
+        this.cumulativeShares = new double[roles.length];
+        double total = shares.values().stream().mapToDouble(Double::doubleValue).sum();
+        double cumulative = 0;
+        for (int i = 0; i < roles.length; i++) {
+            cumulative += shares.get(roles[i]) / total;
+            cumulativeShares[i] = cumulative;
+        }
+    }
+
+    // The same seed draws the same roles, so runs against freshly seeded databases are comparable
+    public AccountSeedResult seed(String usernamePrefix, long count, String password) {
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        return seed(usernamePrefix, count, password, () -> rolesFrom(highestRole(random.nextDouble())));
+    }
+
+    public AccountSeedResult seed(String usernamePrefix, long count, String password, Role highestRole) {
+        Set<Role> accountRoles = rolesFrom(highestRole);
+        return seed(usernamePrefix, count, password, () -> accountRoles);
+    }
+
+    private AccountSeedResult seed(String usernamePrefix, long count, String password, Supplier<Set<Role>> roles) {
+        long start = System.currentTimeMillis();
+        String encodedPassword = noopPasswords ? "{noop}" + password : passwordEncoder.encode(password);
+        long seededRoles = 0;
+        for (long seeded = 0; seeded < count; ) {
+            int size = (int) Math.min(batchSize, count - seeded);
+            long first = seeded;
+            // one transaction per batch, a failed batch leaves the earlier ones in place
+            seededRoles += transactionTemplate.execute(status -> {
+                long[] ids = accountRepository.reserveAccountIds(size);
+                List<Account> accounts = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    accounts.add(Account.builder()
+                            .id(ids[i])
+                            .username(usernamePrefix + (first + i))
+                            .password(encodedPassword)
+                            .enabled(true)
+                            .roles(roles.get())
+                            .build());
+                }
+                accountRepository.copyAccounts(accounts);
+                return accounts.stream().mapToLong(account -> account.getRoles().size()).sum();
+            });
+            seeded += size;
+        }
+        if (count > 0) {
+            accountRepository.analyzeAccounts();
+        }
+
+        long millis = System.currentTimeMillis() - start;
+        log.info("Seeded {} accounts with the prefix {} in {} ms", count, usernamePrefix, millis);
+        return new AccountSeedResult(count, seededRoles, millis);
+    }
+
+    private Role highestRole(double value) {
+        for (int i = 0; i < roles.length; i++) {
+            if (value < cumulativeShares[i]) {
+                return roles[i];
+            }
+        }
+        return roles[roles.length - 1];
+    }
+
+    // Role declares the roles from the highest to the lowest
+    private static Set<Role> rolesFrom(Role highestRole) {
+        return Collections.unmodifiableSet(EnumSet.range(highestRole, Role.USER));
+    }
+
+    private static Map<Role, Double> parseShares(String roleShares) {
+        Map<Role, Double> shares = new EnumMap<>(Role.class);
+        for (String entry : roleShares.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid role share " + entry);
+            }
+            double share = Double.parseDouble(parts[1].trim());
+            if (share < 0) {
+                throw new IllegalArgumentException("Negative role share " + entry);
+            }
+            if (share > 0) {
+                shares.merge(Role.valueOf(parts[0].trim()), share, Double::sum);
+            }
+        }
+        if (shares.isEmpty()) {
+            throw new IllegalArgumentException("No role shares in " + roleShares);
+        }
+        return shares;
+    }
+}
@@ -5,16 +5,24 @@ import com.example.demo.data.mapper.AccountMapper;
 import com.example.demo.data.model.Account;
 import com.example.demo.data.model.Role;
 import com.example.demo.data.repo.AccountRepository;
+import com.example.demo.error.AccountAlreadyExistsException;
 import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.error.AccountVersionConflictException;
 import com.example.demo.error.IllegalRoleAssignmentException;
 import com.example.demo.error.InvalidPasswordUpdateException;
+import com.example.demo.event.AccountChangeEvent;
+import com.example.demo.event.TokenEpochEvent;
+import com.example.demo.event.jfr.AccountMutationEvent;
+import com.example.demo.service.security.TokenEpochIndex;
 import com.example.demo.utils.security.SecurityUtils;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.example.demo.data.model.Role.*;
@@ -26,31 +34,33 @@ public class AccountService {
     private final PasswordEncoder passwordEncoder;
     private final AccountRepository accountRepository;
     private final AccountMapper accountMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountVersionIndex accountVersionIndex;
 
     public AccountService(PasswordEncoder passwordEncoder, AccountRepository accountRepository,
-                          AccountMapper accountMapper,
-                          @Value("${demo.create.default.accounts:false}") boolean createDefault) {
+                          AccountMapper accountMapper, ApplicationEventPublisher eventPublisher,
+                          AccountVersionIndex accountVersionIndex) {
         this.passwordEncoder = passwordEncoder;
         this.accountRepository = accountRepository;
         this.accountMapper = accountMapper;
-
-        if (createDefault) {
-            Account root = Account.builder().username("root").password(passwordEncoder.encode("root"))
-                    .roles(Set.of(ROOT, ADMIN, USER)).enabled(true).build();
-            Account admin = Account.builder().username("admin").password(passwordEncoder.encode("admin"))
-                    .roles(Set.of(ADMIN, USER)).enabled(true).build();
-            Account user = Account.builder().username("user").password(passwordEncoder.encode("user"))
-                    .roles(Set.of(USER)).enabled(true).build();
-            accountRepository.save(root);
-            accountRepository.save(admin);
-            accountRepository.save(user);
-        }
+        this.eventPublisher = eventPublisher;
+        this.accountVersionIndex = accountVersionIndex;
     }
 
     public AccountInfo getAccount(String username) throws AccountNotFoundException {
         return accountMapper.toInfo(findAccount(username));
     }
 
+    @Transactional(readOnly = true)
+    public AccountVersion getAccountVersion(String username) throws AccountNotFoundException {
+        AccountVersion version = accountVersionIndex.get(username);
+        if (version == null) {
+            version = accountRepository.findVersionByUsername(username).orElseThrow(AccountNotFoundException::new);
+            accountVersionIndex.put(username, version);
+        }
+        return version;
+    }
+
     public List<AccountInfo> getAccounts() {
         return accountRepository.findAll().stream().map(accountMapper::toInfo).toList();
     }
@@ -59,62 +69,155 @@ public class AccountService {
         return findAccount(username).getRoles();
     }
 
+    public AccountTokenInfo getAccountTokenInfo(String username) throws AccountNotFoundException {
+        Account account = findAccount(username);
+        return new AccountTokenInfo(account.getId(), account.getRoles(), account.getTokenEpoch());
+    }
+
     public Profile getProfile(String username) throws AccountNotFoundException {
         return accountMapper.toProfile(findAccount(username));
     }
 
-    public AccountInfo createAccount(AccountCreateRequest request) throws IllegalRoleAssignmentException {
-        Account newAccount = accountMapper.fromCreateRequest(request);
-        verifyRootRequester(newAccount.getRoles().contains(ROOT));
-        newAccount.setPassword(passwordEncoder.encode(newAccount.getPassword()));
-        accountRepository.save(newAccount);
-        return accountMapper.toInfo(newAccount);
+    public AccountInfo createAccount(AccountCreateRequest request) throws IllegalRoleAssignmentException, AccountAlreadyExistsException {
+        AccountMutationEvent event = AccountMutationEvent.start("create");
+        try {
+            Account newAccount = accountMapper.fromCreateRequest(request);
+            verifyRootRequester(newAccount.getRoles().contains(ROOT));
+            newAccount.setPassword(passwordEncoder.encode(newAccount.getPassword()));
+            newAccount.setId(
+                    accountRepository.createAccount(newAccount).orElseThrow(AccountAlreadyExistsException::new));
+            event.succeeded(1);
+            return accountMapper.toInfo(newAccount);
+        } finally {
+            event.end(request.username());
+        }
     }
 
-    public AccountInfo updateAccount(String username, AccountUpdate request) throws AccountNotFoundException, IllegalRoleAssignmentException {
-        Account account = findAccount(username);
-        if (request.password() != null) {
-            account.setPassword(passwordEncoder.encode(request.password()));
+    public AccountInfo updateAccount(String username, AccountUpdate request) throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
+        AccountMutationEvent event = AccountMutationEvent.start("update");
+        try {
+            String password = request.password() != null ? passwordEncoder.encode(request.password()) : null;
+            Set<Role> roles = request.roles() != null && !request.roles().isEmpty() ? request.roles() : null;
+            // Enabling an account is the only change that leaves its tokens valid
+            boolean revokeTokens = password != null || Boolean.FALSE.equals(request.enabled()) || roles != null;
+            Optional<AccountUpdateResult> updated = accountRepository.updateAccount(username, request.version(),
+                    password, request.enabled(), roles, isRootRequester(), revokeTokens);
+            if (updated.isEmpty()) {
+                rejectUpdate(username, request.version());
+            }
+            if (revokeTokens) {
+                publishTokenEpochs(List.of(updated.get().epoch()));
+            }
+            publishChange(List.of(username));
+            event.succeeded(1);
+            return updated.get().account();
+        } finally {
+            event.end(username);
         }
-        if (request.enabled() != null) {
-            account.setEnabled(request.enabled());
+    }
+
+    public AccountBulkResult updateAccounts(AccountBulkUpdate request) {
+        AccountMutationEvent event = AccountMutationEvent.start("bulk_update");
+        try {
+            List<AccountEpoch> updated =
+                    accountRepository.updateEnabled(request.selector(), request.enabled(), isRootRequester());
+            if (!request.enabled()) {
+                publishTokenEpochs(updated);
+            }
+            publishChange(updated.stream().map(AccountEpoch::username).toList());
+            event.succeeded(updated.size());
+            return new AccountBulkResult(updated.size());
+        } finally {
+            event.end(null);
         }
-        if (request.roles() != null && !request.roles().isEmpty()) {
-            updateAccountRoles(account, request.roles());
+    }
+
+    public void updateAccountPassword(String username, PasswordUpdate request) throws AccountNotFoundException, InvalidPasswordUpdateException, AccountVersionConflictException {
+        AccountMutationEvent event = AccountMutationEvent.start("password_update");
+        try {
+            AccountCredentials credentials =
+                    accountRepository.findCredentialsByUsername(username).orElseThrow(AccountNotFoundException::new);
+
+            if (!passwordEncoder.matches(request.oldPassword(), credentials.password())) {
+                throw new InvalidPasswordUpdateException();
+            }
+
+            AccountEpoch updated = accountRepository.updatePassword(username, credentials.version(),
+                    passwordEncoder.encode(request.newPassword())).orElseThrow(AccountVersionConflictException::new);
+            publishTokenEpochs(List.of(updated));
+            publishChange(List.of(username));
+            event.succeeded(1);
+        } finally {
+            event.end(username);
         }
-        accountRepository.save(account);
-        return accountMapper.toInfo(account);
     }
 
-    public void updateAccountPassword(String username, PasswordUpdate request) throws AccountNotFoundException, InvalidPasswordUpdateException {
+    private void rejectUpdate(String username, Long version) throws AccountNotFoundException, AccountVersionConflictException, IllegalRoleAssignmentException {
+        // The targeted update matched no row, find out which of its conditions did not hold
         Account account = findAccount(username);
+        if (version != null && version != account.getVersion()) {
+            throw new AccountVersionConflictException();
+        }
+        // ROOT role can only be assigned/removed by users with ROOT role
+        throw new IllegalRoleAssignmentException();
+    }
 
-        if (!passwordEncoder.matches(request.oldPassword(), account.getPassword())) {
-            throw new InvalidPasswordUpdateException();
+    public void verifyRootRequester(boolean isRootRequired) throws IllegalRoleAssignmentException {
+        // ROOT role can only be assigned/removed by users with ROOT role
+        if (isRootRequired && !isRootRequester()) {
+            throw new IllegalRoleAssignmentException();
         }
+    }
 
-        account.setPassword(passwordEncoder.encode(request.newPassword()));
-        accountRepository.save(account);
+    private boolean isRootRequester() {
+        Account requester = SecurityUtils.getAuthenticatedAccount();
+        return requester != null && requester.getRoles().contains(ROOT);
     }
 
-    private void updateAccountRoles(Account account, Set<Role> rolesUpdate) throws IllegalRoleAssignmentException {
-        // Detect if there is an update that involves the ROOT role using XOR
-        verifyRootRequester(rolesUpdate.contains(ROOT) ^ account.getRoles().contains(ROOT));
-        account.setRoles(rolesUpdate);
+    public void deleteAccount(String username) throws AccountNotFoundException {
+        AccountMutationEvent event = AccountMutationEvent.start("delete");
+        try {
+            Account account = findAccount(username);
+            accountRepository.delete(account);
+            revokeTokens(List.of(new AccountEpoch(account.getId(), username, account.getTokenEpoch())));
+            publishChange(List.of(username));
+            event.succeeded(1);
+        } finally {
+            event.end(username);
+        }
     }
 
-    private void verifyRootRequester(boolean isRootRequired) throws IllegalRoleAssignmentException {
-        if (isRootRequired) {
-            // ROOT role can only be assigned/removed by users with ROOT role
-            Account requester = SecurityUtils.getAuthenticatedAccount();
-            if (requester == null || !requester.getRoles().contains(ROOT)) {
-                throw new IllegalRoleAssignmentException();
-            }
+    public AccountBulkResult deleteAccounts(AccountSelector selector) {
+        AccountMutationEvent event = AccountMutationEvent.start("bulk_delete");
+        try {
+            List<AccountEpoch> deleted = accountRepository.deleteAccounts(selector, isRootRequester());
+            revokeTokens(deleted);
+            publishChange(deleted.stream().map(AccountEpoch::username).toList());
+            event.succeeded(deleted.size());
+            return new AccountBulkResult(deleted.size());
+        } finally {
+            event.end(null);
         }
     }
 
-    public void deleteAccount(String username) throws AccountNotFoundException {
-        accountRepository.delete(findAccount(username));
+    private void publishTokenEpochs(Collection<AccountEpoch> epochs) {
+        if (!epochs.isEmpty()) {
+            eventPublisher.publishEvent(new TokenEpochEvent(epochs));
+        }
+    }
+
+    private void revokeTokens(Collection<AccountEpoch> deleted) {
+        if (!deleted.isEmpty()) {
+            eventPublisher.publishEvent(new TokenEpochEvent(deleted.stream()
+                    .map(account -> new AccountEpoch(account.id(), account.username(), TokenEpochIndex.REVOKED))
+                    .toList()));
+        }
+    }
+
+    private void publishChange(Collection<String> usernames) {
+        if (!usernames.isEmpty()) {
+            eventPublisher.publishEvent(new AccountChangeEvent(usernames));
+        }
     }
 
     private Account findAccount(String username) throws AccountNotFoundException {
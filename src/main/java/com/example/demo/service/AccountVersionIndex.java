@@ -0,0 +1,44 @@
+package com.example.demo.service;
+
+import com.example.demo.data.dto.account.AccountVersion;
+import com.example.demo.event.AccountChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+@Component
+public class AccountVersionIndex {
+
+    private final Cache<String, AccountVersion> versions;
+
+    public AccountVersionIndex(@Value("${demo.accounts.version-index.maximum-size:10000}") long maximumSize,
+                               @Value("${demo.accounts.version-index.expire-after-write:60s}") Duration expireAfterWrite) {
+        // The expiry bounds how long a version read just before a concurrent commit can be served
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public AccountVersion get(String username) {
+        return versions.getIfPresent(username);
+    }
+
+    public void put(String username, AccountVersion version) {
+        versions.put(username, version);
+    }
+
+    // Evicting before the commit would let a concurrent read put the old version back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChange(AccountChangeEvent event) {
+        versions.invalidateAll(event.usernames());
+    }
+
+    public void invalidateAll() {
+        versions.invalidateAll();
+    }
+}
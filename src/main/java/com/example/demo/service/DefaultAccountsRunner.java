@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import com.example.demo.data.repo.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static com.example.demo.data.model.Role.*;
+
+// Creates the root, admin and user accounts once the context has started instead of while it is being built. Accounts
+// that already exist are left alone, so a restart against a populated database does not hash any password, and the
+// missing ones are hashed concurrently. Readiness is only reported after the runners have finished.
+@Slf4j
+@Component
+@Order(DefaultAccountsRunner.ORDER)
+public class DefaultAccountsRunner implements ApplicationRunner {
+
+    // Ahead of the warm-up, which can be configured to use one of the accounts
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private static final Map<String, Set<Role>> DEFAULT_ACCOUNTS = Map.of(
+            "root", Set.of(ROOT, ADMIN, USER),
+            "admin", Set.of(ADMIN, USER),
+            "user", Set.of(USER));
+
+    private final AccountRepository accountRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final boolean enabled;
+
+    public DefaultAccountsRunner(AccountRepository accountRepository, PasswordEncoder passwordEncoder,
+                                 @Value("${demo.create.default.accounts:false}") boolean enabled) {
+        this.accountRepository = accountRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        List<CompletableFuture<Account>> missing = DEFAULT_ACCOUNTS.entrySet().stream()
+                .filter(entry -> accountRepository.findVersionByUsername(entry.getKey()).isEmpty())
+                .map(entry -> CompletableFuture.supplyAsync(() -> account(entry.getKey(), entry.getValue())))
+                .toList();
+        // another instance starting at the same time may win the insert, which is fine
+        long created = missing.stream().map(CompletableFuture::join)
+                .filter(account -> accountRepository.createAccount(account).isPresent())
+                .count();
+        if (created > 0) {
+            log.info("Created {} default accounts", created);
+        }
+    }
+
+    private Account account(String username, Set<Role> roles) {
+        return Account.builder().username(username).password(passwordEncoder.encode(username))
+                .roles(roles).enabled(true).build();
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.demo.service.cluster;
+
+import com.example.demo.data.dto.cluster.InvalidationMessage;
+import com.example.demo.event.AccountChangeEvent;
+import com.example.demo.event.TokenEpochEvent;
+import com.example.demo.event.TokenRevocationEvent;
+import com.example.demo.service.AccountResponseCache;
+import com.example.demo.service.AccountVersionIndex;
+import com.example.demo.service.security.RefreshTokenStore;
+import com.example.demo.service.security.RevokedTokenStore;
+import com.example.demo.service.security.TokenEpochIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Applies the changes published by the other instances. Notifications sent before the first LISTEN or while the
+// connection is down are lost and a missing sequence number means one was, in all cases the local state is rebuilt
+// from the database.
+@Slf4j
+@Component
+public class InvalidationListener {
+
+    private static final long MAX_RECONNECT_DELAY = 30000;
+    // More missing messages than this are not waited for
+    private static final long MAX_MISSING = 1000;
+
+    private final InvalidationPublisher invalidationPublisher;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final AccountVersionIndex accountVersionIndex;
+    private final AccountResponseCache accountResponseCache;
+    private final TokenEpochIndex tokenEpochIndex;
+    private final RevokedTokenStore revokedTokenStore;
+    private final RefreshTokenStore refreshTokenStore;
+    private final int pollInterval;
+    private final long reconnectDelay;
+    private final long gapGrace;
+    private final long nodeTtl;
+    // Only touched by the listener thread
+    private final Map<String, NodeSequence> sequences = new HashMap<>();
+    private final AtomicLong resyncs = new AtomicLong();
+    private boolean resyncPending;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public InvalidationListener(InvalidationPublisher invalidationPublisher,
+                                DataSourceProperties dataSourceProperties, ObjectMapper objectMapper,
+                                AccountVersionIndex accountVersionIndex, AccountResponseCache accountResponseCache,
+                                TokenEpochIndex tokenEpochIndex, RevokedTokenStore revokedTokenStore,
+                                RefreshTokenStore refreshTokenStore,
+                                @Value("${demo.cluster.invalidation.poll-interval:500ms}") Duration pollInterval,
+                                @Value("${demo.cluster.invalidation.reconnect-delay:1s}") Duration reconnectDelay,
+                                @Value("${demo.cluster.invalidation.gap-grace:2s}") Duration gapGrace,
+                                @Value("${demo.cluster.invalidation.node-ttl:1h}") Duration nodeTtl) {
+        this.invalidationPublisher = invalidationPublisher;
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.accountVersionIndex = accountVersionIndex;
+        this.accountResponseCache = accountResponseCache;
+        this.tokenEpochIndex = tokenEpochIndex;
+        this.revokedTokenStore = revokedTokenStore;
+        this.refreshTokenStore = refreshTokenStore;
+        this.pollInterval = (int) pollInterval.toMillis();
+        this.reconnectDelay = reconnectDelay.toMillis();
+        this.gapGrace = gapGrace.toMillis();
+        this.nodeTtl = nodeTtl.toMillis();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!invalidationPublisher.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        closeConnection();
+        thread.interrupt();
+        thread.join(reconnectDelay + pollInterval);
+    }
+
+    public long resyncs() {
+        return resyncs.get();
+    }
+
+    private void run() {
+        boolean reconnect = false;
+        long delay = reconnectDelay;
+        while (running) {
+            try (Connection listenConnection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = listenConnection;
+                try (Statement statement = listenConnection.createStatement()) {
+                    statement.execute("LISTEN " + invalidationPublisher.channel());
+                }
+                if (reconnect) {
+                    log.info("Reconnected the invalidation listener");
+                }
+                // The stores were loaded before the first LISTEN, changes committed in between were never heard of
+                resync();
+                reconnect = true;
+                delay = reconnectDelay;
+
+                PGConnection pgConnection = listenConnection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollInterval);
+                    long now = System.currentTimeMillis();
+                    try {
+                        if (notifications != null) {
+                            for (PGNotification notification : notifications) {
+                                handle(notification.getParameter(), now);
+                            }
+                        }
+                        checkGaps(now);
+                    } catch (RuntimeException ex) {
+                        log.warn("Failed to apply invalidation messages, resyncing", ex);
+                        resyncPending = true;
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost the invalidation listener connection, reconnecting in {} ms", delay, ex);
+                reconnect = true;
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                delay = Math.min(delay * 2, MAX_RECONNECT_DELAY);
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    void handle(String payload, long now) {
+        InvalidationMessage message;
+        try {
+            message = objectMapper.readValue(payload, InvalidationMessage.class);
+        } catch (JsonProcessingException ex) {
+            log.warn("Ignoring a malformed invalidation message", ex);
+            return;
+        }
+        if (invalidationPublisher.nodeId().equals(message.node())) {
+            return;
+        }
+
+        if (!track(message.node(), message.sequence(), now) || message.resync()) {
+            resync();
+            return;
+        }
+        if (!message.usernames().isEmpty()) {
+            AccountChangeEvent event = new AccountChangeEvent(message.usernames());
+            accountVersionIndex.onAccountChange(event);
+            accountResponseCache.onAccountChange(event);
+        }
+        if (!message.epochs().isEmpty()) {
+            tokenEpochIndex.onTokenEpochChange(new TokenEpochEvent(message.epochs()));
+        }
+        for (TokenRevocationEvent revocation : message.revocations()) {
+            revokedTokenStore.remember(revocation.tokenId(), revocation.expiresAt());
+            if (revocation.familyId() != null) {
+                refreshTokenStore.revokeCached(revocation.familyId());
+            }
+        }
+    }
+
+    // Messages of one instance can arrive out of order when its transactions commit in a different order than they
+    // were numbered, a missing sequence number is only a gap once it has not shown up within the grace period
+    private boolean track(String node, long sequence, long now) {
+        NodeSequence nodeSequence = sequences.get(node);
+        if (nodeSequence == null) {
+            sequences.put(node, new NodeSequence(sequence, now));
+            return true;
+        }
+        nodeSequence.lastSeen = now;
+        if (sequence <= nodeSequence.highest) {
+            nodeSequence.missing.remove(sequence);
+            return true;
+        }
+        if (sequence - nodeSequence.highest - 1 > MAX_MISSING) {
+            nodeSequence.highest = sequence;
+            return false;
+        }
+        for (long missing = nodeSequence.highest + 1; missing < sequence; missing++) {
+            nodeSequence.missing.put(missing, now + gapGrace);
+        }
+        nodeSequence.highest = sequence;
+        return true;
+    }
+
+    void checkGaps(long now) {
+        if (resyncPending) {
+            resync();
+            return;
+        }
+        for (Map.Entry<String, NodeSequence> entry : sequences.entrySet()) {
+            if (entry.getValue().missing.values().stream().anyMatch(deadline -> deadline < now)) {
+                log.warn("Missed invalidation messages from {}", entry.getKey());
+                resync();
+                return;
+            }
+        }
+        // Every restart brings a new node id, the sequences of instances that stopped sending are dropped. An
+        // instance that is quiet for longer than that starts over with its next message.
+        sequences.values().removeIf(nodeSequence -> nodeSequence.missing.isEmpty()
+                && nodeSequence.lastSeen < now - nodeTtl);
+    }
+
+    // Everything missed is covered by reading the state from the database again
+    void resync() {
+        resyncs.incrementAndGet();
+        resyncPending = false;
+        sequences.values().forEach(nodeSequence -> nodeSequence.missing.clear());
+        accountVersionIndex.invalidateAll();
+        accountResponseCache.invalidateAll();
+        tokenEpochIndex.clear();
+        refreshTokenStore.evictCached();
+        try {
+            revokedTokenStore.load();
+        } catch (DataAccessException ex) {
+            log.warn("Failed to reload the revoked tokens, retrying", ex);
+            resyncPending = true;
+        }
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (SQLException ex) {
+            log.debug("Failed to close the invalidation listener connection", ex);
+        }
+    }
+
+    private static class NodeSequence {
+
+        private long highest;
+        private long lastSeen;
+        private final Map<Long, Long> missing = new HashMap<>();
+
+        private NodeSequence(long highest, long lastSeen) {
+            this.highest = highest;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
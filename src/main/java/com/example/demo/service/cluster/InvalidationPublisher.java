@@ -0,0 +1,144 @@
+package com.example.demo.service.cluster;
+
+import com.example.demo.data.dto.account.AccountEpoch;
+import com.example.demo.data.dto.cluster.InvalidationMessage;
+import com.example.demo.event.AccountChangeEvent;
+import com.example.demo.event.TokenEpochEvent;
+import com.example.demo.event.TokenRevocationEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// Collects the cache relevant changes of a transaction and sends them to the other instances as one NOTIFY. The
+// notification is sent on the transaction's connection, so Postgres delivers it only if the changes are committed.
+@Component
+public class InvalidationPublisher {
+
+    private static final String NOTIFY = "select pg_notify(?, ?)";
+    // Postgres rejects payloads of 8000 bytes and more
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public InvalidationPublisher(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                 @Value("${demo.cluster.invalidation.channel:demo_invalidation}") String channel,
+                                 @Value("${demo.cluster.invalidation.enabled:true}") boolean enabled) {
+        if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid invalidation channel " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.enabled = enabled;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener
+    public void onAccountChange(AccountChangeEvent event) {
+        publish(batch -> batch.usernames.addAll(event.usernames()));
+    }
+
+    @EventListener
+    public void onTokenEpochChange(TokenEpochEvent event) {
+        publish(batch -> event.epochs().forEach(epoch -> batch.epochs.merge(epoch.id(), epoch,
+                (current, next) -> next.tokenEpoch() > current.tokenEpoch() ? next : current)));
+    }
+
+    @EventListener
+    public void onTokenRevocation(TokenRevocationEvent event) {
+        publish(batch -> batch.revocations.add(event));
+    }
+
+    private void publish(Consumer<Batch> change) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Batch batch = new Batch();
+            change.accept(batch);
+            send(batch);
+            return;
+        }
+
+        Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+        if (batch == null) {
+            Batch created = new Batch();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    send(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InvalidationPublisher.this);
+                }
+            });
+            batch = created;
+        }
+        change.accept(batch);
+    }
+
+    private void send(Batch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long next = sequence.incrementAndGet();
+        String payload = encode(new InvalidationMessage(nodeId, next, false, List.copyOf(batch.usernames),
+                List.copyOf(batch.epochs.values()), List.copyOf(batch.revocations)));
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            // Too large for one notification, the other instances rebuild their state from the database instead
+            payload = encode(InvalidationMessage.resync(nodeId, next));
+        }
+        jdbcTemplate.query(NOTIFY, rs -> {
+        }, channel, payload);
+    }
+
+    private String encode(InvalidationMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode the invalidation message", e);
+        }
+    }
+
+    private static class Batch {
+
+        private final Set<String> usernames = new LinkedHashSet<>();
+        private final Map<Long, AccountEpoch> epochs = new LinkedHashMap<>();
+        private final List<TokenRevocationEvent> revocations = new ArrayList<>();
+
+        private boolean isEmpty() {
+            return usernames.isEmpty() && epochs.isEmpty() && revocations.isEmpty();
+        }
+    }
+}
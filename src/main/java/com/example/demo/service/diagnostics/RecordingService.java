@@ -0,0 +1,158 @@
+package com.example.demo.service.diagnostics;
+
+import com.example.demo.data.dto.diagnostics.RecordingDump;
+import com.example.demo.data.dto.diagnostics.RecordingStatus;
+import com.example.demo.error.RecordingStateException;
+import com.example.demo.event.jfr.AccountMutationEvent;
+import com.example.demo.event.jfr.PasswordHashEvent;
+import com.example.demo.event.jfr.PrincipalLookupEvent;
+import com.example.demo.event.jfr.TokenIssuanceEvent;
+import com.example.demo.event.jfr.TokenValidationEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// One in-process flight recording at a time, started and dumped on demand. The recording is bounded by age, size and
+// duration, the dumps by their number, so a forgotten recording can not fill the disk.
+@Slf4j
+@Service
+public class RecordingService {
+
+    private static final String RECORDING_NAME = "demo-security";
+    private static final String DUMP_PREFIX = "security-";
+    private static final String DUMP_SUFFIX = ".jfr";
+    private static final DateTimeFormatter DUMP_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final List<Class<? extends Event>> EVENTS = List.of(TokenValidationEvent.class,
+            TokenIssuanceEvent.class, PrincipalLookupEvent.class, PasswordHashEvent.class, AccountMutationEvent.class);
+
+    private final Path directory;
+    private final String settings;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final Duration maxDuration;
+    private final int maxDumps;
+    private Recording recording;
+
+    public RecordingService(@Value("${demo.diagnostics.recording.directory:${java.io.tmpdir}/demo-recordings}") Path directory,
+                            @Value("${demo.diagnostics.recording.settings:profile}") String settings,
+                            @Value("${demo.diagnostics.recording.max-age:10m}") Duration maxAge,
+                            @Value("${demo.diagnostics.recording.max-size:100MB}") DataSize maxSize,
+                            @Value("${demo.diagnostics.recording.max-duration:30m}") Duration maxDuration,
+                            @Value("${demo.diagnostics.recording.max-dumps:5}") int maxDumps) {
+        this.directory = directory;
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.maxDuration = maxDuration;
+        this.maxDumps = maxDumps;
+    }
+
+    public synchronized RecordingStatus status() {
+        if (recording == null) {
+            return new RecordingStatus(false, null, 0);
+        }
+        return new RecordingStatus(recording.getState() == RecordingState.RUNNING, recording.getStartTime(),
+                recording.getSize());
+    }
+
+    public synchronized RecordingStatus start() throws RecordingStateException, IOException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new RecordingStateException();
+        }
+        closeRecording();
+
+        Recording started;
+        try {
+            started = new Recording(Configuration.getConfiguration(settings));
+        } catch (ParseException e) {
+            throw new IOException("Invalid recording settings " + settings, e);
+        }
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxAge(maxAge);
+        started.setMaxSize(maxSize.toBytes());
+        // stops on its own, the data stays available for a dump until the next start
+        started.setDuration(maxDuration);
+        EVENTS.forEach(event -> started.enable(event).withoutThreshold());
+        started.start();
+        recording = started;
+        log.info("Started flight recording {}", recording.getId());
+        return status();
+    }
+
+    // Writes what has been recorded so far, the recording keeps running
+    public synchronized RecordingDump dump() throws RecordingStateException, IOException {
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            throw new RecordingStateException();
+        }
+        return write(recording);
+    }
+
+    public synchronized RecordingDump stop() throws RecordingStateException, IOException {
+        if (recording == null) {
+            throw new RecordingStateException();
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        try {
+            return write(recording);
+        } finally {
+            closeRecording();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        closeRecording();
+    }
+
+    private RecordingDump write(Recording source) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(DUMP_PREFIX + DUMP_TIMESTAMP.format(Instant.now()) + DUMP_SUFFIX);
+        source.dump(file);
+        deleteOldDumps();
+        log.info("Dumped flight recording {} to {}", source.getId(), file);
+        return new RecordingDump(file.toAbsolutePath().toString(), Files.size(file));
+    }
+
+    private void deleteOldDumps() throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(directory)) {
+            // the timestamp in the name sorts the dumps from the oldest to the newest
+            dumps = files.filter(file -> file.getFileName().toString().startsWith(DUMP_PREFIX))
+                    .filter(file -> file.getFileName().toString().endsWith(DUMP_SUFFIX))
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .toList();
+        }
+        for (int i = 0; i < dumps.size() - maxDumps; i++) {
+            Files.deleteIfExists(dumps.get(i));
+        }
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
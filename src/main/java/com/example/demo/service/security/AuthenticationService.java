@@ -1,23 +1,33 @@
 package com.example.demo.service.security;
 
+import com.example.demo.data.dto.account.AccountTokenInfo;
 import com.example.demo.data.dto.security.LoginRequest;
 import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.dto.security.LogoutRequest;
 import com.example.demo.data.dto.security.RefreshResponse;
+import com.example.demo.data.dto.security.TokenRevocationRequest;
 import com.example.demo.data.model.Account;
-import com.example.demo.data.model.Role;
+import com.example.demo.data.security.JwtToken;
+import com.example.demo.data.security.TokenFamily;
 import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.error.InvalidRefreshTokenException;
+import com.example.demo.error.InvalidTokenException;
+import com.example.demo.error.RefreshTokenReuseException;
+import com.example.demo.event.TokenRevocationEvent;
 import com.example.demo.service.AccountService;
+import io.jsonwebtoken.JwtException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 
-import static com.example.demo.utils.security.SecurityConstants.ROLES_CLAIM;
+import static com.example.demo.utils.security.SecurityConstants.*;
 
 @Service
 @Transactional
@@ -26,36 +36,112 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final AccountService accountService;
+    private final RefreshTokenStore refreshTokenStore;
+    private final RevokedTokenStore revokedTokenStore;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AuthenticationService(JwtService jwtService, AuthenticationManager authenticationManager, AccountService accountService) {
+    public AuthenticationService(JwtService jwtService, AuthenticationManager authenticationManager,
+                                 AccountService accountService, RefreshTokenStore refreshTokenStore,
+                                 RevokedTokenStore revokedTokenStore, ApplicationEventPublisher eventPublisher) {
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
         this.accountService = accountService;
+        this.refreshTokenStore = refreshTokenStore;
+        this.revokedTokenStore = revokedTokenStore;
+        this.eventPublisher = eventPublisher;
     }
 
     public LoginResponse authenticate(LoginRequest loginRequest) throws AccountNotFoundException {
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.username(), loginRequest.password()));
 
-        Map<String, Set<Role>> accountClaims = getAccountClaims(loginRequest.username());
+        Map<String, Object> accountClaims = getAccountClaims(loginRequest.username());
         String accessToken = jwtService.generateAccessToken(accountClaims, loginRequest.username());
-        String refreshToken = jwtService.generateRefreshToken(accountClaims, loginRequest.username());
+        TokenFamily family = refreshTokenStore.create(loginRequest.username(),
+                jwtService.refreshTokenExpiresAt(loginRequest.username()));
+        String refreshToken = jwtService.generateRefreshToken(getFamilyClaims(accountClaims, family),
+                loginRequest.username());
 
         return new LoginResponse(accessToken, refreshToken);
     }
 
-    public RefreshResponse refreshAuthentication() throws AccountNotFoundException {
-        String username =
-                ((Account) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        Map<String, Set<Role>> accountClaims = getAccountClaims(username);
+    // Every refresh rotates the refresh token, the presented one can not be used again. The filter has just loaded the
+    // account for the refresh token, the new tokens are issued from that principal.
+    public RefreshResponse refreshAuthentication(JwtToken presentedToken) throws InvalidRefreshTokenException {
+        Account account = (Account) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String username = account.getUsername();
+        String familyId = presentedToken.claims().get(FAMILY_CLAIM, String.class);
+        Integer generation = presentedToken.claims().get(GENERATION_CLAIM, Integer.class);
+        if (familyId == null || generation == null) {
+            throw new InvalidRefreshTokenException();
+        }
+
+        Map<String, Object> accountClaims =
+                getAccountClaims(new AccountTokenInfo(account.getId(), account.getRoles(), account.getTokenEpoch()));
+        TokenFamily family;
+        try {
+            family = refreshTokenStore.rotate(familyId, generation, username,
+                    jwtService.refreshTokenExpiresAt(username));
+        } catch (RefreshTokenReuseException ex) {
+            // The exception is checked, so the revocation still commits and reaches the other instances
+            revokeToken(presentedToken);
+            throw ex;
+        }
         String accessToken = jwtService.generateAccessToken(accountClaims, username);
-        return new RefreshResponse(accessToken);
+        String refreshToken = jwtService.generateRefreshToken(getFamilyClaims(accountClaims, family), username);
+        return new RefreshResponse(accessToken, refreshToken);
+    }
+
+    // The refresh token is optional, without it only the presented access token is revoked
+    public void logout(JwtToken accessToken, LogoutRequest logoutRequest) throws InvalidTokenException {
+        if (logoutRequest != null && StringUtils.hasText(logoutRequest.refreshToken())) {
+            JwtToken refreshToken = parseToken(logoutRequest.refreshToken());
+            if (!refreshToken.isRefreshToken() || !refreshToken.subject().equals(accessToken.subject())) {
+                throw new InvalidTokenException();
+            }
+            revokeToken(refreshToken);
+        }
+        revokeToken(accessToken);
+    }
+
+    public void revoke(TokenRevocationRequest revocationRequest) throws InvalidTokenException {
+        revokeToken(parseToken(revocationRequest.token()));
+    }
+
+    private JwtToken parseToken(String token) throws InvalidTokenException {
+        try {
+            return jwtService.validateAndGetToken(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            throw new InvalidTokenException();
+        }
     }
 
-    private Map<String, Set<Role>> getAccountClaims(String username) throws AccountNotFoundException {
-        Map<String, Set<Role>> accountClaims = new HashMap<>();
-        Set<Role> accountRoles = accountService.getAccountRoles(username);
-        accountClaims.put(ROLES_CLAIM, accountRoles);
+    // Tokens rotated from a revoked refresh token are just as compromised, so its whole family goes with it
+    private void revokeToken(JwtToken token) {
+        revokedTokenStore.revoke(token.id(), token.expiresAt());
+        String familyId = token.isRefreshToken() ? token.claims().get(FAMILY_CLAIM, String.class) : null;
+        if (familyId != null) {
+            refreshTokenStore.revoke(familyId, token.subject(), token.expiresAt());
+        }
+        eventPublisher.publishEvent(new TokenRevocationEvent(token.id(), token.expiresAt(), familyId));
+    }
+
+    private Map<String, Object> getAccountClaims(String username) throws AccountNotFoundException {
+        return getAccountClaims(accountService.getAccountTokenInfo(username));
+    }
+
+    private static Map<String, Object> getAccountClaims(AccountTokenInfo account) {
+        Map<String, Object> accountClaims = new HashMap<>();
+        accountClaims.put(ROLES_CLAIM, account.roles());
+        accountClaims.put(ACCOUNT_ID_CLAIM, account.id());
+        accountClaims.put(EPOCH_CLAIM, account.tokenEpoch());
         return accountClaims;
     }
+
+    private Map<String, Object> getFamilyClaims(Map<String, Object> accountClaims, TokenFamily family) {
+        Map<String, Object> familyClaims = new HashMap<>(accountClaims);
+        familyClaims.put(FAMILY_CLAIM, family.id());
+        familyClaims.put(GENERATION_CLAIM, family.generation());
+        return familyClaims;
+    }
 }
@@ -1,6 +1,9 @@
 package com.example.demo.service.security;
 
 import com.example.demo.data.security.JwtToken;
+import com.example.demo.event.jfr.TokenIssuanceEvent;
+import com.example.demo.event.jfr.TokenValidationEvent;
+import com.example.demo.utils.security.JitterUtils;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
@@ -11,6 +14,7 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
 
 import static com.example.demo.utils.security.SecurityConstants.*;
 
@@ -20,13 +24,22 @@ public class JwtService {
     private final SecretKey secretKey;
     private final long expiration;
     private final long refreshExpiration;
+    private final long renewalWindow;
+    private final double expirationJitter;
+    private final SecurityMetrics securityMetrics;
 
-    JwtService(@Value("${security.jwt.secret-key}") String secretKey,
-               @Value("${security.jwt.expiration}") long expiration,
-               @Value("${security.jwt.refresh-expiration}") long refreshExpiration) {
+    public JwtService(@Value("${security.jwt.secret-key}") String secretKey,
+                      @Value("${security.jwt.expiration}") long expiration,
+                      @Value("${security.jwt.refresh-expiration}") long refreshExpiration,
+                      @Value("${security.jwt.renewal-window:0}") long renewalWindow,
+                      @Value("${security.jwt.expiration-jitter:0}") double expirationJitter,
+                      SecurityMetrics securityMetrics) {
         this.secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
         this.expiration = expiration;
         this.refreshExpiration = refreshExpiration;
+        this.renewalWindow = renewalWindow;
+        this.expirationJitter = expirationJitter;
+        this.securityMetrics = securityMetrics;
     }
 
     public String generateAccessToken(Map<String, ?> claims, String username) {
@@ -37,23 +50,58 @@ public class JwtService {
         return generateToken(claims, REFRESH_TYPE_CLAIM, username, refreshExpiration);
     }
 
+    // Upper bound for the expiration of a refresh token generated now
+    public long refreshTokenExpiresAt(String username) {
+        return System.currentTimeMillis() + JitterUtils.jitteredExpiration(refreshExpiration, expirationJitter, username);
+    }
+
+    // Returns a new access token when the given one expires within the renewal window, otherwise null
+    public String renewAccessToken(JwtToken token, Map<String, ?> claims) {
+        if (renewalWindow <= 0 || !token.isAccessToken()) {
+            return null;
+        }
+        long remaining = token.expiresAt() - System.currentTimeMillis();
+        if (remaining > renewalWindow) {
+            return null;
+        }
+        return generateAccessToken(claims, token.subject());
+    }
+
     private String generateToken(Map<String, ?> claims, String type, String username, long expiration) {
-        return Jwts.builder()
+        long start = System.nanoTime();
+        TokenIssuanceEvent event = new TokenIssuanceEvent();
+        event.begin();
+        long now = System.currentTimeMillis();
+        String token = Jwts.builder()
                 .claims(claims)
                 .claim(type, TYPE_CLAIM_VALUE)
+                .id(UUID.randomUUID().toString())
                 .subject(username)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + JitterUtils.jitteredExpiration(expiration, expirationJitter, username)))
                 .signWith(secretKey)
                 .compact();
+        event.end(username, type);
+        securityMetrics.recordTokenGeneration(start);
+        return token;
     }
 
     public JwtToken validateAndGetToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return new JwtToken(token, claims);
+        long start = System.nanoTime();
+        TokenValidationEvent event = new TokenValidationEvent();
+        event.begin();
+        JwtToken validated = null;
+        try {
+            Claims claims = Jwts.parser()
+                    .verifyWith(secretKey)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+            validated = new JwtToken(token, claims);
+            return validated;
+        } finally {
+            event.end(validated);
+            securityMetrics.recordTokenValidation(start);
+        }
     }
 }
@@ -2,12 +2,15 @@ package com.example.demo.service.security;
 
 import com.example.demo.data.model.Account;
 import com.example.demo.data.repo.AccountRepository;
+import com.example.demo.event.AccountChangeEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -15,10 +18,12 @@ import java.util.Optional;
 public class PasswordService implements UserDetailsPasswordService {
 
     private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public PasswordService(AccountRepository accountRepository) {
+    public PasswordService(AccountRepository accountRepository, ApplicationEventPublisher eventPublisher) {
         this.accountRepository = accountRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -30,6 +35,8 @@ public class PasswordService implements UserDetailsPasswordService {
         }
         Account account = accountOpt.get();
         account.setPassword(newPassword);
+        // An upgraded encoding bumps the version, the credentials stay the same so the tokens remain valid
+        eventPublisher.publishEvent(new AccountChangeEvent(List.of(account.getUsername())));
         return account;
     }
 }
@@ -0,0 +1,130 @@
+package com.example.demo.service.security;
+
+import com.example.demo.data.repo.RefreshTokenFamilyRepository;
+import com.example.demo.data.security.TokenFamily;
+import com.example.demo.error.InvalidRefreshTokenException;
+import com.example.demo.error.RefreshTokenReuseException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The database decides every rotation, so reuse is detected whichever instance the tokens are presented to. The
+// families in memory only ever lag behind the database and just spare the round trip for requests that are bound to
+// fail.
+@Service
+public class RefreshTokenStore {
+
+    private static final int STRIPES = 64;
+
+    private final RefreshTokenFamilyRepository refreshTokenFamilyRepository;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public RefreshTokenStore(RefreshTokenFamilyRepository refreshTokenFamilyRepository) {
+        this.refreshTokenFamilyRepository = refreshTokenFamilyRepository;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // The family is stored by its first rotation
+    public TokenFamily create(String username, long expiresAt) {
+        return new TokenFamily(UUID.randomUUID().toString(), username, 0, false, expiresAt);
+    }
+
+    // Moves the family to the next generation. Only the current generation can be rotated, presenting an older one
+    // means the token was replayed and the caller revokes the whole family.
+    public TokenFamily rotate(String id, int generation, String username, long expiresAt)
+            throws InvalidRefreshTokenException {
+        Stripe stripe = stripe(id);
+        TokenFamily cached = stripe.get(id);
+        if (cached != null && cached.revoked()) {
+            throw new InvalidRefreshTokenException();
+        }
+        if (cached != null && cached.generation() > generation) {
+            throw new RefreshTokenReuseException();
+        }
+
+        TokenFamily rotated = refreshTokenFamilyRepository.rotateFamily(id, username, generation + 1, expiresAt)
+                .orElseThrow(RefreshTokenReuseException::new);
+        stripe.update(rotated);
+        return rotated;
+    }
+
+    public void revoke(String id, String username, long expiresAt) {
+        refreshTokenFamilyRepository.revokeFamily(id, username, expiresAt);
+        stripe(id).update(new TokenFamily(id, username, 0, true, expiresAt));
+    }
+
+    // For revocations another instance has already stored
+    public void revokeCached(String id) {
+        Stripe stripe = stripe(id);
+        stripe.lock.lock();
+        try {
+            TokenFamily family = stripe.families.get(id);
+            if (family != null && !family.revoked()) {
+                stripe.families.put(id, family.revoke());
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public void evictCached() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.families.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.refresh-family.purge-interval:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.families.values().removeIf(family -> family.expiresAt() < now);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        refreshTokenFamilyRepository.deleteExpiredFamilies(Instant.ofEpochMilli(now));
+    }
+
+    private Stripe stripe(String id) {
+        return stripes[(id.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    private static class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, TokenFamily> families = new HashMap<>();
+
+        private TokenFamily get(String id) {
+            lock.lock();
+            try {
+                return families.get(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Results of concurrent requests can arrive in any order, a cached family never moves back to an older
+        // generation and a revocation is never undone
+        private void update(TokenFamily family) {
+            lock.lock();
+            try {
+                families.merge(family.id(), family, (cached, updated) -> cached.revoked() || updated.revoked()
+                        ? cached.revoke() : cached.generation() >= updated.generation() ? cached : updated);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.service.security;
+
+import com.example.demo.data.model.RevokedToken;
+import com.example.demo.data.repo.RevokedTokenRepository;
+import com.example.demo.data.security.JwtToken;
+import com.example.demo.utils.security.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Revoked token ids partitioned into buckets by expiration. A revoked token only has to be remembered until it would
+// have expired anyway, so whole buckets are dropped once their time has passed. The Bloom filter in front answers the
+// common case of a token that was never revoked without touching the buckets.
+@Slf4j
+@Service
+public class RevokedTokenStore implements SmartLifecycle {
+
+    // Loaded ahead of the web server, which starts in a later phase. The context of a CDS training run is only
+    // refreshed and exits before any phase starts, so it is built without a database.
+    private static final int PHASE = 0;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long bucketWidth;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final ConcurrentSkipListMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
+    // Revocations share the lock, a rebuild is exclusive so the new filter can not miss a concurrent revocation
+    private final ReadWriteLock filterLock = new ReentrantReadWriteLock();
+    private volatile BloomFilter filter;
+    private volatile boolean running;
+
+    public RevokedTokenStore(RevokedTokenRepository revokedTokenRepository,
+                             @Value("${security.jwt.revocation.bucket-width:60000}") long bucketWidth,
+                             @Value("${security.jwt.revocation.expected-revocations:10000}") int expectedRevocations,
+                             @Value("${security.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.bucketWidth = bucketWidth;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    @Override
+    public void start() {
+        load();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public void load() {
+        int loaded = 0;
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(Instant.now())) {
+            add(token.getId(), token.getExpiresAt().toEpochMilli());
+            loaded++;
+        }
+        if (loaded > 0) {
+            log.info("Loaded {} revoked tokens", loaded);
+        }
+    }
+
+    public boolean isRevoked(JwtToken token) {
+        String id = token.id();
+        if (id == null || !filter.mightContain(id)) {
+            return false;
+        }
+        Set<String> bucket = buckets.get(bucket(token.expiresAt()));
+        return bucket != null && bucket.contains(id);
+    }
+
+    // Stored before it takes effect, a revocation that could not be persisted fails instead of being lost on restart
+    public void revoke(String id, long expiresAt) {
+        if (id == null || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedTokenRepository.insertRevokedToken(id, Instant.ofEpochMilli(expiresAt));
+        add(id, expiresAt);
+    }
+
+    // For revocations another instance has already stored
+    public void remember(String id, long expiresAt) {
+        if (id != null && expiresAt > System.currentTimeMillis()) {
+            add(id, expiresAt);
+        }
+    }
+
+    private void add(String id, long expiresAt) {
+        filterLock.readLock().lock();
+        try {
+            buckets.computeIfAbsent(bucket(expiresAt), key -> ConcurrentHashMap.newKeySet()).add(id);
+            filter.put(id);
+        } finally {
+            filterLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        filterLock.writeLock().lock();
+        try {
+            // a bucket is expired once every token in it is, which is when the next bucket has started
+            buckets.headMap(bucket(now)).clear();
+            long revoked = buckets.values().stream().mapToLong(Set::size).sum();
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked * 2), falsePositiveRate);
+            buckets.values().forEach(bucket -> bucket.forEach(rebuilt::put));
+            filter = rebuilt;
+        } finally {
+            filterLock.writeLock().unlock();
+        }
+        revokedTokenRepository.deleteExpiredTokens(Instant.ofEpochMilli(now));
+    }
+
+    private long bucket(long expiresAt) {
+        return expiresAt / bucketWidth;
+    }
+}
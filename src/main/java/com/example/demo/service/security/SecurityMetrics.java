@@ -0,0 +1,110 @@
+package com.example.demo.service.security;
+
+import com.example.demo.service.warmup.WarmupContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Timers of the authentication hot path. They are registered once, so recording is a clock read and a histogram
+// update without a registry lookup. The histograms use fixed buckets that Prometheus aggregates across instances.
+// The tokens of the warm-up are left out.
+@Component
+public class SecurityMetrics {
+
+    public enum FilterPhase {
+        // decoding the token and verifying its signature
+        PARSE,
+        // checking the token type, epoch and revocation
+        VERIFY,
+        // building the principal from the claims or loading the account
+        PRINCIPAL
+    }
+
+    public enum RejectionReason {
+        // the account of the token no longer exists
+        ACCOUNT,
+        // the epoch of the account advanced or the token was revoked
+        REVOKED,
+        // a refresh token was sent as access token or the other way around
+        TYPE,
+        INVALID;
+
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Map<FilterPhase, Timer> filterPhases = new EnumMap<>(FilterPhase.class);
+    private final Map<RejectionReason, Counter> rejections = new EnumMap<>(RejectionReason.class);
+    private final Timer tokenGeneration;
+    private final Timer tokenValidation;
+    private final Timer passwordEncoding;
+    private final Timer passwordMatching;
+
+    public SecurityMetrics(MeterRegistry registry) {
+        for (FilterPhase phase : FilterPhase.values()) {
+            filterPhases.put(phase, timer("security.jwt.filter", Duration.ofSeconds(1))
+                    .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejections.put(reason, Counter.builder("security.jwt.rejections")
+                    .tag("reason", reason.tag())
+                    .register(registry));
+        }
+        this.tokenGeneration = timer("security.jwt.generate", Duration.ofSeconds(1)).register(registry);
+        this.tokenValidation = timer("security.jwt.validate", Duration.ofSeconds(1)).register(registry);
+        // password hashing is deliberately slow
+        this.passwordEncoding = timer("security.password", Duration.ofSeconds(5))
+                .tag("operation", "encode")
+                .register(registry);
+        this.passwordMatching = timer("security.password", Duration.ofSeconds(5))
+                .tag("operation", "matches")
+                .register(registry);
+    }
+
+    // Returns the end of the phase, which is the start of the next one
+    public long recordFilterPhase(FilterPhase phase, long start) {
+        long end = System.nanoTime();
+        filterPhases.get(phase).record(end - start, TimeUnit.NANOSECONDS);
+        return end;
+    }
+
+    public void recordRejection(RejectionReason reason) {
+        rejections.get(reason).increment();
+    }
+
+    public void recordTokenGeneration(long start) {
+        if (!WarmupContext.isActive()) {
+            tokenGeneration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordTokenValidation(long start) {
+        if (!WarmupContext.isActive()) {
+            tokenValidation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public Timer passwordEncoding() {
+        return passwordEncoding;
+    }
+
+    public Timer passwordMatching() {
+        return passwordMatching;
+    }
+
+    private static Timer.Builder timer(String name, Duration maximumExpectedValue) {
+        return Timer.builder(name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1000))
+                .maximumExpectedValue(maximumExpectedValue);
+    }
+}
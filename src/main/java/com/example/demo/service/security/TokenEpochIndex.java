@@ -0,0 +1,162 @@
+package com.example.demo.service.security;
+
+import com.example.demo.data.dto.account.AccountEpoch;
+import com.example.demo.data.repo.AccountRepository;
+import com.example.demo.event.TokenEpochEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.locks.StampedLock;
+
+// Account id to token epoch in a primitive open addressing table. Reads are a lock free probe validated by the
+// stamp, epochs only ever move forward so concurrent loads and changes can be merged in any order. At the maximum size
+// the deleted accounts are dropped first, after that the accounts that do not fit are read from the database each time.
+@Component
+public class TokenEpochIndex {
+
+    public static final int REVOKED = Integer.MAX_VALUE;
+    static final int UNKNOWN = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // ids come from a sequence starting at 1, so 0 marks a free slot
+    private static final long FREE = 0;
+
+    private final AccountRepository accountRepository;
+    private final int maximumSize;
+    private final StampedLock lock = new StampedLock();
+    private Table table = new Table(INITIAL_CAPACITY);
+    private int size;
+    private int revoked;
+
+    public TokenEpochIndex(AccountRepository accountRepository,
+                           @Value("${demo.accounts.token-epoch-index.maximum-size:100000}") int maximumSize) {
+        this.accountRepository = accountRepository;
+        this.maximumSize = maximumSize;
+    }
+
+    // An account is read from the database once after a start, a deleted account is revoked for good
+    public int current(long accountId) {
+        int epoch = get(accountId);
+        if (epoch == UNKNOWN) {
+            epoch = advance(accountId, accountRepository.findTokenEpochById(accountId).orElse(REVOKED));
+        }
+        return epoch;
+    }
+
+    int get(long accountId) {
+        long stamp = lock.tryOptimisticRead();
+        int epoch = table.get(accountId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                epoch = table.get(accountId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return epoch;
+    }
+
+    public int advance(long accountId, int epoch) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = table.slot(accountId);
+            if (table.keys[slot] == accountId) {
+                if (epoch == REVOKED && table.epochs[slot] != REVOKED) {
+                    revoked++;
+                }
+                table.epochs[slot] = Math.max(table.epochs[slot], epoch);
+                return table.epochs[slot];
+            }
+
+            if (size >= maximumSize) {
+                if (revoked == 0) {
+                    // the database stays authoritative for the accounts that do not fit
+                    return epoch;
+                }
+                // a deleted account is revoked again when it is read back from the database
+                table = table.copy(table.keys.length, false);
+                size -= revoked;
+                revoked = 0;
+                slot = table.slot(accountId);
+            }
+
+            table.keys[slot] = accountId;
+            table.epochs[slot] = epoch;
+            if (epoch == REVOKED) {
+                revoked++;
+            }
+            if (++size * 2 > table.keys.length) {
+                table = table.copy(table.keys.length * 2, true);
+            }
+            return epoch;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Every account is read from the database again on its next use
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(INITIAL_CAPACITY);
+            size = 0;
+            revoked = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Advancing before the commit would revoke the tokens issued after a rolled back change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenEpochChange(TokenEpochEvent event) {
+        for (AccountEpoch epoch : event.epochs()) {
+            advance(epoch.id(), epoch.tokenEpoch());
+        }
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+        private final int[] epochs;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.epochs = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private int get(long accountId) {
+            int slot = slot(accountId);
+            return keys[slot] == accountId ? epochs[slot] : UNKNOWN;
+        }
+
+        // Linear probing, the table is at most half full so a free slot is always found
+        private int slot(long accountId) {
+            int slot = (int) (accountId * 0x9E3779B97F4A7C15L >>> 32) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long key = keys[slot];
+                if (key == accountId || key == FREE) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        // Removing from a linear probing table would break the probe chains, so entries are dropped by copying
+        private Table copy(int capacity, boolean keepRevoked) {
+            Table copy = new Table(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != FREE && (keepRevoked || epochs[i] != REVOKED)) {
+                    int slot = copy.slot(keys[i]);
+                    copy.keys[slot] = keys[i];
+                    copy.epochs[slot] = epochs[i];
+                }
+            }
+            return copy;
+        }
+    }
+}
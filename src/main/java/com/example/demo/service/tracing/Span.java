@@ -0,0 +1,136 @@
+package com.example.demo.service.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A span is used by the thread that started it only. The no-op span stands in whenever nothing is traced, so callers
+// never check whether tracing is on.
+public class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, null, 0, 0, 0, 0, null, null, 0);
+
+    private final Tracer tracer;
+    private final Span previous;
+    private final long traceIdHigh;
+    private final long traceIdLow;
+    private final long spanId;
+    private final long parentSpanId;
+    private final SpanKind kind;
+    private final long startNanos;
+    private final List<Object> attributes = new ArrayList<>(8);
+    private String name;
+    private long endNanos;
+    private String error;
+
+    Span(Tracer tracer, Span previous, long traceIdHigh, long traceIdLow, long spanId, long parentSpanId, String name,
+         SpanKind kind, long startNanos) {
+        this.tracer = tracer;
+        this.previous = previous;
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.startNanos = startNanos;
+    }
+
+    public boolean isRecording() {
+        return this != NOOP;
+    }
+
+    public Span name(String name) {
+        if (isRecording()) {
+            this.name = name;
+        }
+        return this;
+    }
+
+    // Values are strings or longs, the two attribute types the exporter writes
+    public Span attribute(String key, String value) {
+        if (isRecording() && value != null) {
+            attributes.add(key);
+            attributes.add(value);
+        }
+        return this;
+    }
+
+    public Span attribute(String key, long value) {
+        if (isRecording()) {
+            attributes.add(key);
+            attributes.add(value);
+        }
+        return this;
+    }
+
+    public void error(Throwable throwable) {
+        if (isRecording()) {
+            error = throwable.getClass().getName();
+        }
+    }
+
+    public void error(String description) {
+        if (isRecording()) {
+            error = description;
+        }
+    }
+
+    public void end() {
+        if (isRecording() && endNanos == 0) {
+            tracer.end(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    void ended(long endNanos) {
+        this.endNanos = endNanos;
+    }
+
+    Span previous() {
+        return previous;
+    }
+
+    public long traceIdHigh() {
+        return traceIdHigh;
+    }
+
+    public long traceIdLow() {
+        return traceIdLow;
+    }
+
+    public long spanId() {
+        return spanId;
+    }
+
+    public long parentSpanId() {
+        return parentSpanId;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public SpanKind kind() {
+        return kind;
+    }
+
+    public long startNanos() {
+        return startNanos;
+    }
+
+    public long endNanos() {
+        return endNanos;
+    }
+
+    public List<Object> attributes() {
+        return attributes;
+    }
+
+    public String error() {
+        return error;
+    }
+}
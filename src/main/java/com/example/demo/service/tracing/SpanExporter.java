@@ -0,0 +1,180 @@
+package com.example.demo.service.tracing;
+
+import com.example.demo.utils.tracing.TraceParent;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Writes the ended spans to a local file off the request threads. Every export is one line holding an OTLP/JSON
+// TracesData object, the format of the OpenTelemetry collector file exporter, so the files can be replayed into any
+// OTLP backend. The file is rolled over by size and only the newest files are kept.
+@Slf4j
+@Component
+public class SpanExporter {
+
+    static final String FILE_NAME = "spans.jsonl";
+    private static final String ROLLED_PREFIX = "spans-";
+    private static final DateTimeFormatter ROLLED_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final int BATCH_SIZE = 1024;
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final Tracer tracer;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Path directory;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final String serviceName;
+    private final List<Span> batch = new ArrayList<>(BATCH_SIZE);
+
+    public SpanExporter(Tracer tracer,
+                        @Value("${demo.tracing.directory:${java.io.tmpdir}/demo-traces}") Path directory,
+                        @Value("${demo.tracing.max-file-size:50MB}") DataSize maxFileSize,
+                        @Value("${demo.tracing.max-files:5}") int maxFiles,
+                        @Value("${spring.application.name:demo}") String serviceName) {
+        this.tracer = tracer;
+        this.directory = directory;
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxFiles = maxFiles;
+        this.serviceName = serviceName;
+    }
+
+    @Scheduled(fixedDelayString = "${demo.tracing.export-interval:1000}")
+    public synchronized void export() {
+        try {
+            while (tracer.drain(batch, BATCH_SIZE) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to export {} spans", batch.size(), ex);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        export();
+    }
+
+    Path file() {
+        return directory.resolve(FILE_NAME);
+    }
+
+    private void write(List<Span> spans) throws IOException {
+        Files.createDirectories(directory);
+        Path file = file();
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+             JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("resourceSpans");
+            json.writeStartObject();
+            json.writeObjectFieldStart("resource");
+            json.writeArrayFieldStart("attributes");
+            writeAttribute(json, "service.name", serviceName);
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeArrayFieldStart("scopeSpans");
+            json.writeStartObject();
+            json.writeObjectFieldStart("scope");
+            json.writeStringField("name", "com.example.demo");
+            json.writeEndObject();
+            json.writeArrayFieldStart("spans");
+            for (Span span : spans) {
+                writeSpan(json, span);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+            json.flush();
+            out.write(NEWLINE);
+        }
+        if (Files.size(file) >= maxFileSize) {
+            roll(file);
+        }
+    }
+
+    // OTLP/JSON writes the ids as hex and the 64-bit integers as strings
+    private void writeSpan(JsonGenerator json, Span span) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("traceId", TraceParent.traceId(span.traceIdHigh(), span.traceIdLow()));
+        json.writeStringField("spanId", TraceParent.hex(span.spanId()));
+        if (span.parentSpanId() != 0) {
+            json.writeStringField("parentSpanId", TraceParent.hex(span.parentSpanId()));
+        }
+        json.writeStringField("name", span.name());
+        json.writeNumberField("kind", span.kind().getCode());
+        json.writeStringField("startTimeUnixNano", Long.toString(tracer.epochNanos(span.startNanos())));
+        json.writeStringField("endTimeUnixNano", Long.toString(tracer.epochNanos(span.endNanos())));
+        json.writeArrayFieldStart("attributes");
+        List<Object> attributes = span.attributes();
+        for (int i = 0; i < attributes.size(); i += 2) {
+            String key = (String) attributes.get(i);
+            if (attributes.get(i + 1) instanceof Long value) {
+                json.writeStartObject();
+                json.writeStringField("key", key);
+                json.writeObjectFieldStart("value");
+                json.writeStringField("intValue", Long.toString(value));
+                json.writeEndObject();
+                json.writeEndObject();
+            } else {
+                writeAttribute(json, key, (String) attributes.get(i + 1));
+            }
+        }
+        json.writeEndArray();
+        if (span.error() != null) {
+            // STATUS_CODE_ERROR
+            json.writeObjectFieldStart("status");
+            json.writeNumberField("code", 2);
+            json.writeStringField("message", span.error());
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    private static void writeAttribute(JsonGenerator json, String key, String value) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("key", key);
+        json.writeObjectFieldStart("value");
+        json.writeStringField("stringValue", value);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private void roll(Path file) throws IOException {
+        Files.move(file, directory.resolve(ROLLED_PREFIX + ROLLED_TIMESTAMP.format(Instant.now()) + ".jsonl"));
+        List<Path> rolled;
+        try (Stream<Path> files = Files.list(directory)) {
+            // the timestamp in the name sorts the files from the oldest to the newest
+            rolled = files.filter(path -> path.getFileName().toString().startsWith(ROLLED_PREFIX))
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+        }
+        // the current file counts towards the limit once it is written again
+        for (int i = 0; i < rolled.size() - (maxFiles - 1); i++) {
+            Files.deleteIfExists(rolled.get(i));
+        }
+    }
+}
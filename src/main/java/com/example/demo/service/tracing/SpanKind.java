@@ -0,0 +1,15 @@
+package com.example.demo.service.tracing;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// The values of the OTLP span kind
+@Getter
+@RequiredArgsConstructor
+public enum SpanKind {
+    INTERNAL(1),
+    SERVER(2),
+    CLIENT(3);
+
+    private final int code;
+}
@@ -0,0 +1,66 @@
+package com.example.demo.service.tracing;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Locale;
+
+// One client span per executed statement or batch, within traced requests only
+public class SqlTracingListener implements QueryExecutionListener {
+
+    private static final String SPAN_KEY = SqlTracingListener.class.getName();
+    private static final int MAX_STATEMENT_LENGTH = 2048;
+
+    private final ObjectProvider<Tracer> tracerProvider;
+    private volatile Tracer tracer;
+
+    // The data source is wrapped before the tracer exists, it is looked up on the first statement
+    public SqlTracingListener(ObjectProvider<Tracer> tracerProvider) {
+        this.tracerProvider = tracerProvider;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Tracer current = tracer;
+        if (current == null) {
+            current = tracerProvider.getObject();
+            tracer = current;
+        }
+        if (!current.currentSpan().isRecording() || queryInfoList.isEmpty()) {
+            return;
+        }
+        String query = queryInfoList.get(0).getQuery();
+        Span span = current.startSpan("SQL " + operation(query), SpanKind.CLIENT)
+                .attribute("db.system", "postgresql")
+                .attribute("db.statement", query.length() > MAX_STATEMENT_LENGTH
+                        ? query.substring(0, MAX_STATEMENT_LENGTH) : query);
+        if (execInfo.isBatch()) {
+            span.attribute("db.operation.batch.size", execInfo.getBatchSize());
+        }
+        execInfo.addCustomValue(SPAN_KEY, span);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Span span = execInfo.getCustomValue(SPAN_KEY, Span.class);
+        if (span == null) {
+            return;
+        }
+        if (!execInfo.isSuccess() && execInfo.getThrowable() != null) {
+            span.error(execInfo.getThrowable());
+        }
+        span.end();
+    }
+
+    private static String operation(String query) {
+        String trimmed = query.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end > 0 ? trimmed.substring(0, end).toUpperCase(Locale.ROOT) : "QUERY";
+    }
+}
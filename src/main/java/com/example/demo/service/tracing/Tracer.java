@@ -0,0 +1,98 @@
+package com.example.demo.service.tracing;
+
+import com.example.demo.utils.tracing.SpanRingBuffer;
+import com.example.demo.utils.tracing.TraceParent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Keeps the current span of the thread and hands ended spans to the ring buffer the exporter drains. Only a server
+// span starts a trace, the other spans are recorded as its descendants and are no-ops outside a traced request.
+@Component
+public class Tracer {
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final SpanRingBuffer<Span> buffer;
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    // Wall clock timestamps with the resolution of the monotonic clock
+    private final long epochNanosAnchor = System.currentTimeMillis() * 1_000_000;
+    private final long nanoTimeAnchor = System.nanoTime();
+
+    public Tracer(MeterRegistry registry,
+                  @Value("${demo.tracing.enabled:true}") boolean enabled,
+                  @Value("${demo.tracing.sample-rate:0.01}") double sampleRate,
+                  @Value("${demo.tracing.buffer-size:8192}") int bufferSize) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.buffer = new SpanRingBuffer<>(bufferSize);
+        FunctionCounter.builder("tracing.spans.dropped", buffer, SpanRingBuffer::dropped)
+                .description("Spans dropped because the export buffer was full")
+                .register(registry);
+    }
+
+    // Continues the trace of a sampled traceparent header, or starts a new one subject to the sample rate
+    public Span startServerSpan(String name, String traceParentHeader) {
+        if (!enabled) {
+            return Span.NOOP;
+        }
+        TraceParent parent = TraceParent.parse(traceParentHeader);
+        if (parent != null) {
+            return parent.sampled()
+                    ? start(name, SpanKind.SERVER, parent.traceIdHigh(), parent.traceIdLow(), parent.spanId())
+                    : Span.NOOP;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (sampleRate < 1 && random.nextDouble() >= sampleRate) {
+            return Span.NOOP;
+        }
+        return start(name, SpanKind.SERVER, random.nextLong(), nonZero(random.nextLong()), 0);
+    }
+
+    public Span startSpan(String name, SpanKind kind) {
+        Span parent = current.get();
+        if (parent == null) {
+            return Span.NOOP;
+        }
+        return start(name, kind, parent.traceIdHigh(), parent.traceIdLow(), parent.spanId());
+    }
+
+    public Span currentSpan() {
+        Span span = current.get();
+        return span != null ? span : Span.NOOP;
+    }
+
+    public int drain(List<Span> target, int max) {
+        return buffer.drain(target, max);
+    }
+
+    public long epochNanos(long nanoTime) {
+        return epochNanosAnchor + (nanoTime - nanoTimeAnchor);
+    }
+
+    private Span start(String name, SpanKind kind, long traceIdHigh, long traceIdLow, long parentSpanId) {
+        Span span = new Span(this, current.get(), traceIdHigh, traceIdLow,
+                nonZero(ThreadLocalRandom.current().nextLong()), parentSpanId, name, kind, System.nanoTime());
+        current.set(span);
+        return span;
+    }
+
+    void end(Span span) {
+        span.ended(System.nanoTime());
+        // restores the parent, also when an inner span was left open by mistake
+        if (span.previous() != null) {
+            current.set(span.previous());
+        } else {
+            current.remove();
+        }
+        buffer.offer(span);
+    }
+
+    private static long nonZero(long id) {
+        return id != 0 ? id : 1;
+    }
+}
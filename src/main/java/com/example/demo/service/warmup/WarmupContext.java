@@ -0,0 +1,23 @@
+package com.example.demo.service.warmup;
+
+// Marks the thread while it does warm-up work, in process or serving a warm-up request. The token and repository
+// timers and the flight recorder events skip what is recorded meanwhile, the code paths run the same either way.
+public final class WarmupContext {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private WarmupContext() {
+    }
+
+    public static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+
+    public static void begin() {
+        ACTIVE.set(Boolean.TRUE);
+    }
+
+    public static void end() {
+        ACTIVE.remove();
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.demo.service.warmup;
+
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.account.AccountTokenInfo;
+import com.example.demo.data.dto.security.LoginRequest;
+import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.model.Role;
+import com.example.demo.data.repo.AccountRepository;
+import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.filter.warmup.WarmupRequestFilter;
+import com.example.demo.filter.tracing.TracingFilter;
+import com.example.demo.service.AccountService;
+import com.example.demo.service.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.web.server.Ssl;
+import org.springframework.boot.web.server.WebServerSslBundle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.utils.security.SecurityConstants.*;
+
+// Runs the hot paths before readiness is reported, so a fresh instance does not take its share of the traffic while
+// they are still interpreted. An iteration issues and validates tokens, serializes the DTOs, runs the read queries of
+// the filter and the profile and sends a profile request through the filter chain. Batches of iterations run until
+// the JIT compiler spends less than the settled share of a batch compiling, or until the limits are reached. The
+// requests are only sent for an existing account and are marked, so they stay out of the request metrics. The work in
+// process is marked through WarmupContext and stays out of the token and repository timers and the recordings.
+@Slf4j
+@Component
+@Order(WarmupRunner.ORDER)
+public class WarmupRunner implements ApplicationRunner {
+
+    // After the default accounts, and distinct from the default order so it does not tie with an unordered runner. A
+    // runner that prepares state the warm-up should see needs an order below this one.
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    private static final String PROFILE_ENDPOINT = "/profile";
+    // An unsampled parent keeps the warm-up requests out of the traces
+    private static final String UNSAMPLED_TRACE_PARENT = "00-00000000000000000000000000000001-0000000000000001-00";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    private static final long SYNTHETIC_ACCOUNT_ID = -1;
+
+    private final JwtService jwtService;
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final ServerProperties serverProperties;
+    private final SslBundles sslBundles;
+    private final WarmupRequestFilter warmupRequestFilter;
+    private final boolean enabled;
+    private final String username;
+    private final boolean requests;
+    private final int minIterations;
+    private final int maxIterations;
+    private final Duration maxDuration;
+    private final int batchSize;
+    private final double settledCompilationShare;
+
+    private volatile long iterations;
+    private volatile long answeredRequests;
+    private volatile long durationNanos;
+    private volatile long compilationMillis;
+    private volatile double firstIterationNanos;
+    private volatile double lastIterationNanos;
+    private volatile boolean settled;
+
+    public WarmupRunner(JwtService jwtService, AccountService accountService, AccountRepository accountRepository,
+                        ObjectMapper objectMapper, Environment environment, ServerProperties serverProperties,
+                        SslBundles sslBundles, WarmupRequestFilter warmupRequestFilter, MeterRegistry registry,
+                        @Value("${demo.warmup.enabled:false}") boolean enabled,
+                        @Value("${demo.warmup.username:}") String username,
+                        @Value("${demo.warmup.requests:true}") boolean requests,
+                        @Value("${demo.warmup.min-iterations:500}") int minIterations,
+                        @Value("${demo.warmup.max-iterations:10000}") int maxIterations,
+                        @Value("${demo.warmup.max-duration:60s}") Duration maxDuration,
+                        @Value("${demo.warmup.batch-size:100}") int batchSize,
+                        @Value("${demo.warmup.settled-compilation-share:0.05}") double settledCompilationShare) {
+        this.jwtService = jwtService;
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.serverProperties = serverProperties;
+        this.sslBundles = sslBundles;
+        this.warmupRequestFilter = warmupRequestFilter;
+        this.enabled = enabled;
+        this.username = username;
+        this.requests = requests;
+        this.minIterations = minIterations;
+        this.maxIterations = maxIterations;
+        this.maxDuration = maxDuration;
+        this.batchSize = Math.max(1, batchSize);
+        this.settledCompilationShare = settledCompilationShare;
+
+        TimeGauge.builder("warmup.duration", this, TimeUnit.NANOSECONDS, runner -> runner.durationNanos)
+                .description("Time spent warming up before readiness")
+                .register(registry);
+        Gauge.builder("warmup.iterations", this, runner -> runner.iterations)
+                .register(registry);
+        Gauge.builder("warmup.requests", this, runner -> runner.answeredRequests)
+                .description("Warm-up requests answered with a success status")
+                .register(registry);
+        TimeGauge.builder("warmup.compilation", this, TimeUnit.MILLISECONDS, runner -> runner.compilationMillis)
+                .description("Time the JIT compiler threads spent compiling during the warm-up")
+                .register(registry);
+        // the mean iteration time of the first and the last batch shows the effect of the warm-up
+        TimeGauge.builder("warmup.iteration", this, TimeUnit.NANOSECONDS, runner -> runner.firstIterationNanos)
+                .tag("batch", "first")
+                .register(registry);
+        TimeGauge.builder("warmup.iteration", this, TimeUnit.NANOSECONDS, runner -> runner.lastIterationNanos)
+                .tag("batch", "last")
+                .register(registry);
+        Gauge.builder("warmup.settled", this, runner -> runner.settled ? 1 : 0)
+                .description("Whether the compilation settled before the iteration or time limit")
+                .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        WarmupContext.begin();
+        try {
+            AccountTokenInfo principal = principal();
+            // the filter would reject the requests of a synthetic account and remember its id as revoked
+            HttpClient httpClient = principal.id() != SYNTHETIC_ACCOUNT_ID ? httpClient() : null;
+            try {
+                warmUp(new Workload(principal, httpClient));
+            } finally {
+                if (httpClient != null) {
+                    httpClient.close();
+                }
+            }
+        } finally {
+            WarmupContext.end();
+        }
+    }
+
+    private void warmUp(Workload workload) {
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        boolean compilationTime = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        long compilationStart = compilationTime ? compilation.getTotalCompilationTime() : 0;
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+
+        long done = 0;
+        while (done < maxIterations && System.nanoTime() < deadline && !settled) {
+            int batch = (int) Math.min(batchSize, maxIterations - done);
+            long batchCompilation = compilationTime ? compilation.getTotalCompilationTime() : 0;
+            long batchStart = System.nanoTime();
+            for (int i = 0; i < batch; i++) {
+                workload.iteration();
+            }
+            long batchNanos = System.nanoTime() - batchStart;
+            done += batch;
+
+            lastIterationNanos = (double) batchNanos / batch;
+            if (firstIterationNanos == 0) {
+                firstIterationNanos = lastIterationNanos;
+            }
+            if (compilationTime && done >= minIterations) {
+                long compiled = TimeUnit.MILLISECONDS.toNanos(compilation.getTotalCompilationTime() - batchCompilation);
+                settled = compiled < settledCompilationShare * batchNanos;
+            }
+            iterations = done;
+        }
+
+        durationNanos = System.nanoTime() - start;
+        compilationMillis = compilationTime ? compilation.getTotalCompilationTime() - compilationStart : 0;
+        log.info("Warmed up in {} ms with {} iterations, {}, the mean iteration went from {} us to {} us",
+                TimeUnit.NANOSECONDS.toMillis(durationNanos), done,
+                settled ? "the compilation settled" : "the compilation did not settle",
+                Math.round(firstIterationNanos / 1000), Math.round(lastIterationNanos / 1000));
+    }
+
+    // The configured account gets the full paths, a synthetic one only the work done in process
+    private AccountTokenInfo principal() {
+        if (StringUtils.hasText(username)) {
+            try {
+                return accountService.getAccountTokenInfo(username);
+            } catch (AccountNotFoundException ex) {
+                log.warn("The warm-up account {} does not exist, warming up without requests", username);
+            }
+        }
+        return new AccountTokenInfo(SYNTHETIC_ACCOUNT_ID, Set.of(Role.USER), 0);
+    }
+
+    private HttpClient httpClient() {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (!requests || port == null) {
+            return null;
+        }
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT);
+        Ssl ssl = serverProperties.getSsl();
+        if (Ssl.isEnabled(ssl)) {
+            try {
+                builder.sslContext(sslContext(WebServerSslBundle.get(ssl, sslBundles)));
+            } catch (GeneralSecurityException ex) {
+                log.warn("Failed to trust the server certificate, warming up without requests", ex);
+                return null;
+            }
+        }
+        return builder.build();
+    }
+
+    // Trusts the certificate the server presents, which may be self-signed
+    private static SSLContext sslContext(SslBundle bundle) throws GeneralSecurityException {
+        TrustManagerFactory trustManagerFactory =
+                TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(bundle.getStores().getKeyStore());
+        SSLContext sslContext = SSLContext.getInstance(bundle.getProtocol());
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+
+    private String profileUri() {
+        String scheme = Ssl.isEnabled(serverProperties.getSsl()) ? "https" : "http";
+        String contextPath = serverProperties.getServlet().getContextPath();
+        return scheme + "://localhost:" + environment.getProperty("local.server.port")
+                + (contextPath != null ? contextPath : "") + PROFILE_ENDPOINT;
+    }
+
+    private class Workload {
+
+        private final AccountTokenInfo principal;
+        private final String subject;
+        private final Map<String, Object> claims = new HashMap<>();
+        private final Map<String, Object> familyClaims;
+        private final AccountInfo accountInfo;
+        private HttpClient httpClient;
+        private HttpRequest.Builder request;
+
+        private Workload(AccountTokenInfo principal, HttpClient httpClient) {
+            this.principal = principal;
+            this.subject = principal.id() == SYNTHETIC_ACCOUNT_ID ? "warmup-" + UUID.randomUUID() : username;
+            claims.put(ROLES_CLAIM, principal.roles());
+            claims.put(ACCOUNT_ID_CLAIM, principal.id());
+            claims.put(EPOCH_CLAIM, principal.tokenEpoch());
+            familyClaims = new HashMap<>(claims);
+            familyClaims.put(FAMILY_CLAIM, UUID.randomUUID().toString());
+            familyClaims.put(GENERATION_CLAIM, 0);
+            accountInfo = new AccountInfo(subject, true, principal.roles(), 0);
+            this.httpClient = httpClient;
+            if (httpClient != null) {
+                request = HttpRequest.newBuilder(URI.create(profileUri()))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header(TracingFilter.TRACE_PARENT_HEADER, UNSAMPLED_TRACE_PARENT)
+                        .header(WarmupRequestFilter.WARMUP_HEADER, warmupRequestFilter.key())
+                        .GET();
+            }
+        }
+
+        private void iteration() {
+            String accessToken = jwtService.generateAccessToken(claims, subject);
+            String refreshToken = jwtService.generateRefreshToken(familyClaims, subject);
+            jwtService.validateAndGetToken(accessToken);
+            jwtService.validateAndGetToken(refreshToken);
+
+            try {
+                objectMapper.writeValueAsBytes(new LoginResponse(accessToken, refreshToken));
+                objectMapper.writeValueAsBytes(accountInfo);
+                objectMapper.readValue(objectMapper.writeValueAsBytes(new LoginRequest(subject, subject)),
+                        LoginRequest.class);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed to serialize the warm-up DTOs", ex);
+            }
+
+            accountRepository.findByUsernameAndEnabledTrue(subject);
+            accountRepository.findVersionByUsername(subject);
+            accountRepository.findTokenEpochById(principal.id());
+
+            if (httpClient != null) {
+                send(accessToken);
+            }
+        }
+
+        private void send(String accessToken) {
+            try {
+                HttpResponse<Void> response = httpClient.send(request.copy()
+                        .header(AUTHORIZATION_HEADER, BEARER_AUTHORIZATION + accessToken)
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() / 100 == 2) {
+                    answeredRequests++;
+                }
+            } catch (IOException ex) {
+                log.warn("Warm-up request failed, continuing without requests", ex);
+                httpClient = null;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                httpClient = null;
+            }
+        }
+    }
+}
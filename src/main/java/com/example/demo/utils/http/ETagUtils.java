@@ -0,0 +1,29 @@
+package com.example.demo.utils.http;
+
+import com.example.demo.data.dto.account.AccountVersion;
+import org.springframework.http.ETag;
+
+public class ETagUtils {
+
+    public static final String GZIP_VARIANT = "gz";
+
+    // The id is part of the tag so that a deleted and recreated account does not match older tags
+    public static String eTag(AccountVersion version) {
+        return eTag(version, null);
+    }
+
+    // Strong tags promise byte-identical bodies, so every other representation of a version carries its variant
+    public static String eTag(AccountVersion version, String variant) {
+        String tag = version.id() + "-" + version.version();
+        return "\"" + (variant != null ? tag + "-" + variant : tag) + "\"";
+    }
+
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag current = ETag.parse(eTag).getFirst();
+        // If-None-Match uses the weak comparison, which ignores the W/ prefix
+        return ETag.parse(ifNoneMatch).stream().anyMatch(tag -> tag.isWildcard() || tag.tag().equals(current.tag()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.utils.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Comparator;
+import java.util.List;
+
+public class ResponseUtils {
+
+    private static final String GZIP_ENCODING = "gzip";
+    private static final MediaType APPLICATION_CBOR = MediaType.valueOf("application/cbor");
+    private static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    public static ResponseEntity<byte[]> json(String eTag, byte[] json, byte[] gzip, boolean sendGzip) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON);
+        if (gzip == null) {
+            return builder.varyBy(HttpHeaders.ACCEPT).body(json);
+        }
+
+        builder.varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (sendGzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING).body(gzip);
+        }
+        return builder.body(json);
+    }
+
+    // JSON is the default, a binary format is only used when the client prefers it
+    public static MediaType preferredFormat(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException ex) {
+            // a malformed header gets the default instead of a server error
+            return MediaType.APPLICATION_JSON;
+        }
+        mediaTypes = mediaTypes.stream()
+                .filter(mediaType -> mediaType.getQualityValue() > 0)
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .toList();
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (mediaType.isCompatibleWith(APPLICATION_CBOR)) {
+                return APPLICATION_CBOR;
+            }
+            if (mediaType.isCompatibleWith(APPLICATION_SMILE)) {
+                return APPLICATION_SMILE;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // Only the plain JSON carries the bare tag, the binary formats and the gzip encoding are other bytes
+    public static String eTagVariant(MediaType format, boolean gzip) {
+        if (APPLICATION_CBOR.equals(format)) {
+            return "cbor";
+        }
+        if (APPLICATION_SMILE.equals(format)) {
+            return "smile";
+        }
+        return gzip ? ETagUtils.GZIP_VARIANT : null;
+    }
+
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (GZIP_ENCODING.equalsIgnoreCase(parts[0].trim())) {
+                // gzip;q=0 explicitly refuses the encoding
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.utils.security;
+
+public class JitterUtils {
+
+    private static final double UNIT_SCALE = 0x1.0p-53;
+
+    // Shortens the expiration by up to the jitter fraction. The offset depends only on the username, so a user keeps a
+    // stable lifetime while users who logged in together expire spread over the jitter range.
+    public static long jitteredExpiration(long expiration, double jitter, String username) {
+        if (jitter <= 0 || username == null) {
+            return expiration;
+        }
+        return expiration - (long) (expiration * Math.min(jitter, 1) * unitHash(username));
+    }
+
+    // Uniform value in [0, 1) derived from the username with the MurmurHash3 64-bit finalizer
+    static double unitHash(String username) {
+        long hash = username.hashCode();
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (hash >>> 11) * UNIT_SCALE;
+    }
+}
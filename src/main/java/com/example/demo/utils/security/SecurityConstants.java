@@ -5,6 +5,12 @@ public class SecurityConstants {
     public static final String AUTHORIZATION_HEADER = "Authorization";
     public static final String BEARER_AUTHORIZATION = "Bearer ";
     public static final String ROLES_CLAIM = "roles";
+    public static final String ACCOUNT_ID_CLAIM = "aid";
+    public static final String EPOCH_CLAIM = "ep";
+    public static final String FAMILY_CLAIM = "fid";
+    public static final String GENERATION_CLAIM = "gen";
+    public static final String JWT_TOKEN_ATTRIBUTE = "com.example.demo.jwtToken";
+    public static final String RENEWED_TOKEN_HEADER = "X-Renewed-Access-Token";
 
     public static final String TOKEN_REFRESH_ENDPOINT = "/auth/refresh";
 
@@ -12,4 +18,5 @@ public class SecurityConstants {
     public static final String REFRESH_TYPE_CLAIM = "refresh";
     public static final String TYPE_CLAIM_VALUE = "jwt";
     public static final String INVALID_TOKEN_TYPE = "Invalid accessToken type";
+    public static final String REVOKED_TOKEN = "Revoked token";
 }
@@ -0,0 +1,57 @@
+package com.example.demo.utils.security;
+
+import com.example.demo.event.jfr.PasswordHashEvent;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, Timer encodeTimer, Timer matchesTimer) {
+        this.delegate = delegate;
+        this.encodeTimer = encodeTimer;
+        this.matchesTimer = matchesTimer;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String outcome = "error";
+        try {
+            String encoded = delegate.encode(rawPassword);
+            outcome = "success";
+            return encoded;
+        } finally {
+            event.end(PasswordHashEvent.ENCODE, outcome);
+            encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String outcome = "error";
+        try {
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            outcome = matches ? "match" : "mismatch";
+            return matches;
+        } finally {
+            event.end(PasswordHashEvent.MATCHES, outcome);
+            matchesTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
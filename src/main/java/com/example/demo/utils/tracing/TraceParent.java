@@ -0,0 +1,58 @@
+package com.example.demo.utils.tracing;
+
+// W3C trace context: version-traceid-parentid-flags, all lowercase hex
+public record TraceParent(long traceIdHigh, long traceIdLow, long spanId, boolean sampled) {
+
+    private static final int LENGTH = 55;
+    private static final int SAMPLED_FLAG = 0x01;
+
+    // Returns null for a missing or invalid header, the request then starts a new trace
+    public static TraceParent parse(String header) {
+        if (header == null || header.length() < LENGTH) {
+            return null;
+        }
+        String version = header.substring(0, 2);
+        // later versions may append fields, version 00 must not
+        if (!isHex(version, 0, 2) || version.equals("ff") || (version.equals("00") && header.length() != LENGTH)) {
+            return null;
+        }
+        if (header.charAt(2) != '-' || header.charAt(35) != '-' || header.charAt(52) != '-'
+                || (header.length() > LENGTH && header.charAt(LENGTH) != '-')) {
+            return null;
+        }
+        if (!isHex(header, 3, 35) || !isHex(header, 36, 52) || !isHex(header, 53, 55)) {
+            return null;
+        }
+        long traceIdHigh = Long.parseUnsignedLong(header, 3, 19, 16);
+        long traceIdLow = Long.parseUnsignedLong(header, 19, 35, 16);
+        long spanId = Long.parseUnsignedLong(header, 36, 52, 16);
+        if ((traceIdHigh == 0 && traceIdLow == 0) || spanId == 0) {
+            return null;
+        }
+        int flags = Integer.parseInt(header, 53, 55, 16);
+        return new TraceParent(traceIdHigh, traceIdLow, spanId, (flags & SAMPLED_FLAG) != 0);
+    }
+
+    public String format() {
+        return "00-" + traceId(traceIdHigh, traceIdLow) + "-" + hex(spanId) + (sampled ? "-01" : "-00");
+    }
+
+    public static String traceId(long high, long low) {
+        return hex(high) + hex(low);
+    }
+
+    public static String hex(long value) {
+        String hex = Long.toHexString(value);
+        return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+    }
+
+    private static boolean isHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,9 @@
+-- Switches account.id from an identity column to the account_seq sequence used by the pooled optimizer.
+-- The sequence increment has to match the allocationSize of the Account id generator.
+ALTER TABLE account ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE account ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS account_seq START WITH 1 INCREMENT BY 50;
+
+-- Leave a full allocation block between the existing ids and the first pooled block
+SELECT setval('account_seq', COALESCE(MAX(id), 0) + 50) FROM account;
@@ -0,0 +1,2 @@
+-- Adds the optimistic locking version of the Account entity, existing rows start at version 0.
+ALTER TABLE account ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- Refresh token families for rotation with reuse detection, written behind by the in-memory RefreshTokenStore.
+CREATE TABLE IF NOT EXISTS refresh_token_family (
+    id VARCHAR(36) PRIMARY KEY,
+    username VARCHAR(100) NOT NULL,
+    generation INTEGER NOT NULL,
+    revoked BOOLEAN NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS refresh_token_family_expires_at_idx ON refresh_token_family (expires_at);
@@ -0,0 +1,2 @@
+-- Adds the token epoch of an account, tokens issued with a lower epoch are rejected.
+ALTER TABLE account ADD COLUMN IF NOT EXISTS token_epoch INTEGER NOT NULL DEFAULT 0;
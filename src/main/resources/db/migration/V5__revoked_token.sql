@@ -0,0 +1,7 @@
+-- Explicitly revoked tokens by jti, kept until the token would have expired and loaded into RevokedTokenStore on start.
+CREATE TABLE IF NOT EXISTS revoked_token (
+    id VARCHAR(36) PRIMARY KEY,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS revoked_token_expires_at_idx ON revoked_token (expires_at);
@@ -1,20 +1,32 @@
 package com.example.demo.controller;
 
-import com.example.demo.data.dto.account.AccountCreateRequest;
-import com.example.demo.data.dto.account.AccountInfo;
-import com.example.demo.data.dto.account.AccountUpdate;
+import com.example.demo.data.dto.account.*;
 import com.example.demo.data.model.Role;
+import com.example.demo.error.AccountAlreadyExistsException;
 import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.error.AccountVersionConflictException;
 import com.example.demo.error.IllegalRoleAssignmentException;
+import com.example.demo.service.AccountImportService;
+import com.example.demo.service.AccountResponseCache;
 import com.example.demo.service.AccountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Set;
 
@@ -25,20 +37,33 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class AccountControllerTest {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final String TEST_USERNAME = "test";
     private static final String TEST_PASSWORD = "test";
     private static final Set<Role> TEST_ROLES = Set.of(Role.ADMIN, Role.USER);
     private static final AccountInfo TEST_ACCOUNT =
-            new AccountInfo(TEST_USERNAME, true, TEST_ROLES);
+            new AccountInfo(TEST_USERNAME, true, TEST_ROLES, 0);
+    private static final AccountVersion TEST_VERSION = new AccountVersion(1, 3);
+    private static final String TEST_ETAG = "\"1-3\"";
     private static final List<AccountInfo> TEST_ACCOUNTS = List.of(TEST_ACCOUNT, TEST_ACCOUNT, TEST_ACCOUNT);
     private static final AccountCreateRequest TEST_ACCOUNT_CREATE =
             new AccountCreateRequest(TEST_USERNAME, TEST_PASSWORD, TEST_ROLES);
     private static final AccountUpdate TEST_ACCOUNT_UPDATE =
-            new AccountUpdate(TEST_PASSWORD, null, null);
+            new AccountUpdate(TEST_PASSWORD, null, null, null);
+    private static final AccountSelector TEST_SELECTOR = new AccountSelector(null, Role.USER, null);
+    private static final AccountBulkUpdate TEST_BULK_UPDATE = new AccountBulkUpdate(TEST_SELECTOR, false);
+    private static final AccountBulkResult TEST_BULK_RESULT = new AccountBulkResult(3);
 
     @Mock
     private AccountService accountService;
 
+    @Mock
+    private AccountImportService accountImportService;
+
+    @Spy
+    private final AccountResponseCache accountResponseCache =
+            new AccountResponseCache(OBJECT_MAPPER, new SimpleMeterRegistry(), DataSize.ofMegabytes(1), false);
+
     @InjectMocks
     private AccountController accountController;
 
@@ -55,28 +80,99 @@ public class AccountControllerTest {
     }
 
     @Test
-    void testGetAccount() throws AccountNotFoundException {
+    void testGetAccount() throws AccountNotFoundException, IOException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenReturn(TEST_VERSION);
         when(accountService.getAccount(TEST_USERNAME)).thenReturn(TEST_ACCOUNT);
 
-        ResponseEntity<AccountInfo> result = accountController.getAccount(TEST_USERNAME);
+        ResponseEntity<?> result = accountController.getAccount(TEST_USERNAME, null, null, null);
 
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getHeaders().getETag()).isEqualTo(TEST_ETAG);
+        assertThat(result.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(OBJECT_MAPPER.readValue((byte[]) result.getBody(), AccountInfo.class)).isEqualTo(TEST_ACCOUNT);
 
         verify(accountService, times(1)).getAccount(TEST_USERNAME);
     }
 
     @Test
-    void testGetAccountNotFound() throws AccountNotFoundException {
-        when(accountService.getAccount(TEST_USERNAME)).thenThrow(AccountNotFoundException.class);
+    void testGetAccountCached() throws AccountNotFoundException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenReturn(TEST_VERSION);
+        when(accountService.getAccount(TEST_USERNAME)).thenReturn(TEST_ACCOUNT);
+
+        ResponseEntity<?> first = accountController.getAccount(TEST_USERNAME, null, null, null);
+        ResponseEntity<?> second = accountController.getAccount(TEST_USERNAME, null, null, null);
 
-        assertThrows(AccountNotFoundException.class, () -> accountController.getAccount(TEST_USERNAME));
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getBody()).isSameAs(first.getBody());
 
         verify(accountService, times(1)).getAccount(TEST_USERNAME);
     }
 
     @Test
-    void testCreateAccount() throws IllegalRoleAssignmentException {
+    void testGetAccountChanged() throws AccountNotFoundException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenReturn(TEST_VERSION);
+        when(accountService.getAccount(TEST_USERNAME)).thenReturn(TEST_ACCOUNT);
+
+        ResponseEntity<?> result = accountController.getAccount(TEST_USERNAME, "\"1-2\"", null, null);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getETag()).isEqualTo(TEST_ETAG);
+        assertThat(result.getBody()).isNotNull();
+    }
+
+    @Test
+    void testGetAccountNotModified() throws AccountNotFoundException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenReturn(TEST_VERSION);
+
+        ResponseEntity<?> result = accountController.getAccount(TEST_USERNAME, TEST_ETAG, null, null);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(result.getHeaders().getETag()).isEqualTo(TEST_ETAG);
+        assertThat(result.getBody()).isNull();
+
+        verify(accountService, never()).getAccount(any());
+    }
+
+    @Test
+    void testGetAccountBinary() throws AccountNotFoundException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenReturn(TEST_VERSION);
+        when(accountService.getAccount(TEST_USERNAME)).thenReturn(TEST_ACCOUNT);
+
+        ResponseEntity<?> result = accountController.getAccount(TEST_USERNAME, null, null,
+                "application/cbor, application/json;q=0.5");
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getContentType()).isEqualTo(MediaType.valueOf("application/cbor"));
+        // the CBOR body has its own tag, a cached JSON response is not validated by it
+        assertThat(result.getHeaders().getETag()).isEqualTo("\"1-3-cbor\"");
+        assertThat(result.getBody()).isEqualTo(TEST_ACCOUNT);
+
+        verify(accountResponseCache, never()).get(any(), any(), any());
+    }
+
+    @Test
+    void testGetAccountMalformedAccept() throws AccountNotFoundException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenReturn(TEST_VERSION);
+        when(accountService.getAccount(TEST_USERNAME)).thenReturn(TEST_ACCOUNT);
+
+        ResponseEntity<?> result = accountController.getAccount(TEST_USERNAME, null, null, "application/");
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(result.getHeaders().getETag()).isEqualTo(TEST_ETAG);
+    }
+
+    @Test
+    void testGetAccountNotFound() throws AccountNotFoundException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenThrow(AccountNotFoundException.class);
+
+        assertThrows(AccountNotFoundException.class, () -> accountController.getAccount(TEST_USERNAME, null, null, null));
+
+        verify(accountService, never()).getAccount(any());
+    }
+
+    @Test
+    void testCreateAccount() throws IllegalRoleAssignmentException, AccountAlreadyExistsException {
         ResponseEntity<AccountInfo> result = accountController.createAccount(TEST_ACCOUNT_CREATE);
 
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.CREATED);
@@ -85,7 +181,7 @@ public class AccountControllerTest {
     }
 
     @Test
-    void testCreateAccountIllegalRoleAssignment() throws IllegalRoleAssignmentException {
+    void testCreateAccountIllegalRoleAssignment() throws IllegalRoleAssignmentException, AccountAlreadyExistsException {
         when(accountService.createAccount(TEST_ACCOUNT_CREATE)).thenThrow(IllegalRoleAssignmentException.class);
 
         assertThrows(IllegalRoleAssignmentException.class, () -> accountController.createAccount(TEST_ACCOUNT_CREATE));
@@ -94,7 +190,35 @@ public class AccountControllerTest {
     }
 
     @Test
-    void testUpdateAccount() throws AccountNotFoundException, IllegalRoleAssignmentException {
+    void testCreateAccountAlreadyExists() throws IllegalRoleAssignmentException, AccountAlreadyExistsException {
+        when(accountService.createAccount(TEST_ACCOUNT_CREATE)).thenThrow(AccountAlreadyExistsException.class);
+
+        assertThrows(AccountAlreadyExistsException.class, () -> accountController.createAccount(TEST_ACCOUNT_CREATE));
+
+        verify(accountService, times(1)).createAccount(TEST_ACCOUNT_CREATE);
+    }
+
+    @Test
+    void testImportAccounts() throws IOException {
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ResponseEntity<StreamingResponseBody> result =
+                accountController.importAccounts(MediaType.APPLICATION_NDJSON, body);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(result.getBody()).isNotNull();
+        // the import only runs once the response body is written
+        verify(accountImportService, never()).importAccounts(any(), any(), any());
+
+        result.getBody().writeTo(output);
+
+        verify(accountImportService, times(1)).importAccounts(body, MediaType.APPLICATION_NDJSON, output);
+    }
+
+    @Test
+    void testUpdateAccount() throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
         when(accountService.updateAccount(TEST_USERNAME, TEST_ACCOUNT_UPDATE)).thenReturn(TEST_ACCOUNT);
 
         ResponseEntity<AccountInfo> result = accountController.updateAccount(TEST_USERNAME, TEST_ACCOUNT_UPDATE);
@@ -106,7 +230,7 @@ public class AccountControllerTest {
     }
 
     @Test
-    void testUpdateAccountIllegalRoleAssignment() throws AccountNotFoundException, IllegalRoleAssignmentException {
+    void testUpdateAccountIllegalRoleAssignment() throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
         when(accountService.updateAccount(TEST_USERNAME, TEST_ACCOUNT_UPDATE))
                 .thenThrow(IllegalRoleAssignmentException.class);
 
@@ -117,7 +241,18 @@ public class AccountControllerTest {
     }
 
     @Test
-    void testUpdateAccountNotFound() throws AccountNotFoundException, IllegalRoleAssignmentException {
+    void testUpdateAccountVersionConflict() throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
+        when(accountService.updateAccount(TEST_USERNAME, TEST_ACCOUNT_UPDATE))
+                .thenThrow(AccountVersionConflictException.class);
+
+        assertThrows(AccountVersionConflictException.class,
+                () -> accountController.updateAccount(TEST_USERNAME, TEST_ACCOUNT_UPDATE));
+
+        verify(accountService, times(1)).updateAccount(TEST_USERNAME, TEST_ACCOUNT_UPDATE);
+    }
+
+    @Test
+    void testUpdateAccountNotFound() throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
         when(accountService.updateAccount(TEST_USERNAME, TEST_ACCOUNT_UPDATE))
                 .thenThrow(AccountNotFoundException.class);
 
@@ -144,4 +279,28 @@ public class AccountControllerTest {
 
         verify(accountService, times(1)).deleteAccount(TEST_USERNAME);
     }
+
+    @Test
+    void testUpdateAccounts() {
+        when(accountService.updateAccounts(TEST_BULK_UPDATE)).thenReturn(TEST_BULK_RESULT);
+
+        ResponseEntity<AccountBulkResult> result = accountController.updateAccounts(TEST_BULK_UPDATE);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isEqualTo(TEST_BULK_RESULT);
+
+        verify(accountService, times(1)).updateAccounts(TEST_BULK_UPDATE);
+    }
+
+    @Test
+    void testDeleteAccounts() {
+        when(accountService.deleteAccounts(TEST_SELECTOR)).thenReturn(TEST_BULK_RESULT);
+
+        ResponseEntity<AccountBulkResult> result = accountController.deleteAccounts(TEST_SELECTOR);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isEqualTo(TEST_BULK_RESULT);
+
+        verify(accountService, times(1)).deleteAccounts(TEST_SELECTOR);
+    }
 }
@@ -0,0 +1,81 @@
+package com.example.demo.controller;
+
+import com.example.demo.data.dto.diagnostics.RecordingDump;
+import com.example.demo.data.dto.diagnostics.RecordingStatus;
+import com.example.demo.error.RecordingStateException;
+import com.example.demo.service.diagnostics.RecordingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DiagnosticsControllerTest {
+
+    private static final RecordingStatus TEST_STATUS = new RecordingStatus(true, Instant.EPOCH, 1024);
+    private static final RecordingDump TEST_DUMP = new RecordingDump("/tmp/security.jfr", 1024);
+
+    @Mock
+    private RecordingService recordingService;
+
+    @InjectMocks
+    private DiagnosticsController diagnosticsController;
+
+    @Test
+    void testGetRecording() {
+        when(recordingService.status()).thenReturn(TEST_STATUS);
+
+        ResponseEntity<RecordingStatus> result = diagnosticsController.getRecording();
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isEqualTo(TEST_STATUS);
+    }
+
+    @Test
+    void testStartRecording() throws RecordingStateException, IOException {
+        when(recordingService.start()).thenReturn(TEST_STATUS);
+
+        ResponseEntity<RecordingStatus> result = diagnosticsController.startRecording();
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isEqualTo(TEST_STATUS);
+    }
+
+    @Test
+    void testStartRecordingRunning() throws RecordingStateException, IOException {
+        when(recordingService.start()).thenThrow(RecordingStateException.class);
+
+        assertThrows(RecordingStateException.class, () -> diagnosticsController.startRecording());
+    }
+
+    @Test
+    void testDumpRecording() throws RecordingStateException, IOException {
+        when(recordingService.dump()).thenReturn(TEST_DUMP);
+
+        ResponseEntity<RecordingDump> result = diagnosticsController.dumpRecording();
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isEqualTo(TEST_DUMP);
+    }
+
+    @Test
+    void testStopRecording() throws RecordingStateException, IOException {
+        when(recordingService.stop()).thenReturn(TEST_DUMP);
+
+        ResponseEntity<RecordingDump> result = diagnosticsController.stopRecording();
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isEqualTo(TEST_DUMP);
+        verify(recordingService, times(1)).stop();
+    }
+}
@@ -1,24 +1,34 @@
 package com.example.demo.controller;
 
 import com.example.demo.data.dto.account.AccountUpdate;
+import com.example.demo.data.dto.account.AccountVersion;
 import com.example.demo.data.dto.account.PasswordUpdate;
 import com.example.demo.data.dto.account.Profile;
 import com.example.demo.data.model.Account;
 import com.example.demo.data.model.Role;
 import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.error.AccountVersionConflictException;
 import com.example.demo.error.IllegalRoleAssignmentException;
 import com.example.demo.error.InvalidPasswordUpdateException;
+import com.example.demo.service.AccountResponseCache;
 import com.example.demo.service.AccountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 
-
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -27,45 +37,120 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class ProfileControllerTest {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final String TEST_USERNAME = "test";
     private static final String TEST_PASSWORD = "test";
     private static final Set<Role> TEST_ROLES = Set.of(Role.ADMIN, Role.USER);
     private static final Account TEST_ACCOUNT =
-            new Account(null, TEST_USERNAME, null, true, TEST_ROLES);
+            new Account(null, TEST_USERNAME, null, true, TEST_ROLES, 0, 0);
     private static final Profile TEST_PROFILE = new Profile(TEST_USERNAME, TEST_ROLES);
+    private static final AccountVersion TEST_VERSION = new AccountVersion(1, 3);
+    private static final String TEST_ETAG = "\"1-3\"";
+    private static final String TEST_GZIP_ETAG = "\"1-3-gz\"";
     private static final PasswordUpdate TEST_PASSWORD_UPDATE = new PasswordUpdate(TEST_USERNAME, TEST_PASSWORD);
     private static final AccountUpdate TEST_ACCOUNT_UPDATE =
-            new AccountUpdate(TEST_PASSWORD, null, null);
+            new AccountUpdate(TEST_PASSWORD, null, null, null);
 
     @Mock
     private AccountService accountService;
 
+    @Spy
+    private final AccountResponseCache accountResponseCache =
+            new AccountResponseCache(OBJECT_MAPPER, new SimpleMeterRegistry(), DataSize.ofMegabytes(1), false);
+
     @InjectMocks
     private ProfileController profileController;
 
     @Test
-    void testGetProfile() throws AccountNotFoundException {
+    void testGetProfile() throws AccountNotFoundException, IOException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenReturn(TEST_VERSION);
         when(accountService.getProfile(TEST_USERNAME)).thenReturn(TEST_PROFILE);
 
-        ResponseEntity<Profile> result = profileController.getProfile(TEST_ACCOUNT);
+        ResponseEntity<?> result = profileController.getProfile(TEST_ACCOUNT, null, null, null);
 
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getHeaders().getETag()).isEqualTo(TEST_ETAG);
+        assertThat(OBJECT_MAPPER.readValue((byte[]) result.getBody(), Profile.class)).isEqualTo(TEST_PROFILE);
 
         verify(accountService, times(1)).getProfile(TEST_USERNAME);
     }
 
     @Test
-    void testGetProfileNotFound() throws AccountNotFoundException {
-        when(accountService.getProfile(TEST_USERNAME)).thenThrow(AccountNotFoundException.class);
+    void testGetProfileGzip() throws AccountNotFoundException, IOException {
+        ProfileController gzipController = new ProfileController(accountService,
+                new AccountResponseCache(OBJECT_MAPPER, new SimpleMeterRegistry(), DataSize.ofMegabytes(1), true));
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenReturn(TEST_VERSION);
+        when(accountService.getProfile(TEST_USERNAME)).thenReturn(TEST_PROFILE);
 
-        assertThrows(AccountNotFoundException.class, () -> profileController.getProfile(TEST_ACCOUNT));
+        ResponseEntity<?> result = gzipController.getProfile(TEST_ACCOUNT, null, "gzip, deflate", null);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(result.getHeaders().getETag()).isEqualTo(TEST_GZIP_ETAG);
+        assertThat(result.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream((byte[]) result.getBody()))) {
+            assertThat(OBJECT_MAPPER.readValue(input, Profile.class)).isEqualTo(TEST_PROFILE);
+        }
+
+        // the encoding is not accepted - the plain JSON is sent
+        result = gzipController.getProfile(TEST_ACCOUNT, null, "gzip;q=0", null);
+
+        assertThat(result.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(result.getHeaders().getETag()).isEqualTo(TEST_ETAG);
+        assertThat(OBJECT_MAPPER.readValue((byte[]) result.getBody(), Profile.class)).isEqualTo(TEST_PROFILE);
+
+        // the tag of the gzip body does not validate the plain one and the other way round
+        result = gzipController.getProfile(TEST_ACCOUNT, TEST_GZIP_ETAG, null, null);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        result = gzipController.getProfile(TEST_ACCOUNT, TEST_ETAG, "gzip", null);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        result = gzipController.getProfile(TEST_ACCOUNT, TEST_GZIP_ETAG, "gzip", null);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
 
         verify(accountService, times(1)).getProfile(TEST_USERNAME);
     }
 
     @Test
-    void testUpdateProfile() throws AccountNotFoundException, IllegalRoleAssignmentException, InvalidPasswordUpdateException {
+    void testGetProfileNotModified() throws AccountNotFoundException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenReturn(TEST_VERSION);
+
+        ResponseEntity<?> result = profileController.getProfile(TEST_ACCOUNT, "W/" + TEST_ETAG, null, null);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(result.getHeaders().getETag()).isEqualTo(TEST_ETAG);
+        assertThat(result.getBody()).isNull();
+
+        verify(accountService, never()).getProfile(any());
+    }
+
+    @Test
+    void testGetProfileBinary() throws AccountNotFoundException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenReturn(TEST_VERSION);
+        when(accountService.getProfile(TEST_USERNAME)).thenReturn(TEST_PROFILE);
+
+        ResponseEntity<?> result =
+                profileController.getProfile(TEST_ACCOUNT, TEST_ETAG, null, "application/x-jackson-smile");
+
+        // the tag of the JSON body does not validate the Smile one
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getETag()).isEqualTo("\"1-3-smile\"");
+        assertThat(result.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+        assertThat(result.getBody()).isEqualTo(TEST_PROFILE);
+
+        verify(accountResponseCache, never()).get(any(), any(), any());
+    }
+
+    @Test
+    void testGetProfileNotFound() throws AccountNotFoundException {
+        when(accountService.getAccountVersion(TEST_USERNAME)).thenThrow(AccountNotFoundException.class);
+
+        assertThrows(AccountNotFoundException.class, () -> profileController.getProfile(TEST_ACCOUNT, null, null, null));
+
+        verify(accountService, never()).getProfile(any());
+    }
+
+    @Test
+    void testUpdateProfile() throws AccountNotFoundException, IllegalRoleAssignmentException, InvalidPasswordUpdateException, AccountVersionConflictException {
         ResponseEntity<Void> result = profileController.updateAccount(TEST_ACCOUNT, TEST_PASSWORD_UPDATE);
 
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
@@ -74,7 +159,7 @@ public class ProfileControllerTest {
     }
 
     @Test
-    void testUpdateProfileNotFound() throws AccountNotFoundException, IllegalRoleAssignmentException, InvalidPasswordUpdateException {
+    void testUpdateProfileNotFound() throws AccountNotFoundException, IllegalRoleAssignmentException, InvalidPasswordUpdateException, AccountVersionConflictException {
         doThrow(AccountNotFoundException.class)
                 .when(accountService).updateAccountPassword(TEST_USERNAME, TEST_PASSWORD_UPDATE);
 
@@ -2,9 +2,15 @@ package com.example.demo.controller.security;
 
 import com.example.demo.data.dto.security.LoginRequest;
 import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.dto.security.LogoutRequest;
 import com.example.demo.data.dto.security.RefreshResponse;
+import com.example.demo.data.dto.security.TokenRevocationRequest;
+import com.example.demo.data.security.JwtToken;
 import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.error.InvalidRefreshTokenException;
+import com.example.demo.error.InvalidTokenException;
 import com.example.demo.service.security.AuthenticationService;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -24,7 +30,11 @@ public class AuthenticationControllerTest {
             new LoginRequest("test", "test");
     private static final LoginResponse TEST_LOGIN_RESPONSE =
             new LoginResponse("accToken", "refToken");
-    private static final RefreshResponse TEST_REFRESH_RESPONSE = new RefreshResponse("accRefToken");
+    private static final RefreshResponse TEST_REFRESH_RESPONSE = new RefreshResponse("accRefToken", "refRefToken");
+    private static final JwtToken TEST_REFRESH_TOKEN = new JwtToken("refToken", Jwts.claims().build());
+    private static final JwtToken TEST_ACCESS_TOKEN = new JwtToken("accToken", Jwts.claims().build());
+    private static final LogoutRequest TEST_LOGOUT_REQUEST = new LogoutRequest("refToken");
+    private static final TokenRevocationRequest TEST_REVOCATION_REQUEST = new TokenRevocationRequest("accToken");
 
     @Mock
     private AuthenticationService authenticationService;
@@ -54,23 +64,50 @@ public class AuthenticationControllerTest {
     }
 
     @Test
-    void testRefreshAuthentication() throws AccountNotFoundException {
-        when(authenticationService.refreshAuthentication()).thenReturn(TEST_REFRESH_RESPONSE);
+    void testRefreshAuthentication() throws InvalidRefreshTokenException {
+        when(authenticationService.refreshAuthentication(TEST_REFRESH_TOKEN)).thenReturn(TEST_REFRESH_RESPONSE);
 
-        ResponseEntity<RefreshResponse> result = authenticationController.refreshAuthentication();
+        ResponseEntity<RefreshResponse> result = authenticationController.refreshAuthentication(TEST_REFRESH_TOKEN);
 
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(result.getBody()).isNotNull();
 
-        verify(authenticationService, times(1)).refreshAuthentication();
+        verify(authenticationService, times(1)).refreshAuthentication(TEST_REFRESH_TOKEN);
     }
 
     @Test
-    void testRefreshAuthenticationNotFound() throws AccountNotFoundException {
-        when(authenticationService.refreshAuthentication()).thenThrow(AccountNotFoundException.class);
+    void testRefreshAuthenticationInvalid() throws InvalidRefreshTokenException {
+        when(authenticationService.refreshAuthentication(TEST_REFRESH_TOKEN))
+                .thenThrow(InvalidRefreshTokenException.class);
 
-        assertThrows(AccountNotFoundException.class, () -> authenticationController.refreshAuthentication());
+        assertThrows(InvalidRefreshTokenException.class,
+                () -> authenticationController.refreshAuthentication(TEST_REFRESH_TOKEN));
 
-        verify(authenticationService, times(1)).refreshAuthentication();
+        verify(authenticationService, times(1)).refreshAuthentication(TEST_REFRESH_TOKEN);
+    }
+
+    @Test
+    void testLogout() throws InvalidTokenException {
+        ResponseEntity<Void> result = authenticationController.logout(TEST_ACCESS_TOKEN, TEST_LOGOUT_REQUEST);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        verify(authenticationService, times(1)).logout(TEST_ACCESS_TOKEN, TEST_LOGOUT_REQUEST);
+    }
+
+    @Test
+    void testRevoke() throws InvalidTokenException {
+        ResponseEntity<Void> result = authenticationController.revoke(TEST_REVOCATION_REQUEST);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        verify(authenticationService, times(1)).revoke(TEST_REVOCATION_REQUEST);
+    }
+
+    @Test
+    void testRevokeInvalidToken() throws InvalidTokenException {
+        doThrow(InvalidTokenException.class).when(authenticationService).revoke(TEST_REVOCATION_REQUEST);
+
+        assertThrows(InvalidTokenException.class, () -> authenticationController.revoke(TEST_REVOCATION_REQUEST));
     }
 }
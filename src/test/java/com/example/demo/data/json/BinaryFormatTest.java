@@ -0,0 +1,59 @@
+package com.example.demo.data.json;
+
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.model.Role;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The payload sizes behind the binary formats, BinaryFormatBenchmark measures their encoding cost
+public class BinaryFormatTest {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper().registerModule(new DtoJsonModule());
+    private static final TypeReference<List<AccountInfo>> ACCOUNTS_TYPE = new TypeReference<>() {
+    };
+    // realistic token lengths, the content does not matter for the encoding
+    private static final LoginResponse LOGIN_RESPONSE = new LoginResponse("x".repeat(280), "x".repeat(280));
+    private static final List<AccountInfo> ACCOUNTS = IntStream.range(0, 100)
+            .mapToObj(i -> new AccountInfo("benchmark-user-" + i, true, Set.of(Role.ADMIN, Role.USER), i))
+            .toList();
+
+    @ParameterizedTest
+    @MethodSource("binaryMappers")
+    void testAccountsSmaller(ObjectMapper binaryMapper) throws IOException {
+        byte[] json = JSON_MAPPER.writeValueAsBytes(ACCOUNTS);
+        byte[] binary = binaryMapper.writeValueAsBytes(ACCOUNTS);
+
+        // the repeated field names and numbers are where the binary formats save
+        assertThat(binary.length).isLessThan(json.length * 9 / 10);
+        assertThat(binaryMapper.readValue(binary, ACCOUNTS_TYPE)).isEqualTo(ACCOUNTS);
+    }
+
+    @ParameterizedTest
+    @MethodSource("binaryMappers")
+    void testLoginResponseNotLarger(ObjectMapper binaryMapper) throws IOException {
+        byte[] json = JSON_MAPPER.writeValueAsBytes(LOGIN_RESPONSE);
+        byte[] binary = binaryMapper.writeValueAsBytes(LOGIN_RESPONSE);
+
+        // two long strings, the tokens are the payload whatever the format
+        assertThat(binary.length).isLessThanOrEqualTo(json.length);
+        assertThat(binaryMapper.readValue(binary, LoginResponse.class)).isEqualTo(LOGIN_RESPONSE);
+    }
+
+    static Stream<ObjectMapper> binaryMappers() {
+        return Stream.of(new CBORMapper().registerModule(new DtoJsonModule()),
+                new SmileMapper().registerModule(new DtoJsonModule()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.data.json;
+
+import com.example.demo.data.dto.account.AccountInfo;
+import com.example.demo.data.dto.account.Profile;
+import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.dto.security.RefreshResponse;
+import com.example.demo.data.model.Role;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DtoJsonModuleTest {
+
+    // the bean serializers define the expected output
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+    private static final ObjectMapper MODULE_MAPPER = new ObjectMapper().registerModule(new DtoJsonModule());
+
+    @ParameterizedTest
+    @MethodSource("dtos")
+    void testSameJson(Object dto) throws JsonProcessingException {
+        String expected = DEFAULT_MAPPER.writeValueAsString(dto);
+        String actual = MODULE_MAPPER.writeValueAsString(dto);
+
+        assertThat(MODULE_MAPPER.readTree(actual)).isEqualTo(DEFAULT_MAPPER.readTree(expected));
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @MethodSource("dtos")
+    void testRoundTrip(Object dto) throws IOException {
+        byte[] json = MODULE_MAPPER.writeValueAsBytes(dto);
+
+        assertThat(DEFAULT_MAPPER.readValue(json, dto.getClass())).isEqualTo(dto);
+    }
+
+    @ParameterizedTest
+    @MethodSource("dtos")
+    void testInCollection(Object dto) throws JsonProcessingException {
+        List<Object> dtos = List.of(dto, dto);
+
+        assertThat(MODULE_MAPPER.writeValueAsString(dtos)).isEqualTo(DEFAULT_MAPPER.writeValueAsString(dtos));
+    }
+
+    static Stream<Object> dtos() {
+        // insertion ordered so that both mappers see the roles in the same order
+        Set<Role> roles = new LinkedHashSet<>(List.of(Role.ROOT, Role.ADMIN, Role.USER));
+        return Stream.of(
+                new AccountInfo("user", true, roles, 7),
+                new AccountInfo("user \"quoted\" é\n", false, EnumSet.noneOf(Role.class), 0),
+                new AccountInfo(null, false, null, Long.MAX_VALUE),
+                new Profile("user", roles),
+                new Profile(null, null),
+                new LoginResponse("access.token.value", "refresh.token.value"),
+                new LoginResponse(null, null),
+                new RefreshResponse("access.token.value", "refresh.token.value"),
+                new RefreshResponse(null, null)
+        );
+    }
+}
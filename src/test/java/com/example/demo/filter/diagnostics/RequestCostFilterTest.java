@@ -0,0 +1,98 @@
+package com.example.demo.filter.diagnostics;
+
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import com.example.demo.filter.warmup.WarmupRequestFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class RequestCostFilterTest {
+
+    private static final String TEST_PATTERN = "/accounts/{username}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRequestCost() throws ServletException, IOException {
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, true, Duration.ZERO, 0);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+        Account account = new Account(1L, "admin", null, true, Set.of(Role.ADMIN, Role.USER), 0, 0);
+
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)).thenReturn(TEST_PATTERN);
+        doAnswer(invocation -> {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(account, null, account.getAuthorities()));
+            // something to account for
+            return new byte[4096];
+        }).when(chain).doFilter(request, response);
+
+        filter.doFilterInternal(request, response, chain);
+
+        verify(chain, times(1)).doFilter(request, response);
+        assertThat(meterRegistry.get("http.server.requests.cpu")
+                .tags("method", "GET", "uri", TEST_PATTERN, "role", "ADMIN")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.server.requests.allocated")
+                .tags("method", "GET", "uri", TEST_PATTERN, "role", "ADMIN")
+                .summary().totalAmount()).isGreaterThanOrEqualTo(4096);
+    }
+
+    @Test
+    void testUnmappedAnonymousRequest() throws ServletException, IOException {
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, true, Duration.ofSeconds(1), 0);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+
+        when(request.getMethod()).thenReturn("POST");
+
+        filter.doFilterInternal(request, response, mock(FilterChain.class));
+
+        assertThat(meterRegistry.get("http.server.requests.cpu")
+                .tags("method", "POST", "uri", "UNKNOWN", "role", "anonymous")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDisabled() {
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, false, Duration.ZERO, 0);
+
+        assertThat(filter.shouldNotFilter(mock(HttpServletRequest.class))).isTrue();
+    }
+
+    @Test
+    void testWarmupRequest() throws ServletException, IOException {
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, true, Duration.ZERO, 0);
+        WarmupRequestFilter warmupRequestFilter = new WarmupRequestFilter();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/profile");
+        request.addHeader(WarmupRequestFilter.WARMUP_HEADER, warmupRequestFilter.key());
+        warmupRequestFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(filter.shouldNotFilter(request)).isTrue();
+    }
+}
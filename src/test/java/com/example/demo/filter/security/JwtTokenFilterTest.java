@@ -1,8 +1,17 @@
 package com.example.demo.filter.security;
 
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
 import com.example.demo.data.security.JwtToken;
+import com.example.demo.filter.warmup.WarmupRequestFilter;
 import com.example.demo.service.security.JwtService;
+import com.example.demo.service.security.RevokedTokenStore;
+import com.example.demo.service.security.SecurityMetrics;
+import com.example.demo.service.tracing.Tracer;
+import com.example.demo.service.security.TokenEpochIndex;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,14 +20,22 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.example.demo.utils.security.SecurityConstants.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,6 +49,7 @@ public class JwtTokenFilterTest {
     private static final String TEST_AUTHORIZATION_HEADER = BEARER_AUTHORIZATION + TEST_JWT_TOKEN;
     private static final String TEST_USER = "user";
     private static final String TEST_ENDPOINT = "/endpoint";
+    private static final String TEST_RENEWED_TOKEN = "eyJhbGciOiJIUzM4NCJ9.renewed";
 
     @Mock
     private JwtToken validatedToken;
@@ -42,6 +60,20 @@ public class JwtTokenFilterTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    @Mock
+    private TokenEpochIndex tokenEpochIndex;
+
+    @Mock
+    private RevokedTokenStore revokedTokenStore;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private SecurityMetrics securityMetrics = new SecurityMetrics(meterRegistry);
+
+    @Spy
+    private Tracer tracer = new Tracer(meterRegistry, true, 1.0, 16);
+
     @InjectMocks
     private JwtTokenFilter jwtTokenFilter;
 
@@ -53,6 +85,11 @@ public class JwtTokenFilterTest {
         assertThat(jwtTokenFilter.shouldNotFilterErrorDispatch()).isFalse();
     }
 
+    @Test
+    void testAsyncDispatchFiltering() {
+        assertThat(jwtTokenFilter.shouldNotFilterAsyncDispatch()).isFalse();
+    }
+
     @Test
     void testNullAuthorizationHeader() throws ServletException, IOException {
         testNoJwtValidation(null);
@@ -189,4 +226,149 @@ public class JwtTokenFilterTest {
         // This validates that the filter set the authentication token for the security context
         verify(userDetails, times(1)).getAuthorities();
     }
+
+    @Test
+    void testRenewedAccessToken() throws ServletException, IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+        Account account = new Account(1L, TEST_USER, null, true, Set.of(Role.USER), 0, 0);
+
+        when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(TEST_AUTHORIZATION_HEADER);
+        when(jwtService.validateAndGetToken(TEST_JWT_TOKEN)).thenReturn(validatedToken);
+        when(validatedToken.isRefreshToken()).thenReturn(false);
+        when(validatedToken.isAccessToken()).thenReturn(true);
+        when(request.getRequestURI()).thenReturn(TEST_ENDPOINT);
+        when(validatedToken.subject()).thenReturn(TEST_USER);
+        when(userDetailsService.loadUserByUsername(TEST_USER)).thenReturn(account);
+        when(jwtService.renewAccessToken(validatedToken,
+                Map.of(ROLES_CLAIM, Set.of(Role.USER), ACCOUNT_ID_CLAIM, 1L, EPOCH_CLAIM, 0)))
+                .thenReturn(TEST_RENEWED_TOKEN);
+
+        jwtTokenFilter.doFilterInternal(request, response, chain);
+
+        verify(response, times(1)).setHeader(RENEWED_TOKEN_HEADER, TEST_RENEWED_TOKEN);
+        verify(chain, times(1)).doFilter(request, response);
+    }
+
+    @Test
+    void testNotRenewedAccessToken() throws ServletException, IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+        Account account = new Account(1L, TEST_USER, null, true, Set.of(Role.USER), 0, 0);
+
+        when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(TEST_AUTHORIZATION_HEADER);
+        when(jwtService.validateAndGetToken(TEST_JWT_TOKEN)).thenReturn(validatedToken);
+        when(validatedToken.isRefreshToken()).thenReturn(false);
+        when(validatedToken.isAccessToken()).thenReturn(true);
+        when(request.getRequestURI()).thenReturn(TEST_ENDPOINT);
+        when(validatedToken.subject()).thenReturn(TEST_USER);
+        when(userDetailsService.loadUserByUsername(TEST_USER)).thenReturn(account);
+
+        jwtTokenFilter.doFilterInternal(request, response, chain);
+
+        verify(response, never()).setHeader(eq(RENEWED_TOKEN_HEADER), any());
+        verify(chain, times(1)).doFilter(request, response);
+    }
+
+    @Test
+    void testAccountFromClaims() throws ServletException, IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+        JwtToken token = accountToken(2);
+
+        when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(TEST_AUTHORIZATION_HEADER);
+        when(jwtService.validateAndGetToken(TEST_JWT_TOKEN)).thenReturn(token);
+        when(request.getRequestURI()).thenReturn(TEST_ENDPOINT);
+        when(tokenEpochIndex.current(1L)).thenReturn(2);
+
+        SecurityContextHolder.clearContext();
+        jwtTokenFilter.doFilterInternal(request, response, chain);
+
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(chain, times(1)).doFilter(request, response);
+        Account account = (Account) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertThat(account.getId()).isEqualTo(1L);
+        assertThat(account.getUsername()).isEqualTo(TEST_USER);
+        assertThat(account.getRoles()).containsExactly(Role.ADMIN);
+        SecurityContextHolder.clearContext();
+        for (String phase : List.of("parse", "verify", "principal")) {
+            assertThat(meterRegistry.get("security.jwt.filter").tag("phase", phase).timer().count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testRevokedEpoch() throws ServletException, IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+        JwtToken token = accountToken(1);
+
+        when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(TEST_AUTHORIZATION_HEADER);
+        when(jwtService.validateAndGetToken(TEST_JWT_TOKEN)).thenReturn(token);
+        when(request.getRequestURI()).thenReturn(TEST_ENDPOINT);
+        when(tokenEpochIndex.current(1L)).thenReturn(2);
+
+        jwtTokenFilter.doFilterInternal(request, response, chain);
+
+        verify(response, times(1)).setStatus(HttpStatus.UNAUTHORIZED.value());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(chain, never()).doFilter(request, response);
+    }
+
+    @Test
+    void testRevokedToken() throws ServletException, IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+        JwtToken token = accountToken(2);
+
+        when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(TEST_AUTHORIZATION_HEADER);
+        when(jwtService.validateAndGetToken(TEST_JWT_TOKEN)).thenReturn(token);
+        when(request.getRequestURI()).thenReturn(TEST_ENDPOINT);
+        when(tokenEpochIndex.current(1L)).thenReturn(2);
+        when(revokedTokenStore.isRevoked(token)).thenReturn(true);
+
+        jwtTokenFilter.doFilterInternal(request, response, chain);
+
+        verify(response, times(1)).setStatus(HttpStatus.UNAUTHORIZED.value());
+        verify(chain, never()).doFilter(request, response);
+        assertThat(meterRegistry.get("security.jwt.rejections").tag("reason", "revoked").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testWarmupRequestNotRecorded() throws ServletException, IOException {
+        WarmupRequestFilter warmupRequestFilter = new WarmupRequestFilter();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", TEST_ENDPOINT);
+        request.addHeader(WarmupRequestFilter.WARMUP_HEADER, warmupRequestFilter.key());
+        request.addHeader(AUTHORIZATION_HEADER, TEST_AUTHORIZATION_HEADER);
+        warmupRequestFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        JwtToken token = accountToken(2);
+
+        when(jwtService.validateAndGetToken(TEST_JWT_TOKEN)).thenReturn(token);
+        when(tokenEpochIndex.current(1L)).thenReturn(2);
+        when(revokedTokenStore.isRevoked(token)).thenReturn(true);
+
+        jwtTokenFilter.doFilterInternal(request, response, mock(FilterChain.class));
+
+        // rejected like any other request, but left out of the metrics
+        verify(response, times(1)).setStatus(HttpStatus.UNAUTHORIZED.value());
+        assertThat(meterRegistry.get("security.jwt.rejections").tag("reason", "revoked").counter().count())
+                .isZero();
+        assertThat(meterRegistry.get("security.jwt.filter").tag("phase", "parse").timer().count()).isZero();
+    }
+
+    private static JwtToken accountToken(int epoch) {
+        return new JwtToken(TEST_JWT_TOKEN, Jwts.claims()
+                .subject(TEST_USER)
+                .add(ACCESS_TYPE_CLAIM, TYPE_CLAIM_VALUE)
+                .add(ROLES_CLAIM, List.of(Role.ADMIN.name()))
+                .add(ACCOUNT_ID_CLAIM, 1)
+                .add(EPOCH_CLAIM, epoch)
+                .build());
+    }
 }
@@ -0,0 +1,67 @@
+package com.example.demo.filter.warmup;
+
+import com.example.demo.service.warmup.WarmupContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WarmupRequestFilterTest {
+
+    private final WarmupRequestFilter filter = new WarmupRequestFilter();
+
+    @Test
+    void testWarmupRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/profile");
+        request.addHeader(WarmupRequestFilter.WARMUP_HEADER, filter.key());
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(WarmupRequestFilter.isWarmup(request)).isTrue();
+        assertThat(chain.getRequest()).isSameAs(request);
+    }
+
+    @Test
+    void testWarmupThread() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/profile");
+        request.addHeader(WarmupRequestFilter.WARMUP_HEADER, filter.key());
+        AtomicBoolean active = new AtomicBoolean();
+        FilterChain chain = (chainRequest, chainResponse) -> active.set(WarmupContext.isActive());
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // marked while the request is served, not after
+        assertThat(active).isTrue();
+        assertThat(WarmupContext.isActive()).isFalse();
+    }
+
+    @Test
+    void testWrongKey() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/profile");
+        request.addHeader(WarmupRequestFilter.WARMUP_HEADER, "guessed");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(WarmupRequestFilter.isWarmup(request)).isFalse();
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(WarmupContext.isActive()).isFalse();
+    }
+
+    @Test
+    void testRegularRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/profile");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(WarmupRequestFilter.isWarmup(request)).isFalse();
+    }
+}
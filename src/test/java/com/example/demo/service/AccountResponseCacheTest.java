@@ -0,0 +1,61 @@
+package com.example.demo.service;
+
+import com.example.demo.data.dto.account.AccountVersion;
+import com.example.demo.data.dto.account.Profile;
+import com.example.demo.data.model.Role;
+import com.example.demo.event.AccountChangeEvent;
+import com.example.demo.service.AccountResponseCache.CachedResponse;
+import com.example.demo.service.AccountResponseCache.Representation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccountResponseCacheTest {
+
+    private static final String TEST_USERNAME = "test";
+    private static final AccountVersion TEST_VERSION = new AccountVersion(1, 3);
+    private static final Profile TEST_PROFILE = new Profile(TEST_USERNAME, Set.of(Role.USER));
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AccountResponseCache accountResponseCache =
+            new AccountResponseCache(new ObjectMapper(), meterRegistry, DataSize.ofMegabytes(1), false);
+
+    @Test
+    void testPutAndGet() {
+        assertThat(accountResponseCache.get(Representation.PROFILE, TEST_USERNAME, TEST_VERSION)).isNull();
+
+        CachedResponse response =
+                accountResponseCache.put(Representation.PROFILE, TEST_USERNAME, TEST_VERSION, TEST_PROFILE);
+
+        assertThat(response.gzip()).isNull();
+        assertThat(accountResponseCache.get(Representation.PROFILE, TEST_USERNAME, TEST_VERSION)).isSameAs(response);
+        // the representations are cached separately
+        assertThat(accountResponseCache.get(Representation.ACCOUNT, TEST_USERNAME, TEST_VERSION)).isNull();
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "account-response").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testStaleVersion() {
+        accountResponseCache.put(Representation.PROFILE, TEST_USERNAME, TEST_VERSION, TEST_PROFILE);
+
+        AccountVersion newVersion = new AccountVersion(TEST_VERSION.id(), TEST_VERSION.version() + 1);
+        assertThat(accountResponseCache.get(Representation.PROFILE, TEST_USERNAME, newVersion)).isNull();
+    }
+
+    @Test
+    void testAccountChangeEvicts() {
+        accountResponseCache.put(Representation.PROFILE, TEST_USERNAME, TEST_VERSION, TEST_PROFILE);
+
+        accountResponseCache.onAccountChange(new AccountChangeEvent(List.of(TEST_USERNAME)));
+
+        assertThat(accountResponseCache.get(Representation.PROFILE, TEST_USERNAME, TEST_VERSION)).isNull();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.service;
+
+import com.example.demo.data.dto.account.AccountSeedResult;
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import com.example.demo.data.repo.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountSeederTest {
+
+    private static final String TEST_PREFIX = "seeded-";
+    private static final String TEST_PASSWORD = "seeded";
+    private static final String TEST_ENCODED_PASSWORD = "{bcrypt}seeded";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testSeed() {
+        reserveIds();
+        when(passwordEncoder.encode(TEST_PASSWORD)).thenReturn(TEST_ENCODED_PASSWORD);
+        AccountSeeder accountSeeder = seeder(2, "USER=90,ADMIN=9,ROOT=1", false);
+
+        AccountSeedResult result = accountSeeder.seed(TEST_PREFIX, 5, TEST_PASSWORD);
+
+        List<Account> accounts = copiedAccounts(3);
+        assertThat(accounts).extracting(Account::getUsername)
+                .containsExactly("seeded-0", "seeded-1", "seeded-2", "seeded-3", "seeded-4");
+        assertThat(accounts).extracting(Account::getId).doesNotHaveDuplicates();
+        assertThat(accounts).allSatisfy(account -> {
+            assertThat(account.getPassword()).isEqualTo(TEST_ENCODED_PASSWORD);
+            assertThat(account.isEnabled()).isTrue();
+            assertThat(account.getRoles()).contains(Role.USER);
+        });
+        assertThat(result.accounts()).isEqualTo(5);
+        assertThat(result.roles()).isEqualTo(accounts.stream().mapToLong(account -> account.getRoles().size()).sum());
+        // hashed once for all accounts
+        verify(passwordEncoder).encode(TEST_PASSWORD);
+        verify(accountRepository).analyzeAccounts();
+    }
+
+    @Test
+    void testSeedRoleShares() {
+        reserveIds();
+        AccountSeeder accountSeeder = seeder(10, "USER=0,ROOT=1", true);
+
+        accountSeeder.seed(TEST_PREFIX, 3, TEST_PASSWORD);
+
+        assertThat(copiedAccounts(1)).extracting(Account::getRoles)
+                .containsOnly(Set.of(Role.ROOT, Role.ADMIN, Role.USER));
+    }
+
+    @Test
+    void testSeedHighestRole() {
+        reserveIds();
+        AccountSeeder accountSeeder = seeder(10, "USER=1", true);
+
+        AccountSeedResult result = accountSeeder.seed(TEST_PREFIX, 3, TEST_PASSWORD, Role.ADMIN);
+
+        assertThat(copiedAccounts(1)).extracting(Account::getRoles).containsOnly(Set.of(Role.ADMIN, Role.USER));
+        assertThat(result.roles()).isEqualTo(6);
+    }
+
+    @Test
+    void testSeedNoopPasswords() {
+        reserveIds();
+        AccountSeeder accountSeeder = seeder(10, "USER=1", true);
+
+        accountSeeder.seed(TEST_PREFIX, 2, TEST_PASSWORD);
+
+        assertThat(copiedAccounts(1)).extracting(Account::getPassword).containsOnly("{noop}" + TEST_PASSWORD);
+        verify(passwordEncoder, never()).encode(anyString());
+    }
+
+    @Test
+    void testSeedNothing() {
+        AccountSeedResult result = seeder(10, "USER=1", false).seed(TEST_PREFIX, 0, TEST_PASSWORD);
+
+        assertThat(result.accounts()).isZero();
+        verify(accountRepository, never()).copyAccounts(any());
+        verify(accountRepository, never()).analyzeAccounts();
+    }
+
+    @Test
+    void testInvalidRoleShares() {
+        assertThrows(IllegalArgumentException.class, () -> seeder(10, "USER", false));
+        assertThrows(IllegalArgumentException.class, () -> seeder(10, "USER=-1", false));
+        assertThrows(IllegalArgumentException.class, () -> seeder(10, "USER=0", false));
+        assertThrows(IllegalArgumentException.class, () -> seeder(10, "GUEST=1", false));
+    }
+
+    private AccountSeeder seeder(int batchSize, String roleShares, boolean noopPasswords) {
+        return new AccountSeeder(accountRepository, passwordEncoder, transactionManager, batchSize, roleShares,
+                noopPasswords, 0);
+    }
+
+    private void reserveIds() {
+        long[] next = {1};
+        when(accountRepository.reserveAccountIds(anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(0);
+            long first = next[0];
+            next[0] += count;
+            return LongStream.range(first, first + count).toArray();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Account> copiedAccounts(int batches) {
+        ArgumentCaptor<List<Account>> captor = ArgumentCaptor.forClass(List.class);
+        verify(accountRepository, times(batches)).copyAccounts(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+}
@@ -5,9 +5,14 @@ import com.example.demo.data.mapper.AccountMapperImpl;
 import com.example.demo.data.model.Account;
 import com.example.demo.data.model.Role;
 import com.example.demo.data.repo.AccountRepository;
+import com.example.demo.error.AccountAlreadyExistsException;
 import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.error.AccountVersionConflictException;
 import com.example.demo.error.IllegalRoleAssignmentException;
 import com.example.demo.error.InvalidPasswordUpdateException;
+import com.example.demo.event.AccountChangeEvent;
+import com.example.demo.event.TokenEpochEvent;
+import com.example.demo.service.security.TokenEpochIndex;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +21,7 @@ import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -36,9 +42,9 @@ public class AccountServiceTest {
     private static final String TEST_PASSWORD = "test";
     private static final Set<Role> TEST_ROLES = Set.of(Role.ADMIN, Role.USER);
     private static final Account TEST_ACCOUNT =
-            new Account(null, TEST_USERNAME, TEST_PASSWORD, true, TEST_ROLES);
+            new Account(1L, TEST_USERNAME, TEST_PASSWORD, true, TEST_ROLES, 0, 2);
     private static final Account TEST_ACCOUNT_CREATE =
-            new Account(null, TEST_USERNAME, TEST_PASSWORD, false, TEST_ROLES);
+            new Account(null, TEST_USERNAME, TEST_PASSWORD, false, TEST_ROLES, 0, 0);
     private static final List<Account> TEST_ACCOUNTS = List.of(TEST_ACCOUNT, TEST_ACCOUNT, TEST_ACCOUNT);
     private static final AccountCreateRequest TEST_CREATE =
             new AccountCreateRequest(TEST_USERNAME, TEST_PASSWORD, TEST_ROLES);
@@ -46,10 +52,12 @@ public class AccountServiceTest {
     private static final String TEST_USERNAME_UPDATE = "test-update";
     private static final String TEST_PASSWORD_UPDATE = "test-update";
     private static final Set<Role> TEST_ROLES_UPDATE = Set.of(Role.USER);
-    private static final AccountUpdate TEST_UPDATE_ALL = new AccountUpdate(TEST_PASSWORD, true, TEST_ROLES);
-    private static final AccountUpdate TEST_UPDATE_PASSWORD = new AccountUpdate(TEST_PASSWORD, null, null);
-    private static final AccountUpdate TEST_UPDATE_ENABLED = new AccountUpdate(null, true, null);
-    private static final AccountUpdate TEST_UPDATE_ROLES = new AccountUpdate(null, null, TEST_ROLES);
+    private static final AccountUpdate TEST_UPDATE_ALL = new AccountUpdate(TEST_PASSWORD, true, TEST_ROLES, null);
+    private static final AccountUpdate TEST_UPDATE_PASSWORD = new AccountUpdate(TEST_PASSWORD, null, null, null);
+    private static final AccountUpdate TEST_UPDATE_ENABLED = new AccountUpdate(null, true, null, null);
+    private static final AccountUpdate TEST_UPDATE_ROLES = new AccountUpdate(null, null, TEST_ROLES, null);
+    private static final AccountEpoch TEST_EPOCH_UPDATE = new AccountEpoch(5, TEST_USERNAME_UPDATE, 3);
+    private static final AccountSelector TEST_SELECTOR = new AccountSelector(Set.of(TEST_USERNAME), null, null);
 
     @Mock
     private PasswordEncoder passwordEncoder;
@@ -57,6 +65,12 @@ public class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AccountVersionIndex accountVersionIndex;
+
     @Spy
     private final AccountMapperImpl accountMapper = new AccountMapperImpl();
 
@@ -64,7 +78,8 @@ public class AccountServiceTest {
 
     @BeforeEach
     void serviceSetup() {
-        accountService = new AccountService(passwordEncoder, accountRepository, accountMapper, false);
+        accountService = new AccountService(passwordEncoder, accountRepository, accountMapper, eventPublisher,
+                accountVersionIndex);
     }
 
     @Test
@@ -92,6 +107,42 @@ public class AccountServiceTest {
         verify(accountMapper, never()).toInfo(any());
     }
 
+    @Test
+    void testGetAccountVersion() throws AccountNotFoundException {
+        AccountVersion version = new AccountVersion(1, 3);
+        when(accountVersionIndex.get(TEST_USERNAME)).thenReturn(null);
+        when(accountRepository.findVersionByUsername(TEST_USERNAME)).thenReturn(Optional.of(version));
+
+        AccountVersion result = accountService.getAccountVersion(TEST_USERNAME);
+
+        assertThat(result).isEqualTo(version);
+
+        verify(accountVersionIndex, times(1)).put(TEST_USERNAME, version);
+    }
+
+    @Test
+    void testGetAccountVersionIndexed() throws AccountNotFoundException {
+        AccountVersion version = new AccountVersion(1, 3);
+        when(accountVersionIndex.get(TEST_USERNAME)).thenReturn(version);
+
+        AccountVersion result = accountService.getAccountVersion(TEST_USERNAME);
+
+        assertThat(result).isEqualTo(version);
+
+        verify(accountRepository, never()).findVersionByUsername(any());
+        verify(accountRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void testGetAccountVersionNotFound() {
+        when(accountVersionIndex.get(TEST_USERNAME)).thenReturn(null);
+        when(accountRepository.findVersionByUsername(TEST_USERNAME)).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> accountService.getAccountVersion(TEST_USERNAME));
+
+        verify(accountVersionIndex, never()).put(any(), any());
+    }
+
     @Test
     void testGetAccounts() {
         when(accountRepository.findAll()).thenReturn(TEST_ACCOUNTS);
@@ -129,6 +180,15 @@ public class AccountServiceTest {
         assertThat(result).isEqualTo(TEST_ROLES);
     }
 
+    @Test
+    void testGetAccountTokenInfo() throws AccountNotFoundException {
+        when(accountRepository.findByUsername(TEST_USERNAME)).thenReturn(Optional.of(TEST_ACCOUNT));
+
+        AccountTokenInfo result = accountService.getAccountTokenInfo(TEST_USERNAME);
+
+        assertThat(result).isEqualTo(new AccountTokenInfo(1L, TEST_ROLES, 2));
+    }
+
     @Test
     void testGetRolesNotFound() {
         when(accountRepository.findByUsername(TEST_USERNAME)).thenReturn(Optional.empty());
@@ -159,8 +219,10 @@ public class AccountServiceTest {
     }
 
     @Test
-    void testCreateAccount() throws IllegalRoleAssignmentException {
+    void testCreateAccount() throws IllegalRoleAssignmentException, AccountAlreadyExistsException {
         when(passwordEncoder.encode(TEST_PASSWORD)).thenReturn(TEST_PASSWORD);
+        when(accountRepository.createAccount(argThat(new AccountArgumentMatcher(TEST_ACCOUNT_CREATE))))
+                .thenReturn(Optional.of(1L));
 
         AccountInfo result = accountService.createAccount(TEST_CREATE);
 
@@ -173,18 +235,32 @@ public class AccountServiceTest {
                 .toInfo(argThat(new AccountArgumentMatcher(TEST_ACCOUNT_CREATE)));
         verify(passwordEncoder, times(1)).encode(TEST_PASSWORD);
         verify(accountRepository, times(1))
-                .save(argThat(new AccountArgumentMatcher(TEST_ACCOUNT_CREATE)));
+                .createAccount(argThat(new AccountArgumentMatcher(TEST_ACCOUNT_CREATE)));
+        verify(accountRepository, never()).save(any());
     }
 
     @Test
-    void testCreateAccountRoot() throws IllegalRoleAssignmentException {
+    void testCreateAccountDuplicate() {
+        when(passwordEncoder.encode(TEST_PASSWORD)).thenReturn(TEST_PASSWORD);
+        when(accountRepository.createAccount(argThat(new AccountArgumentMatcher(TEST_ACCOUNT_CREATE))))
+                .thenReturn(Optional.empty());
+
+        assertThrows(AccountAlreadyExistsException.class, () -> accountService.createAccount(TEST_CREATE));
+
+        verify(accountMapper, never()).toInfo(any());
+    }
+
+    @Test
+    void testCreateAccountRoot() throws IllegalRoleAssignmentException, AccountAlreadyExistsException {
         mockAuthenticatedRoot();
         Set<Role> rootRoles = Set.of(Role.USER, Role.ROOT);
-        Account testRootAccount = new Account(null, TEST_USERNAME, TEST_PASSWORD, false, rootRoles);
+        Account testRootAccount = new Account(null, TEST_USERNAME, TEST_PASSWORD, false, rootRoles, 0, 0);
 
         AccountCreateRequest request =
                 new AccountCreateRequest(TEST_USERNAME, TEST_PASSWORD, rootRoles);
         when(passwordEncoder.encode(TEST_PASSWORD)).thenReturn(TEST_PASSWORD);
+        when(accountRepository.createAccount(argThat(new AccountArgumentMatcher(testRootAccount))))
+                .thenReturn(Optional.of(1L));
 
         AccountInfo result = accountService.createAccount(request);
 
@@ -197,7 +273,7 @@ public class AccountServiceTest {
                 .toInfo(argThat(new AccountArgumentMatcher(testRootAccount)));
         verify(passwordEncoder, times(1)).encode(TEST_PASSWORD);
         verify(accountRepository, times(1))
-                .save(argThat(new AccountArgumentMatcher(testRootAccount)));
+                .createAccount(argThat(new AccountArgumentMatcher(testRootAccount)));
     }
 
     @Test
@@ -210,166 +286,169 @@ public class AccountServiceTest {
     }
 
     @Test
-    void testUpdateAccountAll() throws AccountNotFoundException, IllegalRoleAssignmentException {
-        Account accountToUpdate =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, false, TEST_ROLES_UPDATE);
-        Account updatedAccount = new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD, true, TEST_ROLES);
+    void testUpdateAccountAll() throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
+        mockAuthenticatedAdmin();
+        AccountInfo updatedAccount = new AccountInfo(TEST_USERNAME_UPDATE, true, TEST_ROLES, 1);
 
-        when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(accountToUpdate));
         when(passwordEncoder.encode(TEST_PASSWORD)).thenReturn(TEST_PASSWORD);
+        when(accountRepository.updateAccount(TEST_USERNAME_UPDATE, null, TEST_PASSWORD, true, TEST_ROLES, false, true))
+                .thenReturn(Optional.of(new AccountUpdateResult(updatedAccount, TEST_EPOCH_UPDATE)));
 
         AccountInfo result = accountService.updateAccount(TEST_USERNAME_UPDATE, TEST_UPDATE_ALL);
-        assertThat(result.username()).isEqualTo(TEST_USERNAME_UPDATE);
-        assertThat(result.enabled()).isTrue();
-        assertThat(result.roles()).isEqualTo(TEST_ROLES);
+        assertThat(result).isEqualTo(updatedAccount);
 
         verify(passwordEncoder, times(1)).encode(TEST_PASSWORD);
-        verify(accountRepository, times(1))
-                .save(argThat(new AccountArgumentMatcher(updatedAccount)));
-        verify(accountMapper, times(1))
-                .toInfo(argThat(new AccountArgumentMatcher(updatedAccount)));
+        verify(accountRepository, never()).findByUsername(any());
+        verify(eventPublisher, times(1)).publishEvent(new TokenEpochEvent(List.of(TEST_EPOCH_UPDATE)));
+        verify(eventPublisher, times(1)).publishEvent(new AccountChangeEvent(List.of(TEST_USERNAME_UPDATE)));
     }
 
     @Test
-    void testUpdateAccountPassword() throws AccountNotFoundException, IllegalRoleAssignmentException {
-        Account accountToUpdate =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, false, TEST_ROLES_UPDATE);
-        Account updatedAccount =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD, false, TEST_ROLES_UPDATE);
+    void testUpdateAccountPassword() throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
+        mockAuthenticatedAdmin();
+        AccountInfo updatedAccount = new AccountInfo(TEST_USERNAME_UPDATE, false, TEST_ROLES_UPDATE, 1);
 
-        when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(accountToUpdate));
         when(passwordEncoder.encode(TEST_PASSWORD)).thenReturn(TEST_PASSWORD);
+        when(accountRepository.updateAccount(TEST_USERNAME_UPDATE, null, TEST_PASSWORD, null, null, false, true))
+                .thenReturn(Optional.of(new AccountUpdateResult(updatedAccount, TEST_EPOCH_UPDATE)));
 
         AccountInfo result = accountService.updateAccount(TEST_USERNAME_UPDATE, TEST_UPDATE_PASSWORD);
-        assertThat(result.username()).isEqualTo(TEST_USERNAME_UPDATE);
-        assertThat(result.enabled()).isFalse();
-        assertThat(result.roles()).isEqualTo(TEST_ROLES_UPDATE);
+        assertThat(result).isEqualTo(updatedAccount);
 
         verify(passwordEncoder, times(1)).encode(TEST_PASSWORD);
-        verify(accountRepository, times(1))
-                .save(argThat(new AccountArgumentMatcher(updatedAccount)));
-        verify(accountMapper, times(1))
-                .toInfo(argThat(new AccountArgumentMatcher(updatedAccount)));
     }
 
     @Test
-    void testUpdateAccountEnabled() throws AccountNotFoundException, IllegalRoleAssignmentException {
-        Account accountToUpdate =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, false, TEST_ROLES_UPDATE);
-        Account updatedAccount =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, true, TEST_ROLES_UPDATE);
+    void testUpdateAccountEnabled() throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
+        mockAuthenticatedAdmin();
+        AccountInfo updatedAccount = new AccountInfo(TEST_USERNAME_UPDATE, true, TEST_ROLES_UPDATE, 1);
 
-        when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(accountToUpdate));
+        when(accountRepository.updateAccount(TEST_USERNAME_UPDATE, null, null, true, null, false, false))
+                .thenReturn(Optional.of(new AccountUpdateResult(updatedAccount, TEST_EPOCH_UPDATE)));
 
         AccountInfo result = accountService.updateAccount(TEST_USERNAME_UPDATE, TEST_UPDATE_ENABLED);
-        assertThat(result.username()).isEqualTo(TEST_USERNAME_UPDATE);
-        assertThat(result.enabled()).isTrue();
-        assertThat(result.roles()).isEqualTo(TEST_ROLES_UPDATE);
+        assertThat(result).isEqualTo(updatedAccount);
 
         verify(passwordEncoder, never()).encode(any());
-        verify(accountRepository, times(1))
-                .save(argThat(new AccountArgumentMatcher(updatedAccount)));
-        verify(accountMapper, times(1))
-                .toInfo(argThat(new AccountArgumentMatcher(updatedAccount)));
+        // enabling an account keeps its tokens valid
+        verify(eventPublisher, never()).publishEvent(any(TokenEpochEvent.class));
     }
 
     @Test
-    void testUpdateAccountRoles() throws AccountNotFoundException, IllegalRoleAssignmentException {
-        Account accountToUpdate =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, false, TEST_ROLES_UPDATE);
-        Account updatedAccount =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, false, TEST_ROLES);
+    void testUpdateAccountRoles() throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
+        mockAuthenticatedAdmin();
+        AccountInfo updatedAccount = new AccountInfo(TEST_USERNAME_UPDATE, false, TEST_ROLES, 1);
 
-        when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(accountToUpdate));
+        when(accountRepository.updateAccount(TEST_USERNAME_UPDATE, null, null, null, TEST_ROLES, false, true))
+                .thenReturn(Optional.of(new AccountUpdateResult(updatedAccount, TEST_EPOCH_UPDATE)));
 
         AccountInfo result = accountService.updateAccount(TEST_USERNAME_UPDATE, TEST_UPDATE_ROLES);
-        assertThat(result.username()).isEqualTo(TEST_USERNAME_UPDATE);
-        assertThat(result.enabled()).isFalse();
-        assertThat(result.roles()).isEqualTo(TEST_ROLES);
+        assertThat(result).isEqualTo(updatedAccount);
 
         verify(passwordEncoder, never()).encode(any());
-        verify(accountRepository, times(1))
-                .save(argThat(new AccountArgumentMatcher(updatedAccount)));
-        verify(accountMapper, times(1))
-                .toInfo(argThat(new AccountArgumentMatcher(updatedAccount)));
+        verify(eventPublisher, times(1)).publishEvent(new TokenEpochEvent(List.of(TEST_EPOCH_UPDATE)));
+    }
+
+    @Test
+    void testUpdateAccountVersion() throws AccountNotFoundException, IllegalRoleAssignmentException, AccountVersionConflictException {
+        mockAuthenticatedAdmin();
+        AccountInfo updatedAccount = new AccountInfo(TEST_USERNAME_UPDATE, true, TEST_ROLES_UPDATE, 4);
+
+        when(accountRepository.updateAccount(TEST_USERNAME_UPDATE, 3L, null, true, null, false, false))
+                .thenReturn(Optional.of(new AccountUpdateResult(updatedAccount, TEST_EPOCH_UPDATE)));
+
+        AccountInfo result =
+                accountService.updateAccount(TEST_USERNAME_UPDATE, new AccountUpdate(null, true, null, 3L));
+        assertThat(result.version()).isEqualTo(4);
+    }
+
+    @Test
+    void testUpdateAccountVersionConflict() {
+        mockAuthenticatedAdmin();
+        Account currentAccount =
+                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, false, TEST_ROLES_UPDATE, 4, 0);
+
+        when(accountRepository.updateAccount(TEST_USERNAME_UPDATE, 3L, null, true, null, false, false))
+                .thenReturn(Optional.empty());
+        when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(currentAccount));
+
+        assertThrows(AccountVersionConflictException.class,
+                () -> accountService.updateAccount(TEST_USERNAME_UPDATE, new AccountUpdate(null, true, null, 3L)));
+
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
-    void testUpdateAccountAddRoot() throws IllegalRoleAssignmentException, AccountNotFoundException {
+    void testUpdateAccountAddRoot() throws IllegalRoleAssignmentException, AccountNotFoundException, AccountVersionConflictException {
         mockAuthenticatedRoot();
 
         Set<Role> rootRole = Set.of(Role.ROOT);
-        Account accountToUpdate =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, true, TEST_ROLES);
-        Account updatedAccount =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, true, rootRole);
+        AccountInfo updatedAccount = new AccountInfo(TEST_USERNAME_UPDATE, true, rootRole, 1);
 
-        when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(accountToUpdate));
+        when(accountRepository.updateAccount(TEST_USERNAME_UPDATE, null, null, null, rootRole, true, true))
+                .thenReturn(Optional.of(new AccountUpdateResult(updatedAccount, TEST_EPOCH_UPDATE)));
 
-        AccountUpdate addRootUpdate = new AccountUpdate(null, null, rootRole);
+        AccountUpdate addRootUpdate = new AccountUpdate(null, null, rootRole, null);
         AccountInfo result = accountService.updateAccount(TEST_USERNAME_UPDATE, addRootUpdate);
-        assertThat(result.username()).isEqualTo(TEST_USERNAME_UPDATE);
-        assertThat(result.enabled()).isTrue();
-        assertThat(result.roles()).isEqualTo(rootRole);
+        assertThat(result).isEqualTo(updatedAccount);
 
         verify(passwordEncoder, never()).encode(any());
-        verify(accountRepository, times(1))
-                .save(argThat(new AccountArgumentMatcher(updatedAccount)));
-        verify(accountMapper, times(1))
-                .toInfo(argThat(new AccountArgumentMatcher(updatedAccount)));
     }
 
     @Test
     void testUpdateAccountAddRootFromAdmin() {
         mockAuthenticatedAdmin();
+        Set<Role> rootRole = Set.of(Role.ROOT);
         Account accountToUpdate =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, true, TEST_ROLES);
+                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, true, TEST_ROLES, 0, 0);
+
+        when(accountRepository.updateAccount(TEST_USERNAME_UPDATE, null, null, null, rootRole, false, true))
+                .thenReturn(Optional.empty());
         when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(accountToUpdate));
 
-        AccountUpdate addRootUpdate = new AccountUpdate(null, null, Set.of(Role.ROOT));
+        AccountUpdate addRootUpdate = new AccountUpdate(null, null, rootRole, null);
         assertThrows(IllegalRoleAssignmentException.class,
                 () -> accountService.updateAccount(TEST_USERNAME_UPDATE, addRootUpdate));
     }
 
     @Test
-    void testUpdateAccountRemoveRoot() throws IllegalRoleAssignmentException, AccountNotFoundException {
+    void testUpdateAccountRemoveRoot() throws IllegalRoleAssignmentException, AccountNotFoundException, AccountVersionConflictException {
         mockAuthenticatedRoot();
 
         Set<Role> adminRole = Set.of(Role.ADMIN);
-        Account accountToUpdate =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, true, Set.of(Role.ROOT));
-        Account updatedAccount =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, true, adminRole);
+        AccountInfo updatedAccount = new AccountInfo(TEST_USERNAME_UPDATE, true, adminRole, 1);
 
-        when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(accountToUpdate));
+        when(accountRepository.updateAccount(TEST_USERNAME_UPDATE, null, null, null, adminRole, true, true))
+                .thenReturn(Optional.of(new AccountUpdateResult(updatedAccount, TEST_EPOCH_UPDATE)));
 
-        AccountUpdate addRootUpdate = new AccountUpdate(null, null, adminRole);
-        AccountInfo result = accountService.updateAccount(TEST_USERNAME_UPDATE, addRootUpdate);
-        assertThat(result.username()).isEqualTo(TEST_USERNAME_UPDATE);
-        assertThat(result.enabled()).isTrue();
-        assertThat(result.roles()).isEqualTo(adminRole);
+        AccountUpdate removeRootUpdate = new AccountUpdate(null, null, adminRole, null);
+        AccountInfo result = accountService.updateAccount(TEST_USERNAME_UPDATE, removeRootUpdate);
+        assertThat(result).isEqualTo(updatedAccount);
 
         verify(passwordEncoder, never()).encode(any());
-        verify(accountRepository, times(1))
-                .save(argThat(new AccountArgumentMatcher(updatedAccount)));
-        verify(accountMapper, times(1))
-                .toInfo(argThat(new AccountArgumentMatcher(updatedAccount)));
     }
 
     @Test
     void testUpdateAccountRemoveRootFromAdmin() {
         mockAuthenticatedAdmin();
         Account accountToUpdate =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, true, Set.of(Role.ROOT));
+                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, true, Set.of(Role.ROOT), 0, 0);
+
+        when(accountRepository.updateAccount(TEST_USERNAME_UPDATE, null, null, null, TEST_ROLES, false, true))
+                .thenReturn(Optional.empty());
         when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(accountToUpdate));
 
-        AccountUpdate removeRootUpdate = new AccountUpdate(null, null, TEST_ROLES);
+        AccountUpdate removeRootUpdate = new AccountUpdate(null, null, TEST_ROLES, null);
         assertThrows(IllegalRoleAssignmentException.class,
                 () -> accountService.updateAccount(TEST_USERNAME_UPDATE, removeRootUpdate));
     }
 
     @Test
     void testUpdateAccountNotFound() {
+        mockAuthenticatedAdmin();
+        when(passwordEncoder.encode(TEST_PASSWORD)).thenReturn(TEST_PASSWORD);
+        when(accountRepository.updateAccount(TEST_USERNAME, null, TEST_PASSWORD, true, TEST_ROLES, false, true))
+                .thenReturn(Optional.empty());
         when(accountRepository.findByUsername(TEST_USERNAME)).thenReturn(Optional.empty());
 
         assertThrows(AccountNotFoundException.class,
@@ -377,31 +456,44 @@ public class AccountServiceTest {
     }
 
     @Test
-    void testUpdatePassword() throws InvalidPasswordUpdateException, AccountNotFoundException {
-        Account accountToUpdate =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, false, TEST_ROLES_UPDATE);
-        Account updatedAccount =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD, false, TEST_ROLES_UPDATE);
-
-        when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(accountToUpdate));
+    void testUpdatePassword() throws InvalidPasswordUpdateException, AccountNotFoundException, AccountVersionConflictException {
+        when(accountRepository.findCredentialsByUsername(TEST_USERNAME_UPDATE))
+                .thenReturn(Optional.of(new AccountCredentials(TEST_PASSWORD_UPDATE, 2)));
         when(passwordEncoder.matches(TEST_PASSWORD_UPDATE, TEST_PASSWORD_UPDATE)).thenReturn(true);
         when(passwordEncoder.encode(TEST_PASSWORD)).thenReturn(TEST_PASSWORD);
+        when(accountRepository.updatePassword(TEST_USERNAME_UPDATE, 2, TEST_PASSWORD))
+                .thenReturn(Optional.of(TEST_EPOCH_UPDATE));
 
         PasswordUpdate passwordUpdate = new PasswordUpdate(TEST_PASSWORD_UPDATE, TEST_PASSWORD);
         accountService.updateAccountPassword(TEST_USERNAME_UPDATE, passwordUpdate);
 
         verify(passwordEncoder, times(1)).matches(TEST_PASSWORD_UPDATE, TEST_PASSWORD_UPDATE);
         verify(passwordEncoder, times(1)).encode(TEST_PASSWORD);
-        verify(accountRepository, times(1))
-                .save(argThat(new AccountArgumentMatcher(updatedAccount)));
+        verify(accountRepository, times(1)).updatePassword(TEST_USERNAME_UPDATE, 2, TEST_PASSWORD);
+        verify(accountRepository, never()).save(any());
+        verify(eventPublisher, times(1)).publishEvent(new TokenEpochEvent(List.of(TEST_EPOCH_UPDATE)));
     }
 
     @Test
-    void testUpdatePasswordInvalid() {
-        Account accountToUpdate =
-                new Account(null, TEST_USERNAME_UPDATE, TEST_PASSWORD_UPDATE, false, TEST_ROLES_UPDATE);
+    void testUpdatePasswordVersionConflict() {
+        when(accountRepository.findCredentialsByUsername(TEST_USERNAME_UPDATE))
+                .thenReturn(Optional.of(new AccountCredentials(TEST_PASSWORD_UPDATE, 2)));
+        when(passwordEncoder.matches(TEST_PASSWORD_UPDATE, TEST_PASSWORD_UPDATE)).thenReturn(true);
+        when(passwordEncoder.encode(TEST_PASSWORD)).thenReturn(TEST_PASSWORD);
+        // here the account is changed between the read and the update
+        when(accountRepository.updatePassword(TEST_USERNAME_UPDATE, 2, TEST_PASSWORD)).thenReturn(Optional.empty());
 
-        when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.of(accountToUpdate));
+        PasswordUpdate passwordUpdate = new PasswordUpdate(TEST_PASSWORD_UPDATE, TEST_PASSWORD);
+        assertThrows(AccountVersionConflictException.class,
+                () -> accountService.updateAccountPassword(TEST_USERNAME_UPDATE, passwordUpdate));
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testUpdatePasswordInvalid() {
+        when(accountRepository.findCredentialsByUsername(TEST_USERNAME_UPDATE))
+                .thenReturn(Optional.of(new AccountCredentials(TEST_PASSWORD_UPDATE, 2)));
         // here the password mismatch is set up
         when(passwordEncoder.matches(TEST_PASSWORD_UPDATE, TEST_PASSWORD_UPDATE)).thenReturn(false);
 
@@ -411,19 +503,19 @@ public class AccountServiceTest {
 
         verify(passwordEncoder, times(1)).matches(TEST_PASSWORD_UPDATE, TEST_PASSWORD_UPDATE);
         verify(passwordEncoder, never()).encode(TEST_PASSWORD);
-        verify(accountRepository, never()).save(any());
+        verify(accountRepository, never()).updatePassword(any(), anyLong(), any());
     }
 
     @Test
     void testUpdatePasswordNotFound() {
-        when(accountRepository.findByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.empty());
+        when(accountRepository.findCredentialsByUsername(TEST_USERNAME_UPDATE)).thenReturn(Optional.empty());
 
         PasswordUpdate passwordUpdate = new PasswordUpdate(TEST_PASSWORD_UPDATE, TEST_PASSWORD);
         assertThrows(AccountNotFoundException.class,
                 () -> accountService.updateAccountPassword(TEST_USERNAME_UPDATE, passwordUpdate));
 
         verify(passwordEncoder, never()).encode(any());
-        verify(accountRepository, never()).save(any());
+        verify(accountRepository, never()).updatePassword(any(), anyLong(), any());
     }
 
     @Test
@@ -434,6 +526,8 @@ public class AccountServiceTest {
 
         verify(accountRepository, times(1))
                 .delete(argThat(new AccountArgumentMatcher(TEST_ACCOUNT)));
+        verify(eventPublisher, times(1)).publishEvent(
+                new TokenEpochEvent(List.of(new AccountEpoch(1L, TEST_USERNAME, TokenEpochIndex.REVOKED))));
     }
 
     @Test
@@ -443,6 +537,52 @@ public class AccountServiceTest {
         assertThrows(AccountNotFoundException.class, () -> accountService.deleteAccount(TEST_USERNAME));
 
         verify(accountRepository, never()).delete(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testUpdateAccounts() {
+        mockAuthenticatedAdmin();
+        List<AccountEpoch> epochs = List.of(new AccountEpoch(1, TEST_USERNAME, 3));
+        when(accountRepository.updateEnabled(TEST_SELECTOR, false, false)).thenReturn(epochs);
+
+        AccountBulkResult result = accountService.updateAccounts(new AccountBulkUpdate(TEST_SELECTOR, false));
+
+        assertThat(result.affected()).isEqualTo(1);
+
+        verify(accountRepository, times(1)).updateEnabled(TEST_SELECTOR, false, false);
+        verify(eventPublisher, times(1)).publishEvent(new TokenEpochEvent(epochs));
+        verify(eventPublisher, times(1)).publishEvent(new AccountChangeEvent(List.of(TEST_USERNAME)));
+    }
+
+    @Test
+    void testUpdateAccountsRoot() {
+        mockAuthenticatedRoot();
+        when(accountRepository.updateEnabled(TEST_SELECTOR, true, true)).thenReturn(List.of());
+
+        AccountBulkResult result = accountService.updateAccounts(new AccountBulkUpdate(TEST_SELECTOR, true));
+
+        assertThat(result.affected()).isZero();
+
+        verify(accountRepository, times(1)).updateEnabled(TEST_SELECTOR, true, true);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testDeleteAccounts() {
+        mockAuthenticatedRoot();
+        when(accountRepository.deleteAccounts(TEST_SELECTOR, true))
+                .thenReturn(List.of(new AccountEpoch(1L, TEST_USERNAME, 2)));
+
+        AccountBulkResult result = accountService.deleteAccounts(TEST_SELECTOR);
+
+        assertThat(result.affected()).isEqualTo(1);
+
+        verify(accountRepository, times(1)).deleteAccounts(TEST_SELECTOR, true);
+        verify(eventPublisher, times(1)).publishEvent(new AccountChangeEvent(List.of(TEST_USERNAME)));
+        // deleted accounts are revoked for good
+        verify(eventPublisher, times(1)).publishEvent(
+                new TokenEpochEvent(List.of(new AccountEpoch(1L, TEST_USERNAME, TokenEpochIndex.REVOKED))));
     }
 
     private void mockAuthenticatedAdmin() {
@@ -456,7 +596,7 @@ public class AccountServiceTest {
     private void mockAuthenticatedRoot() {
         UsernamePasswordAuthenticationToken authToken = mock(UsernamePasswordAuthenticationToken.class);
         when(authToken.getPrincipal())
-                .thenReturn(new Account(null, null, null, false, Set.of(Role.ROOT)));
+                .thenReturn(new Account(null, null, null, false, Set.of(Role.ROOT), 0, 0));
         when(authToken.isAuthenticated()).thenReturn(true);
         SecurityContextHolder.getContext().setAuthentication(authToken);
     }
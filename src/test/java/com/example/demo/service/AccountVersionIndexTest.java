@@ -0,0 +1,39 @@
+package com.example.demo.service;
+
+import com.example.demo.data.dto.account.AccountVersion;
+import com.example.demo.event.AccountChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccountVersionIndexTest {
+
+    private static final String TEST_USERNAME = "test";
+    private static final String TEST_OTHER_USERNAME = "test-other";
+    private static final AccountVersion TEST_VERSION = new AccountVersion(1, 3);
+
+    private final AccountVersionIndex accountVersionIndex = new AccountVersionIndex(100, Duration.ofMinutes(1));
+
+    @Test
+    void testPutAndGet() {
+        assertThat(accountVersionIndex.get(TEST_USERNAME)).isNull();
+
+        accountVersionIndex.put(TEST_USERNAME, TEST_VERSION);
+
+        assertThat(accountVersionIndex.get(TEST_USERNAME)).isEqualTo(TEST_VERSION);
+    }
+
+    @Test
+    void testAccountChangeEvicts() {
+        accountVersionIndex.put(TEST_USERNAME, TEST_VERSION);
+        accountVersionIndex.put(TEST_OTHER_USERNAME, TEST_VERSION);
+
+        accountVersionIndex.onAccountChange(new AccountChangeEvent(List.of(TEST_USERNAME)));
+
+        assertThat(accountVersionIndex.get(TEST_USERNAME)).isNull();
+        assertThat(accountVersionIndex.get(TEST_OTHER_USERNAME)).isEqualTo(TEST_VERSION);
+    }
+}
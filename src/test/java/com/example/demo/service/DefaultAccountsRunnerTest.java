@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import com.example.demo.data.dto.account.AccountVersion;
+import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import com.example.demo.data.repo.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DefaultAccountsRunnerTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void testRun() {
+        when(accountRepository.findVersionByUsername(anyString())).thenReturn(Optional.empty());
+        when(accountRepository.createAccount(any())).thenReturn(Optional.of(1L));
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "{test}" + invocation.getArgument(0));
+
+        new DefaultAccountsRunner(accountRepository, passwordEncoder, true).run(null);
+
+        ArgumentCaptor<Account> captor = ArgumentCaptor.forClass(Account.class);
+        verify(accountRepository, times(3)).createAccount(captor.capture());
+        List<Account> accounts = captor.getAllValues();
+        assertThat(accounts).extracting(Account::getUsername).containsExactlyInAnyOrder("root", "admin", "user");
+        assertThat(accounts).allSatisfy(account -> {
+            assertThat(account.getPassword()).isEqualTo("{test}" + account.getUsername());
+            assertThat(account.isEnabled()).isTrue();
+        });
+        assertThat(accounts).filteredOn(account -> account.getUsername().equals("root"))
+                .extracting(Account::getRoles).containsExactly(Set.of(Role.ROOT, Role.ADMIN, Role.USER));
+    }
+
+    @Test
+    void testRunExisting() {
+        when(accountRepository.findVersionByUsername(anyString())).thenReturn(Optional.empty());
+        when(accountRepository.findVersionByUsername("root")).thenReturn(Optional.of(new AccountVersion(1L, 0L)));
+        when(accountRepository.createAccount(any())).thenReturn(Optional.empty());
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        new DefaultAccountsRunner(accountRepository, passwordEncoder, true).run(null);
+
+        // the existing account is not hashed again, the ones created meanwhile by another instance are skipped
+        verify(passwordEncoder, never()).encode("root");
+        verify(accountRepository, times(2)).createAccount(any());
+    }
+
+    @Test
+    void testRunDisabled() {
+        new DefaultAccountsRunner(accountRepository, passwordEncoder, false).run(null);
+
+        verifyNoInteractions(accountRepository, passwordEncoder);
+    }
+}
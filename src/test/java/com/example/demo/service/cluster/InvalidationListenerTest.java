@@ -0,0 +1,197 @@
+package com.example.demo.service.cluster;
+
+import com.example.demo.data.dto.account.AccountEpoch;
+import com.example.demo.data.dto.cluster.InvalidationMessage;
+import com.example.demo.event.AccountChangeEvent;
+import com.example.demo.event.TokenEpochEvent;
+import com.example.demo.event.TokenRevocationEvent;
+import com.example.demo.service.AccountResponseCache;
+import com.example.demo.service.AccountVersionIndex;
+import com.example.demo.service.security.RefreshTokenStore;
+import com.example.demo.service.security.RevokedTokenStore;
+import com.example.demo.service.security.TokenEpochIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InvalidationListenerTest {
+
+    private static final String TEST_NODE = "other-node";
+    private static final String TEST_USERNAME = "user";
+    private static final long TEST_GAP_GRACE = 1000;
+    private static final long TEST_NOW = 10000;
+    private static final long TEST_NODE_TTL = 60000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private InvalidationPublisher invalidationPublisher;
+
+    @Mock
+    private DataSourceProperties dataSourceProperties;
+
+    @Mock
+    private AccountVersionIndex accountVersionIndex;
+
+    @Mock
+    private AccountResponseCache accountResponseCache;
+
+    @Mock
+    private TokenEpochIndex tokenEpochIndex;
+
+    @Mock
+    private RevokedTokenStore revokedTokenStore;
+
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    private InvalidationListener invalidationListener;
+
+    @BeforeEach
+    void setUp() {
+        invalidationListener = new InvalidationListener(invalidationPublisher, dataSourceProperties, objectMapper,
+                accountVersionIndex, accountResponseCache, tokenEpochIndex, revokedTokenStore, refreshTokenStore,
+                Duration.ofMillis(100), Duration.ofMillis(100), Duration.ofMillis(TEST_GAP_GRACE),
+                Duration.ofMillis(TEST_NODE_TTL));
+        lenient().when(invalidationPublisher.nodeId()).thenReturn("this-node");
+    }
+
+    @Test
+    void testApply() throws JsonProcessingException {
+        AccountEpoch epoch = new AccountEpoch(1, TEST_USERNAME, 2);
+        TokenRevocationEvent revocation = new TokenRevocationEvent("token", TEST_NOW, "family");
+
+        invalidationListener.handle(payload(new InvalidationMessage(TEST_NODE, 1, false, List.of(TEST_USERNAME),
+                List.of(epoch), List.of(revocation))), TEST_NOW);
+
+        verify(accountVersionIndex, times(1)).onAccountChange(new AccountChangeEvent(List.of(TEST_USERNAME)));
+        verify(accountResponseCache, times(1)).onAccountChange(new AccountChangeEvent(List.of(TEST_USERNAME)));
+        verify(tokenEpochIndex, times(1)).onTokenEpochChange(new TokenEpochEvent(List.of(epoch)));
+        verify(revokedTokenStore, times(1)).remember("token", TEST_NOW);
+        verify(refreshTokenStore, times(1)).revokeCached("family");
+        assertThat(invalidationListener.resyncs()).isZero();
+    }
+
+    @Test
+    void testOwnMessagesIgnored() throws JsonProcessingException {
+        invalidationListener.handle(payload(message("this-node", 1)), TEST_NOW);
+
+        verifyNoInteractions(accountVersionIndex, accountResponseCache, tokenEpochIndex);
+    }
+
+    @Test
+    void testMalformedMessageIgnored() {
+        invalidationListener.handle("{", TEST_NOW);
+
+        verifyNoInteractions(accountVersionIndex, accountResponseCache, tokenEpochIndex);
+    }
+
+    @Test
+    void testResyncMessage() throws JsonProcessingException {
+        invalidationListener.handle(payload(InvalidationMessage.resync(TEST_NODE, 1)), TEST_NOW);
+
+        assertResynced(1);
+    }
+
+    @Test
+    void testOutOfOrder() throws JsonProcessingException {
+        invalidationListener.handle(payload(message(TEST_NODE, 1)), TEST_NOW);
+        invalidationListener.handle(payload(message(TEST_NODE, 3)), TEST_NOW);
+        invalidationListener.handle(payload(message(TEST_NODE, 2)), TEST_NOW);
+
+        invalidationListener.checkGaps(TEST_NOW + TEST_GAP_GRACE * 2);
+
+        assertThat(invalidationListener.resyncs()).isZero();
+        verify(accountVersionIndex, times(3)).onAccountChange(any());
+    }
+
+    @Test
+    void testGap() throws JsonProcessingException {
+        invalidationListener.handle(payload(message(TEST_NODE, 1)), TEST_NOW);
+        invalidationListener.handle(payload(message(TEST_NODE, 3)), TEST_NOW);
+
+        // the missing message may still arrive within the grace period
+        invalidationListener.checkGaps(TEST_NOW + TEST_GAP_GRACE / 2);
+        assertThat(invalidationListener.resyncs()).isZero();
+
+        invalidationListener.checkGaps(TEST_NOW + TEST_GAP_GRACE * 2);
+        assertResynced(1);
+
+        // the gap is covered by the resync
+        invalidationListener.checkGaps(TEST_NOW + TEST_GAP_GRACE * 3);
+        assertThat(invalidationListener.resyncs()).isEqualTo(1);
+    }
+
+    @Test
+    void testStaleNodePruned() throws JsonProcessingException {
+        invalidationListener.handle(payload(message(TEST_NODE, 1)), TEST_NOW);
+
+        long later = TEST_NOW + TEST_NODE_TTL + 1;
+        invalidationListener.checkGaps(later);
+        // the sequence of the node was dropped, so its next message starts a new one
+        invalidationListener.handle(payload(message(TEST_NODE, 3)), later);
+        invalidationListener.checkGaps(later + TEST_GAP_GRACE * 2);
+
+        assertThat(invalidationListener.resyncs()).isZero();
+    }
+
+    @Test
+    void testActiveNodeKept() throws JsonProcessingException {
+        invalidationListener.handle(payload(message(TEST_NODE, 1)), TEST_NOW);
+
+        invalidationListener.checkGaps(TEST_NOW + TEST_NODE_TTL / 2);
+        invalidationListener.handle(payload(message(TEST_NODE, 3)), TEST_NOW + TEST_NODE_TTL / 2);
+        invalidationListener.checkGaps(TEST_NOW + TEST_NODE_TTL / 2 + TEST_GAP_GRACE * 2);
+
+        assertResynced(1);
+    }
+
+    @Test
+    void testLargeGap() throws JsonProcessingException {
+        invalidationListener.handle(payload(message(TEST_NODE, 1)), TEST_NOW);
+        invalidationListener.handle(payload(message(TEST_NODE, 5000)), TEST_NOW);
+
+        assertResynced(1);
+    }
+
+    @Test
+    void testResyncRetried() {
+        doThrow(new QueryTimeoutException("timeout")).doNothing().when(revokedTokenStore).load();
+
+        invalidationListener.resync();
+        invalidationListener.checkGaps(TEST_NOW);
+
+        assertThat(invalidationListener.resyncs()).isEqualTo(2);
+        verify(revokedTokenStore, times(2)).load();
+    }
+
+    private void assertResynced(long resyncs) {
+        assertThat(invalidationListener.resyncs()).isEqualTo(resyncs);
+        verify(accountVersionIndex, times((int) resyncs)).invalidateAll();
+        verify(accountResponseCache, times((int) resyncs)).invalidateAll();
+        verify(tokenEpochIndex, times((int) resyncs)).clear();
+        verify(refreshTokenStore, times((int) resyncs)).evictCached();
+        verify(revokedTokenStore, times((int) resyncs)).load();
+    }
+
+    private static InvalidationMessage message(String node, long sequence) {
+        return new InvalidationMessage(node, sequence, false, List.of(TEST_USERNAME), List.of(), List.of());
+    }
+
+    private String payload(InvalidationMessage message) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(message);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.demo.service.cluster;
+
+import com.example.demo.data.dto.account.AccountEpoch;
+import com.example.demo.data.dto.cluster.InvalidationMessage;
+import com.example.demo.event.AccountChangeEvent;
+import com.example.demo.event.TokenEpochEvent;
+import com.example.demo.event.TokenRevocationEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InvalidationPublisherTest {
+
+    private static final String TEST_CHANNEL = "test_invalidation";
+    private static final String TEST_USERNAME = "user";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private InvalidationPublisher invalidationPublisher;
+
+    @BeforeEach
+    void setUp() {
+        invalidationPublisher = new InvalidationPublisher(jdbcTemplate, objectMapper, TEST_CHANNEL, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testPublishWithoutTransaction() throws JsonProcessingException {
+        invalidationPublisher.onAccountChange(new AccountChangeEvent(List.of(TEST_USERNAME)));
+
+        InvalidationMessage message = sentMessages(1).getFirst();
+        assertThat(message.node()).isEqualTo(invalidationPublisher.nodeId());
+        assertThat(message.sequence()).isEqualTo(1);
+        assertThat(message.resync()).isFalse();
+        assertThat(message.usernames()).containsExactly(TEST_USERNAME);
+    }
+
+    @Test
+    void testBatchPerTransaction() throws JsonProcessingException {
+        TransactionSynchronizationManager.initSynchronization();
+
+        invalidationPublisher.onAccountChange(new AccountChangeEvent(List.of(TEST_USERNAME)));
+        invalidationPublisher.onTokenEpochChange(new TokenEpochEvent(List.of(new AccountEpoch(1, TEST_USERNAME, 1))));
+        invalidationPublisher.onTokenEpochChange(new TokenEpochEvent(List.of(new AccountEpoch(1, TEST_USERNAME, 2))));
+        invalidationPublisher.onTokenRevocation(new TokenRevocationEvent("token", 1000, null));
+        verifyNoInteractions(jdbcTemplate);
+
+        commit();
+
+        InvalidationMessage message = sentMessages(1).getFirst();
+        assertThat(message.usernames()).containsExactly(TEST_USERNAME);
+        assertThat(message.epochs()).containsExactly(new AccountEpoch(1, TEST_USERNAME, 2));
+        assertThat(message.revocations()).containsExactly(new TokenRevocationEvent("token", 1000, null));
+        assertThat(TransactionSynchronizationManager.getResource(invalidationPublisher)).isNull();
+    }
+
+    @Test
+    void testOversizedBatch() throws JsonProcessingException {
+        List<String> usernames = IntStream.range(0, 1000).mapToObj(i -> TEST_USERNAME + i).toList();
+
+        invalidationPublisher.onAccountChange(new AccountChangeEvent(usernames));
+
+        InvalidationMessage message = sentMessages(1).getFirst();
+        assertThat(message.resync()).isTrue();
+        assertThat(message.usernames()).isEmpty();
+    }
+
+    @Test
+    void testSequence() throws JsonProcessingException {
+        invalidationPublisher.onAccountChange(new AccountChangeEvent(List.of(TEST_USERNAME)));
+        invalidationPublisher.onAccountChange(new AccountChangeEvent(List.of(TEST_USERNAME)));
+
+        assertThat(sentMessages(2)).extracting(InvalidationMessage::sequence).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void testDisabled() {
+        invalidationPublisher = new InvalidationPublisher(jdbcTemplate, objectMapper, TEST_CHANNEL, false);
+
+        invalidationPublisher.onAccountChange(new AccountChangeEvent(List.of(TEST_USERNAME)));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private List<InvalidationMessage> sentMessages(int count) throws JsonProcessingException {
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(count))
+                .query(eq("select pg_notify(?, ?)"), any(RowCallbackHandler.class), eq(TEST_CHANNEL), payloads.capture());
+        List<InvalidationMessage> messages = new ArrayList<>();
+        for (String payload : payloads.getAllValues()) {
+            messages.add(objectMapper.readValue(payload, InvalidationMessage.class));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.service.diagnostics;
+
+import com.example.demo.data.dto.diagnostics.RecordingDump;
+import com.example.demo.error.RecordingStateException;
+import com.example.demo.event.jfr.PasswordHashEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RecordingServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private RecordingService recordingService;
+
+    @AfterEach
+    void close() {
+        if (recordingService != null) {
+            recordingService.close();
+        }
+    }
+
+    @Test
+    void testRecording() throws Exception {
+        recordingService = recordingService(5);
+        assertThat(recordingService.status().running()).isFalse();
+
+        assertThat(recordingService.start().running()).isTrue();
+        assertThrows(RecordingStateException.class, () -> recordingService.start());
+
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        event.end(PasswordHashEvent.MATCHES, "match");
+
+        RecordingDump dump = recordingService.stop();
+        assertThat(recordingService.status().running()).isFalse();
+        assertThat(dump.size()).isPositive();
+        List<RecordedEvent> events = RecordingFile.readAllEvents(Path.of(dump.file()));
+        assertThat(events)
+                .filteredOn(recorded -> recorded.getEventType().getName().equals("com.example.demo.PasswordHash"))
+                .singleElement()
+                .satisfies(recorded -> assertThat(recorded.getString("outcome")).isEqualTo("match"));
+    }
+
+    @Test
+    void testDumpKeepsRecording() throws Exception {
+        recordingService = recordingService(5);
+        recordingService.start();
+
+        RecordingDump dump = recordingService.dump();
+
+        assertThat(Files.exists(Path.of(dump.file()))).isTrue();
+        assertThat(recordingService.status().running()).isTrue();
+    }
+
+    @Test
+    void testNoRecording() {
+        recordingService = recordingService(5);
+
+        assertThrows(RecordingStateException.class, () -> recordingService.dump());
+        assertThrows(RecordingStateException.class, () -> recordingService.stop());
+    }
+
+    @Test
+    void testMaxDumps() throws Exception {
+        recordingService = recordingService(2);
+        recordingService.start();
+
+        for (int i = 0; i < 4; i++) {
+            recordingService.dump();
+            // the dumps are named by the millisecond
+            Thread.sleep(5);
+        }
+        RecordingDump last = recordingService.stop();
+
+        assertThat(dumps()).hasSize(2).contains(Path.of(last.file()));
+    }
+
+    private RecordingService recordingService(int maxDumps) {
+        return new RecordingService(directory, "default", Duration.ofMinutes(1), DataSize.ofMegabytes(10),
+                Duration.ofMinutes(1), maxDumps);
+    }
+
+    private List<Path> dumps() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(Path::toAbsolutePath).toList();
+        }
+    }
+}
@@ -1,22 +1,39 @@
 package com.example.demo.service.security;
 
+import com.example.demo.data.dto.account.AccountTokenInfo;
 import com.example.demo.data.dto.security.LoginRequest;
 import com.example.demo.data.dto.security.LoginResponse;
+import com.example.demo.data.dto.security.LogoutRequest;
 import com.example.demo.data.dto.security.RefreshResponse;
+import com.example.demo.data.dto.security.TokenRevocationRequest;
 import com.example.demo.data.model.Account;
+import com.example.demo.data.model.Role;
+import com.example.demo.data.security.JwtToken;
+import com.example.demo.data.security.TokenFamily;
 import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.error.InvalidRefreshTokenException;
+import com.example.demo.error.InvalidTokenException;
+import com.example.demo.error.RefreshTokenReuseException;
+import com.example.demo.event.TokenRevocationEvent;
 import com.example.demo.service.AccountService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 
+import java.util.Date;
+import java.util.Set;
+
+import static com.example.demo.utils.security.SecurityConstants.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,9 +49,25 @@ public class AuthenticationServiceTest {
             new UsernamePasswordAuthenticationToken(TEST_USER, TEST_PASSWORD);
     private static final String TEST_TOKEN = "eyJhbGciOiJIUzM4NCJ9";
     private static final Account TEST_ACCOUNT = new Account();
+    private static final AccountTokenInfo TEST_TOKEN_INFO = new AccountTokenInfo(1, Set.of(Role.USER), 3);
+    private static final String TEST_FAMILY_ID = "4d5c3a0e-5b8e-4a36-9bd9-4a1f8b8e5c11";
+    private static final long TEST_EXPIRES_AT = 1000;
+    private static final TokenFamily TEST_FAMILY = new TokenFamily(TEST_FAMILY_ID, TEST_USER, 0, false, TEST_EXPIRES_AT);
+    private static final String TEST_REFRESH_TOKEN_ID = "refresh-id";
+    private static final JwtToken TEST_REFRESH_TOKEN = new JwtToken(TEST_TOKEN, Jwts.claims()
+            .id(TEST_REFRESH_TOKEN_ID)
+            .subject(TEST_USER)
+            .expiration(new Date(TEST_EXPIRES_AT))
+            .add(REFRESH_TYPE_CLAIM, TYPE_CLAIM_VALUE)
+            .add(FAMILY_CLAIM, TEST_FAMILY_ID)
+            .add(GENERATION_CLAIM, 0)
+            .build());
 
     static {
+        TEST_ACCOUNT.setId(1L);
         TEST_ACCOUNT.setUsername(TEST_USER);
+        TEST_ACCOUNT.setRoles(Set.of(Role.USER));
+        TEST_ACCOUNT.setTokenEpoch(3);
     }
 
     @Mock
@@ -46,6 +79,15 @@ public class AuthenticationServiceTest {
     @Mock
     private AccountService accountService;
 
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    @Mock
+    private RevokedTokenStore revokedTokenStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -56,25 +98,28 @@ public class AuthenticationServiceTest {
         assertThrows(BadCredentialsException.class, () -> authenticationService.authenticate(TEST_LOGIN_REQUEST));
 
         verify(authenticationManager, times(1)).authenticate(TEST_USER_PASS_AUTH_TOKEN);
-        verify(accountService, never()).getAccountRoles(any());
+        verify(accountService, never()).getAccountTokenInfo(any());
         verify(jwtService, never()).generateAccessToken(any(), any());
         verify(jwtService, never()).generateRefreshToken(any(), any());
     }
 
     @Test
     void testAccountNotFound() throws AccountNotFoundException {
-        when(accountService.getAccountRoles(TEST_USER)).thenThrow(AccountNotFoundException.class);
+        when(accountService.getAccountTokenInfo(TEST_USER)).thenThrow(AccountNotFoundException.class);
 
         assertThrows(AccountNotFoundException.class, () -> authenticationService.authenticate(TEST_LOGIN_REQUEST));
 
         verify(authenticationManager, times(1)).authenticate(TEST_USER_PASS_AUTH_TOKEN);
-        verify(accountService, times(1)).getAccountRoles(TEST_USER);
+        verify(accountService, times(1)).getAccountTokenInfo(TEST_USER);
         verify(jwtService, never()).generateAccessToken(any(), any());
         verify(jwtService, never()).generateRefreshToken(any(), any());
     }
 
     @Test
     void testAuthentication() throws AccountNotFoundException {
+        when(accountService.getAccountTokenInfo(TEST_USER)).thenReturn(TEST_TOKEN_INFO);
+        when(jwtService.refreshTokenExpiresAt(TEST_USER)).thenReturn(TEST_EXPIRES_AT);
+        when(refreshTokenStore.create(TEST_USER, TEST_EXPIRES_AT)).thenReturn(TEST_FAMILY);
         when(jwtService.generateAccessToken(any(), eq(TEST_USER))).thenReturn(TEST_TOKEN);
         when(jwtService.generateRefreshToken(any(), eq(TEST_USER))).thenReturn(TEST_TOKEN);
 
@@ -86,38 +131,162 @@ public class AuthenticationServiceTest {
         assertThat(authResponse.refreshToken()).isEqualTo(TEST_TOKEN);
 
         verify(authenticationManager, times(1)).authenticate(TEST_USER_PASS_AUTH_TOKEN);
-        verify(accountService, times(1)).getAccountRoles(TEST_USER);
-        verify(jwtService, times(1)).generateAccessToken(any(), eq(TEST_USER));
-        verify(jwtService, times(1)).generateRefreshToken(any(), eq(TEST_USER));
+        verify(accountService, times(1)).getAccountTokenInfo(TEST_USER);
+        verify(jwtService, times(1)).generateAccessToken(
+                argThat(claims -> Integer.valueOf(3).equals(claims.get(EPOCH_CLAIM))
+                        && Long.valueOf(1).equals(claims.get(ACCOUNT_ID_CLAIM))), eq(TEST_USER));
+        verify(jwtService, times(1)).generateRefreshToken(
+                argThat(claims -> TEST_FAMILY_ID.equals(claims.get(FAMILY_CLAIM))
+                        && Integer.valueOf(3).equals(claims.get(EPOCH_CLAIM))), eq(TEST_USER));
+        verify(refreshTokenStore, times(1)).create(TEST_USER, TEST_EXPIRES_AT);
     }
 
     @Test
-    void testAuthenticationRefresh() throws AccountNotFoundException {
+    void testAuthenticationRefresh() throws AccountNotFoundException, InvalidRefreshTokenException {
         UsernamePasswordAuthenticationToken authToken = mock(UsernamePasswordAuthenticationToken.class);
         when(authToken.getPrincipal()).thenReturn(TEST_ACCOUNT);
         SecurityContextHolder.getContext().setAuthentication(authToken);
 
+        when(jwtService.refreshTokenExpiresAt(TEST_USER)).thenReturn(TEST_EXPIRES_AT);
+        when(refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT))
+                .thenReturn(TEST_FAMILY.rotate(1, TEST_EXPIRES_AT));
         when(jwtService.generateAccessToken(any(), eq(TEST_USER))).thenReturn(TEST_TOKEN);
+        when(jwtService.generateRefreshToken(any(), eq(TEST_USER))).thenReturn(TEST_TOKEN);
 
-        RefreshResponse refreshResponse = authenticationService.refreshAuthentication();
+        RefreshResponse refreshResponse = authenticationService.refreshAuthentication(TEST_REFRESH_TOKEN);
 
         assertThat(StringUtils.hasText(refreshResponse.accessToken())).isTrue();
         assertThat(refreshResponse.accessToken()).isEqualTo(TEST_TOKEN);
-        verify(accountService, times(1)).getAccountRoles(TEST_USER);
-        verify(jwtService, times(1)).generateAccessToken(any(), eq(TEST_USER));
+        assertThat(refreshResponse.refreshToken()).isEqualTo(TEST_TOKEN);
+        // the claims come from the principal the filter has loaded
+        verify(accountService, never()).getAccountTokenInfo(any());
+        verify(jwtService, times(1)).generateAccessToken(
+                argThat(claims -> Integer.valueOf(3).equals(claims.get(EPOCH_CLAIM))), eq(TEST_USER));
+        verify(jwtService, times(1)).generateRefreshToken(
+                argThat(claims -> Integer.valueOf(1).equals(claims.get(GENERATION_CLAIM))), eq(TEST_USER));
+    }
+
+    @Test
+    void testAuthenticationRefreshReused() throws InvalidRefreshTokenException {
+        UsernamePasswordAuthenticationToken authToken = mock(UsernamePasswordAuthenticationToken.class);
+        when(authToken.getPrincipal()).thenReturn(TEST_ACCOUNT);
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+
+        when(jwtService.refreshTokenExpiresAt(TEST_USER)).thenReturn(TEST_EXPIRES_AT);
+        when(refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT))
+                .thenThrow(RefreshTokenReuseException.class);
+
+        assertThrows(RefreshTokenReuseException.class,
+                () -> authenticationService.refreshAuthentication(TEST_REFRESH_TOKEN));
+
+        verify(jwtService, never()).generateAccessToken(any(), any());
+        verify(jwtService, never()).generateRefreshToken(any(), any());
+        // the replayed token and its family are revoked on every instance
+        verify(revokedTokenStore, times(1)).revoke(TEST_REFRESH_TOKEN_ID, TEST_EXPIRES_AT);
+        verify(refreshTokenStore, times(1)).revoke(TEST_FAMILY_ID, TEST_USER, TEST_EXPIRES_AT);
+        verify(eventPublisher, times(1))
+                .publishEvent(new TokenRevocationEvent(TEST_REFRESH_TOKEN_ID, TEST_EXPIRES_AT, TEST_FAMILY_ID));
+    }
+
+    @Test
+    void testAuthenticationRefreshRevoked() throws InvalidRefreshTokenException {
+        UsernamePasswordAuthenticationToken authToken = mock(UsernamePasswordAuthenticationToken.class);
+        when(authToken.getPrincipal()).thenReturn(TEST_ACCOUNT);
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+
+        when(jwtService.refreshTokenExpiresAt(TEST_USER)).thenReturn(TEST_EXPIRES_AT);
+        when(refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT))
+                .thenThrow(InvalidRefreshTokenException.class);
+
+        assertThrows(InvalidRefreshTokenException.class,
+                () -> authenticationService.refreshAuthentication(TEST_REFRESH_TOKEN));
+
+        verify(jwtService, never()).generateAccessToken(any(), any());
+        verify(refreshTokenStore, never()).revoke(any(), any(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
-    void testAuthenticationRefreshAccountNotFound() throws AccountNotFoundException {
+    void testAuthenticationRefreshWithoutFamily() throws InvalidRefreshTokenException {
         UsernamePasswordAuthenticationToken authToken = mock(UsernamePasswordAuthenticationToken.class);
         when(authToken.getPrincipal()).thenReturn(TEST_ACCOUNT);
         SecurityContextHolder.getContext().setAuthentication(authToken);
 
-        when(accountService.getAccountRoles(TEST_USER)).thenThrow(AccountNotFoundException.class);
+        JwtToken legacyToken = new JwtToken(TEST_TOKEN, Jwts.claims().build());
+        assertThrows(InvalidRefreshTokenException.class, () -> authenticationService.refreshAuthentication(legacyToken));
+
+        verify(refreshTokenStore, never()).rotate(any(), anyInt(), any(), anyLong());
+        verify(jwtService, never()).generateAccessToken(any(), any());
+    }
+
+    @Test
+    void testLogout() throws InvalidTokenException {
+        JwtToken accessToken = token(ACCESS_TYPE_CLAIM, "access-id", TEST_USER);
+
+        authenticationService.logout(accessToken, null);
+
+        verify(revokedTokenStore, times(1)).revoke("access-id", TEST_EXPIRES_AT);
+        verify(refreshTokenStore, never()).revoke(any(), any(), anyLong());
+        verify(jwtService, never()).validateAndGetToken(any());
+        verify(eventPublisher, times(1)).publishEvent(new TokenRevocationEvent("access-id", TEST_EXPIRES_AT, null));
+    }
+
+    @Test
+    void testLogoutWithRefreshToken() throws InvalidTokenException {
+        JwtToken accessToken = token(ACCESS_TYPE_CLAIM, "access-id", TEST_USER);
+        JwtToken refreshToken = token(REFRESH_TYPE_CLAIM, "refresh-id", TEST_USER);
+        when(jwtService.validateAndGetToken(TEST_TOKEN)).thenReturn(refreshToken);
+
+        authenticationService.logout(accessToken, new LogoutRequest(TEST_TOKEN));
+
+        verify(revokedTokenStore, times(1)).revoke("access-id", TEST_EXPIRES_AT);
+        verify(revokedTokenStore, times(1)).revoke("refresh-id", TEST_EXPIRES_AT);
+        verify(refreshTokenStore, times(1)).revoke(TEST_FAMILY_ID, TEST_USER, TEST_EXPIRES_AT);
+    }
+
+    @Test
+    void testLogoutWithOtherUsersRefreshToken() {
+        JwtToken accessToken = token(ACCESS_TYPE_CLAIM, "access-id", TEST_USER);
+        JwtToken refreshToken = token(REFRESH_TYPE_CLAIM, "refresh-id", "other");
+        when(jwtService.validateAndGetToken(TEST_TOKEN)).thenReturn(refreshToken);
+
+        assertThrows(InvalidTokenException.class,
+                () -> authenticationService.logout(accessToken, new LogoutRequest(TEST_TOKEN)));
+
+        verify(revokedTokenStore, never()).revoke(any(), anyLong());
+        verify(refreshTokenStore, never()).revoke(any(), any(), anyLong());
+    }
+
+    @Test
+    void testRevoke() throws InvalidTokenException {
+        JwtToken refreshToken = token(REFRESH_TYPE_CLAIM, "refresh-id", TEST_USER);
+        when(jwtService.validateAndGetToken(TEST_TOKEN)).thenReturn(refreshToken);
+
+        authenticationService.revoke(new TokenRevocationRequest(TEST_TOKEN));
+
+        verify(revokedTokenStore, times(1)).revoke("refresh-id", TEST_EXPIRES_AT);
+        verify(refreshTokenStore, times(1)).revoke(TEST_FAMILY_ID, TEST_USER, TEST_EXPIRES_AT);
+        verify(eventPublisher, times(1))
+                .publishEvent(new TokenRevocationEvent("refresh-id", TEST_EXPIRES_AT, TEST_FAMILY_ID));
+    }
 
-        assertThrows(AccountNotFoundException.class, () -> authenticationService.refreshAuthentication());
+    @Test
+    void testRevokeInvalidToken() {
+        when(jwtService.validateAndGetToken(TEST_TOKEN)).thenThrow(MalformedJwtException.class);
+
+        assertThrows(InvalidTokenException.class,
+                () -> authenticationService.revoke(new TokenRevocationRequest(TEST_TOKEN)));
+
+        verify(revokedTokenStore, never()).revoke(any(), anyLong());
+    }
 
-        verify(accountService, times(1)).getAccountRoles(TEST_USER);
-        verify(jwtService, never()).generateAccessToken(any(), eq(TEST_USER));
+    private static JwtToken token(String type, String id, String username) {
+        return new JwtToken(TEST_TOKEN, Jwts.claims()
+                .id(id)
+                .subject(username)
+                .expiration(new Date(TEST_EXPIRES_AT))
+                .add(type, TYPE_CLAIM_VALUE)
+                .add(FAMILY_CLAIM, TEST_FAMILY_ID)
+                .build());
     }
 }
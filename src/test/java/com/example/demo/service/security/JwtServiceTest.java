@@ -2,9 +2,11 @@ package com.example.demo.service.security;
 
 import com.example.demo.data.model.Role;
 import com.example.demo.data.security.JwtToken;
+import com.example.demo.service.warmup.WarmupContext;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,6 +26,8 @@ public class JwtServiceTest {
     private static final int TOKEN_EXPIRATION = 2000;
     private static final int REFRESH_TOKEN_EXPIRATION = 4000;
     private static final int TEST_EXPIRATION_MARGIN = 500;
+    private static final int RENEWAL_TOKEN_EXPIRATION = 4000;
+    private static final int RENEWAL_WINDOW = 1500;
 
     private static final String TEST_USER = "user";
     private static final Set<Role> TEST_ADMIN_ROLE = Set.of(Role.ADMIN);
@@ -37,7 +41,9 @@ public class JwtServiceTest {
             + "joiYWRtaW4iLCJpYXQiOjE3MzQ2MDU0ODMsImV4cCI6MTczNDYwNTkwM30."
             + "eyJhbGciOiJIUzM4NCJ9";
 
-    private final JwtService jwtService = new JwtService(SECRET_KEY, TOKEN_EXPIRATION, REFRESH_TOKEN_EXPIRATION);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtService jwtService = new JwtService(SECRET_KEY, TOKEN_EXPIRATION, REFRESH_TOKEN_EXPIRATION, 0, 0,
+            new SecurityMetrics(meterRegistry));
 
     @Test
     void testMalformedToken() {
@@ -49,17 +55,43 @@ public class JwtServiceTest {
         assertThrows(SignatureException.class, () -> jwtService.validateAndGetToken(INVALID_SIGNATURE_TOKEN));
     }
 
+    @Test
+    void testMetrics() {
+        String generatedToken = jwtService.generateAccessToken(TEST_USER_CLAIMS, TEST_USER);
+        jwtService.validateAndGetToken(generatedToken);
+        assertThrows(MalformedJwtException.class, () -> jwtService.validateAndGetToken(MALFORMED_TOKEN));
+
+        assertThat(meterRegistry.get("security.jwt.generate").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.jwt.validate").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testWarmupNotRecorded() {
+        WarmupContext.begin();
+        try {
+            jwtService.validateAndGetToken(jwtService.generateAccessToken(TEST_USER_CLAIMS, TEST_USER));
+        } finally {
+            WarmupContext.end();
+        }
+
+        assertThat(meterRegistry.get("security.jwt.generate").timer().count()).isZero();
+        assertThat(meterRegistry.get("security.jwt.validate").timer().count()).isZero();
+    }
+
     @Test
     void testAccessToken() {
         String generatedToken = jwtService.generateAccessToken(TEST_ADMIN_CLAIMS, TEST_USER);
         JwtToken adminToken = jwtService.validateAndGetToken(generatedToken);
         assertThat(adminToken.isAccessToken()).isTrue();
         assertThat(adminToken.isRefreshToken()).isFalse();
+        assertThat(adminToken.id()).isNotBlank();
 
         generatedToken = jwtService.generateAccessToken(TEST_USER_CLAIMS, TEST_USER);
         JwtToken userToken = jwtService.validateAndGetToken(generatedToken);
         assertThat(userToken.isAccessToken()).isTrue();
         assertThat(userToken.isRefreshToken()).isFalse();
+        // every token gets its own id so it can be revoked on its own
+        assertThat(userToken.id()).isNotEqualTo(adminToken.id());
     }
 
     @Test
@@ -98,4 +130,62 @@ public class JwtServiceTest {
         Thread.sleep(REFRESH_TOKEN_EXPIRATION + TEST_EXPIRATION_MARGIN);
         assertThrows(ExpiredJwtException.class, () -> jwtService.validateAndGetToken(generatedToken));
     }
+
+    @Test
+    void testRenewAccessTokenDisabled() {
+        String generatedToken = jwtService.generateAccessToken(TEST_ADMIN_CLAIMS, TEST_USER);
+        JwtToken token = jwtService.validateAndGetToken(generatedToken);
+
+        assertThat(jwtService.renewAccessToken(token, TEST_ADMIN_CLAIMS)).isNull();
+    }
+
+    @Test
+    void testRenewAccessToken() throws InterruptedException {
+        // the expiration claim has a resolution of one second, the window has to be more than a second away
+        JwtService renewingService =
+                new JwtService(SECRET_KEY, RENEWAL_TOKEN_EXPIRATION, REFRESH_TOKEN_EXPIRATION, RENEWAL_WINDOW, 0,
+                        new SecurityMetrics(new SimpleMeterRegistry()));
+        String generatedToken = renewingService.generateAccessToken(TEST_USER_CLAIMS, TEST_USER);
+        JwtToken token = renewingService.validateAndGetToken(generatedToken);
+
+        // outside the renewal window
+        assertThat(renewingService.renewAccessToken(token, TEST_ADMIN_CLAIMS)).isNull();
+
+        Thread.sleep(RENEWAL_TOKEN_EXPIRATION - RENEWAL_WINDOW + TEST_EXPIRATION_MARGIN);
+        String renewedToken = renewingService.renewAccessToken(token, TEST_ADMIN_CLAIMS);
+        assertThat(renewedToken).isNotNull();
+
+        JwtToken renewed = renewingService.validateAndGetToken(renewedToken);
+        assertThat(renewed.isAccessToken()).isTrue();
+        assertThat(renewed.subject()).isEqualTo(TEST_USER);
+        assertThat(renewed.claims().getExpiration()).isAfter(token.claims().getExpiration());
+        assertThat(((List<?>) renewed.claims().get(ROLES_CLAIM)).contains(Role.ADMIN.name())).isTrue();
+    }
+
+    @Test
+    void testRenewRefreshToken() {
+        JwtService renewingService =
+                new JwtService(SECRET_KEY, TOKEN_EXPIRATION, REFRESH_TOKEN_EXPIRATION, REFRESH_TOKEN_EXPIRATION, 0,
+                        new SecurityMetrics(new SimpleMeterRegistry()));
+        String generatedToken = renewingService.generateRefreshToken(TEST_USER_CLAIMS, TEST_USER);
+        JwtToken token = renewingService.validateAndGetToken(generatedToken);
+
+        assertThat(renewingService.renewAccessToken(token, TEST_USER_CLAIMS)).isNull();
+    }
+
+    @Test
+    void testExpirationJitter() {
+        JwtService jitteringService = new JwtService(SECRET_KEY, TOKEN_EXPIRATION, REFRESH_TOKEN_EXPIRATION, 0, 0.5,
+                new SecurityMetrics(new SimpleMeterRegistry()));
+        JwtToken first = jitteringService.validateAndGetToken(
+                jitteringService.generateAccessToken(TEST_USER_CLAIMS, TEST_USER));
+        JwtToken second = jitteringService.validateAndGetToken(
+                jitteringService.generateAccessToken(TEST_USER_CLAIMS, TEST_USER));
+
+        long firstLifetime = first.claims().getExpiration().getTime() - first.claims().getIssuedAt().getTime();
+        long secondLifetime = second.claims().getExpiration().getTime() - second.claims().getIssuedAt().getTime();
+        // the lifetime is only ever shortened and stays the same for a user, up to the second precision of the claims
+        assertThat(firstLifetime).isBetween(TOKEN_EXPIRATION / 2L - 1000, (long) TOKEN_EXPIRATION);
+        assertThat(Math.abs(firstLifetime - secondLifetime)).isLessThanOrEqualTo(1000);
+    }
 }
@@ -0,0 +1,130 @@
+package com.example.demo.service.security;
+
+import com.example.demo.data.repo.RefreshTokenFamilyRepository;
+import com.example.demo.data.security.TokenFamily;
+import com.example.demo.error.InvalidRefreshTokenException;
+import com.example.demo.error.RefreshTokenReuseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenStoreTest {
+
+    private static final String TEST_USER = "user";
+    private static final String TEST_FAMILY_ID = "4d5c3a0e-5b8e-4a36-9bd9-4a1f8b8e5c11";
+    private static final long TEST_EXPIRES_AT = System.currentTimeMillis() + 60000;
+
+    @Mock
+    private RefreshTokenFamilyRepository refreshTokenFamilyRepository;
+
+    @InjectMocks
+    private RefreshTokenStore refreshTokenStore;
+
+    @Test
+    void testCreate() {
+        TokenFamily family = refreshTokenStore.create(TEST_USER, TEST_EXPIRES_AT);
+
+        assertThat(family.generation()).isZero();
+        assertThat(family.revoked()).isFalse();
+        verifyNoInteractions(refreshTokenFamilyRepository);
+    }
+
+    @Test
+    void testRotate() throws InvalidRefreshTokenException {
+        when(refreshTokenFamilyRepository.rotateFamily(TEST_FAMILY_ID, TEST_USER, 1, TEST_EXPIRES_AT))
+                .thenReturn(Optional.of(family(1, false)));
+        when(refreshTokenFamilyRepository.rotateFamily(TEST_FAMILY_ID, TEST_USER, 2, TEST_EXPIRES_AT))
+                .thenReturn(Optional.of(family(2, false)));
+
+        assertThat(refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT).generation()).isEqualTo(1);
+        assertThat(refreshTokenStore.rotate(TEST_FAMILY_ID, 1, TEST_USER, TEST_EXPIRES_AT).generation()).isEqualTo(2);
+    }
+
+    @Test
+    void testRotateRejectedByDatabase() {
+        // another instance has rotated or revoked the family
+        when(refreshTokenFamilyRepository.rotateFamily(TEST_FAMILY_ID, TEST_USER, 3, TEST_EXPIRES_AT))
+                .thenReturn(Optional.empty());
+
+        assertThrows(RefreshTokenReuseException.class,
+                () -> refreshTokenStore.rotate(TEST_FAMILY_ID, 2, TEST_USER, TEST_EXPIRES_AT));
+    }
+
+    @Test
+    void testReuseDetectedInMemory() throws InvalidRefreshTokenException {
+        when(refreshTokenFamilyRepository.rotateFamily(TEST_FAMILY_ID, TEST_USER, 1, TEST_EXPIRES_AT))
+                .thenReturn(Optional.of(family(1, false)));
+        refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT);
+
+        assertThrows(RefreshTokenReuseException.class,
+                () -> refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT));
+        verify(refreshTokenFamilyRepository, times(1)).rotateFamily(any(), any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testRevoke() {
+        refreshTokenStore.revoke(TEST_FAMILY_ID, TEST_USER, TEST_EXPIRES_AT);
+
+        InvalidRefreshTokenException ex = assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT));
+        // an already revoked family is not a new reuse
+        assertThat(ex).isNotInstanceOf(RefreshTokenReuseException.class);
+        verify(refreshTokenFamilyRepository).revokeFamily(TEST_FAMILY_ID, TEST_USER, TEST_EXPIRES_AT);
+        verify(refreshTokenFamilyRepository, never()).rotateFamily(any(), any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testRevokeCached() throws InvalidRefreshTokenException {
+        when(refreshTokenFamilyRepository.rotateFamily(TEST_FAMILY_ID, TEST_USER, 1, TEST_EXPIRES_AT))
+                .thenReturn(Optional.of(family(1, false)));
+        refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT);
+
+        refreshTokenStore.revokeCached(TEST_FAMILY_ID);
+
+        assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenStore.rotate(TEST_FAMILY_ID, 1, TEST_USER, TEST_EXPIRES_AT));
+        verify(refreshTokenFamilyRepository, times(1)).rotateFamily(any(), any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testEvictCached() throws InvalidRefreshTokenException {
+        when(refreshTokenFamilyRepository.rotateFamily(TEST_FAMILY_ID, TEST_USER, 1, TEST_EXPIRES_AT))
+                .thenReturn(Optional.of(family(1, false)), Optional.empty());
+        refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT);
+
+        refreshTokenStore.evictCached();
+
+        // the database decides again
+        assertThrows(RefreshTokenReuseException.class,
+                () -> refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT));
+        verify(refreshTokenFamilyRepository, times(2)).rotateFamily(any(), any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testPurgeExpired() {
+        refreshTokenStore.revoke(TEST_FAMILY_ID, TEST_USER, System.currentTimeMillis() - 1);
+
+        refreshTokenStore.purgeExpired();
+
+        verify(refreshTokenFamilyRepository, times(1)).deleteExpiredFamilies(any());
+        when(refreshTokenFamilyRepository.rotateFamily(TEST_FAMILY_ID, TEST_USER, 1, TEST_EXPIRES_AT))
+                .thenReturn(Optional.empty());
+        // the revoked family is no longer in memory
+        assertThrows(RefreshTokenReuseException.class,
+                () -> refreshTokenStore.rotate(TEST_FAMILY_ID, 0, TEST_USER, TEST_EXPIRES_AT));
+    }
+
+    private static TokenFamily family(int generation, boolean revoked) {
+        return new TokenFamily(TEST_FAMILY_ID, TEST_USER, generation, revoked, TEST_EXPIRES_AT);
+    }
+}
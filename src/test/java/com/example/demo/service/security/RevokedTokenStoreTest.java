@@ -0,0 +1,102 @@
+package com.example.demo.service.security;
+
+import com.example.demo.data.model.RevokedToken;
+import com.example.demo.data.repo.RevokedTokenRepository;
+import com.example.demo.data.security.JwtToken;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RevokedTokenStoreTest {
+
+    private static final String TEST_TOKEN_ID = "4d5c3a0e-5b8e-4a36-9bd9-4a1f8b8e5c11";
+    private static final String TEST_OTHER_TOKEN_ID = "9a7e2f41-0c7d-4b1e-8f3a-6d2c5b4a3e21";
+    private static final long TEST_BUCKET_WIDTH = 1000;
+    private static final long TEST_LIFETIME = 60000;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private RevokedTokenStore revokedTokenStore;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenStore = new RevokedTokenStore(revokedTokenRepository, TEST_BUCKET_WIDTH, 100, 0.01);
+    }
+
+    @Test
+    void testRevoke() {
+        long expiresAt = System.currentTimeMillis() + TEST_LIFETIME;
+        assertThat(revokedTokenStore.isRevoked(token(TEST_TOKEN_ID, expiresAt))).isFalse();
+
+        revokedTokenStore.revoke(TEST_TOKEN_ID, expiresAt);
+
+        assertThat(revokedTokenStore.isRevoked(token(TEST_TOKEN_ID, expiresAt))).isTrue();
+        assertThat(revokedTokenStore.isRevoked(token(TEST_OTHER_TOKEN_ID, expiresAt))).isFalse();
+        verify(revokedTokenRepository, times(1)).insertRevokedToken(TEST_TOKEN_ID, Instant.ofEpochMilli(expiresAt));
+    }
+
+    @Test
+    void testRevokeExpired() {
+        long expiresAt = System.currentTimeMillis() - 1;
+
+        revokedTokenStore.revoke(TEST_TOKEN_ID, expiresAt);
+
+        assertThat(revokedTokenStore.isRevoked(token(TEST_TOKEN_ID, expiresAt))).isFalse();
+        verify(revokedTokenRepository, never()).insertRevokedToken(any(), any());
+    }
+
+    @Test
+    void testTokenWithoutId() {
+        long expiresAt = System.currentTimeMillis() + TEST_LIFETIME;
+
+        revokedTokenStore.revoke(null, expiresAt);
+
+        assertThat(revokedTokenStore.isRevoked(token(null, expiresAt))).isFalse();
+        verify(revokedTokenRepository, never()).insertRevokedToken(any(), any());
+    }
+
+    @Test
+    void testLoad() {
+        long expiresAt = System.currentTimeMillis() + TEST_LIFETIME;
+        when(revokedTokenRepository.findByExpiresAtAfter(any()))
+                .thenReturn(List.of(new RevokedToken(TEST_TOKEN_ID, Instant.ofEpochMilli(expiresAt))));
+
+        revokedTokenStore.load();
+
+        assertThat(revokedTokenStore.isRevoked(token(TEST_TOKEN_ID, expiresAt))).isTrue();
+    }
+
+    @Test
+    void testPurgeExpired() {
+        long expiresAt = System.currentTimeMillis() + TEST_LIFETIME;
+        // loaded directly, a revocation of an already expired token is not accepted
+        long expiredAt = System.currentTimeMillis() - TEST_BUCKET_WIDTH * 2;
+        when(revokedTokenRepository.findByExpiresAtAfter(any()))
+                .thenReturn(List.of(new RevokedToken(TEST_OTHER_TOKEN_ID, Instant.ofEpochMilli(expiredAt))));
+        revokedTokenStore.load();
+        revokedTokenStore.revoke(TEST_TOKEN_ID, expiresAt);
+        assertThat(revokedTokenStore.isRevoked(token(TEST_OTHER_TOKEN_ID, expiredAt))).isTrue();
+
+        revokedTokenStore.purgeExpired();
+
+        assertThat(revokedTokenStore.isRevoked(token(TEST_OTHER_TOKEN_ID, expiredAt))).isFalse();
+        assertThat(revokedTokenStore.isRevoked(token(TEST_TOKEN_ID, expiresAt))).isTrue();
+        verify(revokedTokenRepository, times(1)).deleteExpiredTokens(any());
+    }
+
+    private static JwtToken token(String id, long expiresAt) {
+        return new JwtToken("token", Jwts.claims().id(id).expiration(new Date(expiresAt)).build());
+    }
+}
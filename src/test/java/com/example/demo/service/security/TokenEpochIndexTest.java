@@ -0,0 +1,118 @@
+package com.example.demo.service.security;
+
+import com.example.demo.data.dto.account.AccountEpoch;
+import com.example.demo.data.repo.AccountRepository;
+import com.example.demo.event.TokenEpochEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenEpochIndexTest {
+
+    private static final long TEST_ACCOUNT_ID = 7;
+    private static final String TEST_USER = "user";
+    private static final int TEST_MAXIMUM_SIZE = 10000;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private TokenEpochIndex tokenEpochIndex;
+
+    @BeforeEach
+    void setUp() {
+        tokenEpochIndex = new TokenEpochIndex(accountRepository, TEST_MAXIMUM_SIZE);
+    }
+
+    @Test
+    void testLoadOnMiss() {
+        when(accountRepository.findTokenEpochById(TEST_ACCOUNT_ID)).thenReturn(Optional.of(3));
+
+        assertThat(tokenEpochIndex.current(TEST_ACCOUNT_ID)).isEqualTo(3);
+        assertThat(tokenEpochIndex.current(TEST_ACCOUNT_ID)).isEqualTo(3);
+
+        verify(accountRepository, times(1)).findTokenEpochById(TEST_ACCOUNT_ID);
+    }
+
+    @Test
+    void testMissingAccountRevoked() {
+        when(accountRepository.findTokenEpochById(TEST_ACCOUNT_ID)).thenReturn(Optional.empty());
+
+        assertThat(tokenEpochIndex.current(TEST_ACCOUNT_ID)).isEqualTo(TokenEpochIndex.REVOKED);
+    }
+
+    @Test
+    void testAdvanceKeepsNewest() {
+        assertThat(tokenEpochIndex.get(TEST_ACCOUNT_ID)).isEqualTo(TokenEpochIndex.UNKNOWN);
+
+        assertThat(tokenEpochIndex.advance(TEST_ACCOUNT_ID, 2)).isEqualTo(2);
+        // a load that raced with a change must not move the epoch back
+        assertThat(tokenEpochIndex.advance(TEST_ACCOUNT_ID, 1)).isEqualTo(2);
+        assertThat(tokenEpochIndex.advance(TEST_ACCOUNT_ID, 5)).isEqualTo(5);
+        assertThat(tokenEpochIndex.current(TEST_ACCOUNT_ID)).isEqualTo(5);
+
+        verify(accountRepository, never()).findTokenEpochById(anyLong());
+    }
+
+    @Test
+    void testGrow() {
+        for (long id = 1; id <= 5000; id++) {
+            tokenEpochIndex.advance(id, (int) id % 100);
+        }
+
+        for (long id = 1; id <= 5000; id++) {
+            assertThat(tokenEpochIndex.get(id)).isEqualTo((int) id % 100);
+        }
+        assertThat(tokenEpochIndex.get(5001)).isEqualTo(TokenEpochIndex.UNKNOWN);
+    }
+
+    @Test
+    void testTokenEpochEvent() {
+        tokenEpochIndex.advance(TEST_ACCOUNT_ID, 1);
+
+        tokenEpochIndex.onTokenEpochChange(new TokenEpochEvent(List.of(
+                new AccountEpoch(TEST_ACCOUNT_ID, TEST_USER, 2),
+                new AccountEpoch(TEST_ACCOUNT_ID + 1, TEST_USER, TokenEpochIndex.REVOKED))));
+
+        assertThat(tokenEpochIndex.current(TEST_ACCOUNT_ID)).isEqualTo(2);
+        assertThat(tokenEpochIndex.current(TEST_ACCOUNT_ID + 1)).isEqualTo(TokenEpochIndex.REVOKED);
+    }
+
+    @Test
+    void testMaximumSizeDropsRevoked() {
+        for (long id = 1; id <= TEST_MAXIMUM_SIZE; id++) {
+            tokenEpochIndex.advance(id, id % 2 == 0 ? TokenEpochIndex.REVOKED : 1);
+        }
+
+        tokenEpochIndex.advance(TEST_MAXIMUM_SIZE + 1, 1);
+
+        assertThat(tokenEpochIndex.get(TEST_MAXIMUM_SIZE + 1)).isEqualTo(1);
+        assertThat(tokenEpochIndex.get(1)).isEqualTo(1);
+        assertThat(tokenEpochIndex.get(2)).isEqualTo(TokenEpochIndex.UNKNOWN);
+        // the deleted account is revoked again from the database
+        when(accountRepository.findTokenEpochById(2L)).thenReturn(Optional.empty());
+        assertThat(tokenEpochIndex.current(2)).isEqualTo(TokenEpochIndex.REVOKED);
+    }
+
+    @Test
+    void testMaximumSizeFallsBackToDatabase() {
+        for (long id = 1; id <= TEST_MAXIMUM_SIZE; id++) {
+            tokenEpochIndex.advance(id, 1);
+        }
+        when(accountRepository.findTokenEpochById(TEST_MAXIMUM_SIZE + 1)).thenReturn(Optional.of(3));
+
+        assertThat(tokenEpochIndex.current(TEST_MAXIMUM_SIZE + 1)).isEqualTo(3);
+        assertThat(tokenEpochIndex.current(TEST_MAXIMUM_SIZE + 1)).isEqualTo(3);
+
+        verify(accountRepository, times(2)).findTokenEpochById(TEST_MAXIMUM_SIZE + 1);
+        assertThat(tokenEpochIndex.get(1)).isEqualTo(1);
+    }
+}
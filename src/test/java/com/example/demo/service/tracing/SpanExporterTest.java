@@ -0,0 +1,85 @@
+package com.example.demo.service.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpanExporterTest {
+
+    private static final String TEST_TRACE_PARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Tracer tracer = new Tracer(new SimpleMeterRegistry(), true, 1.0, 64);
+
+    @Test
+    void testExport() throws IOException {
+        SpanExporter exporter = new SpanExporter(tracer, directory, DataSize.ofMegabytes(1), 2, "demo");
+        Span server = tracer.startServerSpan("GET /profile", TEST_TRACE_PARENT);
+        Span sql = tracer.startSpan("SQL SELECT", SpanKind.CLIENT)
+                .attribute("db.statement", "select 1")
+                .attribute("db.operation.batch.size", 2);
+        sql.error(new IllegalStateException());
+        sql.end();
+        server.end();
+
+        exporter.export();
+
+        List<String> lines = Files.readAllLines(exporter.file());
+        assertThat(lines).hasSize(1);
+        JsonNode resourceSpans = objectMapper.readTree(lines.get(0)).get("resourceSpans").get(0);
+        assertThat(resourceSpans.at("/resource/attributes/0/value/stringValue").asText()).isEqualTo("demo");
+        JsonNode spans = resourceSpans.at("/scopeSpans/0/spans");
+        assertThat(spans).hasSize(2);
+
+        JsonNode exportedSql = spans.get(0);
+        assertThat(exportedSql.get("traceId").asText()).isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertThat(exportedSql.get("parentSpanId").asText()).isEqualTo(spans.get(1).get("spanId").asText());
+        assertThat(exportedSql.get("kind").asInt()).isEqualTo(SpanKind.CLIENT.getCode());
+        assertThat(exportedSql.at("/attributes/0/value/stringValue").asText()).isEqualTo("select 1");
+        assertThat(exportedSql.at("/attributes/1/value/intValue").asText()).isEqualTo("2");
+        assertThat(exportedSql.at("/status/code").asInt()).isEqualTo(2);
+        assertThat(Long.parseLong(exportedSql.get("endTimeUnixNano").asText()))
+                .isGreaterThanOrEqualTo(Long.parseLong(exportedSql.get("startTimeUnixNano").asText()));
+        assertThat(spans.get(1).get("parentSpanId").asText()).isEqualTo("00f067aa0ba902b7");
+    }
+
+    @Test
+    void testNothingToExport() {
+        SpanExporter exporter = new SpanExporter(tracer, directory, DataSize.ofMegabytes(1), 2, "demo");
+
+        exporter.export();
+
+        assertThat(Files.exists(exporter.file())).isFalse();
+    }
+
+    @Test
+    void testRollOver() throws IOException, InterruptedException {
+        SpanExporter exporter = new SpanExporter(tracer, directory, DataSize.ofBytes(1), 2, "demo");
+
+        for (int i = 0; i < 4; i++) {
+            tracer.startServerSpan("GET", null).end();
+            exporter.export();
+            // the rolled files are named by the millisecond
+            Thread.sleep(5);
+        }
+
+        // every export exceeds the size and is rolled over, one rolled file is kept to leave room for the current one
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.toList()).hasSize(1);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TracerTest {
+
+    private static final String TEST_TRACE_PARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Tracer tracer = new Tracer(meterRegistry, true, 1.0, 16);
+
+    @Test
+    void testNestedSpans() {
+        Span server = tracer.startServerSpan("GET", TEST_TRACE_PARENT);
+        Span service = tracer.startSpan("AccountService.getProfile", SpanKind.INTERNAL);
+        Span sql = tracer.startSpan("SQL SELECT", SpanKind.CLIENT);
+        sql.end();
+        assertThat(tracer.currentSpan()).isSameAs(service);
+        service.end();
+        server.end();
+        assertThat(tracer.currentSpan().isRecording()).isFalse();
+
+        List<Span> spans = drain();
+        assertThat(spans).containsExactly(sql, service, server);
+        assertThat(server.parentSpanId()).isEqualTo(0x00f067aa0ba902b7L);
+        assertThat(service.parentSpanId()).isEqualTo(server.spanId());
+        assertThat(sql.parentSpanId()).isEqualTo(service.spanId());
+        assertThat(spans).allSatisfy(span -> {
+            assertThat(span.traceIdHigh()).isEqualTo(0x4bf92f3577b34da6L);
+            assertThat(span.endNanos()).isGreaterThanOrEqualTo(span.startNanos());
+        });
+    }
+
+    @Test
+    void testNoSpanOutsideTrace() {
+        Span span = tracer.startSpan("AccountService.getProfile", SpanKind.INTERNAL);
+
+        assertThat(span.isRecording()).isFalse();
+        span.end();
+        assertThat(drain()).isEmpty();
+    }
+
+    @Test
+    void testNotSampled() {
+        Span span = tracer.startServerSpan("GET", TEST_TRACE_PARENT.replaceFirst("-01$", "-00"));
+
+        assertThat(span.isRecording()).isFalse();
+        assertThat(tracer.startSpan("JwtTokenFilter", SpanKind.INTERNAL).isRecording()).isFalse();
+    }
+
+    @Test
+    void testNewTrace() {
+        Span span = tracer.startServerSpan("GET", null);
+        span.end();
+
+        assertThat(span.isRecording()).isTrue();
+        assertThat(span.parentSpanId()).isZero();
+    }
+
+    @Test
+    void testDisabled() {
+        Tracer disabled = new Tracer(meterRegistry, false, 1.0, 16);
+
+        assertThat(disabled.startServerSpan("GET", TEST_TRACE_PARENT).isRecording()).isFalse();
+    }
+
+    @Test
+    void testDroppedSpans() {
+        for (int i = 0; i < 20; i++) {
+            tracer.startServerSpan("GET", null).end();
+        }
+
+        assertThat(meterRegistry.get("tracing.spans.dropped").functionCounter().count()).isEqualTo(4);
+    }
+
+    private List<Span> drain() {
+        List<Span> spans = new ArrayList<>();
+        tracer.drain(spans, 100);
+        return spans;
+    }
+}
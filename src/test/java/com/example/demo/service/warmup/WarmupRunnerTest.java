@@ -0,0 +1,184 @@
+package com.example.demo.service.warmup;
+
+import com.example.demo.data.dto.account.AccountTokenInfo;
+import com.example.demo.data.model.Role;
+import com.example.demo.data.repo.AccountRepository;
+import com.example.demo.error.AccountNotFoundException;
+import com.example.demo.filter.warmup.WarmupRequestFilter;
+import com.example.demo.service.AccountService;
+import com.example.demo.service.DefaultAccountsRunner;
+import com.example.demo.service.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WarmupRunnerTest {
+
+    private static final String TEST_USERNAME = "test";
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private SslBundles sslBundles;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final WarmupRequestFilter warmupRequestFilter = new WarmupRequestFilter();
+
+    @Test
+    void testRun() throws AccountNotFoundException {
+        when(accountService.getAccountTokenInfo(TEST_USERNAME))
+                .thenReturn(new AccountTokenInfo(1L, Set.of(Role.USER), 0));
+        when(jwtService.generateAccessToken(anyMap(), anyString())).thenReturn("access");
+        when(jwtService.generateRefreshToken(anyMap(), anyString())).thenReturn("refresh");
+
+        // a settled share of 0 runs every iteration
+        runner(true, 0).run(null);
+
+        verify(jwtService, times(25)).generateAccessToken(anyMap(), eq(TEST_USERNAME));
+        verify(jwtService, times(25)).validateAndGetToken("access");
+        verify(accountRepository, times(25)).findTokenEpochById(1L);
+        verify(accountRepository, times(25)).findVersionByUsername(TEST_USERNAME);
+        assertThat(registry.get("warmup.iterations").gauge().value()).isEqualTo(25);
+        assertThat(registry.get("warmup.duration").timeGauge().value(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(registry.get("warmup.settled").gauge().value()).isZero();
+        assertThat(registry.get("warmup.requests").gauge().value()).isZero();
+    }
+
+    @Test
+    void testRunRequests() throws AccountNotFoundException, IOException {
+        when(accountService.getAccountTokenInfo(TEST_USERNAME))
+                .thenReturn(new AccountTokenInfo(1L, Set.of(Role.USER), 0));
+        when(jwtService.generateAccessToken(anyMap(), anyString())).thenReturn("access");
+        List<String> warmupHeaders = new CopyOnWriteArrayList<>();
+        HttpServer server = profileServer(warmupHeaders);
+        try {
+            runner(true, 0, server.getAddress().getPort()).run(null);
+        } finally {
+            server.stop(0);
+        }
+
+        // every request is marked with the key of the filter
+        assertThat(warmupHeaders).hasSize(25).containsOnly(warmupRequestFilter.key());
+        assertThat(registry.get("warmup.requests").gauge().value()).isEqualTo(25);
+    }
+
+    @Test
+    void testRunSyntheticWithoutRequests() throws AccountNotFoundException, IOException {
+        when(accountService.getAccountTokenInfo(TEST_USERNAME)).thenThrow(new AccountNotFoundException());
+        List<String> warmupHeaders = new CopyOnWriteArrayList<>();
+        HttpServer server = profileServer(warmupHeaders);
+        try {
+            runner(true, 0, server.getAddress().getPort()).run(null);
+        } finally {
+            server.stop(0);
+        }
+
+        // the filter would reject the synthetic account
+        assertThat(warmupHeaders).isEmpty();
+        assertThat(registry.get("warmup.iterations").gauge().value()).isEqualTo(25);
+    }
+
+    @Test
+    void testRunSettled() throws AccountNotFoundException {
+        when(accountService.getAccountTokenInfo(TEST_USERNAME)).thenThrow(new AccountNotFoundException());
+
+        // any share of the compilation settles once the minimum has run
+        runner(true, Double.MAX_VALUE).run(null);
+
+        assertThat(registry.get("warmup.iterations").gauge().value()).isEqualTo(10);
+        assertThat(registry.get("warmup.settled").gauge().value()).isOne();
+        // the missing account is replaced by a synthetic one
+        verify(accountRepository, never()).findVersionByUsername(TEST_USERNAME);
+    }
+
+    @Test
+    void testRunMarked() throws AccountNotFoundException {
+        when(accountService.getAccountTokenInfo(TEST_USERNAME)).thenThrow(new AccountNotFoundException());
+        List<Boolean> marked = new CopyOnWriteArrayList<>();
+        when(jwtService.generateAccessToken(anyMap(), anyString())).thenAnswer(invocation -> {
+            marked.add(WarmupContext.isActive());
+            return "access";
+        });
+
+        runner(true, 0).run(null);
+
+        // the timers and recordings leave out the work in process, but only while it runs
+        assertThat(marked).hasSize(25).containsOnly(true);
+        assertThat(WarmupContext.isActive()).isFalse();
+    }
+
+    @Test
+    void testRunDisabled() {
+        runner(false, 0).run(null);
+
+        verifyNoInteractions(jwtService, accountService, accountRepository);
+        assertThat(registry.get("warmup.iterations").gauge().value()).isZero();
+    }
+
+    @Test
+    void testOrder() {
+        // the warm-up may use a default account, and an unordered runner must not tie with it
+        assertThat(OrderUtils.getOrder(WarmupRunner.class))
+                .isGreaterThan(OrderUtils.getOrder(DefaultAccountsRunner.class))
+                .isLessThan(Ordered.LOWEST_PRECEDENCE);
+    }
+
+    private WarmupRunner runner(boolean enabled, double settledCompilationShare) {
+        // without a local server port no requests are sent
+        return runner(enabled, settledCompilationShare, new MockEnvironment());
+    }
+
+    private WarmupRunner runner(boolean enabled, double settledCompilationShare, int port) {
+        return runner(enabled, settledCompilationShare,
+                new MockEnvironment().withProperty("local.server.port", Integer.toString(port)));
+    }
+
+    private WarmupRunner runner(boolean enabled, double settledCompilationShare, MockEnvironment environment) {
+        return new WarmupRunner(jwtService, accountService, accountRepository, new ObjectMapper(), environment,
+                new ServerProperties(), sslBundles, warmupRequestFilter, registry, enabled, TEST_USERNAME, true,
+                10, 25, Duration.ofMinutes(1), 5, settledCompilationShare);
+    }
+
+    // Answers the profile requests and collects their warm-up header
+    private static HttpServer profileServer(List<String> warmupHeaders) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/profile", exchange -> {
+            warmupHeaders.add(exchange.getRequestHeaders().getFirst(WarmupRequestFilter.WARMUP_HEADER));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+}
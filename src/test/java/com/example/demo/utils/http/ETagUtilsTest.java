@@ -0,0 +1,44 @@
+package com.example.demo.utils.http;
+
+import com.example.demo.data.dto.account.AccountVersion;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ETagUtilsTest {
+
+    private static final String TEST_ETAG = ETagUtils.eTag(new AccountVersion(1, 2));
+
+    @Test
+    void testETag() {
+        assertThat(TEST_ETAG).isEqualTo("\"1-2\"");
+    }
+
+    @Test
+    void testETagVariant() {
+        String gzipETag = ETagUtils.eTag(new AccountVersion(1, 2), ETagUtils.GZIP_VARIANT);
+
+        assertThat(gzipETag).isEqualTo("\"1-2-gz\"");
+        assertThat(ETagUtils.matches(TEST_ETAG, gzipETag)).isFalse();
+    }
+
+    @Test
+    void testMatches() {
+        assertThat(ETagUtils.matches(TEST_ETAG, TEST_ETAG)).isTrue();
+        assertThat(ETagUtils.matches("\"0-1\", " + TEST_ETAG, TEST_ETAG)).isTrue();
+        assertThat(ETagUtils.matches("*", TEST_ETAG)).isTrue();
+    }
+
+    @Test
+    void testMatchesWeak() {
+        assertThat(ETagUtils.matches("W/" + TEST_ETAG, TEST_ETAG)).isTrue();
+    }
+
+    @Test
+    void testNotMatches() {
+        assertThat(ETagUtils.matches(null, TEST_ETAG)).isFalse();
+        assertThat(ETagUtils.matches("\"1-3\"", TEST_ETAG)).isFalse();
+        // another account at the same version
+        assertThat(ETagUtils.matches("\"2-2\"", TEST_ETAG)).isFalse();
+    }
+}
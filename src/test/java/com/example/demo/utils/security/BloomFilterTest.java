@@ -0,0 +1,41 @@
+package com.example.demo.utils.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BloomFilterTest {
+
+    private static final int TEST_INSERTIONS = 10000;
+    private static final double TEST_FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    void testEmpty() {
+        BloomFilter filter = new BloomFilter(TEST_INSERTIONS, TEST_FALSE_POSITIVE_RATE);
+
+        assertThat(filter.mightContain(UUID.randomUUID().toString())).isFalse();
+    }
+
+    @Test
+    void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(TEST_INSERTIONS, TEST_FALSE_POSITIVE_RATE);
+        IntStream.range(0, TEST_INSERTIONS).forEach(i -> filter.put("token-" + i));
+
+        IntStream.range(0, TEST_INSERTIONS).forEach(i -> assertThat(filter.mightContain("token-" + i)).isTrue());
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(TEST_INSERTIONS, TEST_FALSE_POSITIVE_RATE);
+        IntStream.range(0, TEST_INSERTIONS).forEach(i -> filter.put(UUID.randomUUID().toString()));
+
+        long falsePositives = IntStream.range(0, TEST_INSERTIONS)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+        // twice the configured rate leaves room for the randomness of the ids
+        assertThat(falsePositives).isLessThan((long) (TEST_INSERTIONS * TEST_FALSE_POSITIVE_RATE * 2));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.utils.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JitterUtilsTest {
+
+    private static final long TEST_EXPIRATION = 420000;
+    private static final double TEST_JITTER = 0.1;
+    private static final int TEST_USERS = 10000;
+    private static final long TEST_SIMULATED_TIME = 3600000;
+    private static final long TEST_BUCKET = 1000;
+
+    @Test
+    void testNoJitter() {
+        assertThat(JitterUtils.jitteredExpiration(TEST_EXPIRATION, 0, "user")).isEqualTo(TEST_EXPIRATION);
+        assertThat(JitterUtils.jitteredExpiration(TEST_EXPIRATION, TEST_JITTER, null)).isEqualTo(TEST_EXPIRATION);
+    }
+
+    @Test
+    void testDeterministic() {
+        assertThat(JitterUtils.jitteredExpiration(TEST_EXPIRATION, TEST_JITTER, "user"))
+                .isEqualTo(JitterUtils.jitteredExpiration(TEST_EXPIRATION, TEST_JITTER, "user"));
+    }
+
+    @Test
+    void testOnlyShortens() {
+        IntStream.range(0, TEST_USERS).mapToObj(i -> "user-" + i).forEach(username ->
+                assertThat(JitterUtils.jitteredExpiration(TEST_EXPIRATION, TEST_JITTER, username))
+                        .isBetween((long) (TEST_EXPIRATION * (1 - TEST_JITTER)), TEST_EXPIRATION));
+    }
+
+    @Test
+    void testSpread() {
+        // sequential usernames must still land in every tenth of the jitter range
+        int[] buckets = new int[10];
+        IntStream.range(0, TEST_USERS).forEach(i -> buckets[(int) (JitterUtils.unitHash("user-" + i) * 10)]++);
+
+        for (int bucket : buckets) {
+            assertThat(bucket).isBetween(TEST_USERS / 10 / 2, TEST_USERS / 10 * 2);
+        }
+    }
+
+    @Test
+    void testStampede() {
+        // without jitter a population that logged in together refreshes in the same second, every cycle
+        assertThat(peakRefreshes(0)).isEqualTo(TEST_USERS);
+    }
+
+    @Test
+    void testStampedeSpread() {
+        int peak = peakRefreshes(TEST_JITTER);
+
+        // the first cycle alone spreads the users over the 42 seconds of the jitter range
+        assertThat(peak).isLessThan(TEST_USERS / 20);
+        assertThat(peakRefreshes(TEST_JITTER * 2)).isLessThan(peak);
+    }
+
+    // Peak refreshes per second of users that log in at the same moment and refresh whenever their token expires
+    private static int peakRefreshes(double jitter) {
+        int[] refreshes = new int[(int) (TEST_SIMULATED_TIME / TEST_BUCKET)];
+        for (int i = 0; i < TEST_USERS; i++) {
+            long lifetime = JitterUtils.jitteredExpiration(TEST_EXPIRATION, jitter, "user-" + i);
+            for (long time = lifetime; time < TEST_SIMULATED_TIME; time += lifetime) {
+                refreshes[(int) (time / TEST_BUCKET)]++;
+            }
+        }
+        return IntStream.of(refreshes).max().orElse(0);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.utils.security;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TimedPasswordEncoderTest {
+
+    private static final String TEST_PASSWORD = "password";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Timer encodeTimer = meterRegistry.timer("encode");
+    private final Timer matchesTimer = meterRegistry.timer("matches");
+    private final PasswordEncoder passwordEncoder = new TimedPasswordEncoder(
+            PasswordEncoderFactories.createDelegatingPasswordEncoder(), encodeTimer, matchesTimer);
+
+    @Test
+    void testEncodeAndMatch() {
+        String encoded = passwordEncoder.encode(TEST_PASSWORD);
+
+        assertThat(passwordEncoder.matches(TEST_PASSWORD, encoded)).isTrue();
+        assertThat(passwordEncoder.matches("wrong", encoded)).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(encoded)).isFalse();
+        assertThat(encodeTimer.count()).isEqualTo(1);
+        assertThat(matchesTimer.count()).isEqualTo(2);
+    }
+
+    @Test
+    void testFailedMatchIsTimed() {
+        // an encoding without a known id makes the delegating encoder throw
+        assertThrows(IllegalArgumentException.class,
+                () -> passwordEncoder.matches(TEST_PASSWORD, "{unknown}" + TEST_PASSWORD));
+        assertThat(matchesTimer.count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.utils.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpanRingBufferTest {
+
+    @Test
+    void testDrainInOrder() {
+        SpanRingBuffer<Integer> buffer = new SpanRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained, 3)).isEqualTo(3);
+        assertThat(buffer.drain(drained, 10)).isEqualTo(2);
+        assertThat(buffer.drain(drained, 10)).isZero();
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void testDropWhenFull() {
+        SpanRingBuffer<Integer> buffer = new SpanRingBuffer<>(4);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(-1)).isFalse();
+        assertThat(buffer.dropped()).isEqualTo(1);
+
+        // draining frees the slots again
+        buffer.drain(new ArrayList<>(), 1);
+        assertThat(buffer.offer(4)).isTrue();
+    }
+
+    @Test
+    void testConcurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 10000;
+        SpanRingBuffer<Integer> buffer = new SpanRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int offset = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(offset + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        Set<Integer> drained = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        while (drained.size() < producers * perProducer) {
+            buffer.drain(batch, 256);
+            drained.addAll(batch);
+            batch.clear();
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        assertThat(drained).hasSize(producers * perProducer);
+    }
+}
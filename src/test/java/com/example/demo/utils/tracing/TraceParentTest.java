@@ -0,0 +1,47 @@
+package com.example.demo.utils.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TraceParentTest {
+
+    private static final String TEST_TRACE_PARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    @Test
+    void testParse() {
+        TraceParent traceParent = TraceParent.parse(TEST_TRACE_PARENT);
+
+        assertThat(traceParent).isNotNull();
+        assertThat(traceParent.sampled()).isTrue();
+        assertThat(TraceParent.traceId(traceParent.traceIdHigh(), traceParent.traceIdLow()))
+                .isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertThat(TraceParent.hex(traceParent.spanId())).isEqualTo("00f067aa0ba902b7");
+        assertThat(traceParent.format()).isEqualTo(TEST_TRACE_PARENT);
+    }
+
+    @Test
+    void testNotSampled() {
+        TraceParent traceParent = TraceParent.parse(TEST_TRACE_PARENT.replaceFirst("-01$", "-00"));
+
+        assertThat(traceParent).isNotNull();
+        assertThat(traceParent.sampled()).isFalse();
+    }
+
+    @Test
+    void testFutureVersion() {
+        assertThat(TraceParent.parse("cc" + TEST_TRACE_PARENT.substring(2) + "-what-the-future-brings")).isNotNull();
+    }
+
+    @Test
+    void testInvalid() {
+        assertThat(TraceParent.parse(null)).isNull();
+        assertThat(TraceParent.parse("")).isNull();
+        assertThat(TraceParent.parse(TEST_TRACE_PARENT + "-00")).isNull();
+        assertThat(TraceParent.parse("ff" + TEST_TRACE_PARENT.substring(2))).isNull();
+        assertThat(TraceParent.parse(TEST_TRACE_PARENT.toUpperCase())).isNull();
+        assertThat(TraceParent.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01")).isNull();
+        assertThat(TraceParent.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01")).isNull();
+        assertThat(TraceParent.parse("00_4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01")).isNull();
+    }
+}